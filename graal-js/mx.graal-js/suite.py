@@ -530,7 +530,7 @@ suite = {
     "GRAALJS_SCRIPTENGINE" : {
       "moduleInfo" : {
         "name" : "org.graalvm.js.scriptengine",
-        "requires" : ["java.scripting"],
+        "requires" : ["java.scripting", "java.management"],
         "exports" : [
           "com.oracle.truffle.js.scriptengine",
         ],
@@ -83,6 +83,9 @@ public abstract class AbstractParser {
     /** Type of last token. */
     protected TokenType last;
 
+    /** Type of last token that is not an EOL. */
+    protected TokenType lastNonEOL;
+
     /** Start position of current token. */
     protected int start;
 
@@ -224,6 +227,9 @@ public abstract class AbstractParser {
             if (!comment) {
                 last = type;
                 previousToken = token;
+                if (type != EOL) {
+                    lastNonEOL = type;
+                }
             }
             token = getToken(k);
             type = Token.descType(token);
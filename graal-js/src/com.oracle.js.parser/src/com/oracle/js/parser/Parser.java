@@ -107,8 +107,10 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import org.graalvm.collections.Pair;
@@ -145,6 +147,8 @@ import com.oracle.js.parser.ir.IndexNode;
 import com.oracle.js.parser.ir.JoinPredecessorExpression;
 import com.oracle.js.parser.ir.LabelNode;
 import com.oracle.js.parser.ir.LexicalContext;
+import com.oracle.js.parser.ir.LexicalContextNode;
+import com.oracle.js.parser.ir.LexicalContextScope;
 import com.oracle.js.parser.ir.LiteralNode;
 import com.oracle.js.parser.ir.LiteralNode.ArrayLiteralNode;
 import com.oracle.js.parser.ir.Module;
@@ -184,6 +188,8 @@ public class Parser extends AbstractParser {
     private static final String PRIVATE_CONSTRUCTOR_NAME = "#constructor";
     private static final String PROTO_NAME = "__proto__";
     private static final String NEW_TARGET_NAME = "new.target";
+    private static final String THIS_NAME = "this";
+    private static final String SUPER_NAME = "super";
     private static final String IMPORT_META_NAME = "import.meta";
     private static final String PROTOTYPE_NAME = "prototype";
     /** Function.prototype.apply method name. */
@@ -238,6 +244,9 @@ public class Parser extends AbstractParser {
     /** Parsing eval in a function (i.e. not script or module) context. */
     private static final int PARSE_FUNCTION_CONTEXT_EVAL = 1 << 3;
 
+    /** Minimum source length of a function body that is pre-parsed rather than kept in the IR. */
+    private static final int LAZY_FUNCTION_BODY_MIN_LENGTH = 100;
+
     private static final String MESSAGE_INVALID_LVALUE = "invalid.lvalue";
     private static final String MESSAGE_EXPECTED_STMT = "expected.stmt";
     private static final String MESSAGE_ESCAPED_KEYWORD = "escaped.keyword";
@@ -271,6 +280,18 @@ public class Parser extends AbstractParser {
 
     private RecompilableScriptFunctionData reparsedFunction;
 
+    /** Drop the IR of nested function bodies after checking them, see {@link #parseLazyFunction}. */
+    private boolean lazyFunctionBodies;
+
+    /** Synthetic enclosing function of the function parsed by {@link #parseLazyFunction}. */
+    private ParserContextFunctionNode lazyFunctionParent;
+
+    /**
+     * Pre-parsed functions nested in the function parsed by {@link #parseLazyFunction}, by start
+     * position. Their bodies have already been checked and are skipped without scanning them.
+     */
+    private Map<Integer, FunctionNode> preParsedFunctions;
+
     private boolean isModule;
 
     public static final boolean PROFILE_PARSING = Options.getBooleanProperty("parser.profiling", false);
@@ -356,6 +377,20 @@ public class Parser extends AbstractParser {
         this.reparsedFunction = reparsedFunction;
     }
 
+    /**
+     * Enables pre-parsing of nested function bodies. The bodies of eligible function declarations
+     * and expressions are still parsed completely, so that all early errors are reported and the
+     * scope information of the enclosing code is complete, but their IR is replaced by an empty
+     * body and the names they refer to from enclosing scopes. Such functions are marked as
+     * {@linkplain FunctionNode#isLazy() lazy} and must be parsed again with
+     * {@link #parseLazyFunction} before they are translated.
+     *
+     * @param lazyFunctionBodies whether to pre-parse nested function bodies
+     */
+    public void setLazyFunctionBodies(final boolean lazyFunctionBodies) {
+        this.lazyFunctionBodies = lazyFunctionBodies;
+    }
+
     /**
      * Set up first token. Skips opening EOL.
      */
@@ -372,7 +407,8 @@ public class Parser extends AbstractParser {
      */
     private void prepareLexer(final int startPos, final int len) {
         stream = new TokenStream();
-        lexer = new Lexer(source, startPos, len, stream, scripting, env.ecmaScriptVersion, shebang, isModule, reparsedFunction != null, allowBigInt);
+        final boolean pauseOnFunctionBody = reparsedFunction != null || preParsedFunctions != null;
+        lexer = new Lexer(source, startPos, len, stream, scripting, env.ecmaScriptVersion, shebang, isModule, pauseOnFunctionBody, allowBigInt);
         lexer.line = lexer.pendingLine = lineOffset + 1;
         line = lineOffset;
     }
@@ -429,6 +465,61 @@ public class Parser extends AbstractParser {
         }
     }
 
+    /**
+     * Parses a function whose body was skipped by the pre-parser (see
+     * {@link #setLazyFunctionBodies}). The parser has to be created for the source of the function
+     * with a line offset of the function's line number minus one. If lazy function bodies are
+     * enabled, the bodies of nested functions that were pre-parsed together with this function are
+     * skipped without scanning them again, so that each function body is checked only once before
+     * it is parsed for translation.
+     *
+     * @param lazyFunction the pre-parsed function node
+     * @return the function node with the parsed body
+     */
+    public FunctionNode parseLazyFunction(final FunctionNode lazyFunction) {
+        assert lazyFunction.isLazy() && !lazyFunction.isArrow() && !lazyFunction.isMethod();
+        final boolean oldStrictMode = isStrictMode;
+        try {
+            if (lazyFunctionBodies && !lazyFunction.getLazyNestedFunctions().isEmpty()) {
+                preParsedFunctions = new HashMap<>();
+                for (FunctionNode nested : lazyFunction.getLazyNestedFunctions()) {
+                    preParsedFunctions.put(nested.getStart(), nested);
+                }
+            }
+            final int functionStart = lazyFunction.getStart();
+            prepareLexer(functionStart, source.getLength() - functionStart);
+
+            scanFirstToken();
+
+            isStrictMode = lazyFunction.isStrict();
+            // The function is parsed in a synthetic parent function whose current scope is the
+            // original parent scope, so that the scope chain matches the one of the first parse.
+            final ParserContextFunctionNode parent = createParserContextFunctionNode(null, lazyFunction.getFirstToken(), 0, line, Collections.<IdentNode> emptyList(), 0);
+            lc.push(parent);
+            final ParserContextBlockNode parentBlock = newBlock(lazyFunction.getLazyParentScope());
+            lazyFunctionParent = parent;
+            functionDeclarations = new ArrayList<>();
+            try {
+                final boolean isStatement = lazyFunction.isStatement();
+                final Expression function = lazyFunction.isAsync() ? asyncFunctionExpression(isStatement, true) : functionExpression(isStatement, true);
+                return (FunctionNode) function;
+            } finally {
+                functionDeclarations = null;
+                lazyFunctionParent = null;
+                // the parent scope belongs to the enclosing function, so we must not close it.
+                lc.pop(parentBlock);
+                lc.pop(parent);
+            }
+        } catch (final Exception e) {
+            handleParseException(e);
+
+            return null;
+        } finally {
+            isStrictMode = oldStrictMode;
+            preParsedFunctions = null;
+        }
+    }
+
     /**
      * Parse and return the resulting module. Errors will be thrown and the error manager will
      * contain information if parsing should fail
@@ -4726,16 +4817,17 @@ public class Parser extends AbstractParser {
     private Expression asyncFunctionExpression(final boolean isStatement, final boolean topLevel) {
         assert isAsync() && lookaheadIsAsyncFunction();
         long asyncToken = token;
+        final boolean parenthesized = lastNonEOL == LPAREN;
         nextOrEOL();
-        return functionExpression(isStatement, topLevel, true, Token.recast(asyncToken, FUNCTION), false);
+        return functionExpression(isStatement, topLevel, true, Token.recast(asyncToken, FUNCTION), false, parenthesized);
     }
 
     private Expression functionExpression(final boolean isStatement, final boolean topLevel) {
-        return functionExpression(isStatement, topLevel, false, token, false);
+        return functionExpression(isStatement, topLevel, false, token, false, lastNonEOL == LPAREN);
     }
 
     private Expression functionExpression(final boolean isStatement, final boolean topLevel, final boolean expressionStatement) {
-        return functionExpression(isStatement, topLevel, false, token, expressionStatement);
+        return functionExpression(isStatement, topLevel, false, token, expressionStatement, lastNonEOL == LPAREN);
     }
 
     /**
@@ -4751,10 +4843,12 @@ public class Parser extends AbstractParser {
      *
      *
      * @param isStatement true if parsing in a statement context.
+     * @param parenthesized true if the function is preceded by a left parenthesis.
      *
      * @return Expression node.
      */
-    private Expression functionExpression(final boolean isStatement, final boolean topLevel, final boolean async, final long functionToken, final boolean expressionStatement) {
+    private Expression functionExpression(final boolean isStatement, final boolean topLevel, final boolean async, final long functionToken, final boolean expressionStatement,
+                    final boolean parenthesized) {
         final int functionLine = line;
         // FUNCTION is tested in caller.
         assert type == FUNCTION;
@@ -4799,6 +4893,7 @@ public class Parser extends AbstractParser {
         }
         lc.push(functionNode);
 
+        final FunctionNode preParsed = preParsedFunctions == null ? null : preParsedFunctions.get(Token.descPosition(functionToken));
         Block functionBody;
         // Hide the current default name across function boundaries.
         // E.g. "x3 = function x1() { function() {}}"
@@ -4813,7 +4908,7 @@ public class Parser extends AbstractParser {
                 formalParameterList(generator, async);
                 expect(RPAREN);
 
-                functionBody = functionBody(functionNode);
+                functionBody = functionBody(functionNode, preParsed);
             } finally {
                 restoreBlock(parameterBlock);
             }
@@ -4840,13 +4935,23 @@ public class Parser extends AbstractParser {
 
         verifyParameterList(functionNode);
 
-        final FunctionNode function = createFunctionNode(
+        FunctionNode function = createFunctionNode(
                         functionNode,
                         functionToken,
                         name,
                         functionLine,
                         functionBody);
 
+        final boolean lazyReparse = lazyFunctionParent != null && lc.getCurrentFunction() == lazyFunctionParent;
+        if (lazyReparse) {
+            // the function has already been declared in the enclosing scope by the first parse.
+            return function;
+        } else if (preParsed != null) {
+            function = setLazyFunctionBody(function, preParsed.getLazyFreeNames(), preParsed.getLazyNestedFunctions());
+        } else if (canSkipFunctionBody(function, parenthesized)) {
+            function = skipFunctionBody(function);
+        }
+
         if (isStatement) {
             if (isAnonymous) {
                 appendStatement(new ExpressionStatement(functionLine, functionToken, finish, function));
@@ -4869,6 +4974,127 @@ public class Parser extends AbstractParser {
         return function;
     }
 
+    /**
+     * Returns true if the body of a just parsed function can be dropped from the IR and parsed
+     * again on demand. Methods, arrow functions and functions in classes are not considered, and
+     * neither are small functions and functions that are likely to be called immediately, i.e.,
+     * that are followed or, like {@code (function() {...})()}, preceded by a left parenthesis.
+     */
+    private boolean canSkipFunctionBody(final FunctionNode function, final boolean parenthesized) {
+        return lazyFunctionBodies && reparsedFunction == null && !isModule && !env.syntaxExtensions &&
+                        !parenthesized && type != LPAREN && lc.getCurrentClass() == null &&
+                        function.getFinish() - function.getStart() >= LAZY_FUNCTION_BODY_MIN_LENGTH;
+    }
+
+    /**
+     * Replaces the body of a function with an empty body and records the names the body uses from
+     * enclosing scopes, so that the function can be translated lazily.
+     */
+    private FunctionNode skipFunctionBody(final FunctionNode function) {
+        return setLazyFunctionBody(function, collectFreeNames(function), collectLazyFunctions(function));
+    }
+
+    private FunctionNode setLazyFunctionBody(final FunctionNode function, final List<String> freeNames, final List<FunctionNode> nestedFunctions) {
+        final Block varBlock = function.getVarDeclarationBlock();
+        final Scope parentScope = lc.getCurrentScope();
+        final Block emptyBody = new Block(varBlock.getToken(), varBlock.getFinish(), Block.IS_BODY, Scope.createFunctionBody(parentScope, function.getFlags()));
+        final FunctionNode lazyFunction = function.setBody(null, emptyBody);
+        lazyFunction.setLazy(parentScope, freeNames, nestedFunctions);
+        return lazyFunction;
+    }
+
+    /**
+     * Collects the pre-parsed functions in the body of a function, not including the ones nested
+     * in other pre-parsed functions.
+     */
+    private static List<FunctionNode> collectLazyFunctions(final FunctionNode function) {
+        final List<FunctionNode> lazyFunctions = new ArrayList<>();
+        function.getBody().accept(new NodeVisitor<LexicalContext>(new LexicalContext()) {
+            @Override
+            public boolean enterFunctionNode(final FunctionNode functionNode) {
+                if (functionNode.isLazy()) {
+                    lazyFunctions.add(functionNode);
+                    return false;
+                }
+                return true;
+            }
+        });
+        return optimizeList(lazyFunctions);
+    }
+
+    /**
+     * Collects the names used in a function (including nested functions) that are not bound inside
+     * the function, applying the same resolution rules as the translator.
+     */
+    private static List<String> collectFreeNames(final FunctionNode function) {
+        final Set<String> freeNames = new LinkedHashSet<>();
+        function.accept(new NodeVisitor<LexicalContext>(new LexicalContext()) {
+            @Override
+            public boolean enterIdentNode(final IdentNode identNode) {
+                if (!identNode.isPropertyName()) {
+                    resolve(identNode.getName());
+                }
+                return true;
+            }
+
+            @Override
+            public boolean enterAccessNode(final AccessNode accessNode) {
+                if (accessNode.isPrivate()) {
+                    resolve(accessNode.getPrivateName());
+                }
+                return true;
+            }
+
+            @Override
+            public boolean enterFunctionNode(final FunctionNode functionNode) {
+                if (functionNode != function && functionNode.isLazy()) {
+                    for (String name : functionNode.getLazyFreeNames()) {
+                        resolve(name);
+                    }
+                }
+                return true;
+            }
+
+            private void resolve(final String name) {
+                if (freeNames.contains(name)) {
+                    return;
+                }
+                for (final Iterator<LexicalContextNode> iterator = lc.getAllNodes(); iterator.hasNext();) {
+                    final LexicalContextNode node = iterator.next();
+                    if (node instanceof LexicalContextScope) {
+                        final Symbol symbol = ((LexicalContextScope) node).getScope().getExistingSymbol(name);
+                        if (symbol != null && !symbol.isGlobal()) {
+                            return;
+                        }
+                    } else if (node instanceof FunctionNode) {
+                        final FunctionNode enclosingFunction = (FunctionNode) node;
+                        if (enclosingFunction.isNamedFunctionExpression() && name.equals(enclosingFunction.getIdent().getName())) {
+                            return;
+                        } else if (enclosingFunction.isArrow() ? isLexicallyScopedInArrowFunction(name) : name.equals(ARGUMENTS_NAME)) {
+                            return;
+                        } else if (enclosingFunction == function) {
+                            break;
+                        }
+                    }
+                }
+                freeNames.add(name);
+            }
+        });
+        return new ArrayList<>(freeNames);
+    }
+
+    private static boolean isLexicallyScopedInArrowFunction(final String name) {
+        switch (name) {
+            case ARGUMENTS_NAME:
+            case NEW_TARGET_NAME:
+            case SUPER_NAME:
+            case THIS_NAME:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private static Block wrapParameterBlock(ParserContextBlockNode parameterBlock, Block functionBody) {
         assert parameterBlock.getFlag(Block.IS_PARAMETER_BLOCK) != 0 && functionBody.isFunctionBody();
         if (parameterBlock.getStatements().isEmpty()) {
@@ -5126,6 +5352,15 @@ public class Parser extends AbstractParser {
      * @return function node (body.)
      */
     private Block functionBody(final ParserContextFunctionNode functionNode) {
+        return functionBody(functionNode, null);
+    }
+
+    /**
+     * Parse function body, or skip it if the function has already been pre-parsed.
+     *
+     * @param preParsed the function node of the first parse if the body is to be skipped, or null
+     */
+    private Block functionBody(final ParserContextFunctionNode functionNode, final FunctionNode preParsed) {
         final long bodyToken = token;
         final int bodyFinish;
         final boolean parseBody;
@@ -5162,7 +5397,12 @@ public class Parser extends AbstractParser {
                 bodyFinish = finish;
             } else {
                 expectDontAdvance(LBRACE);
-                if (parseBody || !skipFunctionBody(functionNode)) {
+                if (preParsed != null) {
+                    // The body has been checked when the enclosing function was pre-parsed.
+                    endParserState = preParsed.getEndParserState();
+                    skipFunctionBody((ParserState) endParserState);
+                    restorePreParsedFlags(functionNode, preParsed);
+                } else if (parseBody || !skipFunctionBody(functionNode)) {
                     next();
                     // Gather the function elements.
                     final List<Statement> prevFunctionDecls = functionDeclarations;
@@ -5258,7 +5498,14 @@ public class Parser extends AbstractParser {
              */
             return false;
         }
-        final ParserState parserState = (ParserState) data.getEndParserState();
+        skipFunctionBody((ParserState) data.getEndParserState());
+        return true;
+    }
+
+    /**
+     * Skips to the RBRACE of a function body whose end state has been recorded by a previous parse.
+     */
+    private void skipFunctionBody(final ParserState parserState) {
         assert parserState != null;
 
         if (k < stream.last() && start < parserState.position && parserState.position <= Token.descPosition(stream.get(stream.last()))) {
@@ -5270,7 +5517,7 @@ public class Parser extends AbstractParser {
                     type = Token.descType(token);
                     next();
                     assert type == RBRACE && start == parserState.position;
-                    return true;
+                    return;
                 }
             }
         }
@@ -5283,8 +5530,23 @@ public class Parser extends AbstractParser {
         // the RBRACE.
         type = SEMICOLON;
         scanFirstToken();
+    }
 
-        return true;
+    /**
+     * Restores the flags that the skipped body of a pre-parsed function set during the first parse,
+     * including the nested eval flags of the enclosing functions.
+     */
+    private void restorePreParsedFlags(final ParserContextFunctionNode functionNode, final FunctionNode preParsed) {
+        functionNode.setFlag(preParsed.getFlags());
+        if (preParsed.hasEval() || preParsed.hasNestedEval()) {
+            final Iterator<ParserContextFunctionNode> iter = lc.getFunctions();
+            while (iter.hasNext()) {
+                final ParserContextFunctionNode fn = iter.next();
+                if (fn != functionNode) {
+                    fn.setFlag(FunctionNode.HAS_NESTED_EVAL | FunctionNode.HAS_SCOPE_BLOCK);
+                }
+            }
+        }
     }
 
     /**
@@ -42,9 +42,11 @@
 package com.oracle.js.parser.ir;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import com.oracle.js.parser.Source;
 import com.oracle.js.parser.Token;
@@ -102,6 +104,18 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
 
     private boolean usesAncestorScope;
 
+    /** Enclosing scope of a function whose body was skipped by the pre-parser, otherwise null. */
+    private Scope lazyParentScope;
+
+    /** Names used in the skipped body that are not bound inside the function. */
+    private List<String> lazyFreeNames;
+
+    /** Pre-parsed functions in the skipped body, whose bodies need not be checked again. */
+    private List<FunctionNode> lazyNestedFunctions;
+
+    /** Free names of the skipped body that resolve to bindings of enclosing functions. */
+    private Set<String> lazyAncestorScopeNames;
+
     /** Is anonymous function flag. */
     public static final int IS_ANONYMOUS = 1 << 0;
 
@@ -316,6 +330,10 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         this.numOfParams = functionNode.numOfParams;
         this.module = functionNode.module;
         this.internalName = functionNode.internalName;
+        this.lazyParentScope = functionNode.lazyParentScope;
+        this.lazyFreeNames = functionNode.lazyFreeNames;
+        this.lazyNestedFunctions = functionNode.lazyNestedFunctions;
+        this.lazyAncestorScopeNames = functionNode.lazyAncestorScopeNames;
     }
 
     @Override
@@ -756,6 +774,61 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         this.usesAncestorScope = usesAncestorScope;
     }
 
+    /**
+     * Returns true if the body of this function has only been pre-parsed, i.e., checked for early
+     * errors and scanned for free names, and needs to be parsed again before it can be translated.
+     */
+    public boolean isLazy() {
+        return lazyParentScope != null;
+    }
+
+    /**
+     * Marks this function as pre-parsed.
+     *
+     * @param parentScope the scope enclosing the function
+     * @param freeNames names used in the skipped body that are not bound inside the function
+     * @param nestedFunctions pre-parsed functions in the skipped body
+     */
+    public void setLazy(Scope parentScope, List<String> freeNames, List<FunctionNode> nestedFunctions) {
+        this.lazyParentScope = Objects.requireNonNull(parentScope);
+        this.lazyFreeNames = freeNames;
+        this.lazyNestedFunctions = nestedFunctions;
+    }
+
+    public Scope getLazyParentScope() {
+        return lazyParentScope;
+    }
+
+    public List<String> getLazyFreeNames() {
+        assert isLazy();
+        return lazyFreeNames;
+    }
+
+    /**
+     * Returns the pre-parsed functions in the skipped body. When the body is parsed again, their
+     * bodies are skipped using the recorded {@linkplain #getEndParserState() end state} instead of
+     * being checked again.
+     */
+    public List<FunctionNode> getLazyNestedFunctions() {
+        assert isLazy();
+        return lazyNestedFunctions;
+    }
+
+    /**
+     * Records that a free name of the skipped body resolves to a binding of an enclosing function.
+     */
+    public void addLazyAncestorScopeName(String name) {
+        assert isLazy();
+        if (lazyAncestorScopeNames == null) {
+            lazyAncestorScopeNames = new HashSet<>();
+        }
+        lazyAncestorScopeNames.add(name);
+    }
+
+    public boolean isLazyAncestorScopeName(String name) {
+        return lazyAncestorScopeNames != null && lazyAncestorScopeNames.contains(name);
+    }
+
     public boolean isNormal() {
         return !getFlag(IS_SCRIPT | IS_MODULE | IS_GETTER | IS_SETTER | IS_METHOD | IS_ARROW | IS_GENERATOR | IS_ASYNC);
     }
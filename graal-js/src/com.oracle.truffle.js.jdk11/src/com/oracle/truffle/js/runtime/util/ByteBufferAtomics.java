@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Lock-free atomic accesses to native-order int and long values of a direct {@link ByteBuffer}.
+ * Callers have to ensure that the accessed byte index is naturally aligned (see
+ * {@link #alignmentOffset}).
+ */
+public final class ByteBufferAtomics {
+    private static final VarHandle INT32 = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT64 = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private ByteBufferAtomics() {
+    }
+
+    public static boolean isSupported(ByteBuffer buffer) {
+        return buffer.isDirect() && !buffer.isReadOnly();
+    }
+
+    public static int alignmentOffset(ByteBuffer buffer, int byteIndex, int unitSize) {
+        return buffer.alignmentOffset(byteIndex, unitSize);
+    }
+
+    public static int getInt32Volatile(ByteBuffer buffer, int byteIndex) {
+        return (int) INT32.getVolatile(buffer, byteIndex);
+    }
+
+    public static void putInt32Volatile(ByteBuffer buffer, int byteIndex, int value) {
+        INT32.setVolatile(buffer, byteIndex, value);
+    }
+
+    public static int compareAndExchangeInt32(ByteBuffer buffer, int byteIndex, int expected, int replacement) {
+        return (int) INT32.compareAndExchange(buffer, byteIndex, expected, replacement);
+    }
+
+    public static long getInt64Volatile(ByteBuffer buffer, int byteIndex) {
+        return (long) INT64.getVolatile(buffer, byteIndex);
+    }
+
+    public static void putInt64Volatile(ByteBuffer buffer, int byteIndex, long value) {
+        INT64.setVolatile(buffer, byteIndex, value);
+    }
+
+    public static long compareAndExchangeInt64(ByteBuffer buffer, int byteIndex, long expected, long replacement) {
+        return (long) INT64.compareAndExchange(buffer, byteIndex, expected, replacement);
+    }
+}
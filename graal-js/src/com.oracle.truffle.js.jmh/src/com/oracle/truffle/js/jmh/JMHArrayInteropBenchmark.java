@@ -40,13 +40,18 @@
  */
 package com.oracle.truffle.js.jmh;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -76,6 +81,49 @@ public class JMHArrayInteropBenchmark {
         }
     }
 
+    /**
+     * A Java {@code int[]} or {@code List<Integer>} passed to scripts as a foreign array.
+     */
+    @State(Scope.Thread)
+    public static class ForeignArrayState {
+        @Param({"int[]", "List"}) String kind;
+
+        Context context;
+        Value map;
+        Value forEach;
+        Value filter;
+        Value reduce;
+        Value join;
+        Value indexOf;
+        Value arrayFrom;
+        Value spread;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.newBuilder("js").allowHostAccess(HostAccess.ALL).build();
+            int[] array = new int[MyState.ARRAY_SIZE];
+            List<Integer> list = new ArrayList<>(MyState.ARRAY_SIZE);
+            for (int i = 0; i < MyState.ARRAY_SIZE; i++) {
+                array[i] = i;
+                list.add(i);
+            }
+            context.getBindings("js").putMember("foreign", "List".equals(kind) ? list : array);
+            map = context.eval("js", "() => Array.prototype.map.call(foreign, (x) => x + 1)");
+            forEach = context.eval("js", "() => { var sum = 0; Array.prototype.forEach.call(foreign, (x) => { sum += x; }); return sum; }");
+            filter = context.eval("js", "() => Array.prototype.filter.call(foreign, (x) => (x & 1) === 0)");
+            reduce = context.eval("js", "() => Array.prototype.reduce.call(foreign, (a, x) => a + x, 0)");
+            join = context.eval("js", "() => Array.prototype.join.call(foreign, ',')");
+            indexOf = context.eval("js", "() => Array.prototype.indexOf.call(foreign, " + (MyState.ARRAY_SIZE - 1) + ")");
+            arrayFrom = context.eval("js", "() => Array.from(foreign)");
+            spread = context.eval("js", "() => [...foreign]");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            context.close();
+        }
+    }
+
     @Benchmark
     public Value testPopulateJSArrayFromJava(MyState state) {
         Value array = state.context.eval(state.preSizedArraySource);
@@ -84,4 +132,44 @@ public class JMHArrayInteropBenchmark {
         }
         return array;
     }
+
+    @Benchmark
+    public Value testForeignMap(ForeignArrayState state) {
+        return state.map.execute();
+    }
+
+    @Benchmark
+    public Value testForeignForEach(ForeignArrayState state) {
+        return state.forEach.execute();
+    }
+
+    @Benchmark
+    public Value testForeignFilter(ForeignArrayState state) {
+        return state.filter.execute();
+    }
+
+    @Benchmark
+    public Value testForeignReduce(ForeignArrayState state) {
+        return state.reduce.execute();
+    }
+
+    @Benchmark
+    public Value testForeignJoin(ForeignArrayState state) {
+        return state.join.execute();
+    }
+
+    @Benchmark
+    public Value testForeignIndexOf(ForeignArrayState state) {
+        return state.indexOf.execute();
+    }
+
+    @Benchmark
+    public Value testForeignArrayFrom(ForeignArrayState state) {
+        return state.arrayFrom.execute();
+    }
+
+    @Benchmark
+    public Value testForeignSpread(ForeignArrayState state) {
+        return state.spread.execute();
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorts copies of int and double arrays and typed arrays. The {@code Generic} variants sort a copy
+ * that is an object array, so they measure the generic path that boxes the elements.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHArraySortBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        protected static final int LENGTH = 1000000;
+
+        Context context;
+        Value ints;
+        Value doubles;
+        Value float64s;
+        Value sortDefault;
+        Value sortSubtract;
+        Value sortGeneric;
+        Value sortTypedDefault;
+        Value sortTypedSubtract;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.create("js");
+            context.eval("js", "var seed = 42; function random() { seed = (seed * 1103515245 + 12345) % 2147483648; return seed; }");
+            ints = context.eval("js", "var a = []; for (var i = 0; i < " + LENGTH + "; i++) { a.push(random() % 1000000); } a");
+            doubles = context.eval("js", "var a = []; for (var i = 0; i < " + LENGTH + "; i++) { a.push(random() / 1024); } a");
+            float64s = context.eval("js", "var a = new Float64Array(" + LENGTH + "); for (var i = 0; i < a.length; i++) { a[i] = random() / 1024; } a");
+            sortDefault = context.eval("js", "(a) => a.slice().sort()");
+            sortSubtract = context.eval("js", "(a) => a.slice().sort((x, y) => x - y)");
+            sortGeneric = context.eval("js", "(a) => { var c = Array.prototype.slice.call(a); c.push('x'); c.pop(); return c.sort((x, y) => x - y); }");
+            sortTypedDefault = context.eval("js", "(a) => a.slice().sort()");
+            sortTypedSubtract = context.eval("js", "(a) => a.slice().sort((x, y) => x - y)");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Value testIntArrayDefault(MyState state) {
+        return state.sortDefault.execute(state.ints);
+    }
+
+    @Benchmark
+    public Value testIntArraySubtract(MyState state) {
+        return state.sortSubtract.execute(state.ints);
+    }
+
+    @Benchmark
+    public Value testIntArrayGeneric(MyState state) {
+        return state.sortGeneric.execute(state.ints);
+    }
+
+    @Benchmark
+    public Value testDoubleArraySubtract(MyState state) {
+        return state.sortSubtract.execute(state.doubles);
+    }
+
+    @Benchmark
+    public Value testDoubleArrayGeneric(MyState state) {
+        return state.sortGeneric.execute(state.doubles);
+    }
+
+    @Benchmark
+    public Value testFloat64ArrayDefault(MyState state) {
+        return state.sortTypedDefault.execute(state.float64s);
+    }
+
+    @Benchmark
+    public Value testFloat64ArraySubtract(MyState state) {
+        return state.sortTypedSubtract.execute(state.float64s);
+    }
+
+    @Benchmark
+    public Value testFloat64ArrayGeneric(MyState state) {
+        return state.sortGeneric.execute(state.float64s);
+    }
+}
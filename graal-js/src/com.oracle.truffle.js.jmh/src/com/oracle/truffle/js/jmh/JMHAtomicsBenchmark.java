@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Atomics read-modify-write operations on a single SharedArrayBuffer that is hammered by
+ * an increasing number of agents (test262 agents, i.e., one thread and context per agent).
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHAtomicsBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        protected static final int ITERATIONS_PER_AGENT = 100000;
+        protected static final int MODE_ADD = 0;
+        protected static final int MODE_COMPARE_EXCHANGE = 1;
+        protected static final int MODE_ADD_INT8 = 2;
+
+        @Param({"1", "2", "4", "8", "16"}) int agents;
+
+        Context context;
+        Value sab;
+        Value runAgents;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.newBuilder("js").allowExperimentalOptions(true).option("js.test262-mode", "true").build();
+            String agentSource = "$262.agent.receiveBroadcast(function(sab) {\n" +
+                            "  const ia = new Int32Array(sab);\n" +
+                            "  const ba = new Int8Array(sab);\n" +
+                            "  const mode = Atomics.load(ia, 1);\n" +
+                            "  for (let i = 0; i < " + ITERATIONS_PER_AGENT + "; i++) {\n" +
+                            "    if (mode === " + MODE_ADD + ") {\n" +
+                            "      Atomics.add(ia, 0, 1);\n" +
+                            "    } else if (mode === " + MODE_COMPARE_EXCHANGE + ") {\n" +
+                            "      let v;\n" +
+                            "      do {\n" +
+                            "        v = Atomics.load(ia, 2);\n" +
+                            "      } while (Atomics.compareExchange(ia, 2, v, (v + 1) & 1023) !== v);\n" +
+                            "    } else {\n" +
+                            "      Atomics.add(ba, 13, 1);\n" +
+                            "    }\n" +
+                            "  }\n" +
+                            "  $262.agent.report('done');\n" +
+                            "});";
+            Value start = context.eval("js", "(function(source, n) { for (let i = 0; i < n; i++) { $262.agent.start(source); } })");
+            start.execute(agentSource, agents);
+            sab = context.eval("js", "new SharedArrayBuffer(64)");
+            runAgents = context.eval("js", "(function(sab, n, mode) {\n" +
+                            "  const ia = new Int32Array(sab);\n" +
+                            "  Atomics.store(ia, 1, mode);\n" +
+                            "  $262.agent.broadcast(sab);\n" +
+                            "  let done = 0;\n" +
+                            "  while (done < n) {\n" +
+                            "    if ($262.agent.getReport() !== null) {\n" +
+                            "      done++;\n" +
+                            "    }\n" +
+                            "  }\n" +
+                            "  return Atomics.load(ia, 0);\n" +
+                            "})");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Value testAtomicsAddSharedCounter(MyState state) {
+        return state.runAgents.execute(state.sab, state.agents, MyState.MODE_ADD);
+    }
+
+    @Benchmark
+    public Value testAtomicsCompareExchangeRingIndex(MyState state) {
+        return state.runAgents.execute(state.sab, state.agents, MyState.MODE_COMPARE_EXCHANGE);
+    }
+
+    @Benchmark
+    public Value testAtomicsAddSubWordCounter(MyState state) {
+        return state.runAgents.execute(state.sab, state.agents, MyState.MODE_ADD_INT8);
+    }
+}
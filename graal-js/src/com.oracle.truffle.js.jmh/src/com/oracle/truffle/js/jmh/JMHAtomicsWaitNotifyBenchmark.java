@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the wake-up latency of Atomics.wait/Atomics.notify: every agent parks on its own index
+ * of a single SharedArrayBuffer and answers each notification of the main agent with a
+ * notification on a neighbouring index.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JMHAtomicsWaitNotifyBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        @Param({"1", "2", "4", "8", "16"}) int agents;
+
+        Context context;
+        Value sab;
+        Value pingAll;
+        Value stopAll;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.newBuilder("js").allowExperimentalOptions(true).option("js.test262-mode", "true").build();
+            String agentSource = "$262.agent.receiveBroadcast(function(sab) {\n" +
+                            "  const ia = new Int32Array(sab);\n" +
+                            "  const id = Atomics.add(ia, 0, 1);\n" +
+                            "  const request = 2 + 2 * id;\n" +
+                            "  const response = request + 1;\n" +
+                            "  while (true) {\n" +
+                            "    while (Atomics.load(ia, request) === 0) {\n" +
+                            "      Atomics.wait(ia, request, 0);\n" +
+                            "    }\n" +
+                            "    Atomics.store(ia, request, 0);\n" +
+                            "    if (Atomics.load(ia, 1) !== 0) {\n" +
+                            "      break;\n" +
+                            "    }\n" +
+                            "    Atomics.store(ia, response, 1);\n" +
+                            "    Atomics.notify(ia, response, 1);\n" +
+                            "  }\n" +
+                            "  $262.agent.leaving();\n" +
+                            "});";
+            Value start = context.eval("js", "(function(source, n) {\n" +
+                            "  for (let i = 0; i < n; i++) {\n" +
+                            "    $262.agent.start(source);\n" +
+                            "  }\n" +
+                            "  const sab = new SharedArrayBuffer(Int32Array.BYTES_PER_ELEMENT * (2 + 2 * n));\n" +
+                            "  const ia = new Int32Array(sab);\n" +
+                            "  $262.agent.broadcast(sab);\n" +
+                            "  while (Atomics.load(ia, 0) < n) {\n" +
+                            "    $262.agent.sleep(1);\n" +
+                            "  }\n" +
+                            "  return sab;\n" +
+                            "})");
+            sab = start.execute(agentSource, agents);
+            pingAll = context.eval("js", "(function(sab, n) {\n" +
+                            "  const ia = new Int32Array(sab);\n" +
+                            "  for (let k = 0; k < n; k++) {\n" +
+                            "    Atomics.store(ia, 2 + 2 * k, 1);\n" +
+                            "    Atomics.notify(ia, 2 + 2 * k, 1);\n" +
+                            "  }\n" +
+                            "  for (let k = 0; k < n; k++) {\n" +
+                            "    const response = 3 + 2 * k;\n" +
+                            "    while (Atomics.load(ia, response) === 0) {\n" +
+                            "      Atomics.wait(ia, response, 0);\n" +
+                            "    }\n" +
+                            "    Atomics.store(ia, response, 0);\n" +
+                            "  }\n" +
+                            "  return n;\n" +
+                            "})");
+            stopAll = context.eval("js", "(function(sab, n) {\n" +
+                            "  const ia = new Int32Array(sab);\n" +
+                            "  Atomics.store(ia, 1, 1);\n" +
+                            "  for (let k = 0; k < n; k++) {\n" +
+                            "    Atomics.store(ia, 2 + 2 * k, 1);\n" +
+                            "    Atomics.notify(ia, 2 + 2 * k);\n" +
+                            "  }\n" +
+                            "})");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            stopAll.execute(sab, agents);
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Value testWakeLatency(MyState state) {
+        return state.pingAll.execute(state.sab, state.agents);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CommonJS {@code require}: startup of an application loading a deep tree of nested
+ * {@code node_modules} packages, where every package also requires a few shared packages installed
+ * at the top of the tree, and repeated {@code require} calls of already loaded modules.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHCommonJSRequireBenchmark {
+    private static final int SHARED_PACKAGES = 8;
+
+    @State(Scope.Thread)
+    public static class MyState {
+        @Param({"10", "40"}) int depth;
+        @Param({"true", "false"}) String resolutionCache;
+
+        Path root;
+
+        @Setup(Level.Trial)
+        public void doSetup() throws IOException {
+            root = Files.createTempDirectory("jmh-commonjs");
+            Path nodeModules = root.resolve("node_modules");
+            for (int i = 0; i < SHARED_PACKAGES; i++) {
+                Path shared = Files.createDirectories(nodeModules.resolve("shared" + i).resolve("lib"));
+                write(nodeModules.resolve("shared" + i).resolve("package.json"), "{\"name\": \"shared" + i + "\", \"main\": \"lib/main\"}");
+                write(shared.resolve("main.js"), "module.exports = " + i + ";");
+            }
+            Path dir = nodeModules;
+            for (int level = 0; level < depth; level++) {
+                Path pkg = Files.createDirectories(dir.resolve("pkg" + level));
+                StringBuilder body = new StringBuilder("var n = 0;\n");
+                for (int i = 0; i < SHARED_PACKAGES; i++) {
+                    body.append("n += require('shared").append(i).append("');\n");
+                }
+                if (level + 1 < depth) {
+                    body.append("n += require('pkg").append(level + 1).append("');\n");
+                }
+                body.append("module.exports = n;\n");
+                write(pkg.resolve("package.json"), "{\"name\": \"pkg" + level + "\"}");
+                write(pkg.resolve("index.js"), body.toString());
+                dir = pkg.resolve("node_modules");
+            }
+            write(root.resolve("main.js"), "module.exports = require('pkg0');");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() throws IOException {
+            delete(root);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RequireState {
+        Path root;
+        Context context;
+        Value lazyRequire;
+
+        @Setup(Level.Trial)
+        public void doSetup() throws IOException {
+            root = Files.createTempDirectory("jmh-commonjs");
+            Files.createDirectories(root.resolve("node_modules").resolve("dep"));
+            write(root.resolve("node_modules").resolve("dep").resolve("index.js"), "module.exports = 2;");
+            write(root.resolve("util.js"), "module.exports = 1;");
+            write(root.resolve("lazy.js"), "module.exports = function(n) { var s = 0; for (var i = 0; i < n; i++) { s += require('./util') + require('dep'); } return s; };");
+            context = Context.newBuilder("js").allowIO(true).allowExperimentalOptions(true).option("js.commonjs-require", "true").option("js.commonjs-require-cwd", root.toString()).build();
+            lazyRequire = context.eval("js", "require('./lazy.js')");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() throws IOException {
+            context.close();
+            delete(root);
+        }
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int testRequireTree(MyState state) {
+        try (Context context = Context.newBuilder("js").allowIO(true).allowExperimentalOptions(true).option("js.commonjs-require", "true").option("js.commonjs-require-cwd",
+                        state.root.toString()).option("js.commonjs-resolution-cache", state.resolutionCache).build()) {
+            return context.eval("js", "require('./main.js')").asInt();
+        }
+    }
+
+    @Benchmark
+    public Value testRepeatedRequire(RequireState state) {
+        return state.lazyRequire.execute(10000);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Plain objects used as large string-keyed lookup tables, which are stored as dictionary objects:
+ * building them, lookups with computed and constant keys, updates, and enumeration.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHDictionaryObjectBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        @Param({"10000", "1000000"}) int size;
+
+        Context context;
+        Value table;
+        Value build;
+        Value lookup;
+        Value constantKeys;
+        Value update;
+        Value keys;
+        Value forIn;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.create("js");
+            context.eval("js", "var names = []; for (var i = 0; i < " + size + "; i++) { names.push('name' + i); }" +
+                            "function build() { var t = {}; for (var i = 0; i < names.length; i++) { t[names[i]] = i; } return t; }");
+            table = context.eval("js", "build()");
+            build = context.eval("js", "() => build()");
+            lookup = context.eval("js", "(t) => { var n = 0; for (var i = 0; i < names.length; i++) { n += t[names[i]]; } return n; }");
+            constantKeys = context.eval("js", "(t) => { var n = 0; for (var i = 0; i < 100000; i++) { n += t.name1 + t.name500 + t.name9999; } return n; }");
+            update = context.eval("js", "(t) => { for (var i = 0; i < names.length; i++) { t[names[i]]++; } return t.name0; }");
+            keys = context.eval("js", "(t) => Object.keys(t).length");
+            forIn = context.eval("js", "(t) => { var n = 0; for (var k in t) { n++; } return n; }");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Value testBuild(MyState state) {
+        return state.build.execute();
+    }
+
+    @Benchmark
+    public Value testLookup(MyState state) {
+        return state.lookup.execute(state.table);
+    }
+
+    @Benchmark
+    public Value testConstantKeys(MyState state) {
+        return state.constantKeys.execute(state.table);
+    }
+
+    @Benchmark
+    public Value testUpdate(MyState state) {
+        return state.update.execute(state.table);
+    }
+
+    @Benchmark
+    public Value testObjectKeys(MyState state) {
+        return state.keys.execute(state.table);
+    }
+
+    @Benchmark
+    public Value testForIn(MyState state) {
+        return state.forIn.execute(state.table);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup of an application made of a large generated ES module graph: a tree of modules where
+ * every module also imports a few shared modules, loaded with and without
+ * {@code js.module-loading-threads}.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHESModuleGraphBenchmark {
+    private static final int SHARED_MODULES = 4;
+    private static final int FAN_OUT = 3;
+
+    @State(Scope.Thread)
+    public static class MyState {
+        @Param({"500", "3000"}) int modules;
+        @Param({"0", "4"}) String threads;
+
+        Path root;
+        Source main;
+
+        @Setup(Level.Trial)
+        public void doSetup() throws IOException {
+            root = Files.createTempDirectory("jmh-esm");
+            for (int i = 0; i < SHARED_MODULES; i++) {
+                write(root.resolve("shared" + i + ".mjs"), "export const value = " + i + ";\nexport function twice(x) { return x * 2 + value; }\n");
+            }
+            for (int i = 0; i < modules; i++) {
+                StringBuilder body = new StringBuilder();
+                for (int s = 0; s < SHARED_MODULES; s++) {
+                    body.append("import { twice as twice").append(s).append(" } from './shared").append(s).append(".mjs';\n");
+                }
+                StringBuilder sum = new StringBuilder("x");
+                for (int c = 1; c <= FAN_OUT; c++) {
+                    int child = i * FAN_OUT + c;
+                    if (child < modules) {
+                        body.append("import { f as f").append(c).append(" } from './m").append(child).append(".mjs';\n");
+                        sum.append(" + f").append(c).append("(x)");
+                    }
+                }
+                body.append("class Helper").append(i).append(" {\n");
+                body.append("    constructor(n) { this.n = n; }\n");
+                body.append("    get doubled() { return twice0(this.n) + twice1(this.n); }\n");
+                body.append("    apply(list) { return list.map((e) => e + this.n).filter((e) => e % 2 === 0).reduce((a, b) => a + b, 0); }\n");
+                body.append("}\n");
+                body.append("export function f(x) {\n");
+                body.append("    const h = new Helper").append(i).append("(x);\n");
+                body.append("    return h.doubled + h.apply([twice2(x), twice3(x)]) + ").append(sum).append(";\n");
+                body.append("}\n");
+                write(root.resolve("m" + i + ".mjs"), body.toString());
+            }
+            Path mainFile = root.resolve("main.mjs");
+            write(mainFile, "import { f } from './m0.mjs';\nglobalThis.result = f(1);\n");
+            main = Source.newBuilder("js", mainFile.toFile()).build();
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() throws IOException {
+            delete(root);
+        }
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public double testLoadModuleGraph(MyState state) {
+        try (Context context = Context.newBuilder("js").allowIO(true).allowCreateThread(true).allowExperimentalOptions(true).option("js.module-loading-threads", state.threads).build()) {
+            context.eval(state.main);
+            return context.getBindings("js").getMember("result").asDouble();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loads a large bundle of module functions of which only a few are used, with function bodies
+ * parsed eagerly or only pre-parsed and parsed on first call. Run with {@code -prof gc} to compare
+ * the allocated memory.
+ */
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(2)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JMHLazyParsingBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        protected static final int MODULES = 2000;
+        protected static final int USED_MODULES = 20;
+
+        @Param({"-1", "0"}) String lazyTranslationThreshold;
+
+        Source bundle;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            StringBuilder sb = new StringBuilder("var modules = [\n");
+            for (int i = 0; i < MODULES; i++) {
+                sb.append("function (module, exports, require) {\n");
+                sb.append("  'use strict';\n");
+                sb.append("  function helper").append(i).append("(items) {\n");
+                sb.append("    var result = [];\n");
+                sb.append("    for (var j = 0; j < items.length; j++) {\n");
+                sb.append("      if (items[j] % ").append(i % 7 + 2).append(" === 0) { result.push({ index: j, value: items[j] * ").append(i).append(" }); }\n");
+                sb.append("    }\n");
+                sb.append("    return result.map(function (entry) { return entry.index + ':' + entry.value; }).join(',');\n");
+                sb.append("  }\n");
+                sb.append("  class Component").append(i).append(" {\n");
+                sb.append("    constructor(props) { this.props = props; this.state = { count: 0 }; }\n");
+                sb.append("    render() { return '<div>' + helper").append(i).append("(this.props.items) + '</div>'; }\n");
+                sb.append("  }\n");
+                sb.append("  exports.id = ").append(i).append(";\n");
+                sb.append("  exports.render = function (items) { return new Component").append(i).append("({ items: items }).render(); };\n");
+                sb.append("},\n");
+            }
+            sb.append("];\n");
+            sb.append("var cache = {};\n");
+            sb.append("function require(id) {\n");
+            sb.append("  if (cache[id]) { return cache[id].exports; }\n");
+            sb.append("  var module = cache[id] = { exports: {} };\n");
+            sb.append("  modules[id](module, module.exports, require);\n");
+            sb.append("  return module.exports;\n");
+            sb.append("}\n");
+            sb.append("var output = '';\n");
+            sb.append("for (var i = 0; i < ").append(USED_MODULES).append("; i++) {\n");
+            sb.append("  output += require(i * ").append(MODULES / USED_MODULES).append(").render([1, 2, 3, 4, 5, 6]);\n");
+            sb.append("}\n");
+            sb.append("output.length;\n");
+            bundle = Source.create("js", sb.toString());
+        }
+    }
+
+    @Benchmark
+    public int testLoadBundle(MyState state) {
+        try (Context context = Context.newBuilder("js").allowExperimentalOptions(true).option("js.lazy-translation-threshold", state.lazyTranslationThreshold).build()) {
+            return context.eval(state.bundle).asInt();
+        }
+    }
+}
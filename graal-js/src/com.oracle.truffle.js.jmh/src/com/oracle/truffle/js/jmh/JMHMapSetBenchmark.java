@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Get and set throughput of {@code Map} and {@code Set} with int, double and string keys, and the
+ * cost of building and iterating a large map. Run with {@code -prof gc} to compare the memory
+ * allocated per entry.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHMapSetBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        protected static final int SIZE = 100000;
+
+        Context context;
+        Value intMap;
+        Value doubleMap;
+        Value stringMap;
+        Value intSet;
+        Value getInt;
+        Value getDouble;
+        Value getString;
+        Value setInt;
+        Value hasInt;
+        Value build;
+        Value iterate;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.create("js");
+            intMap = context.eval("js", "var m = new Map(); for (var i = 0; i < " + SIZE + "; i++) { m.set(i, i); } m");
+            doubleMap = context.eval("js", "var m = new Map(); for (var i = 0; i < " + SIZE + "; i++) { m.set(i + 0.5, i); } m");
+            stringMap = context.eval("js", "var m = new Map(); for (var i = 0; i < " + SIZE + "; i++) { m.set('key' + i, i); } m");
+            intSet = context.eval("js", "var s = new Set(); for (var i = 0; i < " + SIZE + "; i++) { s.add(i * 2); } s");
+            getInt = context.eval("js", "(m) => { var n = 0; for (var i = 0; i < " + SIZE + "; i++) { n += m.get(i); } return n; }");
+            getDouble = context.eval("js", "(m) => { var n = 0; for (var i = 0; i < " + SIZE + "; i++) { n += m.get(i + 0.5); } return n; }");
+            getString = context.eval("js", "var keys = []; for (var i = 0; i < " + SIZE + "; i++) { keys.push('key' + i); }" +
+                            "(m) => { var n = 0; for (var i = 0; i < keys.length; i++) { n += m.get(keys[i]); } return n; }");
+            setInt = context.eval("js", "(m) => { for (var i = 0; i < " + SIZE + "; i++) { m.set(i, i + 1); } return m.size; }");
+            hasInt = context.eval("js", "(s) => { var n = 0; for (var i = 0; i < " + SIZE + "; i++) { if (s.has(i)) { n++; } } return n; }");
+            build = context.eval("js", "() => { var m = new Map(); for (var i = 0; i < " + SIZE + "; i++) { m.set(i, i); m.set('key' + i, i); } for (var i = 0; i < " + SIZE + "; i += 2) { m.delete(i); } return m.size; }");
+            iterate = context.eval("js", "(m) => { var n = 0; for (var [k, v] of m) { n += v; } return n; }");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Value testGetInt(MyState state) {
+        return state.getInt.execute(state.intMap);
+    }
+
+    @Benchmark
+    public Value testGetDouble(MyState state) {
+        return state.getDouble.execute(state.doubleMap);
+    }
+
+    @Benchmark
+    public Value testGetString(MyState state) {
+        return state.getString.execute(state.stringMap);
+    }
+
+    @Benchmark
+    public Value testSetInt(MyState state) {
+        return state.setInt.execute(state.intMap);
+    }
+
+    @Benchmark
+    public Value testSetHasInt(MyState state) {
+        return state.hasInt.execute(state.intSet);
+    }
+
+    @Benchmark
+    public Value testBuild(MyState state) {
+        return state.build.execute();
+    }
+
+    @Benchmark
+    public Value testIterate(MyState state) {
+        return state.iterate.execute(state.intMap);
+    }
+}
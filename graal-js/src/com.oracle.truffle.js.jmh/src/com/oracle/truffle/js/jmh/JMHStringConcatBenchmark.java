@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builds an HTML list with {@code +=} and then reads from the resulting lazy string, either a few
+ * characters and substrings, a search, or the whole flattened string.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHStringConcatBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        protected static final int ITEMS = 100000;
+
+        Context context;
+        Value append;
+        Value prepend;
+        Value appendCharAt;
+        Value appendSubstring;
+        Value appendIndexOf;
+        Value appendFlatten;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.create("js");
+            context.eval("js", "function build(n) { var s = '<ul>'; for (var i = 0; i < n; i++) { s += '<li class=\"item\">' + i + '</li>'; } return s + '</ul>'; }");
+            append = context.eval("js", "(n) => build(n).length");
+            prepend = context.eval("js", "(n) => { var s = '</ul>'; for (var i = 0; i < n; i++) { s = '<li class=\"item\">' + i + '</li>' + s; } return ('<ul>' + s).length; }");
+            appendCharAt = context.eval("js", "(n) => { var s = build(n); var h = 0; for (var i = 0; i < 8; i++) { h += s.charCodeAt((i * 7919 * n) % s.length); } return h; }");
+            appendSubstring = context.eval("js", "(n) => { var s = build(n); return s.substring(s.length >> 1, (s.length >> 1) + 64).length; }");
+            appendIndexOf = context.eval("js", "(n) => build(n).indexOf('>' + (n - 1) + '<')");
+            appendFlatten = context.eval("js", "(n) => { var s = build(n); var h = 0; for (var i = 0; i < s.length; i += 16) { h += s.charCodeAt(i); } return h; }");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Value testAppend(MyState state) {
+        return state.append.execute(MyState.ITEMS);
+    }
+
+    @Benchmark
+    public Value testPrepend(MyState state) {
+        return state.prepend.execute(MyState.ITEMS);
+    }
+
+    @Benchmark
+    public Value testAppendCharAt(MyState state) {
+        return state.appendCharAt.execute(MyState.ITEMS);
+    }
+
+    @Benchmark
+    public Value testAppendSubstring(MyState state) {
+        return state.appendSubstring.execute(MyState.ITEMS);
+    }
+
+    @Benchmark
+    public Value testAppendIndexOf(MyState state) {
+        return state.appendIndexOf.execute(MyState.ITEMS);
+    }
+
+    @Benchmark
+    public Value testAppendFlatten(MyState state) {
+        return state.appendFlatten.execute(MyState.ITEMS);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses a log-like text with {@code split}, {@code substring} and regular expression captures,
+ * which produce views onto the text instead of copies. Lines and fields are much shorter than the
+ * text, so these are the views that are tracked until a garbage collection shows whether they are
+ * still worth keeping; {@link #testSplitFieldsRetained} keeps some of them alive across
+ * collections. Run with {@code -prof gc} to compare the allocation rate.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHStringSliceBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        protected static final int LINES = 100000;
+
+        Context context;
+        Value text;
+        Value splitLines;
+        Value splitFields;
+        Value substrings;
+        Value captures;
+        Value splitFieldsRetained;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.create("js");
+            text = context.eval("js", "var lines = []; for (var i = 0; i < " + LINES + "; i++) {" +
+                            "  lines.push('2020-06-' + (10 + i % 20) + 'T12:00:' + (10 + i % 50) + ',INFO,worker-' + (i % 16) + ',request ' + i + ' completed in ' + (i % 1000) + ' ms,/api/v1/items/' + i);" +
+                            "} lines.join('\\n')");
+            splitLines = context.eval("js", "(text) => text.split('\\n').length");
+            splitFields = context.eval("js", "(text) => { var lines = text.split('\\n'); var n = 0; for (var i = 0; i < lines.length; i++) { n += lines[i].split(',')[3].length; } return n; }");
+            substrings = context.eval("js", "(text) => { var n = 0; for (var i = 0; i + 200 < text.length; i += 100) { n += text.substring(i, i + 200).length; } return n; }");
+            splitFieldsRetained = context.eval("js", "var kept = []; (text) => { var lines = text.split('\\n'); for (var i = 0; i < lines.length; i += 1000) { kept.push(lines[i].split(',')[3]); } " +
+                            "if (kept.length > 10000) { kept.length = 0; } return kept.length; }");
+            captures = context.eval("js", "(text) => { var re = /request (\\d+) completed in (\\d+) ms,(\\S+)/g; var n = 0; var m; while ((m = re.exec(text)) !== null) { n += m[3].length; } return n; }");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Value testSplitLines(MyState state) {
+        return state.splitLines.execute(state.text);
+    }
+
+    @Benchmark
+    public Value testSplitFields(MyState state) {
+        return state.splitFields.execute(state.text);
+    }
+
+    @Benchmark
+    public Value testSubstring(MyState state) {
+        return state.substrings.execute(state.text);
+    }
+
+    @Benchmark
+    public Value testSplitFieldsRetained(MyState state) {
+        return state.splitFieldsRetained.execute(state.text);
+    }
+
+    @Benchmark
+    public Value testRegExpCaptures(MyState state) {
+        return state.captures.execute(state.text);
+    }
+}
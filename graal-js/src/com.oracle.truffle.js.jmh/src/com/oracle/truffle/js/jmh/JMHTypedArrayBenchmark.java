@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bulk TypedArray operations (set with and without element conversion, fill, copyWithin, indexOf,
+ * includes, slice and construction from another typed array) per element type.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHTypedArrayBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        @Param({"Int8Array", "Uint8Array", "Uint8ClampedArray", "Int16Array", "Int32Array", "Uint32Array", "Float32Array", "Float64Array"}) String type;
+        @Param({"65536"}) int length;
+
+        Context context;
+        Value set;
+        Value setConvert;
+        Value fill;
+        Value copyWithin;
+        Value indexOf;
+        Value includes;
+        Value slice;
+        Value construct;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.create("js");
+            // searched values are found in the last element only; the source of converting copies has a different element type than the target
+            String otherType = "Float64Array".equals(type) ? "Int32Array" : "Float64Array";
+            context.eval("js", "var a = new " + type + "(" + length + "); var b = new " + type + "(" + length + "); var c = new " + otherType + "(" + length + ");" +
+                            "for (var i = 0; i < a.length; i++) { a[i] = i & 0x3f; b[i] = a[i]; c[i] = a[i]; }" +
+                            "b[b.length - 1] = 100;");
+            set = context.eval("js", "() => { a.set(b); return a; }");
+            setConvert = context.eval("js", "() => { a.set(c); return a; }");
+            fill = context.eval("js", "() => a.fill(42)");
+            copyWithin = context.eval("js", "() => a.copyWithin(1, 0, a.length - 1)");
+            indexOf = context.eval("js", "() => b.indexOf(100)");
+            includes = context.eval("js", "() => b.includes(100)");
+            slice = context.eval("js", "() => b.slice(1)");
+            construct = context.eval("js", "() => new " + type + "(c)");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Value testSet(MyState state) {
+        return state.set.execute();
+    }
+
+    @Benchmark
+    public Value testSetConvert(MyState state) {
+        return state.setConvert.execute();
+    }
+
+    @Benchmark
+    public Value testFill(MyState state) {
+        return state.fill.execute();
+    }
+
+    @Benchmark
+    public Value testCopyWithin(MyState state) {
+        return state.copyWithin.execute();
+    }
+
+    @Benchmark
+    public Value testIndexOf(MyState state) {
+        return state.indexOf.execute();
+    }
+
+    @Benchmark
+    public Value testIncludes(MyState state) {
+        return state.includes.execute();
+    }
+
+    @Benchmark
+    public Value testSlice(MyState state) {
+        return state.slice.execute();
+    }
+
+    @Benchmark
+    public Value testConstructFromTypedArray(MyState state) {
+        return state.construct.execute();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.jmh;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WeakMaps with primitive and object values: property access on objects used as keys, get/set,
+ * and how much of a batch of dropped keys is reclaimed.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(2)
+public class JMHWeakMapBenchmark {
+    @State(Scope.Thread)
+    public static class MyState {
+        @Param({"primitive", "object"}) String values;
+
+        Context context;
+        Value propertyRead;
+        Value get;
+        Value set;
+        Value reclaim;
+
+        @Setup(Level.Trial)
+        public void doSetup() {
+            context = Context.create("js");
+            String value = "primitive".equals(values) ? "i" : "{i: i}";
+            context.eval("js", "var keys = []; for (var i = 0; i < 10000; i++) { keys.push({x: i, y: i + 1}); }" +
+                            "var maps = [new WeakMap(), new WeakMap(), new WeakMap()];" +
+                            "maps.forEach((m) => keys.forEach((k, i) => m.set(k, " + value + ")));" +
+                            "var plain = []; for (var i = 0; i < 10000; i++) { plain.push({x: i, y: i + 1}); }" +
+                            "function read(objs) { var n = 0; for (var i = 0; i < objs.length; i++) { n += objs[i].x + objs[i].y; } return n; }" +
+                            "read(plain);");
+            propertyRead = context.eval("js", "() => read(keys)");
+            get = context.eval("js", "() => { var m = maps[0]; var n = 0; for (var i = 0; i < keys.length; i++) { if (m.get(keys[i]) !== undefined) { n++; } } return n; }");
+            set = context.eval("js", "() => { var m = maps[1]; for (var i = 0; i < keys.length; i++) { m.set(keys[i], " + value + "); } return m; }");
+            reclaim = context.eval("js", "(m) => { for (var i = 0; i < 100000; i++) { var k = {}; m.set(k, " + value.replace("i: i", "k: k") + "); } }");
+        }
+
+        @TearDown(Level.Trial)
+        public void doTearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Value testPropertyReadOnKeys(MyState state) {
+        return state.propertyRead.execute();
+    }
+
+    @Benchmark
+    public Value testGet(MyState state) {
+        return state.get.execute();
+    }
+
+    @Benchmark
+    public Value testSet(MyState state) {
+        return state.set.execute();
+    }
+
+    /**
+     * Fills a long-lived WeakMap with keys that are dropped immediately, including keys referenced
+     * from their own value, and measures the heap that survives a full collection.
+     */
+    @Benchmark
+    public long testReclaim(MyState state) {
+        Value map = state.context.eval("js", "new WeakMap()");
+        state.reclaim.execute(map);
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
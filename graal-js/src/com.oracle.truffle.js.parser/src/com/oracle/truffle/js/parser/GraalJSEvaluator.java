@@ -54,6 +54,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
 
+import com.oracle.js.parser.Lexer.RegexToken;
 import com.oracle.js.parser.ir.Expression;
 import com.oracle.js.parser.ir.Module;
 import com.oracle.js.parser.ir.Module.ExportEntry;
@@ -91,6 +92,7 @@ import com.oracle.truffle.js.nodes.promise.PerformPromiseThenNode;
 import com.oracle.truffle.js.parser.date.DateParser;
 import com.oracle.truffle.js.parser.env.DebugEnvironment;
 import com.oracle.truffle.js.parser.env.Environment;
+import com.oracle.truffle.js.runtime.DynamicCodeCache;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.GraalJSException;
 import com.oracle.truffle.js.runtime.JSArguments;
@@ -203,16 +205,37 @@ public final class GraalJSEvaluator implements JSParser {
         };
     }
 
+    private static Object runParsed(ScriptNode scriptNode, JSRealm realm, Object thisObj, MaterializedFrame materializedFrame) {
+        DynamicObject functionObj = JSFunction.create(realm, scriptNode.getFunctionData(), materializedFrame);
+        return scriptNode.run(JSArguments.createZeroArg(thisObj, functionObj));
+    }
+
     @TruffleBoundary
     private static Object doEvaluate(JSRealm realm, Node lastNode, Object thisObj, MaterializedFrame materializedFrame, Source source, boolean isStrict, DirectEvalContext directEval) {
         JSContext context = realm.getContext();
-        ScriptNode scriptNode = parseEval(context, lastNode, source, isStrict, directEval);
+        ScriptNode scriptNode = getOrParseEval(context, lastNode, source, isStrict, directEval);
         return runParsed(scriptNode, realm, thisObj, materializedFrame);
     }
 
-    private static Object runParsed(ScriptNode scriptNode, JSRealm realm, Object thisObj, MaterializedFrame materializedFrame) {
-        DynamicObject functionObj = JSFunction.create(realm, scriptNode.getFunctionData(), materializedFrame);
-        return scriptNode.run(JSArguments.createZeroArg(thisObj, functionObj));
+    /**
+     * Returns the parsed eval code from the {@link DynamicCodeCache} of the context or parses and
+     * caches it. Indirect eval code does not depend on the caller and is shared by all call sites.
+     * Strict direct eval code cannot add bindings to the caller's scope, so it is shared by all
+     * executions of the same call site. Other direct eval code is always parsed again.
+     */
+    private static ScriptNode getOrParseEval(JSContext context, Node lastNode, Source source, boolean isStrict, DirectEvalContext directEval) {
+        if (directEval != null && !isStrict) {
+            return parseEval(context, lastNode, source, isStrict, directEval);
+        }
+        context.checkEvalAllowed();
+        DynamicCodeCache cache = context.getDynamicCodeCache();
+        Object key = DynamicCodeCache.evalKey(source, directEval);
+        ScriptNode scriptNode = cache.get(key);
+        if (scriptNode == null) {
+            scriptNode = parseEval(context, lastNode, source, isStrict, directEval);
+            cache.put(key, scriptNode);
+        }
+        return scriptNode;
     }
 
     private static ScriptNode parseEval(JSContext context, Node lastNode, Source source, boolean isStrict, DirectEvalContext directEval) {
@@ -268,6 +291,13 @@ public final class GraalJSEvaluator implements JSParser {
             return fakeScriptForModule(context, source);
         }
         try {
+            String codeCacheDir = context.getContextOptions().getCodeCacheDir();
+            if (!codeCacheDir.isEmpty() && prolog.isEmpty() && epilog.isEmpty() && PersistentCodeCache.isCacheable(source)) {
+                ScriptNode script = PersistentCodeCache.parseScript(context, context.getRealm().getEnv(), source, codeCacheDir);
+                if (script != null) {
+                    return script;
+                }
+            }
             return JavaScriptTranslator.translateScript(NodeFactory.getInstance(context), context, source, context.getParserOptions().isStrict(), prolog, epilog);
         } catch (com.oracle.js.parser.ParserException e) {
             throw Errors.createSyntaxError(e.getMessage());
@@ -381,6 +411,22 @@ public final class GraalJSEvaluator implements JSParser {
         }
     }
 
+    @TruffleBoundary
+    @Override
+    public com.oracle.js.parser.ir.FunctionNode parseModuleAST(JSContext context, Source source, List<RegexToken> regExpLiterals) {
+        return GraalJSParserHelper.preParseModule(context, source, context.getParserOptions().putStrict(true), regExpLiterals);
+    }
+
+    @TruffleBoundary
+    @Override
+    public JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader, com.oracle.js.parser.ir.FunctionNode parsedModule) {
+        try {
+            return JavaScriptTranslator.translateModule(NodeFactory.getInstance(context), context, source, moduleLoader, parsedModule);
+        } catch (com.oracle.js.parser.ParserException e) {
+            throw Errors.createSyntaxError(e.getMessage(), e, null);
+        }
+    }
+
     @TruffleBoundary
     @Override
     public JSModuleRecord hostResolveImportedModule(JSContext context, ScriptOrModule referrer, String specifier) {
@@ -41,6 +41,7 @@
 package com.oracle.truffle.js.parser;
 
 import java.io.PrintWriter;
+import java.util.List;
 import java.util.function.Function;
 
 import com.oracle.js.parser.ErrorManager;
@@ -81,15 +82,70 @@ public final class GraalJSParserHelper {
 
     public static FunctionNode parseScript(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions, boolean eval, boolean evalInFunction,
                     Scope evalScope, String prologue, String epilogue) {
-        return parseSource(context, truffleSource, parserOptions, false, eval, evalInFunction, evalScope, prologue, epilogue);
+        return parseScript(context, truffleSource, parserOptions, eval, evalInFunction, evalScope, prologue, epilogue, false);
+    }
+
+    /**
+     * Parses a script. If {@code lazyFunctionBodies} is true, the bodies of nested functions are
+     * only pre-parsed and have to be parsed with {@link #parseLazyFunction} before translation.
+     */
+    public static FunctionNode parseScript(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions, boolean eval, boolean evalInFunction,
+                    Scope evalScope, String prologue, String epilogue, boolean lazyFunctionBodies) {
+        return parseSource(context, truffleSource, parserOptions, false, eval, evalInFunction, evalScope, prologue, epilogue, lazyFunctionBodies);
     }
 
     public static FunctionNode parseModule(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions) {
-        return parseSource(context, truffleSource, parserOptions, true, false, false, null, "", "");
+        return parseSource(context, truffleSource, parserOptions, true, false, false, null, "", "", false);
+    }
+
+    /**
+     * Parses a module on a thread that need not have entered the context. Regular expression
+     * literals are not validated but added to {@code regExpLiterals}, and syntax errors are not
+     * reported, since both would need the realm.
+     *
+     * @return the parsed module, or {@code null} if it has syntax errors
+     */
+    public static FunctionNode preParseModule(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions, List<RegexToken> regExpLiterals) {
+        CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
+        com.oracle.js.parser.Source source = com.oracle.js.parser.Source.sourceFor(truffleSource.getName(), truffleSource.getCharacters(), false);
+        ScriptEnvironment env = makeScriptEnvironment(parserOptions);
+        ErrorManager errors = new ErrorManager.StringBuilderErrorManager();
+        errors.setLimit(0);
+
+        Parser parser = createParser(context, env, source, errors, parserOptions, env.isStrict(), 0, regExpLiterals);
+        FunctionNode parsed;
+        try {
+            parsed = parser.parseModule(":module");
+        } catch (ParserException e) {
+            return null;
+        }
+        return errors.hasErrors() ? null : parsed;
+    }
+
+    /**
+     * Parses the body of a function that was skipped by the pre-parser.
+     *
+     * @param truffleSource the source of the script that contains the function
+     * @param lazyFunction the pre-parsed function node
+     */
+    public static FunctionNode parseLazyFunction(JSContext context, com.oracle.truffle.api.source.Source truffleSource, FunctionNode lazyFunction, JSParserOptions parserOptions) {
+        CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
+        ScriptEnvironment env = makeScriptEnvironment(parserOptions);
+        ErrorManager errors = new ErrorManager.StringBuilderErrorManager();
+        errors.setLimit(0);
+
+        Parser parser = createParser(context, env, lazyFunction.getSource(), errors, parserOptions, lazyFunction.isStrict(), lazyFunction.getLineNumber() - 1, null);
+        parser.setLazyFunctionBodies(true);
+        FunctionNode parsed = parser.parseLazyFunction(lazyFunction);
+
+        if (errors.hasErrors()) {
+            throwErrors(truffleSource, errors);
+        }
+        return parsed;
     }
 
     private static FunctionNode parseSource(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions,
-                    boolean parseModule, boolean eval, boolean evalInFunction, Scope evalScope, String prologue, String epilogue) {
+                    boolean parseModule, boolean eval, boolean evalInFunction, Scope evalScope, String prologue, String epilogue, boolean lazyFunctionBodies) {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         CharSequence code;
         if (prologue.isEmpty() && epilogue.isEmpty()) {
@@ -113,6 +169,7 @@ public final class GraalJSParserHelper {
         errors.setLimit(0);
 
         Parser parser = createParser(context, env, source, errors, parserOptions);
+        parser.setLazyFunctionBodies(lazyFunctionBodies);
 
         FunctionNode parsed;
         if (parseModule) {
@@ -148,13 +205,24 @@ public final class GraalJSParserHelper {
     }
 
     private static Parser createParser(JSContext context, ScriptEnvironment env, com.oracle.js.parser.Source source, ErrorManager errors, JSParserOptions parserOptions) {
-        return new Parser(env, source, errors) {
+        return createParser(context, env, source, errors, parserOptions, env.isStrict(), 0, null);
+    }
+
+    /**
+     * @param deferredRegExpLiterals if not {@code null}, regular expression literals are added to
+     *            this list instead of being validated
+     */
+    private static Parser createParser(JSContext context, ScriptEnvironment env, com.oracle.js.parser.Source source, ErrorManager errors, JSParserOptions parserOptions,
+                    boolean strict, int lineOffset, List<RegexToken> deferredRegExpLiterals) {
+        return new Parser(env, source, errors, strict, lineOffset) {
             @Override
             protected void validateLexerToken(LexerToken lexerToken) {
                 if (lexerToken instanceof RegexToken) {
                     final RegexToken regex = (RegexToken) lexerToken;
-                    // validate regular expression
-                    if (context.getContextOptions().isValidateRegExpLiterals()) {
+                    if (deferredRegExpLiterals != null) {
+                        deferredRegExpLiterals.add(regex);
+                    } else if (context.getContextOptions().isValidateRegExpLiterals()) {
+                        // validate regular expression
                         try {
                             RegexCompilerInterface.validate(context, regex.getExpression(), regex.getOptions(), parserOptions.getEcmaScriptVersion());
                         } catch (JSException e) {
@@ -199,6 +199,7 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
     protected final int sourceLength;
     protected final int prologLength;
     private final boolean isParentStrict;
+    private final boolean translateLazily;
 
     protected GraalJSTranslator(LexicalContext lc, NodeFactory factory, JSContext context, Source source, int prologLength, Environment environment, boolean isParentStrict) {
         super(lc);
@@ -209,6 +210,19 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         this.isParentStrict = isParentStrict;
         this.sourceLength = source.getCharacters().length();
         this.prologLength = prologLength;
+        this.translateLazily = isLazyTranslation(context, sourceLength);
+    }
+
+    /**
+     * Whether functions of a source of the given length are translated on first call. Nested
+     * function bodies of such sources are only pre-parsed and parsed again on demand, too.
+     */
+    static boolean isLazyTranslation(JSContext context, int sourceLength) {
+        if (context.getContextOptions().isLazyTranslation()) {
+            return true;
+        }
+        int threshold = context.getContextOptions().getLazyTranslationThreshold();
+        return threshold >= 0 && sourceLength >= threshold;
     }
 
     protected final JavaScriptNode transform(com.oracle.js.parser.ir.Node node) {
@@ -335,7 +349,7 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         }
         boolean functionMode = !isGlobal || (isStrict && isIndirectEval);
 
-        boolean lazyTranslation = context.getContextOptions().isLazyTranslation() && functionMode && !functionNode.isProgram() && !inDirectEval;
+        boolean lazyTranslation = functionNode.isLazy() || (translateLazily && functionMode && !functionNode.isProgram() && !inDirectEval);
 
         String functionName = getFunctionName(functionNode);
         JSFunctionData functionData;
@@ -380,8 +394,8 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                     declarations = collectGlobalVars(functionNode, isEval);
                 }
 
-                if (functionNode.isProgram()) {
-                    functionNeedsParentFramePass(functionNode, context);
+                if (functionNode.isProgram() && translateLazily) {
+                    functionNeedsParentFramePass(functionNode, null);
                 }
 
                 boolean needsParentFrame = functionNode.usesAncestorScope();
@@ -462,13 +476,21 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         return body;
     }
 
-    private FunctionRootNode translateFunctionOnDemand(FunctionNode functionNode, JSFunctionData functionData, boolean isStrict, boolean isArrowFunction, boolean isGeneratorFunction,
+    private FunctionRootNode translateFunctionOnDemand(FunctionNode lazyFunctionNode, JSFunctionData functionData, boolean isStrict, boolean isArrowFunction, boolean isGeneratorFunction,
                     boolean isAsyncFunction, boolean isDerivedConstructor, boolean isGlobal, boolean needsNewTarget, boolean needsParentFrame, String functionName) {
+        FunctionNode functionNode = lazyFunctionNode;
+        if (lazyFunctionNode.isLazy()) {
+            // the body has only been pre-parsed, parse the function again
+            functionNode = GraalJSParserHelper.parseLazyFunction(context, source, lazyFunctionNode, context.getParserOptions());
+            functionNode.setUsesAncestorScope(lazyFunctionNode.usesAncestorScope());
+            lc.replace(lazyFunctionNode, functionNode);
+            functionNeedsParentFramePass(functionNode, lazyFunctionNode);
+        }
         try (EnvironmentCloseable functionEnv = enterFunctionEnvironment(isStrict, isArrowFunction, isGeneratorFunction, isDerivedConstructor, isAsyncFunction, isGlobal)) {
             FunctionEnvironment currentFunction = currentFunction();
             currentFunction.setFunctionName(functionName);
-            currentFunction.setInternalFunctionName(functionNode.getInternalName());
-            currentFunction.setNamedFunctionExpression(functionNode.isNamedFunctionExpression());
+            currentFunction.setInternalFunctionName(lazyFunctionNode.getInternalName());
+            currentFunction.setNamedFunctionExpression(lazyFunctionNode.isNamedFunctionExpression());
 
             currentFunction.setNeedsParentFrame(needsParentFrame);
 
@@ -928,11 +950,14 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         return Collections.emptyList();
     }
 
-    private static void functionNeedsParentFramePass(FunctionNode rootFunctionNode, JSContext context) {
-        if (!context.getContextOptions().isLazyTranslation()) {
-            return; // nothing to do
-        }
-
+    /**
+     * Determines which functions need their parent frame (i.e., are closures over bindings of
+     * enclosing functions), which is required for translating functions lazily.
+     *
+     * @param rootFunctionNode the program, or a function that was parsed on demand
+     * @param lazyFunctionNode the pre-parsed node of the function parsed on demand, or null
+     */
+    private static void functionNeedsParentFramePass(FunctionNode rootFunctionNode, FunctionNode lazyFunctionNode) {
         com.oracle.js.parser.ir.visitor.NodeVisitor<LexicalContext> visitor = new com.oracle.js.parser.ir.visitor.NodeVisitor<LexicalContext>(new LexicalContext()) {
             @Override
             public boolean enterIdentNode(IdentNode identNode) {
@@ -951,8 +976,13 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                 return true;
             }
 
-            private void findSymbol(String varName) {
+            /**
+             * Resolves a name and marks the functions it is referenced through. Returns true if
+             * the name resolves to a binding outside the current function.
+             */
+            private boolean findSymbol(String varName) {
                 boolean local = true;
+                boolean usesAncestorScope = false;
                 FunctionNode lastFunction = null;
                 for (Iterator<LexicalContextNode> iterator = lc.getAllNodes(); iterator.hasNext();) {
                     LexicalContextNode node = iterator.next();
@@ -961,16 +991,18 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                         if (foundSymbol != null && !foundSymbol.isGlobal()) {
                             if (!local) {
                                 markUsesAncestorScopeUntil(lastFunction, true);
+                                usesAncestorScope = true;
                             }
-                            break;
+                            return usesAncestorScope;
                         }
                     } else if (node instanceof FunctionNode) {
                         FunctionNode function = (FunctionNode) node;
                         if (function.isNamedFunctionExpression() && varName.equals(function.getIdent().getName())) {
                             if (!local) {
                                 markUsesAncestorScopeUntil(lastFunction, true);
+                                usesAncestorScope = true;
                             }
-                            break;
+                            return usesAncestorScope;
                         } else if (function.isArrow() && isVarLexicallyScopedInArrowFunction(varName)) {
                             FunctionNode nonArrowFunction = lc.getCurrentNonArrowFunction();
                             // `this` is read from the arrow function object,
@@ -980,19 +1012,21 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                                     markUsesAncestorScopeUntil(nonArrowFunction, false);
                                 }
                             }
-                            break;
+                            return usesAncestorScope;
                         } else if (!function.isProgram() && varName.equals(Environment.ARGUMENTS_NAME)) {
                             assert !function.isArrow();
                             assert local;
-                            break;
+                            return usesAncestorScope;
                         } else if (function.hasEval() && !function.isProgram()) {
                             if (!local) {
                                 markUsesAncestorScopeUntil(lastFunction, true);
+                                usesAncestorScope = true;
                             }
                         } else if (function.isModule() && isImport(varName)) {
                             // needed for GetActiveScriptOrModule()
                             if (!local) {
                                 markUsesAncestorScopeUntil(lastFunction, true);
+                                usesAncestorScope = true;
                             }
                         }
                         lastFunction = function;
@@ -1000,9 +1034,16 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                     } else if (node instanceof WithNode) {
                         if (!local) {
                             markUsesAncestorScopeUntil(lastFunction, true);
+                            usesAncestorScope = true;
                         }
                     }
                 }
+                if (lazyFunctionNode != null && lazyFunctionNode.isLazyAncestorScopeName(varName)) {
+                    // resolved outside of the function parsed on demand (see enterFunctionNode)
+                    markUsesAncestorScopeUntil(null, false);
+                    usesAncestorScope = true;
+                }
+                return usesAncestorScope;
             }
 
             private boolean isVarLexicallyScopedInArrowFunction(String varName) {
@@ -1045,6 +1086,19 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                 if (functionNode.hasEval()) {
                     markUsesAncestorScopeUntil(null, false);
                 }
+                if (functionNode.isLazy()) {
+                    // the body has only been pre-parsed: resolve the names it uses from enclosing
+                    // scopes and remember the ones that resolve outside of the function, so that
+                    // the closures in the body can be marked when it is parsed on demand.
+                    if (functionNode.hasNestedEval()) {
+                        markUsesAncestorScopeUntil(null, false);
+                    }
+                    for (String varName : functionNode.getLazyFreeNames()) {
+                        if (findSymbol(varName)) {
+                            functionNode.addLazyAncestorScopeName(varName);
+                        }
+                    }
+                }
                 // TODO if function does not have nested functions we can skip it
                 return true;
             }
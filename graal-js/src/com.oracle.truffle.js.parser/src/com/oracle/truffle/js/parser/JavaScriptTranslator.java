@@ -84,8 +84,9 @@ public final class JavaScriptTranslator extends GraalJSTranslator {
     private static ScriptNode translateScript(NodeFactory nodeFactory, JSContext context, Environment env, Source source, boolean isParentStrict,
                     boolean isEval, boolean evalInFunction, DirectEvalContext directEval, String prologue, String epilogue) {
         Scope parentScope = directEval == null ? null : directEval.scope;
+        boolean lazyFunctionBodies = !isEval && prologue.isEmpty() && GraalJSTranslator.isLazyTranslation(context, source.getCharacters().length());
         FunctionNode parserFunctionNode = GraalJSParserHelper.parseScript(context, source, context.getParserOptions().putStrict(isParentStrict), isEval, evalInFunction, parentScope, prologue,
-                        epilogue);
+                        epilogue, lazyFunctionBodies);
         Source src = applyExplicitSourceURL(source, parserFunctionNode);
         LexicalContext lc = new LexicalContext();
         if (directEval != null && directEval.enclosingClass != null) {
@@ -114,6 +115,10 @@ public final class JavaScriptTranslator extends GraalJSTranslator {
 
     public static JSModuleRecord translateModule(NodeFactory factory, JSContext context, Source source, JSModuleLoader moduleLoader) {
         FunctionNode parsed = GraalJSParserHelper.parseModule(context, source, context.getParserOptions().putStrict(true));
+        return translateModule(factory, context, source, moduleLoader, parsed);
+    }
+
+    public static JSModuleRecord translateModule(NodeFactory factory, JSContext context, Source source, JSModuleLoader moduleLoader, FunctionNode parsed) {
         JavaScriptTranslator translator = new JavaScriptTranslator(factory, context, source, 0, null, true);
         FunctionRootNode functionRoot = translator.translateModule(parsed);
         JSModuleRecord moduleRecord = new JSModuleRecord(parsed.getModule(), context, moduleLoader, source);
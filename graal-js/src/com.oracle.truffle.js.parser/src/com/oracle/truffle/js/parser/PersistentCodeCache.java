@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+import org.graalvm.home.HomeFinder;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.nodes.JSNodeDecoder;
+import com.oracle.truffle.js.nodes.NodeFactory;
+import com.oracle.truffle.js.nodes.ScriptNode;
+import com.oracle.truffle.js.nodes.function.FunctionRootNode;
+import com.oracle.truffle.js.runtime.JSContext;
+
+/**
+ * Persistent cache of the parsed code of scripts loaded from files, stored as binary snapshots in
+ * the directory given by the {@code js.code-cache-dir} option. The directory is accessed through
+ * {@link TruffleFile}s, so the cache is subject to the IO policy and file system of the context; if
+ * the directory is not accessible, scripts are simply parsed.
+ *
+ * Entries are named by a hash of the script content, the engine version, the snapshot format and
+ * the context options, so a changed file or engine never looks up a stale entry. Each entry starts
+ * with a header holding the engine version, the full key hash and a hash of the snapshot, which are
+ * verified before the snapshot is decoded. Entries that fail verification are discarded and written
+ * again.
+ *
+ * Snapshots can always be read; they are only written if a {@link SnapshotRecorder} is available
+ * and functions are translated eagerly.
+ */
+final class PersistentCodeCache {
+
+    private static final String SUFFIX = ".bin";
+    private static final String HEADER_MAGIC = "GraalJS code cache 1";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final SnapshotRecorder RECORDER = loadRecorder();
+
+    private PersistentCodeCache() {
+    }
+
+    private static SnapshotRecorder loadRecorder() {
+        Iterator<SnapshotRecorder> recorders = ServiceLoader.load(SnapshotRecorder.class, PersistentCodeCache.class.getClassLoader()).iterator();
+        return recorders.hasNext() ? recorders.next() : null;
+    }
+
+    static boolean isCacheable(Source source) {
+        return source.getPath() != null && !source.isInternal();
+    }
+
+    /**
+     * Returns the script from its snapshot in the cache, or translates the script and stores its
+     * snapshot. Returns {@code null} if the script can neither be read from nor stored in the cache.
+     */
+    static ScriptNode parseScript(JSContext context, Env env, Source source, String cacheDir) {
+        CompilerAsserts.neverPartOfCompilation();
+        boolean isStrict = context.getParserOptions().isStrict();
+        String version = HomeFinder.getInstance().getVersion();
+        byte[] key = cacheKey(context, source, version, isStrict);
+        TruffleFile dir;
+        TruffleFile file;
+        try {
+            dir = env.getPublicTruffleFile(cacheDir);
+            file = dir.resolve(toHex(key) + SUFFIX);
+        } catch (SecurityException | UnsupportedOperationException | IllegalArgumentException e) {
+            // the cache directory is not accessible with this context's IO policy or file system
+            return null;
+        }
+        NodeFactory nodeFactory = NodeFactory.getInstance(context);
+        byte[] snapshot = load(file, version, key);
+        if (snapshot != null) {
+            try {
+                return ScriptNode.fromFunctionRoot(context, (FunctionRootNode) new BinarySnapshotProvider(snapshot).apply(nodeFactory, context, source));
+            } catch (RuntimeException e) {
+                // incompatible entry: parse again and replace it
+            }
+        }
+        if (RECORDER == null || GraalJSTranslator.isLazyTranslation(context, source.getCharacters().length())) {
+            return null;
+        }
+        ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+        ScriptNode script = RECORDER.translateScript(nodeFactory, context, source, isStrict, recorded);
+        store(dir, file, version, key, recorded.toByteArray());
+        return script;
+    }
+
+    /**
+     * Reads the entry and returns its snapshot if the header matches the expected engine version and
+     * key and the snapshot matches its hash, otherwise {@code null}.
+     */
+    private static byte[] load(TruffleFile file, String version, byte[] key) {
+        try {
+            if (!file.isRegularFile()) {
+                return null;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(file.readAllBytes()));
+            if (!HEADER_MAGIC.equals(in.readUTF()) || !version.equals(in.readUTF())) {
+                return null;
+            }
+            byte[] storedKey = new byte[key.length];
+            in.readFully(storedKey);
+            byte[] storedHash = new byte[key.length];
+            in.readFully(storedHash);
+            int length = in.readInt();
+            if (!Arrays.equals(key, storedKey) || length < 0 || length != in.available()) {
+                return null;
+            }
+            byte[] snapshot = new byte[length];
+            in.readFully(snapshot);
+            if (!MessageDigest.isEqual(storedHash, newDigest().digest(snapshot))) {
+                return null;
+            }
+            return snapshot;
+        } catch (IOException | SecurityException e) {
+            // truncated or unreadable entry: parse again and replace it
+            return null;
+        }
+    }
+
+    private static void store(TruffleFile dir, TruffleFile file, String version, byte[] key, byte[] snapshot) {
+        try {
+            dir.createDirectories();
+            TruffleFile tmp = dir.resolve(file.getName() + "." + Thread.currentThread().getId() + "." + System.nanoTime() + ".tmp");
+            try {
+                try (OutputStream out = tmp.newOutputStream(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    DataOutputStream data = new DataOutputStream(out);
+                    data.writeUTF(HEADER_MAGIC);
+                    data.writeUTF(version);
+                    data.write(key);
+                    data.write(newDigest().digest(snapshot));
+                    data.writeInt(snapshot.length);
+                    data.write(snapshot);
+                    data.flush();
+                }
+                try {
+                    tmp.move(file, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    tmp.move(file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                if (tmp.exists()) {
+                    tmp.delete();
+                }
+            }
+        } catch (IOException | SecurityException | UnsupportedOperationException e) {
+            // the cache is best effort; the script is parsed again next time
+        }
+    }
+
+    private static byte[] cacheKey(JSContext context, Source source, String version, boolean isStrict) {
+        MessageDigest digest = newDigest();
+        String header = BinarySnapshotProvider.MAGIC + ":" + JSNodeDecoder.getChecksum() + ":" + version + ":" +
+                        context.getContextOptions().hashCode() + ":" + isStrict + ":";
+        digest.update(header.getBytes(StandardCharsets.UTF_8));
+        digest.update(source.getCharacters().toString().getBytes(StandardCharsets.UTF_8));
+        return digest.digest();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX_DIGITS[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.scriptengine.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.scriptengine.GraalJSEngineFactory;
+import com.oracle.truffle.js.scriptengine.GraalJSScriptEngine;
+import com.oracle.truffle.js.scriptengine.GraalJSSourceCacheMXBean;
+
+public class TestSourceCache {
+
+    @Test
+    public void sharedEngine() throws ScriptException {
+        GraalJSEngineFactory factory = new GraalJSEngineFactory();
+        GraalJSScriptEngine engine1 = factory.getScriptEngine();
+        GraalJSScriptEngine engine2 = factory.getScriptEngine();
+        assertSame(factory.getPolyglotEngine(), engine1.getPolyglotEngine());
+        assertSame(engine1.getPolyglotEngine(), engine2.getPolyglotEngine());
+        assertSame(engine1.getSourceCache(), engine2.getSourceCache());
+
+        // closing the engine of one factory must not affect script engines of other factories
+        GraalJSScriptEngine other = new GraalJSEngineFactory().getScriptEngine();
+        GraalJSScriptEngine standalone = GraalJSScriptEngine.create();
+        assertNotSame(engine1.getPolyglotEngine(), other.getPolyglotEngine());
+        assertNotSame(engine1.getPolyglotEngine(), standalone.getPolyglotEngine());
+        engine1.close();
+        engine2.close();
+        factory.getPolyglotEngine().close();
+        assertEquals(42, ((Number) other.eval("6 * 7")).intValue());
+        assertEquals(42, ((Number) standalone.eval("6 * 7")).intValue());
+    }
+
+    @Test
+    public void registeredMXBean() throws Exception {
+        GraalJSSourceCacheMXBean cache = GraalJSScriptEngine.create().getSourceCache();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.oracle.truffle.js.scriptengine:type=SourceCache");
+        assertTrue(server.isRegistered(name));
+        assertEquals(cache.getCapacity(), ((Number) server.getAttribute(name, "Capacity")).intValue());
+    }
+
+    @Test
+    public void hitsAcrossContexts() throws ScriptException {
+        GraalJSScriptEngine engine = GraalJSScriptEngine.create();
+        GraalJSSourceCacheMXBean cache = engine.getSourceCache();
+        String script = "x * 2 // " + TestSourceCache.class.getName() + ".hitsAcrossContexts";
+        long misses = cache.getMissCount();
+        long hits = cache.getHitCount();
+        for (int i = 0; i < 3; i++) {
+            ScriptContext scriptContext = new SimpleScriptContext();
+            Bindings bindings = engine.createBindings();
+            bindings.put("x", i);
+            scriptContext.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+            assertEquals(i * 2, ((Number) engine.eval(script, scriptContext)).intValue());
+        }
+        assertTrue(cache.getMissCount() >= misses + 1);
+        assertTrue(cache.getHitCount() >= hits + 2);
+        assertTrue(cache.getSize() <= cache.getCapacity());
+    }
+
+    @Test
+    public void fileNameIsPartOfKey() throws ScriptException {
+        GraalJSScriptEngine engine = GraalJSScriptEngine.create();
+        String script = "new Error().stack // " + TestSourceCache.class.getName() + ".fileNameIsPartOfKey";
+        engine.put(ScriptEngine.FILENAME, "first.js");
+        assertTrue(engine.eval(script).toString().contains("first.js"));
+        engine.put(ScriptEngine.FILENAME, "second.js");
+        assertTrue(engine.eval(script).toString().contains("second.js"));
+    }
+}
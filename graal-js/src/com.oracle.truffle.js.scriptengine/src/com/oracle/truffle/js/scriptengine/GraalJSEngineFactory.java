@@ -89,10 +89,9 @@ public final class GraalJSEngineFactory implements ScriptEngineFactory {
         extensions = Collections.unmodifiableList(extensionList);
     }
 
-    private final Engine engine;
+    private volatile Engine engine;
 
     public GraalJSEngineFactory() {
-        this.engine = Engine.newBuilder().allowExperimentalOptions(true).build();
     }
 
     GraalJSEngineFactory(Engine engine) {
@@ -100,10 +99,22 @@ public final class GraalJSEngineFactory implements ScriptEngineFactory {
     }
 
     /**
-     * Returns the underlying polyglot engine.
+     * Returns the underlying polyglot engine. It is created on first use and shared by all script
+     * engines created by this factory, so that code parsed and compiled in one of their contexts
+     * can be reused in all others.
      */
     public Engine getPolyglotEngine() {
-        return engine;
+        Engine result = engine;
+        if (result == null) {
+            synchronized (this) {
+                result = engine;
+                if (result == null) {
+                    result = Engine.newBuilder().allowExperimentalOptions(true).build();
+                    engine = result;
+                }
+            }
+        }
+        return result;
     }
 
     @Override
@@ -113,7 +124,7 @@ public final class GraalJSEngineFactory implements ScriptEngineFactory {
 
     @Override
     public String getEngineVersion() {
-        return engine.getVersion();
+        return getPolyglotEngine().getVersion();
     }
 
     @Override
@@ -302,6 +302,18 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
         return factory.getPolyglotEngine();
     }
 
+    /**
+     * Returns the cache of the sources of evaluated and compiled scripts. The cache is shared by all
+     * script engines; a script that is evaluated again with the same file name is not parsed again
+     * as long as its source is cached. The capacity of the cache can be set with the
+     * {@code graaljs.ScriptEngineSourceCacheSize} system property ({@code 0} disables it). The
+     * cache is also registered with the platform {@code MBeanServer} under
+     * {@code com.oracle.truffle.js.scriptengine:type=SourceCache}.
+     */
+    public GraalJSSourceCacheMXBean getSourceCache() {
+        return GraalJSSourceCache.getInstance();
+    }
+
     /**
      * Returns the polyglot context associated with the default ScriptContext of the engine.
      *
@@ -377,11 +389,22 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
 
     private static Source createSource(String script, ScriptContext ctxt) throws ScriptException {
         final Object val = ctxt.getAttribute(ScriptEngine.FILENAME);
-        if (val == null) {
+        final String fileName = (val == null) ? null : val.toString();
+        GraalJSSourceCache sourceCache = GraalJSSourceCache.getInstance();
+        Source source = sourceCache.get(fileName, script);
+        if (source == null) {
+            source = createSource(script, fileName);
+            sourceCache.put(fileName, script, source);
+        }
+        return source;
+    }
+
+    private static Source createSource(String script, String fileName) throws ScriptException {
+        if (fileName == null) {
             return Source.newBuilder(ID, script, "<eval>").buildLiteral();
         } else {
             try {
-                return Source.newBuilder(ID, new File(val.toString())).content(script).build();
+                return Source.newBuilder(ID, new File(fileName)).content(script).build();
             } catch (IOException ioex) {
                 throw new ScriptException(ioex);
             }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.scriptengine;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.graalvm.nativeimage.ImageInfo;
+import org.graalvm.polyglot.Source;
+
+/**
+ * Bounded, least-recently-used cache of the {@link Source} objects created for evaluated scripts,
+ * keyed by script name and content. Returning the same {@link Source} for a re-evaluated script
+ * allows the polyglot engine to reuse the parsed and compiled code of the script in every context
+ * of the engine, instead of parsing the script again for each evaluation.
+ * <p>
+ * The shared instance is registered with the platform {@code MBeanServer} under
+ * {@value #OBJECT_NAME}, if management is available.
+ */
+public final class GraalJSSourceCache implements GraalJSSourceCacheMXBean {
+
+    static final int DEFAULT_CAPACITY = Integer.getInteger("graaljs.ScriptEngineSourceCacheSize", 256);
+
+    static final String OBJECT_NAME = "com.oracle.truffle.js.scriptengine:type=SourceCache";
+
+    private static final GraalJSSourceCache INSTANCE = createInstance();
+
+    private final int capacity;
+    private final Map<Key, Source> sources;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    GraalJSSourceCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.sources = new LinkedHashMap<Key, Source>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Source> eldest) {
+                if (size() > GraalJSSourceCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    static GraalJSSourceCache getInstance() {
+        return INSTANCE;
+    }
+
+    private static GraalJSSourceCache createInstance() {
+        GraalJSSourceCache cache = new GraalJSSourceCache(DEFAULT_CAPACITY);
+        if (!ImageInfo.inImageCode()) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(cache, new ObjectName(OBJECT_NAME));
+            } catch (JMException | SecurityException | LinkageError e) {
+                // management is not available or the name is already taken (e.g., by a copy of
+                // this class in another class loader); the cache works without being registered
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the cached source for the given script, or {@code null} if there is none.
+     *
+     * @param name the file name of the script, or {@code null}
+     */
+    synchronized Source get(String name, String content) {
+        Source source = sources.get(new Key(name, content));
+        if (source != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return source;
+    }
+
+    synchronized void put(String name, String content, Source source) {
+        if (capacity > 0) {
+            sources.putIfAbsent(new Key(name, content), source);
+        }
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return sources.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized void clear() {
+        sources.clear();
+    }
+
+    private static final class Key {
+        private final String name;
+        private final String content;
+        private final int hash;
+
+        Key(String name, String content) {
+            this.name = name;
+            this.content = content;
+            this.hash = 31 * Objects.hashCode(name) + content.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && Objects.equals(name, other.name) && content.equals(other.content);
+        }
+    }
+}
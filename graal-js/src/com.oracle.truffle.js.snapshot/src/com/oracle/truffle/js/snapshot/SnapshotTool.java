@@ -93,7 +93,7 @@ public class SnapshotTool {
         SnapshotTool snapshotTool = new SnapshotTool();
         if (!srcFiles.isEmpty() && outDir != null) {
             try (Context polyglotContext = Context.newBuilder(JavaScriptLanguage.ID).allowIO(true).allowExperimentalOptions(true).option(JSContextOptions.CLASS_FIELDS_NAME, "true").option(
-                            JSContextOptions.LAZY_TRANSLATION_NAME, "false").build()) {
+                            JSContextOptions.LAZY_TRANSLATION_NAME, "false").option(JSContextOptions.LAZY_TRANSLATION_THRESHOLD_NAME, "-1").build()) {
                 polyglotContext.initialize(JavaScriptLanguage.ID);
                 polyglotContext.enter();
                 for (String srcFile : srcFiles) {
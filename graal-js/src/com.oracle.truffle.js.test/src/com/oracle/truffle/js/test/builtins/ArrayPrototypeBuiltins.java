@@ -81,4 +81,50 @@ public class ArrayPrototypeBuiltins {
         }
     }
 
+    @Test
+    public void testSortPrimitive() {
+        // the primitive sort paths must agree with the generic sort of an object array
+        String code = "var seed = 7; function random() { seed = (seed * 1103515245 + 12345) % 2147483648; return seed; }\n" +
+                        "function generic(a) { var c = Array.prototype.slice.call(a); c.push('x'); c.pop(); return c; }\n" +
+                        "function check(a, compare, genericCompare) {\n" +
+                        "  var expected = generic(a).sort(genericCompare || compare).map(String).join();\n" +
+                        "  var actual = a.slice().sort(compare);\n" +
+                        "  actual = Array.prototype.map.call(actual, String).join();\n" +
+                        "  if (expected !== actual) { throw new Error(expected + ' !== ' + actual); }\n" +
+                        "}\n" +
+                        "function sortModifying(a) {\n" +
+                        "  var first = true;\n" +
+                        "  a.sort((x, y) => { if (first) { first = false; a.length = 3; a[5] = 0.5; } return x - y; });\n" +
+                        "  return Array.prototype.join.call(a);\n" +
+                        "}\n" +
+                        "var ints = []; var doubles = [];\n" +
+                        "for (var i = 0; i < 500; i++) { ints.push(random() % 2000 - 1000); doubles.push((random() % 200 - 100) / 8); }\n" +
+                        "ints.push(-2147483648, 2147483647, 0, 10, 100, 1, -1, -10);\n" +
+                        "doubles.push(-0, 0, -0, 0.5);\n" +
+                        "check(ints, undefined);\n" +
+                        "check(ints, (x, y) => x - y);\n" +
+                        "check(ints, function(x, y) { return y - x; });\n" +
+                        "check(ints, (x, y) => (x & 7) - (y & 7));\n" +
+                        "check(doubles, (x, y) => x - y);\n" +
+                        "check(doubles, (x, y) => { return y - x; });\n" +
+                        "check(doubles, (x, y) => Math.floor(x) - Math.floor(y));\n" +
+                        "var f64 = new Float64Array(doubles); var u32 = new Uint32Array(ints); var i8 = new Int8Array(ints);\n" +
+                        "check(f64, undefined, (x, y) => x < y ? -1 : (x > y ? 1 : (Object.is(x, -0) && Object.is(y, 0) ? -1 : (Object.is(x, 0) && Object.is(y, -0) ? 1 : 0))));\n" +
+                        "check(f64, (x, y) => x - y);\n" +
+                        "check(u32, undefined, (x, y) => (x - y));\n" +
+                        "check(u32, (x, y) => y - x);\n" +
+                        "check(i8, (x, y) => x - y);\n" +
+                        // the comparator is called with the element values
+                        "var calls = 0; var sorted = ints.slice().sort((x, y) => { calls++; if (typeof x !== 'number') { throw new Error(x); } return x - y; });\n" +
+                        "if (calls < ints.length - 1) { throw new Error('calls: ' + calls); }\n" +
+                        // a comparator that modifies or abandons the array behaves like in the generic path
+                        "if (sortModifying(ints.slice()) !== sortModifying(generic(ints))) { throw new Error('modifying comparator'); }\n" +
+                        "if (sortModifying(doubles.slice()) !== sortModifying(generic(doubles))) { throw new Error('modifying comparator'); }\n" +
+                        "var thrown = ints.slice(); try { thrown.sort((x, y) => { if (x === 10) { throw 'stop'; } return x - y; }); throw new Error('no exception'); } catch (e) { if (e !== 'stop') { throw e; } }\n" +
+                        "if (thrown.join() !== ints.join()) { throw new Error('array changed by throwing comparator'); }\n" +
+                        "Object.is(new Float64Array([0, -0]).sort()[0], -0) && isNaN(new Float64Array([NaN, 1, -1]).sort()[2]);";
+        try (Context context = JSTest.newContextBuilder().build()) {
+            assertTrue(context.eval(JavaScriptLanguage.ID, code).asBoolean());
+        }
+    }
 }
@@ -80,4 +80,136 @@ public class AtomicsBuiltinsTest {
         }
     }
 
+    @Test
+    public void testSubWordOperations() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            String code = "const sab = new SharedArrayBuffer(16);\n" //
+                            + "const i8a = new Int8Array(sab);\n" //
+                            + "const u16a = new Uint16Array(sab);\n" //
+                            + "i8a.fill(0x55);\n" //
+                            + "let r = [];\n" //
+                            + "r.push(Atomics.compareExchange(i8a, 5, 0x55, -2));\n" //
+                            + "r.push(Atomics.compareExchange(i8a, 5, 0x55, 3));\n" //
+                            + "r.push(Atomics.add(i8a, 5, 1));\n" //
+                            + "r.push(Atomics.sub(u16a, 5, 0x5556));\n" //
+                            + "r.push(Atomics.load(u16a, 5));\n" //
+                            + "r.push(i8a[4], i8a[6], i8a[9], i8a[12]);\n" //
+                            + "r.join();";
+            Value result = context.eval(JavaScriptLanguage.ID, code);
+            Assert.assertEquals("85,-2,-2,21845,65535,85,85,85,85", result.asString());
+        }
+    }
+
+    @Test
+    public void testConcurrentAdd() {
+        int agentCount = 4;
+        int iterations = 10000;
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.TEST262_MODE_NAME, "true").build()) {
+            String code = "let agentCount = " + agentCount + ";\n" //
+                            + "for (let i = 0; i < agentCount; i++) {\n" //
+                            + "  $262.agent.start(`\n" //
+                            + "    $262.agent.receiveBroadcast(function(sab) {\n" //
+                            + "      const i32a = new Int32Array(sab);\n" //
+                            + "      const u8a = new Uint8Array(sab);\n" //
+                            + "      for (let j = 0; j < " + iterations + "; j++) {\n" //
+                            + "        Atomics.add(i32a, 0, 1);\n" //
+                            + "        Atomics.add(u8a, 5, 1);\n" //
+                            + "        Atomics.sub(u8a, 6, 1);\n" //
+                            + "      }\n" //
+                            + "      $262.agent.report('done');\n" //
+                            + "      $262.agent.leaving();\n" //
+                            + "    });\n" //
+                            + "  `);\n" //
+                            + "}\n" //
+                            + "const sab = new SharedArrayBuffer(Int32Array.BYTES_PER_ELEMENT * 4);\n" //
+                            + "$262.agent.broadcast(sab);\n" //
+                            + "let done = 0;\n" //
+                            + "while (done < agentCount) {\n" //
+                            + "  if ($262.agent.getReport() !== null) {\n" //
+                            + "    done++;\n" //
+                            + "  }\n" //
+                            + "}\n" //
+                            + "const u8a = new Uint8Array(sab);\n" //
+                            + "[Atomics.load(new Int32Array(sab), 0), u8a[4], u8a[5], u8a[6], u8a[7]].join();"; //
+            Value result = context.eval(JavaScriptLanguage.ID, code);
+            int bytes = agentCount * iterations;
+            Assert.assertEquals(bytes + ",0," + (bytes & 0xFF) + "," + (-bytes & 0xFF) + ",0", result.asString());
+        }
+    }
+
+    @Test
+    public void testWaitAsync() throws InterruptedException {
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.ECMASCRIPT_VERSION_NAME, "2021").build()) {
+            String code = "const i32a = new Int32Array(new SharedArrayBuffer(16));\n" //
+                            + "var log = [];\n" //
+                            + "let r = Atomics.waitAsync(i32a, 0, 1);\n" //
+                            + "log.push(r.async, r.value);\n" //
+                            + "r = Atomics.waitAsync(i32a, 0, 0, 0);\n" //
+                            + "log.push(r.async, r.value);\n" //
+                            + "r = Atomics.waitAsync(i32a, 0, 0);\n" //
+                            + "log.push(r.async);\n" //
+                            + "r.value.then(v => log.push(v));\n" //
+                            + "Atomics.waitAsync(i32a, 1, 0, 10).value.then(v => log.push(v));\n" //
+                            + "log.push(Atomics.notify(i32a, 0));";
+            context.eval(JavaScriptLanguage.ID, code);
+            Assert.assertEquals("false,not-equal,false,timed-out,true,1,ok", context.eval(JavaScriptLanguage.ID, "log.join()").asString());
+            Thread.sleep(100);
+            // the promise of the timed out waiter is resolved when the promise jobs are processed
+            context.eval(JavaScriptLanguage.ID, "undefined");
+            Assert.assertEquals("false,not-equal,false,timed-out,true,1,ok,timed-out", context.eval(JavaScriptLanguage.ID, "log.join()").asString());
+        }
+    }
+
+    @Test
+    public void testWaitAsyncNotifiedByOtherAgent() {
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.ECMASCRIPT_VERSION_NAME, "2021").option(JSContextOptions.TEST262_MODE_NAME, "true").build()) {
+            String code = "$262.agent.start(`\n" //
+                            + "  $262.agent.receiveBroadcast(function(sab) {\n" //
+                            + "    const i32a = new Int32Array(sab);\n" //
+                            + "    Atomics.waitAsync(i32a, 2, 0).value.then(v => {\n" //
+                            + "      $262.agent.report('worker:' + v);\n" //
+                            + "      $262.agent.leaving();\n" //
+                            + "    });\n" //
+                            + "    $262.agent.report(Atomics.notify(i32a, 0));\n" //
+                            + "  });\n" //
+                            + "`);\n" //
+                            + "function getReport() {\n" //
+                            + "  for (let i = 0; i < 10000; i++) {\n" //
+                            + "    const r = $262.agent.getReport();\n" //
+                            + "    if (r !== null) return r;\n" //
+                            + "    $262.agent.sleep(1);\n" //
+                            + "  }\n" //
+                            + "  return 'no report';\n" //
+                            + "}\n" //
+                            + "const i32a = new Int32Array(new SharedArrayBuffer(16));\n" //
+                            + "var log = [];\n" //
+                            + "Atomics.waitAsync(i32a, 0, 0).value.then(v => log.push('main:' + v));\n" //
+                            + "$262.agent.broadcast(i32a.buffer);\n" //
+                            // the worker notifies the waiter of the main agent
+                            + "log.push('notified:' + getReport());\n" //
+                            // the idle worker has to be woken up to resolve its waiter
+                            + "log.push('count:' + Atomics.notify(i32a, 2));\n" //
+                            + "log.push(getReport());";
+            context.eval(JavaScriptLanguage.ID, code);
+            Assert.assertEquals("notified:1,count:1,worker:ok,main:ok", context.eval(JavaScriptLanguage.ID, "log.join()").asString());
+        }
+    }
+
+    @Test
+    public void testWaitAsyncHugeTimeout() throws InterruptedException {
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.ECMASCRIPT_VERSION_NAME, "2021").build()) {
+            String code = "const i32a = new Int32Array(new SharedArrayBuffer(16));\n" //
+                            + "var log = [];\n" //
+                            + "Atomics.waitAsync(i32a, 0, 0, 1e13).value.then(v => log.push('a:' + v));\n" //
+                            + "Atomics.waitAsync(i32a, 1, 0, Number.MAX_VALUE).value.then(v => log.push('b:' + v));\n" //
+                            + "Atomics.waitAsync(i32a, 2, 0, 9.2e15).value.then(v => log.push('c:' + v));";
+            context.eval(JavaScriptLanguage.ID, code);
+            Thread.sleep(100);
+            // none of the waiters may time out before being notified
+            context.eval(JavaScriptLanguage.ID, "undefined");
+            Assert.assertEquals("", context.eval(JavaScriptLanguage.ID, "log.join()").asString());
+            context.eval(JavaScriptLanguage.ID, "Atomics.notify(i32a, 0); Atomics.notify(i32a, 1); Atomics.notify(i32a, 2);");
+            Assert.assertEquals("a:ok,b:ok,c:ok", context.eval(JavaScriptLanguage.ID, "log.join()").asString());
+        }
+    }
 }
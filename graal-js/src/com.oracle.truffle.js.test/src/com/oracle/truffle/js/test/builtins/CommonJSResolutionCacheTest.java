@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.io.FileSystem;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Module resolution of CommonJS {@code require} with and without the resolution cache.
+ */
+public class CommonJSResolutionCacheTest {
+
+    private static Context newContext(Path root, boolean resolutionCache) {
+        return JSTest.newContextBuilder().allowIO(true).allowExperimentalOptions(true).option(JSContextOptions.COMMONJS_REQUIRE_NAME, "true").option(
+                        JSContextOptions.COMMONJS_REQUIRE_CWD_NAME, root.toString()).option(JSContextOptions.COMMONJS_RESOLUTION_CACHE_NAME, String.valueOf(resolutionCache)).build();
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static Path createTree() throws IOException {
+        Path root = Files.createTempDirectory("commonjs-resolution");
+        Path nodeModules = root.resolve("node_modules");
+        write(nodeModules.resolve("a").resolve("package.json"), "{\"main\": \"lib/a\"}");
+        write(nodeModules.resolve("a").resolve("lib").resolve("a.js"), "module.exports = 'a:' + require('b') + require('c') + require('../data.json').value;");
+        write(nodeModules.resolve("a").resolve("data.json"), "{\"value\": \"!\"}");
+        write(nodeModules.resolve("a").resolve("node_modules").resolve("b").resolve("index.js"), "module.exports = 'b' + require('c');");
+        write(nodeModules.resolve("c").resolve("package.json"), "{\"name\": \"c\"}");
+        write(nodeModules.resolve("c").resolve("index.js"), "module.exports = 'c';");
+        write(root.resolve("main.js"), "module.exports = require('a') + ',' + require('c');");
+        return root;
+    }
+
+    @Test
+    public void testNestedPackages() throws IOException {
+        Path root = createTree();
+        try {
+            for (boolean resolutionCache : new boolean[]{true, false}) {
+                try (Context context = newContext(root, resolutionCache)) {
+                    assertEquals("a:bcc!,c", context.eval(ID, "require('./main.js')").asString());
+                    assertEquals("a:bcc!", context.eval(ID, "require('a')").asString());
+                    assertEquals("c", context.eval(ID, "require('c')").asString());
+                }
+            }
+        } finally {
+            delete(root);
+        }
+    }
+
+    @Test
+    public void testModuleBoundRequire() throws IOException {
+        Path root = createTree();
+        try {
+            write(root.resolve("sub").resolve("getRequire.js"), "module.exports = require;");
+            write(root.resolve("sub").resolve("x.js"), "module.exports = 'sub/x';");
+            write(root.resolve("x.js"), "module.exports = 'x';");
+            try (Context context = newContext(root, true)) {
+                // a module's require resolves from the module's directory, whoever calls it
+                assertEquals("sub/x", context.eval(ID, "var subRequire = require('./sub/getRequire.js'); subRequire('./x')").asString());
+                assertEquals("x", context.eval(ID, "require('./x')").asString());
+                assertEquals("sub/x,x", context.eval(ID, "[subRequire, require].map((r) => r('./x')).join()").asString());
+            }
+        } finally {
+            delete(root);
+        }
+    }
+
+    @Test
+    public void testFileAddedAfterFailedRequire() throws IOException {
+        Path root = createTree();
+        try {
+            for (boolean resolutionCache : new boolean[]{true, false}) {
+                try (Context context = newContext(root, resolutionCache)) {
+                    assertRequireFails(context, "./late");
+                    write(root.resolve("late.js"), "module.exports = 'late';");
+                    assertEquals("late", context.eval(ID, "require('./late')").asString());
+                    // a package whose package.json is added after a failed lookup
+                    assertRequireFails(context, "latePackage");
+                    write(root.resolve("node_modules").resolve("latePackage").resolve("main.js"), "module.exports = 'latePackage';");
+                    assertRequireFails(context, "latePackage");
+                    write(root.resolve("node_modules").resolve("latePackage").resolve("package.json"), "{\"main\": \"main.js\"}");
+                    assertEquals("latePackage", context.eval(ID, "require('latePackage')").asString());
+                }
+                delete(root.resolve("late.js"));
+                delete(root.resolve("node_modules").resolve("latePackage"));
+            }
+        } finally {
+            delete(root);
+        }
+    }
+
+    @Test
+    public void testMissingFilesCached() throws IOException {
+        Path root = createTree();
+        try {
+            write(root.resolve("x").resolve("y").resolve("one.js"), "module.exports = require('c');");
+            write(root.resolve("x").resolve("z").resolve("two.js"), "module.exports = require('c');");
+            write(root.resolve("x").resolve("w").resolve("three.js"), "module.exports = require('c');");
+            Path missingDirectory = root.resolve("x").resolve("node_modules");
+            for (boolean resolutionCache : new boolean[]{true, false}) {
+                CountingFileSystem fileSystem = new CountingFileSystem(missingDirectory);
+                try (Context context = JSTest.newContextBuilder().allowIO(true).fileSystem(fileSystem).allowExperimentalOptions(true).option(JSContextOptions.COMMONJS_REQUIRE_NAME,
+                                "true").option(JSContextOptions.COMMONJS_REQUIRE_CWD_NAME, root.toString()).option(JSContextOptions.COMMONJS_RESOLUTION_CACHE_NAME,
+                                                String.valueOf(resolutionCache)).build()) {
+                    assertEquals("c", context.eval(ID, "require('./x/y/one.js')").asString());
+                    int lookups = fileSystem.lookups;
+                    assertTrue(lookups > 0);
+                    // both modules look for x/node_modules/c before finding node_modules/c
+                    assertEquals("c", context.eval(ID, "require('./x/z/two.js')").asString());
+                    if (resolutionCache) {
+                        assertEquals(lookups, fileSystem.lookups);
+                    } else {
+                        assertTrue(fileSystem.lookups > lookups);
+                    }
+                    // a failed require forgets the missing files
+                    assertRequireFails(context, "./x/missing");
+                    write(missingDirectory.resolve("c.js"), "module.exports = 'x/c';");
+                    assertEquals("x/c", context.eval(ID, "require('./x/w/three.js')").asString());
+                }
+                delete(missingDirectory);
+            }
+        } finally {
+            delete(root);
+        }
+    }
+
+    private static void assertRequireFails(Context context, String specifier) {
+        try {
+            context.eval(ID, "require('" + specifier + "')");
+            fail("require should fail");
+        } catch (PolyglotException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Cannot load CommonJS module"));
+        }
+    }
+
+    /**
+     * The default file system, counting the lookups of files in a directory.
+     */
+    private static final class CountingFileSystem implements FileSystem {
+        private final FileSystem delegate = FileSystem.newDefaultFileSystem();
+        private final Path directory;
+        int lookups;
+
+        CountingFileSystem(Path directory) {
+            this.directory = directory;
+        }
+
+        private void count(Path path) {
+            if (path.toAbsolutePath().startsWith(directory)) {
+                lookups++;
+            }
+        }
+
+        @Override
+        public Path parsePath(URI uri) {
+            return delegate.parsePath(uri);
+        }
+
+        @Override
+        public Path parsePath(String path) {
+            return delegate.parsePath(path);
+        }
+
+        @Override
+        public void checkAccess(Path path, Set<? extends AccessMode> modes, LinkOption... linkOptions) throws IOException {
+            count(path);
+            delegate.checkAccess(path, modes, linkOptions);
+        }
+
+        @Override
+        public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+            delegate.createDirectory(dir, attrs);
+        }
+
+        @Override
+        public void delete(Path path) throws IOException {
+            delegate.delete(path);
+        }
+
+        @Override
+        public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
+            return delegate.newByteChannel(path, options, attrs);
+        }
+
+        @Override
+        public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
+            return delegate.newDirectoryStream(dir, filter);
+        }
+
+        @Override
+        public Path toAbsolutePath(Path path) {
+            return delegate.toAbsolutePath(path);
+        }
+
+        @Override
+        public Path toRealPath(Path path, LinkOption... linkOptions) throws IOException {
+            return delegate.toRealPath(path, linkOptions);
+        }
+
+        @Override
+        public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options) throws IOException {
+            count(path);
+            return delegate.readAttributes(path, attributes, options);
+        }
+    }
+}
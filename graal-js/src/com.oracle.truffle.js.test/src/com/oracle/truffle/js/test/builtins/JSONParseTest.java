@@ -43,8 +43,14 @@ package com.oracle.truffle.js.test.builtins;
 import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.Value;
 import org.junit.Test;
 
@@ -52,6 +58,9 @@ import com.oracle.truffle.js.test.JSTest;
 
 public class JSONParseTest {
 
+    private static final String JSON_SOURCE = "{\"a\": [1, -2.5e1, true, null], \"\\u00e9\\n\": \"\u00e9\u20ac\\ud83d\\ude00\", \"n\": {\"m\": []}}";
+    private static final String JSON_CHECK = "(r, s) => JSON.stringify(r) === JSON.stringify(JSON.parse(s))";
+
     @Test
     public void testJSONParseNumber() {
         try (Context context = JSTest.newContextBuilder().build()) {
@@ -61,4 +70,92 @@ public class JSONParseTest {
         }
     }
 
+    @Test
+    public void testJSONParseSiblingRecords() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            String records = "[{\"a\":1,\"b\":\"x\",\"c\":{\"d\":true}}," +
+                            "{\"a\":2.5,\"b\":\"y\",\"c\":{\"d\":null}}," +
+                            "{\"a\":3,\"b\":\"z\"}," +
+                            "{\"a\":4,\"b\":\"w\",\"c\":{\"d\":1},\"e\":[]}," +
+                            "{\"b\":\"v\",\"a\":5,\"c\":{}}," +
+                            "{\"a\":6,\"a\":7,\"b\":\"u\",\"c\":{\"d\":2}}," +
+                            "{\"\\u0061\":8,\"b\":\"t\",\"c\":{\"d\":3}}," +
+                            "{\"2\":0,\"1\":1},{\"2\":2,\"1\":3}]";
+            String expected = "[{\"a\":1,\"b\":\"x\",\"c\":{\"d\":true}}," +
+                            "{\"a\":2.5,\"b\":\"y\",\"c\":{\"d\":null}}," +
+                            "{\"a\":3,\"b\":\"z\"}," +
+                            "{\"a\":4,\"b\":\"w\",\"c\":{\"d\":1},\"e\":[]}," +
+                            "{\"b\":\"v\",\"a\":5,\"c\":{}}," +
+                            "{\"a\":7,\"b\":\"u\",\"c\":{\"d\":2}}," +
+                            "{\"a\":8,\"b\":\"t\",\"c\":{\"d\":3}}," +
+                            "{\"1\":1,\"2\":0},{\"1\":3,\"2\":2}]";
+            Value result = context.eval(ID, "(text) => JSON.stringify(JSON.parse(text))").execute(records);
+            assertEquals(expected, result.asString());
+        }
+    }
+
+    @Test
+    public void testJSONParseElements() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value result = context.eval(ID, "var a = JSON.parse('[[1,2,3],[1,2.5,-0],[{},null,[]],[1,\"a\",true]]');" +
+                            "a[0].push(4); a[1][3] = 'b'; a[2][5] = 1;" +
+                            "JSON.stringify(a) + Object.is(a[1][2], -0)");
+            assertEquals("[[1,2,3,4],[1,2.5,0,\"b\"],[{},null,[],null,null,1],[1,\"a\",true]]true", result.asString());
+        }
+    }
+
+    @Test
+    public void testParseJSONArrayBuffer() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value parseJSON = context.eval(ID, "Graal.parseJSON");
+            Value check = context.eval(ID, JSON_CHECK);
+            Value encode = context.eval(ID, "(s) => { var b = []; var u = unescape(encodeURIComponent(s)); for (var i = 0; i < u.length; i++) b.push(u.charCodeAt(i)); return new Uint8Array(b); }");
+            Value bytes = encode.execute(JSON_SOURCE);
+            assertTrue(check.execute(parseJSON.execute(bytes.getMember("buffer")), JSON_SOURCE).asBoolean());
+            assertTrue(check.execute(parseJSON.execute(bytes), JSON_SOURCE).asBoolean());
+            Value view = context.eval(ID, "(b) => { var padded = new Uint8Array(b.length + 4); padded.set(b, 2); return new DataView(padded.buffer, 2, b.length); }").execute(bytes);
+            assertTrue(check.execute(parseJSON.execute(view), JSON_SOURCE).asBoolean());
+        }
+    }
+
+    @Test
+    public void testParseJSONHostSources() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value parseJSON = context.eval(ID, "Graal.parseJSON");
+            Value check = context.eval(ID, JSON_CHECK);
+            byte[] utf8 = JSON_SOURCE.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer direct = ByteBuffer.allocateDirect(utf8.length);
+            direct.put(utf8).flip();
+            assertTrue(check.execute(parseJSON.execute(direct), JSON_SOURCE).asBoolean());
+            assertTrue(check.execute(parseJSON.execute(ByteBuffer.wrap(utf8)), JSON_SOURCE).asBoolean());
+            assertTrue(check.execute(parseJSON.execute(new StringReader(JSON_SOURCE)), JSON_SOURCE).asBoolean());
+            assertTrue(check.execute(parseJSON.execute(JSON_SOURCE), JSON_SOURCE).asBoolean());
+            assertEquals(0, direct.position());
+        }
+    }
+
+    @Test
+    public void testParseJSONReviver() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value result = context.eval(ID, "var b = new Uint8Array([91, 49, 44, 50, 93]); Graal.parseJSON(b.buffer, (k, v) => typeof v === 'number' ? v * 2 : v).join()");
+            assertEquals("2,4", result.asString());
+        }
+    }
+
+    @Test
+    public void testParseJSONErrors() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value parseJSON = context.eval(ID, "Graal.parseJSON");
+            for (String invalid : new String[]{"", "[1,]", "{\"a\" 1}", "01", "[1", "tru", "\"\\x\"", "1 2"}) {
+                try {
+                    parseJSON.execute(ByteBuffer.wrap(invalid.getBytes(StandardCharsets.UTF_8)));
+                    fail(invalid);
+                } catch (PolyglotException ex) {
+                    assertTrue(invalid, ex.getMessage().startsWith("SyntaxError"));
+                }
+            }
+            Value deep = context.eval(ID, "var s = '['.repeat(10000) + ']'.repeat(10000); Graal.parseJSON(new Uint8Array(Array.from(s, (c) => c.charCodeAt(0))))");
+            assertTrue(deep.hasArrayElements());
+        }
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.js.test.JSTest;
+
+public class JSONStringifyTest {
+
+    private static final String VALUE = "({a: [1, -2.5, true, null, undefined], '\\u00e9\\n': '\\u00e9\\u20ac\\ud83d\\ude00\\ud800', n: {m: [], f() {}}})";
+    private static final String DECODE = "(b) => decodeURIComponent(escape(String.fromCharCode.apply(null, b)))";
+
+    @Test
+    public void testStringifyJSONArrayBuffer() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value result = context.eval(ID, "var v = " + VALUE + "; var b = new ArrayBuffer(256); var n = Graal.stringifyJSON(v, null, 2, b);" +
+                            "(" + DECODE + ")(new Uint8Array(b, 0, n)) === JSON.stringify(v, null, 2)");
+            assertTrue(result.asBoolean());
+            result = context.eval(ID, "var u = new Uint8Array(20).fill(42); var n = Graal.stringifyJSON([1, 2], null, undefined, u.subarray(4, 10));" +
+                            "n + ':' + u.join()");
+            assertEquals("5:42,42,42,42,91,49,44,50,93,42,42,42,42,42,42,42,42,42,42,42", result.asString());
+            assertEquals("undefined", context.eval(ID, "typeof Graal.stringifyJSON(function() {}, null, 0, new ArrayBuffer(4))").asString());
+        }
+    }
+
+    @Test
+    public void testStringifyJSONHostTargets() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value stringifyJSON = context.eval(ID, "Graal.stringifyJSON");
+            String expected = context.eval(ID, "JSON.stringify(" + VALUE + ", ['a', 'n', 'm'])").asString();
+            Value value = context.eval(ID, VALUE);
+            Value replacer = context.eval(ID, "['a', 'n', 'm']");
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+            buffer.position(3);
+            Value written = stringifyJSON.execute(value, replacer, Value.asValue(null), buffer);
+            assertEquals(buffer.position() - 3, written.asInt());
+            byte[] bytes = new byte[written.asInt()];
+            buffer.flip().position(3);
+            buffer.get(bytes);
+            assertEquals(expected, new String(bytes, StandardCharsets.UTF_8));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            written = stringifyJSON.execute(value, replacer, Value.asValue(null), out);
+            assertEquals(out.size(), written.asInt());
+            assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testStringifyJSONLargeOutput() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value value = context.eval(ID, "Array.from({length: 20000}, (_, i) => ({id: i, name: 'item' + i, tags: ['\\u20ac', i % 2 === 0]}))");
+            String expected = context.eval(ID, "JSON.stringify").execute(value).asString();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            context.eval(ID, "(v, out) => Graal.stringifyJSON(v, undefined, undefined, out)").execute(value, out);
+            assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testStringifyJSONErrors() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value stringifyJSON = context.eval(ID, "Graal.stringifyJSON");
+            Value value = context.eval(ID, "({a: 'too long for the buffer'})");
+            ByteBuffer small = ByteBuffer.allocate(8);
+            for (Object target : new Object[]{small, context.eval(ID, "new ArrayBuffer(8)"), "not a target"}) {
+                try {
+                    stringifyJSON.execute(value, Value.asValue(null), Value.asValue(null), target);
+                    fail(String.valueOf(target));
+                } catch (PolyglotException ex) {
+                    assertTrue(ex.getMessage(), ex.getMessage().startsWith(target instanceof String ? "TypeError" : "RangeError"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStringifyJSONReadOnlyBuffer() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value stringifyJSON = context.eval(ID, "Graal.stringifyJSON");
+            for (ByteBuffer readOnly : new ByteBuffer[]{ByteBuffer.allocate(64).asReadOnlyBuffer(), ByteBuffer.allocateDirect(64).asReadOnlyBuffer()}) {
+                try {
+                    stringifyJSON.execute(context.eval(ID, "({a: 1})"), Value.asValue(null), Value.asValue(null), readOnly);
+                    fail(String.valueOf(readOnly));
+                } catch (PolyglotException ex) {
+                    assertTrue(ex.getMessage(), ex.getMessage().startsWith("TypeError"));
+                    assertEquals(0, readOnly.position());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStringifyShapeChanges() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value result = context.eval(ID, "var objs = [];" +
+                            "for (let i = 0; i < 3; i++) objs.push({a: i, b: {toJSON() { if (i === 0) objs[i].c = 'y'; else if (i === 1) delete objs[i].c; return 'b'; }}, c: i});" +
+                            "objs.push({a: 3, get b() { return 'g'; }, c: 3});" +
+                            "JSON.stringify(objs)");
+            assertEquals("[{\"a\":0,\"b\":\"b\",\"c\":\"y\"},{\"a\":1,\"b\":\"b\"},{\"a\":2,\"b\":\"b\",\"c\":2},{\"a\":3,\"b\":\"g\",\"c\":3}]", result.asString());
+        }
+    }
+}
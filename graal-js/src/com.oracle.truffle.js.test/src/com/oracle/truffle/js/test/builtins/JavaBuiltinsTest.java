@@ -44,7 +44,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Source;
@@ -155,6 +158,64 @@ public class JavaBuiltinsTest extends JSTest {
         test("var t = Java.to(1, 'int[]'); ''+t;", "is not an Object");
     }
 
+    @Test
+    public void testJavaFromPrimitiveArray() {
+        assertEquals("1,2,3:true", test("var t = Java.from(arg); t.push(4); t.pop(); t + ':' + Array.isArray(t);", null, true, new int[]{1, 2, 3}));
+        assertEquals("0.5,-1,2", test("''+Java.from(arg);", null, true, new double[]{0.5, -1, 2}));
+        assertEquals("-1,127", test("''+Java.from(arg);", null, true, new byte[]{-1, 127}));
+        assertEquals("0.25", test("''+Java.from(arg);", null, true, new float[]{0.25f}));
+        assertEquals("a,,b", test("''+Java.from(arg);", null, true, new String[]{"a", null, "b"}));
+        assertEquals("0", test("''+Java.from(arg).length;", null, true, new int[0]));
+    }
+
+    @Test
+    public void testJavaToPrimitiveArray() {
+        assertEquals("[I:1,2,3", test("var t = Java.to([1, 2, 3], 'int[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        assertEquals("[D:1,2.5", test("var t = Java.to([1, 2.5], 'double[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        assertEquals("[J:9007199254740991", test("var t = Java.to([Number.MAX_SAFE_INTEGER], 'long[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        assertEquals("[B:-128,127", test("var t = Java.to(new Int8Array([-128, 127]), 'byte[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        assertEquals("[Z:true,false", test("var t = Java.to([true, false], 'boolean[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        assertEquals("[I:4", test("var t = Java.to([4.0], 'int[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+
+        // lossy elements still fail like the element-wise conversion does
+        test("Java.to([1.5], 'int[]');", "");
+        test("Java.to([128], 'byte[]');", "");
+        test("Java.to(['x'], 'double[]');", "");
+
+        // read straight from the array storage or the typed array buffer
+        assertEquals("[I:1,2,3", test("var a = []; for (var i = 1; i <= 3; i++) a.push(i); var t = Java.to(a, 'int[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        assertEquals("[D:0.5,2", test("var a = [0.5]; a.push(2); var t = Java.to(a, 'double[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        assertEquals("[J:4294967295", test("var t = Java.to(new Uint32Array([-1]), 'long[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        assertEquals("[D:0.25,-3", test("var t = Java.to(new Float64Array([0.25, -3]), 'double[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        assertEquals("[S:-1,2", test("var t = Java.to(new Int32Array([-1, 2]), 'short[]'); (''+t).substring(0, 2) + ':' + Java.from(t);"));
+        test("Java.to(new Uint32Array([-1]), 'int[]');", "");
+        test("Java.to(new Float32Array([0.5]), 'int[]');", "");
+    }
+
+    @Test
+    public void testJavaFromRecords() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", i);
+            row.put("name", "row" + i);
+            row.put("score", i + 0.5);
+            row.put("big", 1L << 40);
+            row.put("missing", null);
+            rows.add(row);
+        }
+        Map<String, Object> other = new LinkedHashMap<>();
+        other.put("name", "other");
+        rows.add(other);
+        assertEquals("4:row1 1 1.5 1099511627776 null:other undefined:id,name,score,big,missing", test("var r = Java.fromRecords(arg);" +
+                        "r.length + ':' + r[1].name + ' ' + r[1].id + ' ' + r[1].score + ' ' + r[1].big + ' ' + r[1].missing + ':' + r[3].name + ' ' + r[3].id + ':' + Object.keys(r[0]);",
+                        null, true, rows));
+        assertEquals("1", test("''+Java.fromRecords(arg)[0].a;", null, true, new Object[]{Collections.singletonMap("a", 1)}));
+        test("Java.fromRecords(arg);", "expects a list or array of maps", true, new Object[]{1});
+        test("Java.fromRecords(arg);", "string keys", true, new Object[]{Collections.singletonMap(1, 1)});
+        test("Java.fromRecords([]);", "Cannot convert to JavaScript array");
+    }
+
     @Test
     public void testJavaSuper() {
         test("var t = Java.super({a:'foo'}); ''+t;");
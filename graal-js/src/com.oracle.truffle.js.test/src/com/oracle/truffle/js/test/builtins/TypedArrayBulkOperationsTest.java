@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Bulk TypedArray operations must give the same results as element-wise copies.
+ */
+public class TypedArrayBulkOperationsTest {
+
+    private static final String TYPES = "var types = [Int8Array, Uint8Array, Uint8ClampedArray, Int16Array, Uint16Array, Int32Array, Uint32Array, Float32Array, Float64Array];";
+
+    private static final String VALUES = "var values = [0, -0, 1, -1, 127, 128, -129, 255, 256, 0.5, 1.5, 2.5, -1.5, 65535, 65536, -32769, 2147483647, 2147483648, 4294967295, 4294967296, " +
+                    "-4294967297, 1e10, -1e10, 3.4e38, 1e-46, NaN, Infinity, -Infinity];";
+
+    private static final String ELEMENTWISE = "function elementwise(T, source) { var r = new T(source.length); for (var i = 0; i < source.length; i++) { r[i] = source[i]; } return r; }" +
+                    "function same(a, b) { if (a.length !== b.length) { return false; } for (var i = 0; i < a.length; i++) { if (!Object.is(a[i], b[i])) { return false; } } return true; }";
+
+    private static void testScript(String script) {
+        for (String direct : new String[]{"false", "true"}) {
+            try (Context context = JSTest.newContextBuilder().option(JSContextOptions.DIRECT_BYTE_BUFFER_NAME, direct).build()) {
+                assertEquals(direct, "", context.eval(ID, TYPES + VALUES + ELEMENTWISE + script).asString());
+            }
+        }
+    }
+
+    @Test
+    public void testConversions() {
+        testScript("var errors = '';" +
+                        "types.forEach(S => { var source = S.from(values); types.forEach(T => {" +
+                        "  var expected = elementwise(T, source);" +
+                        "  if (!same(new T(source), expected)) { errors += 'new ' + T.name + '(' + S.name + ') '; }" +
+                        "  var target = new T(source.length + 2); target.set(source, 1);" +
+                        "  if (!same(target.subarray(1, source.length + 1), expected) || target[0] !== 0 || target[source.length + 1] !== 0) { errors += T.name + '.set(' + S.name + ') '; }" +
+                        "}); });" +
+                        "errors;");
+    }
+
+    @Test
+    public void testFill() {
+        testScript("var errors = '';" +
+                        "types.forEach(T => values.forEach(v => {" +
+                        "  var a = new T(17).fill(v, 2, -3); var expected = elementwise(T, [0, 0].concat(new Array(12).fill(v), [0, 0, 0]));" +
+                        "  if (!same(a, expected)) { errors += T.name + '.fill(' + v + ') '; }" +
+                        "}));" +
+                        "errors;");
+    }
+
+    @Test
+    public void testCopyWithin() {
+        testScript("var errors = '';" +
+                        "types.forEach(T => [[0, 3], [3, 0], [1, 2, 9], [5, 1, 6], [0, 0]].forEach(args => {" +
+                        "  var plain = [1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11]; var a = new T(plain); var base = new T(a.buffer, T.BYTES_PER_ELEMENT, 9);" +
+                        "  base.copyWithin(...args); plain.slice(1, 10).copyWithin(...args).forEach((v, i) => plain[i + 1] = v);" +
+                        "  if (!same(a, elementwise(T, plain))) { errors += T.name + '.copyWithin(' + args + ') '; }" +
+                        "}));" +
+                        "errors;");
+    }
+
+    @Test
+    public void testIndexOfAndIncludes() {
+        testScript("var errors = '';" +
+                        "types.forEach(T => { var a = T.from(values); var plain = Array.from(a); values.concat([-128, 4294967295, 1e-46, 2147483648.5]).forEach(v => {" +
+                        "  if (a.indexOf(v) !== plain.indexOf(v) || a.indexOf(v, 5) !== plain.indexOf(v, 5)) { errors += T.name + '.indexOf(' + v + ') '; }" +
+                        "  if (a.lastIndexOf(v) !== plain.lastIndexOf(v) || a.lastIndexOf(v, -5) !== plain.lastIndexOf(v, -5)) { errors += T.name + '.lastIndexOf(' + v + ') '; }" +
+                        "  if (a.includes(v) !== plain.includes(v) || a.includes(v, -3) !== plain.includes(v, -3)) { errors += T.name + '.includes(' + v + ') '; }" +
+                        "}); if (a.indexOf('0') !== -1 || a.includes(undefined)) { errors += T.name + ' non-number '; } });" +
+                        "errors;");
+    }
+
+    @Test
+    public void testSlice() {
+        testScript("var errors = '';" +
+                        "types.forEach(T => { var a = T.from(values);" +
+                        "  if (!same(a.subarray(2).slice(1, -1), T.from(Array.from(a).slice(3, -1)))) { errors += T.name + '.slice '; }" +
+                        "  class Other extends T { static get [Symbol.species]() { return Float64Array; } }" +
+                        "  if (!same(new Other(a).slice(1), Float64Array.from(Array.from(a).slice(1)))) { errors += T.name + '.slice species '; }" +
+                        "});" +
+                        "errors;");
+    }
+
+    @Test
+    public void testBigInt() {
+        testScript("var errors = ''; var big = BigInt64Array.from([0n, -1n, 1n, -(2n ** 63n), 2n ** 63n - 1n]);" +
+                        "var unsigned = new BigUint64Array(big); if (unsigned[1] !== 2n ** 64n - 1n) { errors += 'new BigUint64Array(BigInt64Array) '; }" +
+                        "var back = new BigInt64Array(5); back.set(unsigned); if (!same(back, big)) { errors += 'BigInt64Array.set(BigUint64Array) '; }" +
+                        "if (!same(new BigInt64Array(4).fill(-2n, 1), [0n, -2n, -2n, -2n])) { errors += 'BigInt64Array.fill '; }" +
+                        "if (big.indexOf(-1n) !== 1 || !big.includes(2n ** 63n - 1n) || big.indexOf(-1) !== -1) { errors += 'BigInt64Array.indexOf '; }" +
+                        "try { new Int32Array(big); errors += 'mixed '; } catch (e) { if (!(e instanceof TypeError)) { errors += 'mixed ' + e; } }" +
+                        "errors;");
+    }
+}
@@ -78,6 +78,8 @@ public class DebugBuiltinsTest {
         ctx.eval("js", "Debug.systemGC();");
         ctx.eval("js", "Debug.systemProperty();");
         ctx.eval("js", "Debug.systemProperties();");
+        ctx.eval("js", "Debug.dynamicCodeCache();");
+        ctx.eval("js", "Debug.regexCache();");
         ctx.eval("js", "Debug.neverPartOfCompilation();");
 
         String heapDumpName = ctx.eval("js", "Debug.dumpHeap();").asString();
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.interop;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.objects.DefaultESModuleLoader;
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Loading ES module graphs with {@code js.module-loading-threads}, compared to loading the modules
+ * one by one.
+ */
+public class ESModuleLoadingThreadsTest {
+
+    private Path root;
+    private int preloadedModuleCount;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("esm-loading-threads");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void write(String name, String content) throws IOException {
+        Path file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String run(int threads, String mainName) throws IOException {
+        return run(threads, true, mainName);
+    }
+
+    private String run(int threads, boolean allowCreateThread, String mainName) throws IOException {
+        preloadedModuleCount = 0;
+        try (Context context = JSTest.newContextBuilder().allowIO(true).allowCreateThread(allowCreateThread).allowExperimentalOptions(true).option(
+                        JSContextOptions.MODULE_LOADING_THREADS_NAME, String.valueOf(threads)).build()) {
+            try {
+                context.eval(Source.newBuilder(ID, root.resolve(mainName).toFile()).build());
+                return context.getBindings(ID).getMember("result").toString();
+            } finally {
+                preloadedModuleCount = ((DefaultESModuleLoader) JavaScriptLanguage.getJSRealm(context).getModuleLoader()).getPreloadedModuleCount();
+            }
+        }
+    }
+
+    private String runBoth(String mainName) throws IOException {
+        String serial = run(0, mainName);
+        assertEquals(0, preloadedModuleCount);
+        assertEquals(serial, run(4, mainName));
+        assertTrue(preloadedModuleCount > 0);
+        return serial;
+    }
+
+    private String failBoth(String mainName) throws IOException {
+        String serial = failure(0, mainName);
+        assertEquals(serial, failure(4, mainName));
+        return serial;
+    }
+
+    private String failure(int threads, String mainName) throws IOException {
+        try {
+            run(threads, mainName);
+            fail("expected an error");
+            return null;
+        } catch (PolyglotException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    public void testTree() throws IOException {
+        int modules = 100;
+        for (int i = 0; i < modules; i++) {
+            StringBuilder body = new StringBuilder("import { log } from './shared.mjs';\n");
+            StringBuilder sum = new StringBuilder("log(" + i + ")");
+            for (int c = 1; c <= 2; c++) {
+                int child = 2 * i + c;
+                if (child < modules) {
+                    body.append("import { f as f").append(c).append(" } from './m").append(child).append(".mjs';\n");
+                    sum.append(" + f").append(c).append("()");
+                }
+            }
+            body.append("export function f() { return ").append(sum).append("; }\n");
+            write("m" + i + ".mjs", body.toString());
+        }
+        write("shared.mjs", "export const order = [];\nexport function log(i) { order.push(i); return i; }\n");
+        write("main.mjs", "import { f } from './m0.mjs';\nimport { order } from './shared.mjs';\nglobalThis.result = f() + ':' + order.length;\n");
+        assertEquals((modules * (modules - 1) / 2) + ":" + modules, runBoth("main.mjs"));
+    }
+
+    @Test
+    public void testEvaluationOrderAndCycles() throws IOException {
+        write("a.mjs", "import { trace } from './trace.mjs';\nimport './b.mjs';\nimport './c.mjs';\ntrace('a');\n");
+        write("b.mjs", "import { trace } from './trace.mjs';\nimport './c.mjs';\nimport './a.mjs';\ntrace('b');\n");
+        write("c.mjs", "import { trace } from './trace.mjs';\ntrace('c');\n");
+        write("trace.mjs", "export const seen = [];\nexport function trace(name) { seen.push(name); }\n");
+        write("main.mjs", "import { seen } from './trace.mjs';\nimport './a.mjs';\nglobalThis.result = seen.join();\n");
+        assertEquals("c,b,a", runBoth("main.mjs"));
+    }
+
+    @Test
+    public void testSameModuleUnderDifferentSpecifiers() throws IOException {
+        write("lib/counter.mjs", "export let loaded = (globalThis.loads = (globalThis.loads || 0) + 1);\n");
+        write("lib/user.mjs", "import { loaded } from './counter.mjs';\nexport const viaUser = loaded;\n");
+        write("main.mjs", "import { loaded } from './lib/counter.mjs';\nimport { viaUser } from './lib/user.mjs';\nglobalThis.result = loaded + ',' + viaUser + ',' + globalThis.loads;\n");
+        assertEquals("1,1,1", runBoth("main.mjs"));
+    }
+
+    @Test
+    public void testPreloadedUnderOtherSpecifier() throws IOException {
+        // preloaded as './b.mjs' for main.mjs, but linked as '../b.mjs' for lib/a.mjs
+        write("b.mjs", "export const named = new Error().stack.includes('(../b.mjs:');\n");
+        write("lib/a.mjs", "import { named } from '../b.mjs';\nexport const a = named;\n");
+        write("main.mjs", "import { a } from './lib/a.mjs';\nimport { named } from './b.mjs';\nglobalThis.result = a + ',' + named;\n");
+        assertEquals("true,true", run(0, "main.mjs"));
+        assertEquals("true,true", run(4, "main.mjs"));
+        assertEquals(2, preloadedModuleCount);
+    }
+
+    @Test
+    public void testPreloadedModuleLoadedDirectly() throws IOException {
+        write("a.mjs", "globalThis.result = 'a';\n");
+        write("main.mjs", "import './missing.mjs';\nimport './a.mjs';\n");
+        try (Context context = JSTest.newContextBuilder().allowIO(true).allowCreateThread(true).allowExperimentalOptions(true).option(
+                        JSContextOptions.MODULE_LOADING_THREADS_NAME, "4").build()) {
+            try {
+                context.eval(Source.newBuilder(ID, root.resolve("main.mjs").toFile()).build());
+                fail("expected an error");
+            } catch (PolyglotException e) {
+                assertTrue(e.getMessage().contains("missing.mjs"));
+            }
+            DefaultESModuleLoader loader = (DefaultESModuleLoader) JavaScriptLanguage.getJSRealm(context).getModuleLoader();
+            // linking failed before a.mjs was resolved
+            assertEquals(1, loader.getPendingPreloadedModuleCount());
+            context.eval(Source.newBuilder(ID, root.resolve("a.mjs").toFile()).build());
+            assertEquals("a", context.getBindings(ID).getMember("result").toString());
+            assertEquals(0, loader.getPendingPreloadedModuleCount());
+        }
+    }
+
+    @Test
+    public void testSyntaxErrorInImportedModule() throws IOException {
+        write("broken.mjs", "export const x = ;\n");
+        write("ok.mjs", "import './broken.mjs';\n");
+        write("main.mjs", "import './ok.mjs';\nglobalThis.result = 'unreachable';\n");
+        assertTrue(failBoth("main.mjs").contains("SyntaxError"));
+    }
+
+    @Test
+    public void testRegExpLiterals() throws IOException {
+        write("words.mjs", "export const words = 'alpha beta gamma'.split(/\\s+/);\n");
+        write("match.mjs", "import { words } from './words.mjs';\nexport const matching = words.filter(w => /^(?<first>[a-b])\\w*a$/u.test(w));\n");
+        write("main.mjs", "import { matching } from './match.mjs';\nglobalThis.result = matching.join();\n");
+        assertEquals("alpha,beta", runBoth("main.mjs"));
+    }
+
+    @Test
+    public void testInvalidRegExpLiteralInImportedModule() throws IOException {
+        write("broken.mjs", "export const r = /(/;\n");
+        write("ok.mjs", "import './broken.mjs';\n");
+        write("main.mjs", "import './ok.mjs';\nglobalThis.result = 'unreachable';\n");
+        assertTrue(failBoth("main.mjs").contains("SyntaxError"));
+    }
+
+    @Test
+    public void testCreateThreadNotAllowed() throws IOException {
+        write("a.mjs", "export const a = 'a';\n");
+        write("main.mjs", "import { a } from './a.mjs';\nglobalThis.result = a;\n");
+        assertEquals("a", run(4, false, "main.mjs"));
+        assertEquals(0, preloadedModuleCount);
+    }
+
+    @Test
+    public void testMissingModule() throws IOException {
+        write("main.mjs", "import './missing.mjs';\nglobalThis.result = 'unreachable';\n");
+        assertTrue(failBoth("main.mjs").contains("missing.mjs"));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.interop;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Array builtins, {@code Array.from} and spread applied to foreign arrays.
+ */
+public class ForeignArrayBuiltinsTest {
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = JSTest.newContextBuilder().allowHostAccess(HostAccess.ALL).build();
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    private Value evalWith(Object foreign, String code) {
+        context.getBindings(ID).putMember("a", foreign);
+        return context.eval(ID, code);
+    }
+
+    private void testAllKinds(String code, String expected) {
+        Object[] kinds = {
+                        new int[]{1, 2, 3, 4},
+                        new double[]{1, 2, 3, 4},
+                        new byte[]{1, 2, 3, 4},
+                        new short[]{1, 2, 3, 4},
+                        new long[]{1, 2, 3, 4},
+                        new Integer[]{1, 2, 3, 4},
+                        Arrays.asList(1, 2, 3, 4),
+                        ProxyArray.fromArray(1, 2, 3, 4)};
+        for (Object foreign : kinds) {
+            assertEquals(foreign.getClass().getName(), expected, evalWith(foreign, code).toString());
+        }
+    }
+
+    @Test
+    public void testMap() {
+        testAllKinds("Array.prototype.map.call(a, (x) => x * 2).join()", "2,4,6,8");
+    }
+
+    @Test
+    public void testForEach() {
+        testAllKinds("var s = 0; Array.prototype.forEach.call(a, (x, i) => { s += x * i; }); s", "20");
+    }
+
+    @Test
+    public void testFilter() {
+        testAllKinds("Array.prototype.filter.call(a, (x) => (x & 1) === 0).join()", "2,4");
+    }
+
+    @Test
+    public void testReduce() {
+        testAllKinds("Array.prototype.reduce.call(a, (acc, x) => acc + x, 0)", "10");
+        testAllKinds("Array.prototype.reduceRight.call(a, (acc, x) => acc + '' + x, '')", "4321");
+    }
+
+    @Test
+    public void testJoin() {
+        testAllKinds("Array.prototype.join.call(a, '-')", "1-2-3-4");
+    }
+
+    @Test
+    public void testIndexOf() {
+        testAllKinds("Array.prototype.indexOf.call(a, 3)", "2");
+        testAllKinds("Array.prototype.indexOf.call(a, 5)", "-1");
+        testAllKinds("Array.prototype.includes.call(a, 4)", "true");
+    }
+
+    @Test
+    public void testArrayFrom() {
+        testAllKinds("var r = Array.from(a); Array.isArray(r) + ':' + r.length + ':' + r.join()", "true:4:1,2,3,4");
+        testAllKinds("Array.from(a, (x, i) => x + i).join()", "1,3,5,7");
+    }
+
+    @Test
+    public void testSpread() {
+        testAllKinds("var r = [0, ...a, 5]; r.length + ':' + r.join()", "6:0,1,2,3,4,5");
+        testAllKinds("Math.max(...a)", "4");
+    }
+
+    @Test
+    public void testCopiesAreIndependent() {
+        int[] array = {1, 2, 3};
+        Value result = evalWith(array, "var r = Array.from(a); r[0] = 42; r");
+        assertEquals(1, array[0]);
+        assertEquals(42, result.getArrayElement(0).asInt());
+        array[1] = 7;
+        assertEquals(2, result.getArrayElement(1).asInt());
+    }
+
+    @Test
+    public void testFloatAndObjectElements() {
+        assertEquals("0.5,1.5", evalWith(new float[]{0.5f, 1.5f}, "Array.from(a).join()").toString());
+        List<Object> mixed = Arrays.asList("x", 1, true);
+        assertEquals("x,1,true", evalWith(mixed, "[...a].join()").toString());
+        Value first = evalWith(new Object[]{new StringBuilder("sb")}, "Array.from(a)[0]");
+        assertTrue(first.isHostObject());
+    }
+}
@@ -47,9 +47,13 @@ import org.junit.Test;
 
 import com.oracle.truffle.js.test.JSTest;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -161,4 +165,89 @@ public class InteropByteBufferTest {
             assertEquals(jBuffer.get(2), 43);
         }
     }
+
+    @Test
+    public void testDirectBufferSlice() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+        buffer.position(4);
+        ByteBuffer slice = buffer.slice();
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value fun = context.eval(ID, "(function(buff) { var a = new Uint8Array(new ArrayBuffer(buff)); a.fill(7); return a.length; })");
+            assertEquals(4, fun.execute(slice).asInt());
+            assertEquals(0, buffer.get(3));
+            assertEquals(7, buffer.get(4));
+            assertEquals(7, buffer.get(7));
+        }
+    }
+
+    @Test
+    public void testReadOnlyBuffer() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value fun = context.eval(ID, "(function(buff) { try { new ArrayBuffer(buff); return false; } catch (e) { return e instanceof TypeError; } })");
+            assertTrue(fun.execute(ByteBuffer.wrap(new byte[4]).asReadOnlyBuffer()).asBoolean());
+            assertTrue(fun.execute(ByteBuffer.wrap(new byte[4], 1, 2).slice()).asBoolean());
+        }
+    }
+
+    @Test
+    public void testReadOnlyDirectBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+        buffer.put(1, (byte) 42);
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.getBindings(ID).putMember("buffer", buffer.asReadOnlyBuffer());
+            context.eval(ID, "var ab = new ArrayBuffer(buffer); var u8 = new Uint8Array(ab); var f64 = new Float64Array(ab); var dv = new DataView(ab);" +
+                            "function throwsTypeError(f) { try { f(); return false; } catch (e) { return e instanceof TypeError; } }");
+            assertEquals(42, context.eval(ID, "u8[1] + dv.getUint8(0) + u8.slice(1, 2)[0] - 42").asInt());
+            assertEquals(42 * 3, context.eval(ID, "u8.subarray(1)[0] + new Uint8Array(ab, 1, 2)[0] + Atomics.load(u8, 1)").asInt());
+            assertTrue(context.eval(ID, "throwsTypeError(() => { u8[0] = 1; }) && throwsTypeError(() => { f64[0] = 1.5; }) && throwsTypeError(() => dv.setInt16(0, 1))").asBoolean());
+            assertTrue(context.eval(ID, "throwsTypeError(() => u8.fill(3)) && throwsTypeError(() => u8.set([1, 2])) && throwsTypeError(() => u8.set(new Uint8Array(2)))").asBoolean());
+            assertTrue(context.eval(ID, "throwsTypeError(() => u8.copyWithin(0, 4)) && throwsTypeError(() => u8.sort()) && throwsTypeError(() => Atomics.store(u8, 0, 1))").asBoolean());
+            for (int i = 0; i < 8; i++) {
+                assertEquals(i == 1 ? 42 : 0, buffer.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testMapFile() throws IOException {
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+            try (Context context = JSTest.newContextBuilder().allowIO(true).build()) {
+                context.getBindings(ID).putMember("path", file.toString());
+                // read-only mapping: writes are rejected
+                assertEquals(36, context.eval(ID, "var a = new Uint8Array(Graal.mapFile(path)); a.reduce((x, y) => x + y)").asInt());
+                assertTrue(context.eval(ID, "try { a[0] = 42; false; } catch (e) { e instanceof TypeError && a[0] === 1; }").asBoolean());
+                assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, Files.readAllBytes(file));
+                // shared mapping of a region: writes go to the file
+                assertEquals(0x05040302, context.eval(ID, "var v = new DataView(Graal.mapFile(path, 'rw', 1, 4)); v.setUint8(3, 9); v.getUint32(0, true) - (9 - 5) * 0x1000000").asInt());
+                assertArrayEquals(new byte[]{1, 2, 3, 4, 9, 6, 7, 8}, Files.readAllBytes(file));
+                assertTrue(context.eval(ID, "try { Graal.mapFile(path, 'r', 4, 5); false; } catch (e) { e instanceof RangeError; }").asBoolean());
+                assertTrue(context.eval(ID, "try { Graal.mapFile(path, 'x'); false; } catch (e) { e instanceof TypeError; }").asBoolean());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMapReadOnlyFile() throws IOException {
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            Files.write(file, new byte[]{1, 2, 3, 4});
+            assertTrue(file.toFile().setWritable(false));
+            try (Context context = JSTest.newContextBuilder().allowIO(true).build()) {
+                context.getBindings(ID).putMember("path", file.toString());
+                assertEquals(0x04030201, context.eval(ID, "new DataView(Graal.mapFile(path)).getInt32(0, true)").asInt());
+                if (!Files.isWritable(file)) {
+                    // e.g., not running as root
+                    assertTrue(context.eval(ID, "try { Graal.mapFile(path, 'rw'); false; } catch (e) { e instanceof Error; }").asBoolean());
+                }
+            }
+            assertArrayEquals(new byte[]{1, 2, 3, 4}, Files.readAllBytes(file));
+        } finally {
+            file.toFile().setWritable(true);
+            Files.delete(file);
+        }
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.util.BoundedLRUCache;
+import com.oracle.truffle.js.runtime.util.DebugCounter;
+
+/**
+ * Eviction order and statistics of the cache behind the dynamic code and compiled regex caches.
+ */
+public class BoundedLRUCacheTest {
+
+    private static final DebugCounter counter = DebugCounter.create("BoundedLRUCacheTest");
+
+    private static BoundedLRUCache<Integer, String> newCache(int capacity) {
+        return new BoundedLRUCache<>(capacity, counter, counter, counter);
+    }
+
+    @Test
+    public void testEvictsUnusedEntries() {
+        BoundedLRUCache<Integer, String> cache = newCache(4);
+        for (int i = 0; i < 4; i++) {
+            cache.putIfAbsent(i, "v" + i);
+        }
+        // entries 0 and 2 are used, so 1 and 3 are evicted first
+        assertEquals("v0", cache.get(0));
+        assertEquals("v2", cache.get(2));
+        cache.putIfAbsent(4, "v4");
+        cache.putIfAbsent(5, "v5");
+        assertEquals(4, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+        assertNull(cache.get(1));
+        assertNull(cache.get(3));
+        assertEquals("v0", cache.get(0));
+        assertEquals("v2", cache.get(2));
+        assertEquals("v4", cache.get(4));
+        assertEquals("v5", cache.get(5));
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        BoundedLRUCache<Integer, String> cache = newCache(2);
+        cache.putIfAbsent(1, "a");
+        cache.putIfAbsent(1, "b");
+        assertEquals("a", cache.get(1));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertNull(cache.get(2));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testManyEvictions() {
+        BoundedLRUCache<Integer, String> cache = newCache(64);
+        for (int i = 0; i < 100000; i++) {
+            cache.putIfAbsent(i, "v");
+            // keep a few hot entries alive
+            cache.get(i % 8);
+        }
+        assertEquals(64, cache.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals("v", cache.get(i));
+        }
+    }
+
+    @Test
+    public void testZeroCapacity() {
+        BoundedLRUCache<Integer, String> cache = newCache(0);
+        cache.putIfAbsent(1, "a");
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+    }
+}
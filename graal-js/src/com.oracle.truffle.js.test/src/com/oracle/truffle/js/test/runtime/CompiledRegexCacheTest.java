@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.test.JSTest;
+
+public class CompiledRegexCacheTest {
+
+    private static final String PATTERNS = "var r = []; for (var round = 0; round < 2; round++) {" +
+                    "  for (var i = 0; i < 20; i++) { r.push(new RegExp('^id' + i + '$', 'i').test('ID' + i)); }" +
+                    "} r.every(x => x)";
+
+    @Test
+    public void testMegamorphicCallSite() {
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").build()) {
+            Value before = context.eval(ID, "Debug.regexCache()");
+            assertTrue(context.eval(ID, PATTERNS).asBoolean());
+            Value after = context.eval(ID, "Debug.regexCache()");
+            // every pattern is compiled once; the second round is served by the node or the shared cache
+            assertEquals(20, after.getMember("misses").asLong() - before.getMember("misses").asLong());
+            assertTrue(after.getMember("hits").asLong() - before.getMember("hits").asLong() >= 16);
+        }
+    }
+
+    @Test
+    public void testSharedAcrossContexts() {
+        try (Engine engine = JSTest.newEngineBuilder().build()) {
+            for (int i = 0; i < 2; i++) {
+                try (Context context = JSTest.newContextBuilder().engine(engine).option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").build()) {
+                    Value before = context.eval(ID, "Debug.regexCache()");
+                    assertTrue(context.eval(ID, PATTERNS).asBoolean());
+                    Value after = context.eval(ID, "Debug.regexCache()");
+                    long misses = after.getMember("misses").asLong() - before.getMember("misses").asLong();
+                    assertEquals(i == 0 ? 20 : 0, misses);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").option(JSContextOptions.REGEX_CACHE_SIZE_NAME, "8").build()) {
+            Value stats = context.eval(ID, "for (var i = 0; i < 20; i++) { new RegExp('x' + i); } Debug.regexCache()");
+            assertEquals(8, stats.getMember("capacity").asInt());
+            assertTrue(stats.getMember("size").asInt() <= 8);
+            assertTrue(stats.getMember("evictions").asLong() >= 12);
+        }
+    }
+
+    @Test
+    public void testSyntaxErrorNotCached() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value result = context.eval(ID, "var errors = 0; for (var i = 0; i < 10; i++) { try { new RegExp('(' + (i % 2)); } catch (e) { if (e instanceof SyntaxError) errors++; } } errors");
+            assertEquals(10, result.asInt());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Objects used as large string-keyed tables, which are migrated to dictionary objects and back.
+ */
+public class DictionaryObjectTest {
+
+    private static final String BUILD = "var o = {}; var sym = Symbol('s');" +
+                    "for (var i = 0; i < 3000; i++) { o['key' + i] = i; }" +
+                    "o[sym] = 'symbol'; o[17] = 'seventeen'; o[3] = 'three';" +
+                    "Object.defineProperty(o, 'hidden', {value: 'h', enumerable: false, writable: true, configurable: true});";
+
+    @Test
+    public void testKeyOrder() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, BUILD);
+            assertEquals("3,17,key0,key1,key2999,hidden", context.eval(ID, "var k = Object.getOwnPropertyNames(o); [k[0], k[1], k[2], k[3], k[3001], k[3002]].join()").asString());
+            assertEquals(3002, context.eval(ID, "Object.keys(o).length").asInt());
+            assertEquals("3,17,key0,key2999", context.eval(ID, "var k = Object.keys(o); [k[0], k[1], k[2], k[k.length - 1]].join()").asString());
+            assertEquals(3002, context.eval(ID, "var n = 0; for (var key in o) { n++; } n").asInt());
+            assertTrue(context.eval(ID, "var s = Object.getOwnPropertySymbols(o); s.length === 1 && s[0] === sym && o[sym] === 'symbol'").asBoolean());
+            assertEquals("3,17,key0", context.eval(ID, "Reflect.ownKeys(o).slice(0, 3).join()").asString());
+        }
+    }
+
+    @Test
+    public void testAccess() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, BUILD);
+            Value result = context.eval(ID, "function read(obj) { return obj.key42 + obj.key2999 + (obj.missing === undefined ? 1 : 0); }" +
+                            "function write(obj, v) { obj.key42 = v; }" +
+                            "var ok = true;" +
+                            "for (var i = 0; i < 10000; i++) { write(o, i); ok = ok && read(o) === i + 2999 + 1; }" +
+                            "Object.defineProperty(o, 'key42', {get: function() { return 1000; }, configurable: true});" +
+                            "ok = ok && read(o) === 1000 + 2999 + 1;" +
+                            "Object.prototype.missing = 'inherited';" +
+                            "ok && read(o) === 1000 + 2999");
+            assertTrue(result.asBoolean());
+        }
+    }
+
+    @Test
+    public void testShrink() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, BUILD);
+            context.eval(ID, "for (var i = 0; i < 3000; i++) { if (i % 1000 !== 0) { delete o['key' + i]; } }" +
+                            "delete o[3]; delete o[17];" +
+                            "o.added = 'a';");
+            assertEquals("key0,key1000,key2000,added", context.eval(ID, "Object.keys(o).join()").asString());
+            assertTrue(context.eval(ID, "o.hidden === 'h' && o[sym] === 'symbol' && o.key1000 === 1000").asBoolean());
+        }
+    }
+
+    @Test
+    public void testSparseIndices() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, "var t = {}; for (var i = 2000; i >= 0; i -= 2) { t[i] = i; }" +
+                            "for (var i = 0; i < 1990; i += 2) { delete t[i]; }");
+            assertEquals("1990,1992,1994,1996,1998,2000", context.eval(ID, "Object.keys(t).join()").asString());
+        }
+    }
+
+    @Test
+    public void testNotExtensible() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, BUILD);
+            Value result = context.eval(ID, "Object.preventExtensions(o);" +
+                            "for (var i = 0; i < 3000; i++) { delete o['key' + i]; }" +
+                            "delete o[3]; delete o[17];" +
+                            "o.added = 'a';" +
+                            "!Object.isExtensible(o) && o.added === undefined && Object.keys(o).length === 0 && o.hidden === 'h'");
+            assertTrue(result.asBoolean());
+        }
+    }
+}
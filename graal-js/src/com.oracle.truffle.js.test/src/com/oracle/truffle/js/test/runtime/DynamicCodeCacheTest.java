@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.test.JSTest;
+
+public class DynamicCodeCacheTest {
+
+    private static final String CALL_SITES = "var f1 = new Function('a', 'b', 'return a + b;');" +
+                    "var f2 = new Function('a', 'b', 'return a + b;');" +
+                    "var e1 = (0, eval)('6 * 7');" +
+                    "var e2 = (1, eval)('6 * 7');" +
+                    "var s = (function(x) { 'use strict'; var r = 0; for (var i = 0; i < 3; i++) { r += eval('x + i'); } return r; })(10);" +
+                    "[f1(1, 2), f2(3, 4), e1, e2, s].join()";
+
+    @Test
+    public void testSharedAcrossContexts() {
+        try (Engine engine = JSTest.newEngineBuilder().build()) {
+            for (int i = 0; i < 2; i++) {
+                try (Context context = JSTest.newContextBuilder().engine(engine).option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").build()) {
+                    Value before = context.eval(ID, "Debug.dynamicCodeCache()");
+                    assertEquals("3,7,42,42,33", context.eval(ID, CALL_SITES).asString());
+                    Value after = context.eval(ID, "Debug.dynamicCodeCache()");
+                    long hits = after.getMember("hits").asLong() - before.getMember("hits").asLong();
+                    long misses = after.getMember("misses").asLong() - before.getMember("misses").asLong();
+                    if (i == 0) {
+                        // one miss each for the function, the indirect eval and the strict eval
+                        assertEquals(3, misses);
+                        assertEquals(4, hits);
+                    } else {
+                        // nothing is parsed again; the call sites may still hold on to their code
+                        assertEquals(0, misses);
+                        assertTrue(hits >= 5);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").option(JSContextOptions.FUNCTION_CONSTRUCTOR_CACHE_SIZE_NAME, "4").build()) {
+            Value stats = context.eval(ID, "for (var i = 0; i < 10; i++) { new Function('return ' + i)(); (0, eval)(String(i)); } Debug.dynamicCodeCache()");
+            assertEquals(4, stats.getMember("capacity").asInt());
+            assertTrue(stats.getMember("size").asInt() <= 4);
+            assertEquals(16, stats.getMember("evictions").asLong());
+        }
+    }
+
+    @Test
+    public void testSloppyDirectEvalNotShared() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value result = context.eval(ID, "(function() { var r = []; for (var i = 0; i < 3; i++) { eval('var v' + (i % 2) + ' = i'); r.push(typeof v0, typeof v1); } return r.join(); })()");
+            assertEquals("number,undefined,number,number,number,number", result.asString());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.util.JSHashMap;
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Insertion order, unboxed keys and live cursors of the hash table behind {@code Map} and
+ * {@code Set}, across growth, compaction, shrinking and clearing.
+ */
+public class JSHashMapTest {
+
+    private static List<Object> keys(JSHashMap.Cursor cursor) {
+        List<Object> keys = new ArrayList<>();
+        while (cursor.advance()) {
+            keys.add(cursor.getKey());
+        }
+        return keys;
+    }
+
+    @Test
+    public void testKeys() {
+        JSHashMap map = new JSHashMap();
+        map.put(1, "int");
+        map.put(1.5, "double");
+        map.put("1", "string");
+        map.put(Double.NaN, "NaN");
+        map.put((Object) 2, "boxed int");
+        map.put((Object) 2.5, "boxed double");
+        assertEquals(6, map.size());
+        assertEquals("int", map.get((Object) 1));
+        assertEquals("double", map.get((Object) 1.5));
+        assertEquals("string", map.get("1"));
+        assertEquals("NaN", map.get(0.0 / 0.0));
+        assertEquals("boxed int", map.get(2));
+        assertEquals("boxed double", map.get(2.5));
+        assertFalse(map.has(1.0));
+        assertFalse(map.has("2"));
+        map.put(1.5, "updated");
+        assertEquals(6, map.size());
+        assertEquals("[1, 1.5, 1, NaN, 2, 2.5]", keys(map.getEntries()).toString());
+        assertTrue(map.remove(1.5));
+        assertFalse(map.remove(1.5));
+        assertEquals("{1=int, 1=string, NaN=NaN, 2=boxed int, 2.5=boxed double}", map.toString());
+    }
+
+    @Test
+    public void testGrowAndShrink() {
+        JSHashMap map = new JSHashMap();
+        for (int i = 0; i < 10000; i++) {
+            map.put(i, "v" + i);
+            map.put("k" + i, "v" + i);
+        }
+        assertEquals(20000, map.size());
+        for (int i = 0; i < 10000; i++) {
+            if (i % 100 != 0) {
+                assertTrue(map.remove(i));
+                assertTrue(map.remove("k" + i));
+            }
+        }
+        assertEquals(200, map.size());
+        List<Object> keys = keys(map.getEntries());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i * 100, keys.get(2 * i));
+            assertEquals("k" + i * 100, keys.get(2 * i + 1));
+            assertEquals("v" + i * 100, map.get("k" + i * 100));
+        }
+    }
+
+    @Test
+    public void testLiveCursor() {
+        JSHashMap map = new JSHashMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "v" + i);
+        }
+        JSHashMap.Cursor cursor = map.getEntries();
+        List<Object> visited = new ArrayList<>();
+        while (cursor.advance()) {
+            int key = (int) cursor.getKey();
+            visited.add(key);
+            if (key < 100) {
+                // removes most entries, so the table is compacted and shrunk under the cursor
+                map.remove(key);
+                map.remove(key + 1);
+            }
+            if (key == 98) {
+                map.put(1000, "late");
+            } else if (key == 1000) {
+                map.clear();
+                map.put(-1, "cleared");
+            }
+        }
+        assertEquals(52, visited.size());
+        assertEquals(0, visited.get(0));
+        assertEquals(98, visited.get(49));
+        assertEquals(1000, visited.get(50));
+        assertEquals(-1, visited.get(51));
+        // an exhausted cursor stays exhausted
+        map.put(2000, "exhausted");
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    public void testCursorCopy() {
+        JSHashMap map = new JSHashMap();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, "v" + i);
+        }
+        JSHashMap.Cursor cursor = map.getEntries();
+        cursor.advance();
+        cursor.advance();
+        JSHashMap.Cursor copy = cursor.copy();
+        for (int i = 0; i < 8; i++) {
+            map.remove(i);
+        }
+        assertEquals("[8, 9]", keys(cursor).toString());
+        assertEquals("[8, 9]", keys(copy).toString());
+    }
+
+    @Test
+    public void testMapAndSet() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            String result = context.eval(ID, "var m = new Map(); var s = new Set();" +
+                            "for (var k of [1, -0, 0, 1.5, 2.0, NaN, 0 / 0, '1', 1, 3e9, -3e9]) { m.set(k, typeof k); s.add(k); }" +
+                            "m.delete(1.5); s.delete(3e9);" +
+                            "var seen = [];" +
+                            "m.forEach(function(v, k) { seen.push(k); if (k === 2) { m.delete(NaN); m.set(4, 'late'); } });" +
+                            "[[...m.keys()].join(), [...s].join(), seen.join(), m.get(-0), m.has(2.0), s.has(-3e9), m.get(1.5)].join(';')").asString();
+            assertEquals("1,0,2,1,3000000000,-3000000000,4;1,0,1.5,2,NaN,1,-3000000000;1,0,2,1,3000000000,-3000000000,4;number;true;true;", result);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.junit.Test;
+
+import com.oracle.js.parser.ErrorManager;
+import com.oracle.js.parser.Lexer.LexerToken;
+import com.oracle.js.parser.Lexer.RegexToken;
+import com.oracle.js.parser.Parser;
+import com.oracle.js.parser.ScriptEnvironment;
+import com.oracle.js.parser.Source;
+import com.oracle.js.parser.ir.FunctionNode;
+import com.oracle.js.parser.ir.LexicalContext;
+import com.oracle.js.parser.ir.visitor.NodeVisitor;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Functions whose bodies are only pre-parsed and parsed again on first call.
+ */
+public class LazyFunctionParsingTest {
+
+    /** Makes function bodies long enough to be parsed lazily. */
+    private static final String PAD = "/* ................................................................................................ */";
+
+    private static Context newContext() {
+        return JSTest.newContextBuilder().option(JSContextOptions.LAZY_TRANSLATION_THRESHOLD_NAME, "0").build();
+    }
+
+    private static String eval(String code) {
+        try (Context context = newContext()) {
+            return context.eval(ID, code).toString();
+        }
+    }
+
+    /** Parser with lazy function bodies that counts the regular expression literals it parses. */
+    private static final class CountingParser extends Parser {
+        private int regexLiterals;
+
+        CountingParser(Source source, boolean strict, int lineOffset) {
+            super(ScriptEnvironment.builder().ecmaScriptVersion(11).syntaxExtensions(false).build(), source, new ErrorManager.ThrowErrorManager(), strict, lineOffset);
+            setLazyFunctionBodies(true);
+        }
+
+        @Override
+        protected void validateLexerToken(LexerToken lexerToken) {
+            if (lexerToken instanceof RegexToken) {
+                regexLiterals++;
+            }
+        }
+
+        FunctionNode reparse(FunctionNode lazyFunction) {
+            return parseLazyFunction(lazyFunction);
+        }
+    }
+
+    /**
+     * Returns the pre-parsed functions in the given function that are not nested in other
+     * pre-parsed functions.
+     */
+    private static List<FunctionNode> lazyFunctions(FunctionNode function) {
+        List<FunctionNode> lazyFunctions = new ArrayList<>();
+        function.getBody().accept(new NodeVisitor<LexicalContext>(new LexicalContext()) {
+            @Override
+            public boolean enterFunctionNode(FunctionNode functionNode) {
+                if (functionNode.isLazy()) {
+                    lazyFunctions.add(functionNode);
+                    return false;
+                }
+                return true;
+            }
+        });
+        return lazyFunctions;
+    }
+
+    private static List<String> names(List<FunctionNode> functions) {
+        List<String> names = new ArrayList<>();
+        for (FunctionNode function : functions) {
+            names.add(function.getName());
+        }
+        return names;
+    }
+
+    @Test
+    public void testSkippedFunctions() {
+        String code = "function declared() { " + PAD + " }\n" +
+                        "var expression = function named() { " + PAD + " };\n" +
+                        "(function iife() { " + PAD + " })();\n" +
+                        "(function called() { " + PAD + " }).call(this);\n" +
+                        "foo(\nasync function callback() { " + PAD + " });\n" +
+                        "!function bang() { " + PAD + " }();\n" +
+                        "function small() { return 1; }\n" +
+                        "var arrow = () => { " + PAD + " };\n" +
+                        "async function asyncDeclared() { " + PAD + " }\n";
+        CountingParser parser = new CountingParser(Source.sourceFor("test", code), false, 0);
+        FunctionNode program = parser.parse();
+        assertEquals(new HashSet<>(Arrays.asList("declared", "named", "asyncDeclared")), new HashSet<>(names(lazyFunctions(program))));
+    }
+
+    @Test
+    public void testNestedBodiesAreNotScannedAgain() {
+        String code = "function outer() { " + PAD + " /a/;\n" +
+                        "  function middle() { " + PAD + " /b/;\n" +
+                        "    function inner() { " + PAD + " /c/; }\n" +
+                        "    var small = function() { return /d/; };\n" +
+                        "  }\n" +
+                        "}\n";
+        Source source = Source.sourceFor("test", code);
+        CountingParser parser = new CountingParser(source, false, 0);
+        FunctionNode program = parser.parse();
+        assertEquals(4, parser.regexLiterals);
+        List<FunctionNode> lazy = lazyFunctions(program);
+        assertEquals(Arrays.asList("outer"), names(lazy));
+
+        // every function body is scanned once more when the function is parsed on demand
+        FunctionNode function = lazy.get(0);
+        List<String> expectedNested = Arrays.asList("middle", "inner");
+        int[] expectedRegexLiterals = {1, 2, 1};
+        for (int depth = 0; depth < expectedRegexLiterals.length; depth++) {
+            CountingParser reparser = new CountingParser(source, function.isStrict(), function.getLineNumber() - 1);
+            FunctionNode parsed = reparser.reparse(function);
+            assertEquals(function.getName(), expectedRegexLiterals[depth], reparser.regexLiterals);
+            List<FunctionNode> nested = lazyFunctions(parsed);
+            if (depth < expectedNested.size()) {
+                assertEquals(Arrays.asList(expectedNested.get(depth)), names(nested));
+                function = nested.get(0);
+            } else {
+                assertTrue(nested.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testClosures() {
+        assertEquals("6", eval("var x = 1; function outer(y) { " + PAD + " function inner(z) { " + PAD + " return x + y + z; } return inner(3); } outer(2);"));
+        assertEquals("3,5", eval("function counter() { " + PAD + " var n = 0; return function() { " + PAD + " return n += 1; }; }" +
+                        "var c = counter(); c(); c(); var d = counter(); [c(), d() + 4].join()"));
+        assertEquals("7", eval("function f() { " + PAD + " let a = 3; { let b = 4; return (function() { " + PAD + " return a + b; })(); } } f();"));
+    }
+
+    @Test
+    public void testShadowingAndGlobals() {
+        assertEquals("local,global", eval("var g = 'global'; function f(g) { " + PAD + " return g; } function h() { " + PAD + " return g; } [f('local'), h()].join()"));
+        assertEquals("42", eval("function f() { " + PAD + " return typeof later === 'undefined' ? 0 : later; } var later = 42; f();"));
+    }
+
+    @Test
+    public void testEvalAndArguments() {
+        assertEquals("5", eval("function f(a) { var b = 2; " + PAD + " return eval('a + b'); } f(3);"));
+        assertEquals("12", eval("var v = 10; function f() { " + PAD + " return function() { " + PAD + " return eval('v') + 2; }; } f()();"));
+        assertEquals("3", eval("function f() { " + PAD + " return arguments.length; } f(1, 2, 3);"));
+        assertEquals("1", eval("function f(a) { " + PAD + " arguments[0] = 1; return a; } f(0);"));
+    }
+
+    @Test
+    public void testNamedFunctionExpression() {
+        assertEquals("120", eval("var fact = function f(n) { " + PAD + " return n <= 1 ? 1 : n * f(n - 1); }; fact(5);"));
+    }
+
+    @Test
+    public void testFunctionKinds() {
+        assertEquals("1,2", eval("function* g() { " + PAD + " yield 1; yield 2; } [...g()].join()"));
+        assertEquals("true", eval("async function a() { " + PAD + " return await 1; } a() instanceof Promise"));
+        assertEquals("abc", eval("function C(v) { " + PAD + " this.v = v; } C.prototype.get = function() { " + PAD + " return this.v; }; new C('abc').get();"));
+        assertEquals("strict", eval("function f() { 'use strict'; " + PAD + " return this === undefined ? 'strict' : 'sloppy'; } f();"));
+    }
+
+    @Test
+    public void testToStringAndLocation() {
+        String fn = "function f(a, b) { " + PAD + " return a + b; }";
+        assertEquals(fn, eval(fn + " f.toString();"));
+        assertEquals("2", eval("function f() { " + PAD + "\n return new Error().stack.split('\\n')[1].split(':')[1]; } f();"));
+    }
+
+    @Test
+    public void testEarlySyntaxErrors() {
+        try (Context context = newContext()) {
+            context.eval(ID, "var executed = false; function f() { " + PAD + " executed = true; return 1 +; }");
+            fail("syntax error expected");
+        } catch (PolyglotException e) {
+            assertTrue(e.isSyntaxError());
+        }
+        try (Context context = newContext()) {
+            context.eval(ID, "function f() { 'use strict'; " + PAD + " with (Math) { return PI; } }");
+            fail("syntax error expected");
+        } catch (PolyglotException e) {
+            assertTrue(e.isSyntaxError());
+        }
+    }
+}
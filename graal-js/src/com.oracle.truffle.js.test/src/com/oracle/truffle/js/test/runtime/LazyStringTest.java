@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.ref.WeakReference;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.objects.JSLazyString;
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Deep lazy strings built by repeated appending and prepending, compared against the same string
+ * built with {@code Array.prototype.join}, and substrings that are views onto their parent.
+ */
+public class LazyStringTest {
+
+    private static final String BUILD = "var parts = []; var s = '';" +
+                    "for (var i = 0; i < 20000; i++) {" +
+                    "  var part = '<li id=\"item' + i + '\">' + (i % 7) + '</li>';" +
+                    "  if (i % 5 === 0) { s = part + s; parts.unshift(part); } else { s += part; parts.push(part); }" +
+                    "}" +
+                    "var expected = parts.join('');";
+
+    @Test
+    public void testIndexedAccess() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, BUILD);
+            Value result = context.eval(ID, "var ok = s.length === expected.length;" +
+                            "for (var i = 0; i < expected.length; i += 997) {" +
+                            "  ok = ok && s.charAt(i) === expected.charAt(i) && s.charCodeAt(i) === expected.charCodeAt(i);" +
+                            "}" +
+                            "ok && s.charAt(-1) === '' && isNaN(s.charCodeAt(s.length))");
+            assertTrue(result.asBoolean());
+        }
+    }
+
+    @Test
+    public void testSubstring() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, BUILD);
+            Value result = context.eval(ID, "var ok = true;" +
+                            "for (var i = 0; i < expected.length; i += 4099) {" +
+                            "  ok = ok && s.substring(i, i + 1000) === expected.substring(i, i + 1000) && s.substring(i + 10, i) === expected.substring(i + 10, i);" +
+                            "}" +
+                            "ok");
+            assertTrue(result.asBoolean());
+        }
+    }
+
+    @Test
+    public void testIndexOf() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, BUILD);
+            Value result = context.eval(ID, "var needles = ['<li id=\"item19999\">', '\">6</li><li', 'item7', 'missing', '', '<'];" +
+                            "var ok = true;" +
+                            "for (var n of needles) {" +
+                            "  for (var from of [undefined, -5, 0, 12345, expected.length - 3, expected.length + 3]) {" +
+                            "    ok = ok && s.indexOf(n, from) === expected.indexOf(n, from);" +
+                            "  }" +
+                            "}" +
+                            "ok");
+            assertTrue(result.asBoolean());
+            assertEquals(context.eval(ID, "expected").asString(), context.eval(ID, "s").asString());
+        }
+    }
+
+    @Test
+    public void testSliceRetention() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("0123456789");
+        }
+        String parent = sb.toString();
+        CharSequence slice = JSLazyString.createSubstring(parent, 100, 300);
+        assertTrue(slice instanceof JSLazyString);
+        assertFalse(((JSLazyString) slice).isFlat());
+        assertEquals(parent.substring(100, 300), slice.toString());
+        // short results are copied
+        assertTrue(JSLazyString.createSubstring(parent, 100, 110) instanceof String);
+        // a slice of a slice refers to the original parent
+        CharSequence sliceOfSlice = JSLazyString.createSubstring(JSLazyString.createSubstring(parent, 100, 900), 50, 650);
+        assertEquals(parent.substring(150, 750), sliceOfSlice.toString());
+    }
+
+    @Test
+    public void testShortSliceFlattenedAfterGC() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("0123456789");
+        }
+        String parent = sb.toString();
+        // a short view of a much longer parent is a view until the next garbage collection
+        CharSequence slice = JSLazyString.createSubstring(parent, 100, 130);
+        assertTrue(slice instanceof JSLazyString);
+        assertFalse(((JSLazyString) slice).isFlat());
+        WeakReference<Object> canary = new WeakReference<>(new Object());
+        for (int i = 0; i < 10 && canary.get() != null; i++) {
+            System.gc();
+        }
+        assumeTrue(canary.get() == null);
+        // the next short view checks the groups; the first view alone covers too little of parent
+        CharSequence other = JSLazyString.createSubstring(sb.toString(), 0, 30);
+        assertEquals(sb.substring(0, 30), other.toString());
+        assertTrue(((JSLazyString) slice).isFlat());
+        assertEquals(parent.substring(100, 130), slice.toString());
+    }
+
+    @Test
+    public void testSlices() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, "var line = ''; for (var i = 0; i < 50; i++) { line += 'field-number-' + i + ','; }" +
+                            "var text = ''; for (var i = 0; i < 200; i++) { text += line + i + '\\n'; }");
+            Value result = context.eval(ID, "var lines = text.split('\\n');" +
+                            "var ok = lines.length === 201 && lines[200] === '';" +
+                            "for (var i = 0; i < 200; i++) {" +
+                            "  var fields = lines[i].split(',');" +
+                            "  ok = ok && fields.length === 51 && fields[7] === 'field-number-7' && fields[50] === String(i);" +
+                            "  ok = ok && lines[i].substring(13, 40) === line.substring(13, 40) && lines[i].slice(-30, -1) === (line + i).slice(-30, -1);" +
+                            "  ok = ok && lines[i].substr(5, 25).charAt(3) === line.charAt(8) && typeof lines[i] === 'string';" +
+                            "}" +
+                            "var m = /(field-number-1\\d),(field-number-2\\d)/.exec(text);" +
+                            "ok = ok && m[1] === 'field-number-19' && m[2] === 'field-number-20';" +
+                            "var map = new Map(); map.set(lines[3].substring(0, 40), 1);" +
+                            "ok && map.get(line.substring(0, 40)) === 1 && (lines[5] + '!').endsWith('5!')");
+            assertTrue(result.asBoolean());
+            assertEquals(context.eval(ID, "line + 7").asString(), context.eval(ID, "lines[7]").asString());
+        }
+    }
+}
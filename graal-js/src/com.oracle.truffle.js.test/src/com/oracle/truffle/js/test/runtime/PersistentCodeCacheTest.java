@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.test.JSTest;
+
+public class PersistentCodeCacheTest {
+
+    private static final String SCRIPT = "function fib(n) { return n < 2 ? n : fib(n - 1) + fib(n - 2); }\n" +
+                    "var o = {a: [1, 2, 3], b: `x${fib(10)}`};\n" +
+                    "o.a.map((x) => x * fib(5)).join() + ',' + o.b;\n";
+    private static final String EXPECTED = "5,10,15,x55";
+
+    private static String evalWithCache(Path cacheDir, File file) throws IOException {
+        return evalWithCache(cacheDir, file, true);
+    }
+
+    private static String evalWithCache(Path cacheDir, File file, boolean allowIO) throws IOException {
+        try (Context context = JSTest.newContextBuilder().allowIO(allowIO).option(JSContextOptions.CODE_CACHE_DIR_NAME, cacheDir.toString()).build()) {
+            return context.eval(Source.newBuilder(ID, file).build()).asString();
+        }
+    }
+
+    private static Path[] listEntries(Path cacheDir) throws IOException {
+        try (Stream<Path> entries = Files.list(cacheDir)) {
+            return entries.toArray(Path[]::new);
+        }
+    }
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        Path cacheDir = Files.createTempDirectory("js-code-cache");
+        File file = Files.createTempFile("script", ".js").toFile();
+        try {
+            Files.write(file.toPath(), SCRIPT.getBytes(StandardCharsets.UTF_8));
+            assertEquals(EXPECTED, evalWithCache(cacheDir, file));
+            Path[] entries = listEntries(cacheDir);
+            assertEquals(1, entries.length);
+            byte[] entry = Files.readAllBytes(entries[0]);
+
+            // the second run reads the entry instead of writing it again
+            FileTime stamp = FileTime.fromMillis(0);
+            Files.setLastModifiedTime(entries[0], stamp);
+            assertEquals(EXPECTED, evalWithCache(cacheDir, file));
+            assertEquals(1, listEntries(cacheDir).length);
+            assertEquals(stamp, Files.getLastModifiedTime(entries[0]));
+
+            // a corrupt entry is ignored and replaced
+            Files.write(entries[0], new byte[]{1, 2, 3});
+            assertEquals(EXPECTED, evalWithCache(cacheDir, file));
+            assertEquals(entry.length, Files.size(entries[0]));
+
+            // a modified snapshot fails the hash check in the header and is replaced
+            byte[] tampered = entry.clone();
+            tampered[tampered.length - 1] ^= 1;
+            Files.write(entries[0], tampered);
+            assertEquals(EXPECTED, evalWithCache(cacheDir, file));
+            assertFalse(Arrays.equals(tampered, Files.readAllBytes(entries[0])));
+
+            // changed content gets a new entry
+            Files.write(file.toPath(), ("1 + 1;" + SCRIPT).getBytes(StandardCharsets.UTF_8));
+            assertEquals(EXPECTED, evalWithCache(cacheDir, file));
+            assertEquals(2, listEntries(cacheDir).length);
+        } finally {
+            file.delete();
+            for (Path entry : listEntries(cacheDir)) {
+                Files.delete(entry);
+            }
+            Files.delete(cacheDir);
+        }
+    }
+
+    @Test
+    public void testNoIO() throws IOException {
+        Path cacheDir = Files.createTempDirectory("js-code-cache");
+        File file = Files.createTempFile("script", ".js").toFile();
+        try {
+            Files.write(file.toPath(), SCRIPT.getBytes(StandardCharsets.UTF_8));
+            assertEquals(EXPECTED, evalWithCache(cacheDir, file, false));
+            assertEquals(0, listEntries(cacheDir).length);
+        } finally {
+            file.delete();
+            Files.delete(cacheDir);
+        }
+    }
+}
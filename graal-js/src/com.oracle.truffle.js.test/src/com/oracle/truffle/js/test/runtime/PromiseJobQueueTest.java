@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * Order and realm of promise jobs run from the agent's job queue.
+ */
+public class PromiseJobQueueTest {
+
+    private static String run(Context context, String code) {
+        context.eval(ID, "var log = [];");
+        context.eval(ID, code);
+        // jobs run when the eval above returns
+        return context.eval(ID, "log.join()").asString();
+    }
+
+    @Test
+    public void testJobOrder() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            assertEquals("sync,a1,b1,a2,b2,a3", run(context, "Promise.resolve().then(() => log.push('a1')).then(() => log.push('a2')).then(() => log.push('a3'));" +
+                            "Promise.resolve().then(() => log.push('b1')).then(() => log.push('b2'));" +
+                            "log.push('sync');"));
+            assertEquals("start,end,await1,then,await2,done", run(context, "async function f() { log.push('start'); await null; log.push('await1'); await null; log.push('await2'); }" +
+                            "f().then(() => log.push('done')); Promise.resolve().then(() => log.push('then')); log.push('end');"));
+        }
+    }
+
+    @Test
+    public void testRejection() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            assertEquals("caught:boom,finally", run(context, "Promise.reject(new Error('boom')).then(() => log.push('unreachable'))" +
+                            ".catch((e) => log.push('caught:' + e.message)).finally(() => log.push('finally'));"));
+            assertEquals("thrown:2", run(context, "Promise.resolve(1).then((x) => { throw x + 1; }).then(null, (e) => log.push('thrown:' + e));"));
+        }
+    }
+
+    @Test
+    public void testJobsFromOtherRealm() {
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.V8_REALM_BUILTIN_NAME, "true").build()) {
+            String code = "var other = Realm.create();" +
+                            "var OtherPromise = Realm.eval(other, 'Promise');" +
+                            "OtherPromise.resolve(1).then((x) => log.push('other:' + x));" +
+                            "Realm.eval(other, 'Promise.resolve(2).then((x) => { globalThis.seen = [x, typeof log]; })');" +
+                            "Promise.resolve(3).then((x) => log.push('main:' + x));";
+            assertEquals("other:1,main:3", run(context, code));
+            // the job of the other realm ran with the other realm's global object
+            assertEquals("2,undefined", context.eval(ID, "Realm.eval(other, 'globalThis.seen.join()')").asString());
+        }
+    }
+
+    @Test
+    public void testManyJobs() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, "var n = 0; var p = Promise.resolve(); for (var i = 0; i < 100000; i++) { p = p.then(() => n++); }");
+            assertEquals(100000, context.eval(ID, "n").asInt());
+            context.eval(ID, "async function count(k) { var s = 0; for (var i = 0; i < k; i++) { s += await i; } return s; } var total; count(1000).then((s) => total = s);");
+            assertEquals(499500, context.eval(ID, "total").asInt());
+        }
+    }
+}
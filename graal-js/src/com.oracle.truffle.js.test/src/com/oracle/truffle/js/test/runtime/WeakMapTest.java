@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.test.JSTest;
+
+/**
+ * WeakMap entries with primitive values and WeakSet entries, which are kept by the map, and object
+ * values, which are kept with the key.
+ */
+public class WeakMapTest {
+
+    @Test
+    public void testPrimitiveAndObjectValues() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, "var m = new WeakMap(); var a = {}; var b = {}; var v = {};" +
+                            "for (var i = 0; i < 3; i++) { m.set(a, 42); m.set(b, v); }");
+            assertTrue(context.eval(ID, "m.get(a) === 42 && m.get(b) === v && m.has(a) && m.has(b)").asBoolean());
+            assertTrue(context.eval(ID, "m.get({}) === undefined && !m.has({})").asBoolean());
+            assertTrue(context.eval(ID, "m.delete(a) && !m.has(a) && m.get(a) === undefined && !m.delete(a)").asBoolean());
+            assertTrue(context.eval(ID, "m.delete(b) && !m.has(b) && m.get(b) === undefined").asBoolean());
+        }
+    }
+
+    @Test
+    public void testChangeValueKind() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, "var m = new WeakMap(); var k = {}; var o = {};" +
+                            "function check(value) { m.set(k, value); return m.get(k) === value && m.has(k); }");
+            assertTrue(context.eval(ID, "[1, o, 'str', o, undefined, null, o, 2].every(check)").asBoolean());
+            assertTrue(context.eval(ID, "m.delete(k) && !m.has(k)").asBoolean());
+            assertTrue(context.eval(ID, "m.set(k, o); m.set(k, 3); m.delete(k) && m.get(k) === undefined").asBoolean());
+        }
+    }
+
+    @Test
+    public void testManyMapsPerKey() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, "var k = {}; var maps = [];" +
+                            "for (var i = 0; i < 20; i++) { var m = new WeakMap(); m.set(k, i % 2 === 0 ? i : {i: i}); maps.push(m); }");
+            assertEquals(20, context.eval(ID, "maps.filter((m, i) => i % 2 === 0 ? m.get(k) === i : m.get(k).i === i).length").asInt());
+            assertEquals(10, context.eval(ID, "maps.forEach((m, i) => { if (i % 4 < 2) { m.delete(k); } }); maps.filter((m) => m.has(k)).length").asInt());
+        }
+    }
+
+    private static Shape getShape(Context context, String name) {
+        return ((DynamicObject) JSObject.get(JavaScriptLanguage.getJSRealm(context).getGlobalObject(), name)).getShape();
+    }
+
+    @Test
+    public void testKeyShape() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, "var k = {x: 1}; var s = new WeakSet(); var m = new WeakMap();");
+            Shape shape = getShape(context, "k");
+            context.eval(ID, "s.add(k); m.set(k, 1); m.set(k, 'str'); new WeakSet([k]);");
+            assertSame(shape, getShape(context, "k"));
+            assertTrue(context.eval(ID, "s.has(k) && m.get(k) === 'str' && s.delete(k) && !s.has(k) && s.add(k).has(k)").asBoolean());
+            context.eval(ID, "m.set(k, {});");
+            assertTrue(context.eval(ID, "s.has(k) && typeof m.get(k) === 'object'").asBoolean());
+        }
+    }
+
+    @Test
+    public void testNonExtensibleKeys() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            context.eval(ID, "var m = new WeakMap(); var f = Object.freeze({x: 1}); var s = Object.seal({}); var p = Object.preventExtensions({});" +
+                            "m.set(f, {}); m.set(s, 1); m.set(p, {});");
+            assertTrue(context.eval(ID, "m.has(f) && m.get(s) === 1 && m.has(p)").asBoolean());
+            assertTrue(context.eval(ID, "Object.isFrozen(f) && Object.isSealed(s) && !Object.isExtensible(p)").asBoolean());
+            assertTrue(context.eval(ID, "Object.getOwnPropertyNames(f).join() === 'x' && Reflect.ownKeys(p).length === 0").asBoolean());
+        }
+    }
+}
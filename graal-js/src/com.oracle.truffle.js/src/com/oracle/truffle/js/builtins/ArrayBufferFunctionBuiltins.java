@@ -40,14 +40,29 @@
  */
 package com.oracle.truffle.js.builtins;
 
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.builtins.ArrayBufferFunctionBuiltinsFactory.JSIsArrayBufferViewNodeGen;
+import com.oracle.truffle.js.builtins.ArrayBufferFunctionBuiltinsFactory.JSMapFileNodeGen;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
+import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSDataView;
+import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
  * Contains builtins for {@linkplain JSArrayBuffer} function (constructor).
@@ -55,6 +70,7 @@ import com.oracle.truffle.js.runtime.builtins.JSDataView;
 public final class ArrayBufferFunctionBuiltins extends JSBuiltinsContainer.Lambda {
 
     public static final JSBuiltinsContainer BUILTINS = new ArrayBufferFunctionBuiltins();
+    public static final JSBuiltinsContainer BUILTINS_GRAAL = new ArrayBufferGraalBuiltins();
 
     protected ArrayBufferFunctionBuiltins() {
         super(JSArrayBuffer.CLASS_NAME);
@@ -71,4 +87,72 @@ public final class ArrayBufferFunctionBuiltins extends JSBuiltinsContainer.Lambd
             return JSArrayBufferView.isJSArrayBufferView(object) || JSDataView.isJSDataView(object);
         }
     }
+
+    /**
+     * Graal-specific ArrayBuffer functions, installed on the {@code Graal} object.
+     */
+    public static final class ArrayBufferGraalBuiltins extends JSBuiltinsContainer.Lambda {
+        protected ArrayBufferGraalBuiltins() {
+            super(null);
+            defineFunction("mapFile", 4, (context, builtin) -> JSMapFileNodeGen.create(context, builtin, args().fixedArgs(4).createArgumentNodes(context)));
+        }
+    }
+
+    /**
+     * Graal.mapFile(path[, mode[, offset[, length]]]): maps a region of a file into memory and
+     * returns an ArrayBuffer backed by the mapping, without reading the file.
+     *
+     * In mode {@code "rw"}, writes to the ArrayBuffer are written through to the file. In the
+     * default mode {@code "r"}, the file is opened and mapped read-only, and writes to the
+     * ArrayBuffer throw a TypeError. The mapping is released when the ArrayBuffer is no longer
+     * reachable (or has been detached) and garbage collected.
+     */
+    public abstract static class JSMapFileNode extends JSBuiltinNode {
+        private static final String MODE_READ = "r";
+        private static final String MODE_READ_WRITE = "rw";
+
+        public JSMapFileNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final DynamicObject mapFile(Object fileParam, Object modeParam, Object offsetParam, Object lengthParam) {
+            TruffleFile file = GlobalBuiltins.getFileFromArgument(fileParam, getContext().getRealm().getEnv());
+            String mode = modeParam == Undefined.instance ? MODE_READ : JSRuntime.toString(modeParam);
+            FileChannel.MapMode mapMode;
+            Set<StandardOpenOption> openOptions;
+            if (MODE_READ.equals(mode)) {
+                mapMode = FileChannel.MapMode.READ_ONLY;
+                openOptions = EnumSet.of(StandardOpenOption.READ);
+            } else if (MODE_READ_WRITE.equals(mode)) {
+                mapMode = FileChannel.MapMode.READ_WRITE;
+                openOptions = EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } else {
+                throw Errors.createTypeError("Invalid mode: '" + mode + "', expected 'r' or 'rw'");
+            }
+            try (SeekableByteChannel channel = file.newByteChannel(openOptions)) {
+                if (!(channel instanceof FileChannel)) {
+                    throw Errors.createTypeError("The file system does not support memory-mapped files");
+                }
+                long size = channel.size();
+                long offset = offsetParam == Undefined.instance ? 0 : JSRuntime.toInteger(offsetParam);
+                if (offset < 0 || offset > size) {
+                    throw Errors.createRangeError("Offset out of bounds");
+                }
+                long length = lengthParam == Undefined.instance ? size - offset : JSRuntime.toInteger(lengthParam);
+                if (length < 0 || length > size - offset) {
+                    throw Errors.createRangeError("Length out of bounds");
+                }
+                if (length > getContext().getContextOptions().getMaxTypedArrayLength()) {
+                    throw Errors.createRangeError("Mapped region too large, map the file in smaller regions");
+                }
+                MappedByteBuffer buffer = ((FileChannel) channel).map(mapMode, offset, length);
+                // the mapping stays valid after the channel is closed
+                return JSArrayBuffer.createArrayBufferFromByteBuffer(getContext(), buffer);
+            } catch (IOException | SecurityException | UnsupportedOperationException e) {
+                throw Errors.createErrorFromException(e);
+            }
+        }
+    }
 }
@@ -44,6 +44,7 @@ import java.util.EnumSet;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.builtins.ArrayFunctionBuiltinsFactory.JSArrayFromNodeGen;
@@ -63,6 +64,7 @@ import com.oracle.truffle.js.nodes.array.JSGetLengthNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
+import com.oracle.truffle.js.nodes.interop.ForeignArrayElementsNode;
 import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.JSArguments;
 import com.oracle.truffle.js.runtime.JSContext;
@@ -206,7 +208,10 @@ public final class ArrayFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum<
         @Child private PropertyGetNode getNextMethodNode;
         @Child private JSGetLengthNode getSourceLengthNode;
         @Child private IsArrayNode isFastArrayNode;
+        @Child private InteropLibrary itemsInterop;
+        @Child private ForeignArrayElementsNode foreignArrayElementsNode;
         private final ConditionProfile isIterable = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile isForeignArray = ConditionProfile.createBinaryProfile();
 
         public JSArrayFromNode(JSContext context, JSBuiltin builtin, boolean isTypedArray) {
             super(context, builtin, isTypedArray);
@@ -298,6 +303,36 @@ public final class ArrayFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum<
             }
         }
 
+        /**
+         * Whether {@code Array.from} copies a foreign array into a plain array, which can be done in
+         * bulk since no user code runs in between.
+         */
+        private boolean isForeignArrayIntoArray(Object thisObj, Object items) {
+            if (thisObj != getContext().getRealm().getArrayConstructor() || !JSRuntime.isForeignObject(items)) {
+                return false;
+            }
+            if (itemsInterop == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                itemsInterop = insert(InteropLibrary.getFactory().createDispatched(3));
+            }
+            return itemsInterop.hasArrayElements(items);
+        }
+
+        private DynamicObject arrayFromForeignArray(Object items) {
+            if (foreignArrayElementsNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                foreignArrayElementsNode = insert(ForeignArrayElementsNode.create());
+            }
+            Object elements = foreignArrayElementsNode.execute(items);
+            if (elements instanceof int[]) {
+                return JSArray.createZeroBasedIntArray(getContext(), (int[]) elements);
+            } else if (elements instanceof double[]) {
+                return JSArray.createZeroBasedDoubleArray(getContext(), (double[]) elements);
+            } else {
+                return JSArray.createZeroBasedObjectArray(getContext(), (Object[]) elements);
+            }
+        }
+
         protected DynamicObject arrayFromIterable(Object thisObj, Object items, Object usingIterator, Object mapFn, Object thisArg, boolean mapping) {
             DynamicObject obj = constructOrArray(thisObj, 0, false);
 
@@ -328,6 +363,9 @@ public final class ArrayFunctionBuiltins extends JSBuiltinsContainer.SwitchEnum<
         }
 
         protected DynamicObject arrayFromArrayLike(Object thisObj, Object items, Object mapFn, Object thisArg, boolean mapping, boolean setLength) {
+            if (!isTypedArrayImplementation && !mapping && isForeignArray.profile(isForeignArrayIntoArray(thisObj, items))) {
+                return arrayFromForeignArray(items);
+            }
             long len = getSourceLength(items);
 
             DynamicObject obj = constructOrArray(thisObj, len, true);
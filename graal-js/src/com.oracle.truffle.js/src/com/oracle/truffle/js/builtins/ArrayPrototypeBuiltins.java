@@ -155,6 +155,7 @@ import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.SparseArray;
 import com.oracle.truffle.js.runtime.array.TypedArray;
+import com.oracle.truffle.js.runtime.array.TypedArrayBulkOperations;
 import com.oracle.truffle.js.runtime.array.dyn.AbstractDoubleArray;
 import com.oracle.truffle.js.runtime.array.dyn.AbstractIntArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantByteArray;
@@ -173,6 +174,7 @@ import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropUtil;
 import com.oracle.truffle.js.runtime.util.Pair;
+import com.oracle.truffle.js.runtime.util.PrimitiveArraySort;
 import com.oracle.truffle.js.runtime.util.SimpleArrayList;
 import com.oracle.truffle.js.runtime.util.StringBuilderProfile;
 
@@ -402,6 +404,22 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             }
         }
 
+        /**
+         * Returns the element type of a typed array if its elements are Numbers and
+         * {@code searchElement} is a Number, so that a search can be done directly on the backing
+         * store, or {@code null} otherwise.
+         */
+        protected final TypedArray getNumberSearchTypedArray(Object thisObj, Object searchElement) {
+            assert isTypedArrayImplementation;
+            if (JSRuntime.isNumber(searchElement)) {
+                TypedArray typedArray = typedArrayTypeProfile.profile(JSArrayBufferView.typedArrayGetArrayType((DynamicObject) thisObj));
+                if (!(typedArray instanceof TypedArray.TypedBigIntArray)) {
+                    return typedArray;
+                }
+            }
+            return null;
+        }
+
         /**
          * ES2016, 22.2.3.5.1 ValidateTypedArray(O).
          */
@@ -961,6 +979,7 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
         private final ConditionProfile sizeIsZero = ConditionProfile.createBinaryProfile();
         private final ConditionProfile offsetProfile1 = ConditionProfile.createBinaryProfile();
         private final ConditionProfile offsetProfile2 = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile sameElementTypeProfile = ConditionProfile.createBinaryProfile();
 
         @Specialization
         protected Object slice(Object thisObj, Object[] args,
@@ -979,7 +998,11 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             long size = startPos <= endPos ? endPos - startPos : 0;
             Object resultArray = getArraySpeciesConstructorNode().createEmptyContainer(thisArrayObj, size);
             if (sizeIsZero.profile(size > 0)) {
-                forEachIndexCall(thisArrayObj, null, startPos, startPos, endPos, resultArray);
+                if (isTypedArrayImplementation && isSameElementType(thisArrayObj, resultArray)) {
+                    sliceTypedArray((DynamicObject) thisArrayObj, (DynamicObject) resultArray, (int) startPos, (int) size);
+                } else {
+                    forEachIndexCall(thisArrayObj, null, startPos, startPos, endPos, resultArray);
+                }
             }
             if (!isTypedArrayImplementation) {
                 setLength(resultArray, size);
@@ -987,6 +1010,23 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             return resultArray;
         }
 
+        private boolean isSameElementType(Object thisObj, Object resultArray) {
+            return sameElementTypeProfile.profile(JSArrayBufferView.isJSArrayBufferView(resultArray) &&
+                            JSArrayBufferView.typedArrayGetArrayType((DynamicObject) thisObj).getFactory() == JSArrayBufferView.typedArrayGetArrayType((DynamicObject) resultArray).getFactory());
+        }
+
+        /**
+         * Copies the elements of a typed array to a new one of the same element type byte-wise.
+         */
+        private void sliceTypedArray(DynamicObject thisObj, DynamicObject resultArray, int start, int count) {
+            checkHasDetachedBuffer(thisObj);
+            TypedArray sourceType = JSArrayBufferView.typedArrayGetArrayType(thisObj);
+            TypedArray targetType = JSArrayBufferView.typedArrayGetArrayType(resultArray);
+            int elementSize = sourceType.bytesPerElement();
+            TypedArrayBulkOperations.copyBytes(sourceType.getBufferFromTypedArray(thisObj, true), JSArrayBufferView.typedArrayGetOffset(thisObj) + start * elementSize,
+                            targetType.getBufferFromTypedArray(resultArray, true), JSArrayBufferView.typedArrayGetOffset(resultArray), count * elementSize);
+        }
+
         @Override
         protected MaybeResultNode makeMaybeResultNode() {
             return new ForEachIndexCallNode.MaybeResultNode() {
@@ -1450,9 +1490,25 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             if (fromIndexValue < 0) {
                 return -1;
             }
+            if (isTypedArrayImplementation) {
+                TypedArray typedArray = getNumberSearchTypedArray(thisJSObject, searchElement);
+                if (typedArray != null) {
+                    return indexOfTypedArray((DynamicObject) thisJSObject, typedArray, (Number) searchElement, fromIndexValue, len);
+                }
+            }
             return forEachIndexCall(thisJSObject, Undefined.instance, searchElement, fromIndexValue, len, -1);
         }
 
+        private int indexOfTypedArray(DynamicObject thisObj, TypedArray typedArray, Number searchElement, long fromIndexValue, long len) {
+            if (JSArrayBufferView.hasDetachedBuffer(thisObj, getContext())) {
+                return -1;
+            }
+            int startIndex = isForward() ? (int) fromIndexValue : 0;
+            int endIndex = isForward() ? (int) len : (int) fromIndexValue + 1;
+            return TypedArrayBulkOperations.indexOfNumber(typedArray, typedArray.getBufferFromTypedArray(thisObj, true), JSArrayBufferView.typedArrayGetOffset(thisObj),
+                            startIndex, endIndex, JSRuntime.doubleValue(searchElement), false, isForward());
+        }
+
         // for indexOf()
         private long calcFromIndexForward(Object[] args, long len, Object fromIndex) {
             if (args.length <= 1) {
@@ -2462,6 +2518,8 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
     public abstract static class JSArraySortNode extends JSArrayOperation {
 
         @Child private DeletePropertyNode deletePropertyNode; // DeletePropertyOrThrow
+        @Child private JSFunctionCallNode comparatorCallNode;
+        private final BranchProfile primitiveSortBranch = BranchProfile.create();
         private final BranchProfile arrayIsSparseBranch = BranchProfile.create();
         private final BranchProfile arrayHasHolesBranch = BranchProfile.create();
         private final BranchProfile arrayIsDefaultBranch = BranchProfile.create();
@@ -2484,6 +2542,11 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             ScriptArray scriptArray = classProfile.profile(arrayGetArrayType(thisObj));
             long len = getLength(thisObj);
 
+            if (sortPrimitiveArray(thisObj, scriptArray, len, compare)) {
+                primitiveSortBranch.enter();
+                return thisObj;
+            }
+
             if (scriptArray instanceof SparseArray) {
                 arrayIsSparseBranch.enter();
                 array = getArraySparse(thisObj, scriptArray, len);
@@ -2519,6 +2582,137 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             return thisObj;
         }
 
+        /**
+         * Sorts an int or double array without holes without boxing its elements: without a
+         * comparator (ints only, the default order compares the string values) or with a
+         * comparator function, which is called with the element values. The elements are sorted in
+         * a copy, so the comparator may modify the array; the copy is written back like in the
+         * generic path.
+         */
+        @TruffleBoundary
+        private boolean sortPrimitiveArray(DynamicObject thisObj, ScriptArray scriptArray, long len, Object compare) {
+            if (!(scriptArray instanceof AbstractIntArray || scriptArray instanceof AbstractDoubleArray) || scriptArray.isHolesType() || scriptArray.isFrozen() ||
+                            len == 0 || scriptArray.firstElementIndex(thisObj) != 0 || scriptArray.lastElementIndex(thisObj) != len - 1) {
+                return false;
+            }
+            if (compare == Undefined.instance) {
+                if (!(scriptArray instanceof AbstractIntArray)) {
+                    return false;
+                }
+                ((AbstractIntArray) scriptArray).sortInPlace(thisObj, PrimitiveArraySort.INT_STRING_ORDER);
+                return true;
+            } else if (!JSFunction.isJSFunction(compare)) {
+                return false;
+            }
+            Object[] arguments = createComparatorArguments(compare);
+            if (scriptArray instanceof AbstractIntArray) {
+                int[] values = ((AbstractIntArray) scriptArray).getElements(thisObj);
+                PrimitiveArraySort.sort(values, 0, values.length, (a, b) -> callComparator(arguments, a, b, null));
+                if (isUnchanged(thisObj, scriptArray, len)) {
+                    ((AbstractIntArray) scriptArray).setElements(thisObj, values);
+                } else {
+                    for (int i = 0; i < values.length; i++) {
+                        JSObject.set(thisObj, i, values[i], true);
+                    }
+                }
+            } else {
+                double[] values = ((AbstractDoubleArray) scriptArray).getElements(thisObj);
+                PrimitiveArraySort.sort(values, 0, values.length, (a, b) -> callComparator(arguments, a, b, null));
+                if (isUnchanged(thisObj, scriptArray, len)) {
+                    ((AbstractDoubleArray) scriptArray).setElements(thisObj, values);
+                } else {
+                    for (int i = 0; i < values.length; i++) {
+                        JSObject.set(thisObj, i, values[i], true);
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Whether the comparator left the type and the element range of the array unchanged, so
+         * that the sorted elements can be stored directly.
+         */
+        private static boolean isUnchanged(DynamicObject thisObj, ScriptArray scriptArray, long len) {
+            return arrayGetArrayType(thisObj) == scriptArray && scriptArray.firstElementIndex(thisObj) == 0 && scriptArray.lastElementIndex(thisObj) == len - 1;
+        }
+
+        /**
+         * Sorts a (non-BigInt) typed array in place without boxing its elements, without a
+         * comparator or with a comparator function, which is called with the element values.
+         */
+        @TruffleBoundary
+        private boolean sortPrimitiveTypedArray(DynamicObject thisObj, TypedArray typedArray, Object compare) {
+            if (!(typedArray instanceof TypedArray.TypedIntArray || typedArray instanceof TypedArray.TypedFloatArray)) {
+                return false;
+            }
+            if (compare == Undefined.instance) {
+                if (typedArray instanceof TypedArray.AbstractUint32Array) {
+                    ((TypedArray.TypedIntArray<?>) typedArray).sort(thisObj, PrimitiveArraySort.UINT_ASCENDING);
+                } else if (typedArray instanceof TypedArray.TypedIntArray) {
+                    ((TypedArray.TypedIntArray<?>) typedArray).sort(thisObj, PrimitiveArraySort.INT_ASCENDING);
+                } else {
+                    ((TypedArray.TypedFloatArray<?>) typedArray).sort(thisObj, PrimitiveArraySort.DOUBLE_ASCENDING);
+                }
+                return true;
+            } else if (!JSFunction.isJSFunction(compare)) {
+                return false;
+            }
+            Object[] arguments = createComparatorArguments(compare);
+            DynamicObject arrayBuffer = JSArrayBufferView.getArrayBuffer(thisObj);
+            if (typedArray instanceof TypedArray.AbstractUint32Array) {
+                ((TypedArray.TypedIntArray<?>) typedArray).sort(thisObj, (a, b) -> callComparator(arguments, toUint32(a), toUint32(b), arrayBuffer));
+            } else if (typedArray instanceof TypedArray.TypedIntArray) {
+                ((TypedArray.TypedIntArray<?>) typedArray).sort(thisObj, (a, b) -> callComparator(arguments, a, b, arrayBuffer));
+            } else {
+                ((TypedArray.TypedFloatArray<?>) typedArray).sort(thisObj, (a, b) -> callComparator(arguments, a, b, arrayBuffer));
+            }
+            return true;
+        }
+
+        private static Number toUint32(int value) {
+            if (value >= 0) {
+                return value;
+            } else {
+                return (double) (value & 0xFFFFFFFFL);
+            }
+        }
+
+        /**
+         * Creates the arguments array for the calls of a comparator function during one sort. It
+         * is reused for all of them; called functions copy their parameters (and their arguments
+         * object) out of it on entry.
+         */
+        private static Object[] createComparatorArguments(Object compareFn) {
+            return JSArguments.createInitial(Undefined.instance, compareFn, 2);
+        }
+
+        /**
+         * Calls a comparator function through the cached call node of this sort and maps its result
+         * like {@link SortComparator} does.
+         *
+         * @param arguments the arguments array from {@link #createComparatorArguments}
+         * @param arrayBuffer the buffer of the sorted typed array, or null
+         */
+        private int callComparator(Object[] arguments, Object a, Object b, DynamicObject arrayBuffer) {
+            JSArguments.setUserArgument(arguments, 0, a);
+            JSArguments.setUserArgument(arguments, 1, b);
+            double d = JSRuntime.toDouble(getComparatorCallNode().executeCall(arguments));
+            if (arrayBuffer != null && JSArrayBuffer.isDetachedBuffer(arrayBuffer)) {
+                errorBranch.enter();
+                throw Errors.createTypeErrorDetachedBuffer();
+            }
+            return d == 0 ? 0 : (d < 0 ? -1 : 1);
+        }
+
+        private JSFunctionCallNode getComparatorCallNode() {
+            if (comparatorCallNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                comparatorCallNode = insert(JSFunctionCallNode.createCall());
+            }
+            return comparatorCallNode;
+        }
+
         private void delete(Object obj, Object i) {
             if (deletePropertyNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -2528,6 +2722,16 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             deletePropertyNode.executeEvaluated(obj, i);
         }
 
+        @Specialization(guards = {"isTypedArrayImplementation", "isJSArrayBufferView(thisObj)"})
+        protected DynamicObject sortTypedArray(DynamicObject thisObj, final Object comparefn) {
+            checkCompareFunction(comparefn);
+            if (sortPrimitiveTypedArray(thisObj, JSArrayBufferView.typedArrayGetArrayType(thisObj), comparefn)) {
+                primitiveSortBranch.enter();
+                return thisObj;
+            }
+            return sortJSObject(comparefn, thisObj);
+        }
+
         @Specialization
         protected Object sort(Object thisObj, final Object comparefn,
                         @Cached("createBinaryProfile()") ConditionProfile isJSObject) {
@@ -2660,12 +2864,13 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
         private class SortComparator implements Comparator<Object> {
             private final Object compFnObj;
             private final DynamicObject arrayBufferObj;
-            private final boolean isFunction;
+            /** Arguments for the call node if the comparator is a function, otherwise null. */
+            private final Object[] arguments;
 
             SortComparator(Object compFnObj, DynamicObject arrayBufferObj) {
                 this.compFnObj = compFnObj;
                 this.arrayBufferObj = arrayBufferObj;
-                this.isFunction = JSFunction.isJSFunction(compFnObj);
+                this.arguments = JSFunction.isJSFunction(compFnObj) ? createComparatorArguments(compFnObj) : null;
             }
 
             @Override
@@ -2679,8 +2884,10 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
                     return -1;
                 }
                 Object retObj;
-                if (isFunction) {
-                    retObj = JSFunction.call((DynamicObject) compFnObj, Undefined.instance, new Object[]{arg0, arg1});
+                if (arguments != null) {
+                    JSArguments.setUserArgument(arguments, 0, arg0);
+                    JSArguments.setUserArgument(arguments, 1, arg1);
+                    retObj = getComparatorCallNode().executeCall(arguments);
                 } else {
                     retObj = JSRuntime.call(compFnObj, Undefined.instance, new Object[]{arg0, arg1});
                 }
@@ -2877,6 +3084,19 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             }
             long count = Math.min(finalIdx - from, len - to);
 
+            if (isTypedArrayImplementation) {
+                if (count > 0) {
+                    DynamicObject view = (DynamicObject) obj;
+                    checkHasDetachedBuffer(view);
+                    TypedArray typedArray = JSArrayBufferView.typedArrayGetArrayType(view);
+                    Object backing = typedArray.getBufferFromTypedArray(view, true);
+                    int byteOffset = JSArrayBufferView.typedArrayGetOffset(view);
+                    int elementSize = typedArray.bytesPerElement();
+                    TypedArrayBulkOperations.copyBytes(backing, byteOffset + (int) from * elementSize, backing, byteOffset + (int) to * elementSize, (int) count * elementSize);
+                }
+                return obj;
+            }
+
             long direction;
             if (from < to && to < (from + count)) {
                 direction = -1;
@@ -2932,6 +3152,18 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
                 return true;
             }
 
+            if (isTypedArrayImplementation && k < len) {
+                TypedArray typedArray = getNumberSearchTypedArray(thisObj, searchElement);
+                if (typedArray != null) {
+                    DynamicObject view = (DynamicObject) thisObj;
+                    if (JSArrayBufferView.hasDetachedBuffer(view, getContext())) {
+                        return false;
+                    }
+                    return TypedArrayBulkOperations.indexOfNumber(typedArray, typedArray.getBufferFromTypedArray(view, true), JSArrayBufferView.typedArrayGetOffset(view),
+                                    (int) k, (int) len, JSRuntime.doubleValue((Number) searchElement), true, true) >= 0;
+                }
+            }
+
             while (k < len) {
                 Object currentElement = read(thisObj, k);
 
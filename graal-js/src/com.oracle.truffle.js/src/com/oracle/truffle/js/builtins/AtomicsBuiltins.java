@@ -55,6 +55,7 @@ import com.oracle.truffle.js.builtins.AtomicsBuiltinsFactory.AtomicsComputeNodeG
 import com.oracle.truffle.js.builtins.AtomicsBuiltinsFactory.AtomicsIsLockFreeNodeGen;
 import com.oracle.truffle.js.builtins.AtomicsBuiltinsFactory.AtomicsLoadNodeGen;
 import com.oracle.truffle.js.builtins.AtomicsBuiltinsFactory.AtomicsStoreNodeGen;
+import com.oracle.truffle.js.builtins.AtomicsBuiltinsFactory.AtomicsWaitAsyncNodeGen;
 import com.oracle.truffle.js.builtins.AtomicsBuiltinsFactory.AtomicsWaitNodeGen;
 import com.oracle.truffle.js.builtins.AtomicsBuiltinsFactory.AtomicsWakeNodeGen;
 import com.oracle.truffle.js.builtins.helper.SharedMemorySync;
@@ -65,8 +66,10 @@ import com.oracle.truffle.js.nodes.cast.JSToIntegerAsLongNode;
 import com.oracle.truffle.js.nodes.cast.JSToNumberNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
+import com.oracle.truffle.js.nodes.promise.NewPromiseCapabilityNode;
 import com.oracle.truffle.js.runtime.BigInt;
 import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSAgentWaiterList.AsyncWaiter;
 import com.oracle.truffle.js.runtime.JSAgentWaiterList.JSAgentWaiterListEntry;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSContext;
@@ -79,7 +82,11 @@ import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSSharedArrayBuffer;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
+import com.oracle.truffle.js.runtime.objects.PromiseCapabilityRecord;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
@@ -108,7 +115,10 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
         isLockFree(1),
 
         // ES9?
-        notify(3);
+        notify(3),
+
+        // staging
+        waitAsync(4);
 
         private final int length;
 
@@ -125,6 +135,8 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
         public int getECMAScriptVersion() {
             if (this.equals(notify)) {
                 return JSConfig.ECMAScript2019;
+            } else if (this.equals(waitAsync)) {
+                return JSConfig.ECMAScript2021;
             }
             return JSConfig.ECMAScript2017;
         }
@@ -157,6 +169,8 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
                 return AtomicsWakeNodeGen.create(context, builtin, args().fixedArgs(3).createArgumentNodes(context));
             case wait:
                 return AtomicsWaitNodeGen.create(context, builtin, args().fixedArgs(4).createArgumentNodes(context));
+            case waitAsync:
+                return AtomicsWaitAsyncNodeGen.create(context, builtin, args().fixedArgs(4).createArgumentNodes(context));
             case isLockFree:
                 return AtomicsIsLockFreeNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context));
         }
@@ -257,7 +271,7 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
         }
 
         public static ByteBuffer getBuffer(DynamicObject thisObj, boolean condition) {
-            return JSArrayBufferView.typedArrayGetByteBuffer(thisObj, condition).duplicate();
+            return ((ByteBuffer) JSArrayBufferView.typedArrayGetArrayType(thisObj, condition).getBufferFromTypedArray(thisObj, condition)).duplicate();
         }
 
         public static ByteBuffer getBuffer(DynamicObject thisObj) {
@@ -815,12 +829,7 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
 
             SharedMemorySync.enterCriticalSection(getContext(), wl);
             try {
-                int[] waiters = SharedMemorySync.removeWaiters(getContext(), wl, c);
-                int n;
-                for (n = 0; n < waiters.length; n++) {
-                    SharedMemorySync.wakeWaiter(getContext(), waiters[n]);
-                }
-                return n;
+                return SharedMemorySync.notifyWaiters(getContext(), wl, c);
             } finally {
                 SharedMemorySync.leaveCriticalSection(getContext(), wl);
             }
@@ -913,6 +922,87 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
         }
     }
 
+    /**
+     * Atomics.waitAsync(typedArray, index, value, timeout).
+     */
+    public abstract static class AtomicsWaitAsyncNode extends AtomicsOperationNode {
+
+        private static final String NOT_EQUAL = "not-equal";
+
+        @Child private JSToBigIntNode toBigIntNode;
+        @Child private JSToInt32Node toInt32Node;
+        @Child private NewPromiseCapabilityNode newPromiseCapability;
+
+        public AtomicsWaitAsyncNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+            this.newPromiseCapability = NewPromiseCapabilityNode.create(context);
+        }
+
+        protected AtomicsLoadNode createHelperNode() {
+            return AtomicsLoadNodeGen.create(getContext(), getBuiltin(), args().fixedArgs(4).createArgumentNodes(getContext()));
+        }
+
+        @Specialization
+        protected Object doGeneric(VirtualFrame frame, Object maybeTarget, Object index, Object value, Object timeout,
+                        @Cached("create()") JSToIndexNode toIndexNode,
+                        @Cached("create()") JSToNumberNode toNumberNode,
+                        @Cached("createHelperNode()") AtomicsLoadNode loadNode) {
+
+            DynamicObject target = ensureDynamicObject(maybeTarget);
+            validateSharedIntegerTypedArray(target, true);
+
+            int i = validateAtomicAccess(target, toIndexNode.executeLong(index), index);
+
+            boolean isInt32 = isInt32SharedBufferView(maybeTarget);
+            long v = isInt32 ? toInt32(value) : toBigInt(value).longValue();
+            double t = JSRuntime.doubleValue(toNumberNode.executeNumber(timeout));
+            t = Double.isNaN(t) ? Double.POSITIVE_INFINITY : Math.max(t, 0);
+
+            JSAgentWaiterListEntry wl = SharedMemorySync.getWaiterList(getContext(), target, i);
+            SharedMemorySync.enterCriticalSection(getContext(), wl);
+            try {
+                Object w = loadNode.executeWithBufferAndIndex(frame, maybeTarget, i);
+                boolean isNotEqual = isInt32 ? !(w instanceof Integer) || (int) w != (int) v
+                                : !(w instanceof BigInt) || ((BigInt) w).longValue() != v;
+                if (isNotEqual) {
+                    return createResult(false, NOT_EQUAL);
+                }
+                if (t == 0) {
+                    return createResult(false, AsyncWaiter.TIMED_OUT);
+                }
+                PromiseCapabilityRecord promiseCapability = newPromiseCapability.executeDefault();
+                SharedMemorySync.addAsyncWaiter(getContext(), wl, promiseCapability, t);
+                return createResult(true, promiseCapability.getPromise());
+            } finally {
+                SharedMemorySync.leaveCriticalSection(getContext(), wl);
+            }
+        }
+
+        @TruffleBoundary
+        private DynamicObject createResult(boolean async, Object result) {
+            DynamicObject resultObject = JSUserObject.create(getContext());
+            JSObjectUtil.putDataProperty(getContext(), resultObject, "async", async, JSAttributes.getDefault());
+            JSObjectUtil.putDataProperty(getContext(), resultObject, "value", result, JSAttributes.getDefault());
+            return resultObject;
+        }
+
+        private int toInt32(Object v) {
+            if (toInt32Node == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toInt32Node = insert(JSToInt32Node.create());
+            }
+            return toInt32Node.executeInt(v);
+        }
+
+        private BigInt toBigInt(Object v) {
+            if (toBigIntNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toBigIntNode = insert(JSToBigIntNode.create());
+            }
+            return toBigIntNode.executeBigInteger(v);
+        }
+    }
+
     /**
      * Lock-free regions checking.
      */
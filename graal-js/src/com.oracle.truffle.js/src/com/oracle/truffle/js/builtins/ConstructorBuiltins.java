@@ -42,9 +42,7 @@ package com.oracle.truffle.js.builtins;
 
 import java.nio.ByteBuffer;
 import java.util.EnumSet;
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Objects;
 import java.util.StringJoiner;
 import java.util.WeakHashMap;
 
@@ -163,6 +161,7 @@ import com.oracle.truffle.js.nodes.promise.PromiseResolveThenableNode;
 import com.oracle.truffle.js.nodes.unary.IsCallableNode;
 import com.oracle.truffle.js.runtime.BigInt;
 import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.DynamicCodeCache;
 import com.oracle.truffle.js.runtime.Evaluator;
 import com.oracle.truffle.js.runtime.GraalJSException;
 import com.oracle.truffle.js.runtime.JSArguments;
@@ -1598,23 +1597,10 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
         }
     }
 
-    static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
-        private static final long serialVersionUID = 7813848977534444613L;
-        private final int maxCacheSize;
-
-        LRUCache(int maxCacheSize) {
-            super(16, 0.75F, true);
-            this.maxCacheSize = maxCacheSize;
-        }
-
-        @Override
-        protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-            return size() > maxCacheSize;
-        }
-    }
-
     /**
-     * Create (and potentially cache) dynamic function from parameter list and body strings.
+     * Create (and potentially cache) dynamic function from parameter list and body strings. Parsed
+     * functions are shared with all other call sites and realms through the
+     * {@link DynamicCodeCache} of the context.
      */
     abstract static class CreateDynamicFunctionNode extends JavaScriptBaseNode {
         private final boolean generatorFunction;
@@ -1633,85 +1619,37 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
             return a.equals(b);
         }
 
-        protected LRUCache<CachedSourceKey, ScriptNode> createCache() {
-            return new LRUCache<>(context.getContextOptions().getFunctionConstructorCacheSize());
-        }
-
         @SuppressWarnings("unused")
         @Specialization(guards = {"equals(cachedParamList, paramList)", "equals(cachedBody, body)", "equals(cachedSourceName, sourceName)"}, limit = "1")
         protected final DynamicObject doCached(String paramList, String body, String sourceName,
                         @Cached("paramList") String cachedParamList,
                         @Cached("body") String cachedBody,
                         @Cached("sourceName") String cachedSourceName,
-                        @Cached("parseFunction(paramList, body, sourceName)") ScriptNode parsedFunction) {
+                        @Cached("getOrParseFunction(paramList, body, sourceName)") ScriptNode parsedFunction) {
             return evalParsedFunction(context.getRealm(), parsedFunction);
         }
 
         @Specialization(replaces = "doCached")
-        protected final DynamicObject doUncached(String paramList, String body, String sourceName,
-                        @Cached("createCache()") LRUCache<CachedSourceKey, ScriptNode> cache,
-                        @Cached("createCountingProfile()") ConditionProfile cacheHit) {
-            ScriptNode cached = cacheLookup(cache, new CachedSourceKey(paramList, body, sourceName));
-            if (cacheHit.profile(cached == null)) {
-                return parseAndEvalFunction(cache, context.getRealm(), paramList, body, sourceName);
-            } else {
-                return evalParsedFunction(context.getRealm(), cached);
-            }
-        }
-
-        @TruffleBoundary
-        protected ScriptNode cacheLookup(LRUCache<CachedSourceKey, ScriptNode> cache, CachedSourceKey sourceKey) {
-            synchronized (cache) {
-                return cache.get(sourceKey);
-            }
+        protected final DynamicObject doUncached(String paramList, String body, String sourceName) {
+            return evalParsedFunction(context.getRealm(), getOrParseFunction(paramList, body, sourceName));
         }
 
         @TruffleBoundary(transferToInterpreterOnException = false)
-        protected final ScriptNode parseFunction(String paramList, String body, String sourceName) {
-            CompilerAsserts.neverPartOfCompilation();
-            return context.getEvaluator().parseFunction(context, paramList, body, generatorFunction, asyncFunction, sourceName);
+        protected final ScriptNode getOrParseFunction(String paramList, String body, String sourceName) {
+            DynamicCodeCache cache = context.getDynamicCodeCache();
+            Object key = DynamicCodeCache.functionKey(paramList, body, sourceName, generatorFunction, asyncFunction);
+            ScriptNode parsedFunction = cache.get(key);
+            if (parsedFunction == null) {
+                parsedFunction = context.getEvaluator().parseFunction(context, paramList, body, generatorFunction, asyncFunction, sourceName);
+                cache.put(key, parsedFunction);
+            }
+            return parsedFunction;
         }
 
         @TruffleBoundary(transferToInterpreterOnException = false)
         private static DynamicObject evalParsedFunction(JSRealm realm, ScriptNode parsedFunction) {
             return (DynamicObject) parsedFunction.run(realm);
         }
-
-        @TruffleBoundary(transferToInterpreterOnException = false)
-        private DynamicObject parseAndEvalFunction(LRUCache<CachedSourceKey, ScriptNode> cache, JSRealm realm, String paramList, String body, String sourceName) {
-            ScriptNode parsedBody = parseFunction(paramList, body, sourceName);
-            synchronized (cache) {
-                cache.put(new CachedSourceKey(paramList, body, sourceName), parsedBody);
-            }
-            return evalParsedFunction(realm, parsedBody);
-        }
-
-        protected static class CachedSourceKey {
-            private final String body;
-            private final String paramList;
-            private final String sourceName;
-
-            CachedSourceKey(String paramList, String body, String sourceName) {
-                this.body = body;
-                this.paramList = paramList;
-                this.sourceName = sourceName;
-            }
-
-            @Override
-            public boolean equals(Object o) {
-                if (!(o instanceof CachedSourceKey)) {
-                    return false;
-                }
-                CachedSourceKey k = (CachedSourceKey) o;
-                return k.body.equals(body) && k.paramList.equals(paramList) && k.sourceName.equals(sourceName);
-            }
-
-            @Override
-            public int hashCode() {
-                return Objects.hash(body, paramList, sourceName);
-            }
-        }
-
     }
 
     /**
@@ -1779,16 +1717,10 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
 
         @Specialization(guards = "isHostByteBuffer(buffer)")
         protected DynamicObject constructFromHostByteBuffer(DynamicObject newTarget, Object buffer,
-                        @Cached("create()") BranchProfile errorBranch,
-                        @Cached("createBinaryProfile()") ConditionProfile isDirect) {
+                        @Cached("create()") BranchProfile errorBranch) {
             Object maybeBuffer = getContext().getRealm().getEnv().asHostObject(buffer);
             if (maybeBuffer instanceof ByteBuffer) {
-                ByteBuffer byteBuffer = (ByteBuffer) maybeBuffer;
-                if (isDirect.profile(byteBuffer.isDirect())) {
-                    return swapPrototype(JSArrayBuffer.createDirectArrayBuffer(getContext(), byteBuffer), newTarget);
-                } else {
-                    return swapPrototype(JSArrayBuffer.createArrayBuffer(getContext(), byteBuffer.array()), newTarget);
-                }
+                return swapPrototype(JSArrayBuffer.createArrayBufferFromByteBuffer(getContext(), (ByteBuffer) maybeBuffer), newTarget);
             } else {
                 errorBranch.enter();
                 throw Errors.createTypeError("Unsupported input data type");
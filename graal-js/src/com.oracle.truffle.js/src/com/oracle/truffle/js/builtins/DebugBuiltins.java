@@ -71,6 +71,7 @@ import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugCreateLazyString
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugCreateSafeIntegerNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugDumpCountersNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugDumpFunctionTreeNodeGen;
+import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugDynamicCodeCacheNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugHeapDumpNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugInspectNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugIsHolesArrayNodeGen;
@@ -79,6 +80,7 @@ import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugLoadModuleNodeGe
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugNeverPartOfCompilationNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugPrintObjectNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugPrintSourceAttributionNodeGen;
+import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugRegexCacheNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugShapeNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugStringCompareNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugSystemPropertiesNodeGen;
@@ -93,6 +95,8 @@ import com.oracle.truffle.js.nodes.ScriptNode;
 import com.oracle.truffle.js.nodes.cast.JSToObjectNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
+import com.oracle.truffle.js.runtime.CompiledRegexCache;
+import com.oracle.truffle.js.runtime.DynamicCodeCache;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.Evaluator;
 import com.oracle.truffle.js.runtime.JSContext;
@@ -156,6 +160,8 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
         systemGC(0),
         systemProperty(1),
         systemProperties(0),
+        dynamicCodeCache(0),
+        regexCache(0),
         neverPartOfCompilation(0),
         dumpHeap(2);
 
@@ -217,6 +223,10 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
                 return DebugSystemPropertyNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context));
             case systemProperties:
                 return DebugSystemPropertiesNodeGen.create(context, builtin, args().createArgumentNodes(context));
+            case dynamicCodeCache:
+                return DebugDynamicCodeCacheNodeGen.create(context, builtin, args().createArgumentNodes(context));
+            case regexCache:
+                return DebugRegexCacheNodeGen.create(context, builtin, args().createArgumentNodes(context));
             case neverPartOfCompilation:
                 return DebugNeverPartOfCompilationNodeGen.create(context, builtin, args().createArgumentNodes(context));
             case typedArrayDetachBuffer:
@@ -689,6 +699,46 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
         }
     }
 
+    public abstract static class DebugDynamicCodeCache extends JSBuiltinNode {
+
+        public DebugDynamicCodeCache(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @TruffleBoundary
+        @Specialization
+        protected Object dynamicCodeCache() {
+            DynamicCodeCache cache = getContext().getDynamicCodeCache();
+            DynamicObject result = JSUserObject.create(getContext());
+            JSObject.set(result, "hits", (double) cache.getHitCount());
+            JSObject.set(result, "misses", (double) cache.getMissCount());
+            JSObject.set(result, "evictions", (double) cache.getEvictionCount());
+            JSObject.set(result, "size", cache.size());
+            JSObject.set(result, "capacity", cache.getCapacity());
+            return result;
+        }
+    }
+
+    public abstract static class DebugRegexCache extends JSBuiltinNode {
+
+        public DebugRegexCache(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @TruffleBoundary
+        @Specialization
+        protected Object regexCache() {
+            CompiledRegexCache cache = getContext().getCompiledRegexCache();
+            DynamicObject result = JSUserObject.create(getContext());
+            JSObject.set(result, "hits", (double) cache.getHitCount());
+            JSObject.set(result, "misses", (double) cache.getMissCount());
+            JSObject.set(result, "evictions", (double) cache.getEvictionCount());
+            JSObject.set(result, "size", cache.size());
+            JSObject.set(result, "capacity", cache.getCapacity());
+            return result;
+        }
+    }
+
     public abstract static class DebugSystemProperty extends JSBuiltinNode {
 
         public DebugSystemProperty(JSContext context, JSBuiltin builtin) {
@@ -77,6 +77,7 @@ import com.oracle.truffle.js.runtime.JSRealm;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.array.TypedArray;
+import com.oracle.truffle.js.runtime.array.TypedArrayBulkOperations;
 import com.oracle.truffle.js.runtime.array.TypedArrayFactory;
 import com.oracle.truffle.js.runtime.builtins.JSAbstractBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
@@ -188,19 +189,21 @@ public abstract class JSConstructTypedArrayNode extends JSBuiltinNode {
         checkDetachedBuffer(arrayBuffer);
         byte[] byteArray = JSArrayBuffer.getByteArray(arrayBuffer);
         int arrayBufferLength = byteArray.length;
-        return doArrayBufferImpl(arrayBuffer, byteOffset0, length0, newTarget, arrayBufferLength, false, lengthIsUndefined);
+        return doArrayBufferImpl(arrayBuffer, byteOffset0, length0, newTarget, arrayBufferLength, false, false, lengthIsUndefined);
     }
 
     @Specialization(guards = {"isJSFunction(newTarget)", "isJSDirectArrayBuffer(arrayBuffer)"})
     protected DynamicObject doDirectArrayBuffer(DynamicObject newTarget, DynamicObject arrayBuffer, Object byteOffset0, Object length0,
-                    @Cached("createBinaryProfile()") ConditionProfile lengthIsUndefined) {
+                    @Cached("createBinaryProfile()") ConditionProfile lengthIsUndefined,
+                    @Cached("createBinaryProfile()") ConditionProfile readOnlyProfile) {
         checkDetachedBuffer(arrayBuffer);
         ByteBuffer byteBuffer = JSArrayBuffer.getDirectByteBuffer(arrayBuffer);
         int arrayBufferLength = byteBuffer.limit();
-        return doArrayBufferImpl(arrayBuffer, byteOffset0, length0, newTarget, arrayBufferLength, true, lengthIsUndefined);
+        boolean readOnly = readOnlyProfile.profile(JSArrayBuffer.isReadOnlyDirectArrayBuffer(arrayBuffer));
+        return doArrayBufferImpl(arrayBuffer, byteOffset0, length0, newTarget, arrayBufferLength, true, readOnly, lengthIsUndefined);
     }
 
-    private DynamicObject doArrayBufferImpl(DynamicObject arrayBuffer, Object byteOffset0, Object length0, DynamicObject newTarget, int bufferByteLength, boolean direct,
+    private DynamicObject doArrayBufferImpl(DynamicObject arrayBuffer, Object byteOffset0, Object length0, DynamicObject newTarget, int bufferByteLength, boolean direct, boolean readOnly,
                     ConditionProfile lengthIsUndefinedProfile) {
         final int elementSize = factory.getBytesPerElement();
 
@@ -226,7 +229,7 @@ public abstract class JSConstructTypedArrayNode extends JSBuiltinNode {
         rangeCheck(byteOffset + byteLength <= bufferByteLength, "length exceeds buffer bounds");
 
         assert byteOffset <= Integer.MAX_VALUE && length <= Integer.MAX_VALUE;
-        TypedArray typedArray = factory.createArrayType(direct, byteOffset != 0);
+        TypedArray typedArray = factory.createArrayType(direct, byteOffset != 0, readOnly);
         return createTypedArray(arrayBuffer, typedArray, (int) byteOffset, (int) length, newTarget);
     }
 
@@ -276,10 +279,8 @@ public abstract class JSConstructTypedArrayNode extends JSBuiltinNode {
         DynamicObject result = createTypedArray(arrayBuffer, typedArray, 0, (int) length, newTarget);
 
         assert typedArray == JSArrayBufferView.typedArrayGetArrayType(result);
-        for (long i = 0; i < length; i++) {
-            Object element = sourceType.getElement(arrayBufferView, i);
-            typedArray.setElement(result, i, element, false);
-        }
+        TypedArrayBulkOperations.copyElements(sourceType, sourceType.getBufferFromTypedArray(arrayBufferView, true), JSArrayBufferView.typedArrayGetOffset(arrayBufferView),
+                        typedArray, typedArray.getBufferFromTypedArray(result, true), 0, (int) length);
         return result;
     }
 
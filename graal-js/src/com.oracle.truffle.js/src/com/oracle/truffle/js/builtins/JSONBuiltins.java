@@ -40,12 +40,17 @@
  */
 package com.oracle.truffle.js.builtins;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -53,9 +58,13 @@ import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONParseNodeGen;
+import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONParseSourceNodeGen;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONStringifyNodeGen;
+import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONStringifyToNodeGen;
+import com.oracle.truffle.js.builtins.helper.JSONByteOutput;
 import com.oracle.truffle.js.builtins.helper.JSONData;
 import com.oracle.truffle.js.builtins.helper.JSONStringifyStringNode;
+import com.oracle.truffle.js.builtins.helper.TruffleJSONByteParser;
 import com.oracle.truffle.js.builtins.helper.TruffleJSONParser;
 import com.oracle.truffle.js.nodes.access.CreateDataPropertyNode;
 import com.oracle.truffle.js.nodes.cast.JSToIntegerAsIntNode;
@@ -65,11 +74,16 @@ import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.nodes.unary.IsCallableNode;
 import com.oracle.truffle.js.nodes.unary.JSIsArrayNode;
+import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
+import com.oracle.truffle.js.runtime.builtins.JSAbstractBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSDataView;
 import com.oracle.truffle.js.runtime.builtins.JSNumber;
 import com.oracle.truffle.js.runtime.builtins.JSString;
 import com.oracle.truffle.js.runtime.builtins.JSUserObject;
@@ -84,6 +98,7 @@ import com.oracle.truffle.js.runtime.objects.Undefined;
 public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuiltins.JSON> {
 
     public static final JSBuiltinsContainer BUILTINS = new JSONBuiltins();
+    public static final JSBuiltinsContainer BUILTINS_GRAAL = new JSONGraalBuiltins();
 
     protected JSONBuiltins() {
         super(com.oracle.truffle.js.runtime.builtins.JSON.CLASS_NAME, JSON.class);
@@ -116,6 +131,42 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         return null;
     }
 
+    /**
+     * Graal-specific JSON functions, installed on the {@code Graal} object.
+     */
+    public static final class JSONGraalBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONGraalBuiltins.JSONGraal> {
+        protected JSONGraalBuiltins() {
+            super(JSONGraal.class);
+        }
+
+        public enum JSONGraal implements BuiltinEnum<JSONGraal> {
+            parseJSON(2),
+            stringifyJSON(4);
+
+            private final int length;
+
+            JSONGraal(int length) {
+                this.length = length;
+            }
+
+            @Override
+            public int getLength() {
+                return length;
+            }
+        }
+
+        @Override
+        protected Object createNode(JSContext context, JSBuiltin builtin, boolean construct, boolean newTarget, JSONGraal builtinEnum) {
+            switch (builtinEnum) {
+                case parseJSON:
+                    return JSONParseSourceNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
+                case stringifyJSON:
+                    return JSONStringifyToNodeGen.create(context, builtin, args().fixedArgs(4).createArgumentNodes(context));
+            }
+            return null;
+        }
+    }
+
     public abstract static class JSONOperation extends JSBuiltinNode {
         public JSONOperation(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
@@ -134,31 +185,9 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         protected boolean isArray(Object replacer) {
             return JSRuntime.isArray(replacer);
         }
-    }
-
-    public abstract static class JSONParseNode extends JSONOperation {
-
-        public JSONParseNode(JSContext context, JSBuiltin builtin) {
-            super(context, builtin);
-        }
-
-        @Specialization(guards = "isCallable.executeBoolean(reviver)", limit = "1")
-        protected Object parse(Object text, Object reviver,
-                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
-            Object unfiltered = parseIntl(toString(text));
-            DynamicObject root = JSUserObject.create(getContext());
-            JSObjectUtil.putDataProperty(getContext(), root, "", unfiltered, JSAttributes.getDefault());
-            return walk((DynamicObject) reviver, root, "");
-        }
-
-        @Specialization(guards = "!isCallable.executeBoolean(reviver)", limit = "1")
-        protected Object parseUnfiltered(Object text, @SuppressWarnings("unused") Object reviver,
-                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
-            return parseIntl(toString(text));
-        }
 
         @TruffleBoundary(transferToInterpreterOnException = false)
-        private Object parseIntl(String jsonString) {
+        protected final Object parseIntl(String jsonString) {
             if (JSConfig.TruffleJSONParser) {
                 return new TruffleJSONParser(getContext()).parse(jsonString);
             } else {
@@ -167,7 +196,7 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         }
 
         @TruffleBoundary
-        private Object walk(DynamicObject reviverFn, DynamicObject holder, String property) {
+        protected final Object walk(DynamicObject reviverFn, DynamicObject holder, String property) {
             Object value = JSObject.get(holder, property);
             if (JSRuntime.isObject(value)) {
                 DynamicObject object = (DynamicObject) value;
@@ -195,11 +224,132 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
             }
             return JSRuntime.call(reviverFn, holder, new Object[]{property, value});
         }
+
+        /**
+         * Returns a buffer covering the bytes of an {@code ArrayBuffer}, {@code SharedArrayBuffer},
+         * typed array or {@code DataView}, or {@code null} if the value is none of these.
+         */
+        @TruffleBoundary
+        protected final ByteBuffer getByteBufferRegion(Object value) {
+            DynamicObject arrayBuffer;
+            int offset;
+            int length;
+            if (JSAbstractBuffer.isJSAbstractBuffer(value)) {
+                arrayBuffer = (DynamicObject) value;
+                offset = 0;
+                length = -1;
+            } else if (JSArrayBufferView.isJSArrayBufferView(value)) {
+                arrayBuffer = JSArrayBufferView.getArrayBuffer((DynamicObject) value);
+                offset = JSArrayBufferView.typedArrayGetOffset((DynamicObject) value);
+                length = JSArrayBufferView.getByteLength((DynamicObject) value, true, getContext());
+            } else if (JSDataView.isJSDataView(value)) {
+                arrayBuffer = JSDataView.getArrayBuffer((DynamicObject) value);
+                offset = JSDataView.typedArrayGetOffset((DynamicObject) value);
+                length = JSDataView.typedArrayGetLength((DynamicObject) value);
+            } else {
+                return null;
+            }
+            if (JSArrayBuffer.isDetachedBuffer(arrayBuffer)) {
+                throw Errors.createTypeErrorDetachedBuffer();
+            }
+            ByteBuffer buffer;
+            if (JSArrayBuffer.isJSDirectOrSharedArrayBuffer(arrayBuffer)) {
+                buffer = JSArrayBuffer.getDirectByteBuffer(arrayBuffer).duplicate();
+            } else {
+                buffer = ByteBuffer.wrap(JSAbstractBuffer.getByteArray(arrayBuffer));
+            }
+            buffer.limit(length < 0 ? buffer.capacity() : offset + length);
+            buffer.position(offset);
+            return buffer;
+        }
     }
 
-    public abstract static class JSONStringifyNode extends JSONOperation {
+    public abstract static class JSONParseNode extends JSONOperation {
 
-        public JSONStringifyNode(JSContext context, JSBuiltin builtin) {
+        public JSONParseNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization(guards = "isCallable.executeBoolean(reviver)", limit = "1")
+        protected Object parse(Object text, Object reviver,
+                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
+            Object unfiltered = parseIntl(toString(text));
+            DynamicObject root = JSUserObject.create(getContext());
+            JSObjectUtil.putDataProperty(getContext(), root, "", unfiltered, JSAttributes.getDefault());
+            return walk((DynamicObject) reviver, root, "");
+        }
+
+        @Specialization(guards = "!isCallable.executeBoolean(reviver)", limit = "1")
+        protected Object parseUnfiltered(Object text, @SuppressWarnings("unused") Object reviver,
+                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
+            return parseIntl(toString(text));
+        }
+    }
+
+    /**
+     * Parses JSON directly from UTF-8 encoded bytes ({@code ArrayBuffer}, {@code SharedArrayBuffer},
+     * typed array, {@code DataView}, host {@link ByteBuffer}, {@code byte[]} or {@link InputStream})
+     * or from a host {@link Reader}, without materializing the document as a string first. Any
+     * other value is converted to a string and parsed like {@code JSON.parse}.
+     */
+    public abstract static class JSONParseSourceNode extends JSONOperation {
+
+        public JSONParseSourceNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        protected Object parse(Object source, Object reviver,
+                        @Cached IsCallableNode isCallable) {
+            Object unfiltered = parseSource(source);
+            if (isCallable.executeBoolean(reviver)) {
+                DynamicObject root = JSUserObject.create(getContext());
+                JSObjectUtil.putDataProperty(getContext(), root, "", unfiltered, JSAttributes.getDefault());
+                return walk((DynamicObject) reviver, root, "");
+            }
+            return unfiltered;
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private Object parseSource(Object source) {
+            TruffleJSONByteParser.Source input = toJSONSource(source);
+            if (input == null) {
+                return parseIntl(JSRuntime.toString(source));
+            }
+            return new TruffleJSONByteParser(getContext(), input).parse();
+        }
+
+        private TruffleJSONByteParser.Source toJSONSource(Object source) {
+            ByteBuffer buffer = getByteBufferRegion(source);
+            if (buffer != null) {
+                return TruffleJSONByteParser.Source.fromByteBuffer(buffer);
+            }
+            return toHostJSONSource(source);
+        }
+
+        private TruffleJSONByteParser.Source toHostJSONSource(Object source) {
+            TruffleLanguage.Env env = getContext().getRealm().getEnv();
+            if (!env.isHostObject(source)) {
+                return null;
+            }
+            Object hostObject = env.asHostObject(source);
+            if (hostObject instanceof ByteBuffer) {
+                return TruffleJSONByteParser.Source.fromByteBuffer((ByteBuffer) hostObject);
+            } else if (hostObject instanceof byte[]) {
+                byte[] bytes = (byte[]) hostObject;
+                return TruffleJSONByteParser.Source.fromBytes(bytes, 0, bytes.length);
+            } else if (hostObject instanceof Reader) {
+                return TruffleJSONByteParser.Source.fromReader((Reader) hostObject);
+            } else if (hostObject instanceof InputStream) {
+                return TruffleJSONByteParser.Source.fromInputStream((InputStream) hostObject);
+            }
+            return null;
+        }
+    }
+
+    public abstract static class JSONStringifyOperation extends JSONOperation {
+
+        public JSONStringifyOperation(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
         }
 
@@ -237,14 +387,7 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
             return isCallableNode.executeBoolean(obj);
         }
 
-        @Specialization(guards = "isCallable(replacerFn)")
-        protected Object stringify(Object value, DynamicObject replacerFn, Object spaceParam) {
-            assert JSRuntime.isCallable(replacerFn);
-            return stringifyIntl(value, spaceParam, replacerFn, null);
-        }
-
-        @Specialization(guards = "isArray(replacerObj)")
-        protected Object stringifyReplacerArray(Object value, DynamicObject replacerObj, Object spaceParam) {
+        protected List<String> createReplacerList(DynamicObject replacerObj) {
             int len = (int) JSRuntime.toLength(JSObject.get(replacerObj, JSArray.LENGTH));
             List<String> replacerList = new ArrayList<>();
             for (int i = 0; i < len; i++) {
@@ -260,7 +403,7 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
                     addToReplacer(replacerList, item);
                 }
             }
-            return stringifyIntl(value, spaceParam, null, replacerList);
+            return replacerList;
         }
 
         @TruffleBoundary
@@ -270,13 +413,7 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
             }
         }
 
-        @SuppressWarnings("unused")
-        @Specialization(guards = {"!isCallable(replacer)", "!isArray(replacer)"})
-        protected Object stringifyNoReplacer(Object value, Object replacer, Object spaceParam) {
-            return stringifyIntl(value, spaceParam, null, null);
-        }
-
-        private Object stringifyIntl(Object value, Object spaceParam, DynamicObject replacerFnObj, List<String> replacerList) {
+        protected Object stringifyIntl(Object value, Object spaceParam, DynamicObject replacerFnObj, List<String> replacerList, JSONByteOutput output) {
             final String gap = spaceIsUndefinedProfile.profile(spaceParam == Undefined.instance) ? "" : getGap(spaceParam);
 
             DynamicObject wrapper = JSUserObject.create(getContext());
@@ -285,7 +422,7 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
                 createWrapperPropertyNode = insert(CreateDataPropertyNode.create(getContext(), ""));
             }
             createWrapperPropertyNode.executeVoid(wrapper, value);
-            return jsonStr(new JSONData(gap, replacerFnObj, replacerList), "", wrapper);
+            return jsonStr(new JSONData(gap, replacerFnObj, replacerList, output), "", wrapper);
         }
 
         private String getGap(Object spaceParam) {
@@ -336,4 +473,72 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
             return toNumberNode.executeNumber(target);
         }
     }
+
+    public abstract static class JSONStringifyNode extends JSONStringifyOperation {
+
+        public JSONStringifyNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization(guards = "isCallable(replacerFn)")
+        protected Object stringify(Object value, DynamicObject replacerFn, Object spaceParam) {
+            assert JSRuntime.isCallable(replacerFn);
+            return stringifyIntl(value, spaceParam, replacerFn, null, null);
+        }
+
+        @Specialization(guards = "isArray(replacerObj)")
+        protected Object stringifyReplacerArray(Object value, DynamicObject replacerObj, Object spaceParam) {
+            return stringifyIntl(value, spaceParam, null, createReplacerList(replacerObj), null);
+        }
+
+        @SuppressWarnings("unused")
+        @Specialization(guards = {"!isCallable(replacer)", "!isArray(replacer)"})
+        protected Object stringifyNoReplacer(Object value, Object replacer, Object spaceParam) {
+            return stringifyIntl(value, spaceParam, null, null, null);
+        }
+    }
+
+    /**
+     * Serializes a value like {@code JSON.stringify}, but writes the UTF-8 encoded result directly
+     * into an {@code ArrayBuffer}, {@code SharedArrayBuffer}, typed array or {@code DataView}, a
+     * host {@link ByteBuffer} (starting at and advancing its position) or a host
+     * {@link OutputStream}. Returns the number of bytes written, or {@code undefined} if the value
+     * is not serializable.
+     */
+    public abstract static class JSONStringifyToNode extends JSONStringifyOperation {
+
+        public JSONStringifyToNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        protected Object stringifyTo(Object value, Object replacer, Object spaceParam, Object target) {
+            JSONByteOutput output = toJSONOutput(target);
+            if (isCallable(replacer)) {
+                return stringifyIntl(value, spaceParam, (DynamicObject) replacer, null, output);
+            } else if (JSObject.isDynamicObject(replacer) && isArray(replacer)) {
+                return stringifyIntl(value, spaceParam, null, createReplacerList((DynamicObject) replacer), output);
+            } else {
+                return stringifyIntl(value, spaceParam, null, null, output);
+            }
+        }
+
+        @TruffleBoundary
+        private JSONByteOutput toJSONOutput(Object target) {
+            ByteBuffer buffer = getByteBufferRegion(target);
+            if (buffer != null) {
+                return JSONByteOutput.fromByteBuffer(buffer);
+            }
+            TruffleLanguage.Env env = getContext().getRealm().getEnv();
+            if (env.isHostObject(target)) {
+                Object hostObject = env.asHostObject(target);
+                if (hostObject instanceof ByteBuffer) {
+                    return JSONByteOutput.fromByteBuffer((ByteBuffer) hostObject);
+                } else if (hostObject instanceof OutputStream) {
+                    return JSONByteOutput.fromOutputStream((OutputStream) hostObject);
+                }
+            }
+            throw Errors.createTypeError("ArrayBuffer, ByteBuffer or OutputStream expected");
+        }
+    }
 }
@@ -40,7 +40,9 @@
  */
 package com.oracle.truffle.js.builtins;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
@@ -63,6 +65,7 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.js.builtins.JavaBuiltinsFactory.JavaAddToClasspathNodeGen;
 import com.oracle.truffle.js.builtins.JavaBuiltinsFactory.JavaExtendNodeGen;
 import com.oracle.truffle.js.builtins.JavaBuiltinsFactory.JavaFromNodeGen;
+import com.oracle.truffle.js.builtins.JavaBuiltinsFactory.JavaFromRecordsNodeGen;
 import com.oracle.truffle.js.builtins.JavaBuiltinsFactory.JavaIsJavaFunctionNodeGen;
 import com.oracle.truffle.js.builtins.JavaBuiltinsFactory.JavaIsJavaMethodNodeGen;
 import com.oracle.truffle.js.builtins.JavaBuiltinsFactory.JavaIsJavaObjectNodeGen;
@@ -81,6 +84,7 @@ import com.oracle.truffle.js.nodes.cast.JSToStringNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.nodes.interop.ExportValueNode;
+import com.oracle.truffle.js.nodes.interop.ForeignArrayElementsNode;
 import com.oracle.truffle.js.nodes.interop.JSForeignToJSTypeNode;
 import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.Errors;
@@ -91,13 +95,24 @@ import com.oracle.truffle.js.runtime.JSFrameUtil;
 import com.oracle.truffle.js.runtime.JSRealm;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JavaScriptRootNode;
+import com.oracle.truffle.js.runtime.array.ScriptArray;
+import com.oracle.truffle.js.runtime.array.TypedArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractDoubleArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractIntArray;
+import com.oracle.truffle.js.runtime.array.dyn.ConstantByteArray;
+import com.oracle.truffle.js.runtime.array.dyn.ConstantDoubleArray;
+import com.oracle.truffle.js.runtime.array.dyn.ConstantIntArray;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
 import com.oracle.truffle.js.runtime.java.JavaAccess;
 import com.oracle.truffle.js.runtime.java.adapter.JavaAdapterFactory;
+import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 public final class JavaBuiltins extends JSBuiltinsContainer.SwitchEnum<JavaBuiltins.Java> {
@@ -112,6 +127,7 @@ public final class JavaBuiltins extends JSBuiltinsContainer.SwitchEnum<JavaBuilt
     public enum Java implements BuiltinEnum<Java> {
         type(1),
         from(1),
+        fromRecords(1),
         to(2),
         isJavaObject(1),
         isType(1),
@@ -152,6 +168,8 @@ public final class JavaBuiltins extends JSBuiltinsContainer.SwitchEnum<JavaBuilt
                 return JavaTypeNameNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context));
             case from:
                 return JavaFromNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context));
+            case fromRecords:
+                return JavaFromRecordsNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context));
             case to:
                 return JavaToNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
             case isType:
@@ -386,6 +404,7 @@ public final class JavaBuiltins extends JSBuiltinsContainer.SwitchEnum<JavaBuilt
 
         @Child private WriteElementNode writeNode;
         @Child private JSForeignToJSTypeNode foreignConvertNode;
+        @Child private ForeignArrayElementsNode arrayElementsNode;
         @Child private InteropLibrary interop;
 
         JavaFromNode(JSContext context, JSBuiltin builtin) {
@@ -409,23 +428,28 @@ public final class JavaBuiltins extends JSBuiltinsContainer.SwitchEnum<JavaBuilt
             return foreignConvertNode.executeWithTarget(value);
         }
 
+        private Object arrayElements(Object javaArray) {
+            if (arrayElementsNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                arrayElementsNode = insert(ForeignArrayElementsNode.create());
+            }
+            return arrayElementsNode.execute(javaArray);
+        }
+
         @Specialization
         protected DynamicObject from(Object javaArray) {
             TruffleLanguage.Env env = getContext().getRealm().getEnv();
             if (env.isHostObject(javaArray)) {
-                try {
-                    long size = interop.getArraySize(javaArray);
-                    if (size < 0 || size >= Integer.MAX_VALUE) {
-                        throw Errors.createRangeErrorInvalidArrayLength();
-                    }
-                    DynamicObject jsArray = JSArray.createEmptyChecked(getContext(), size);
-                    for (int i = 0; i < size; i++) {
-                        Object element = foreignConvert(interop.readArrayElement(javaArray, i));
-                        write(jsArray, i, element);
+                if (interop.hasArrayElements(javaArray)) {
+                    // copy all elements at once; int[] and double[] stay unboxed
+                    Object elements = arrayElements(javaArray);
+                    if (elements instanceof int[]) {
+                        return JSArray.createZeroBasedIntArray(getContext(), (int[]) elements);
+                    } else if (elements instanceof double[]) {
+                        return JSArray.createZeroBasedDoubleArray(getContext(), (double[]) elements);
+                    } else {
+                        return JSArray.createZeroBasedObjectArray(getContext(), (Object[]) elements);
                     }
-                    return jsArray;
-                } catch (UnsupportedMessageException | InvalidArrayIndexException e) {
-                    // fall through
                 }
                 Object hostObject = env.asHostObject(javaArray);
                 if (hostObject instanceof List<?>) {
@@ -448,6 +472,87 @@ public final class JavaBuiltins extends JSBuiltinsContainer.SwitchEnum<JavaBuilt
         }
     }
 
+    /**
+     * Converts a Java list or array of maps, e.g. the rows of a query result, into an array of
+     * JavaScript objects. The properties of every row are defined in one key order, taken from the
+     * first map, so that rows with the same keys end up with the same shape and each property
+     * definition follows an already cached shape transition.
+     */
+    abstract static class JavaFromRecordsNode extends JSBuiltinNode {
+
+        @Child private JSForeignToJSTypeNode foreignConvertNode;
+
+        JavaFromRecordsNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+            this.foreignConvertNode = JSForeignToJSTypeNode.create();
+        }
+
+        @Specialization
+        @TruffleBoundary
+        protected DynamicObject fromRecords(Object records) {
+            TruffleLanguage.Env env = getContext().getRealm().getEnv();
+            Object hostObject = env.isHostObject(records) ? env.asHostObject(records) : null;
+            List<?> rows;
+            if (hostObject instanceof List<?>) {
+                rows = (List<?>) hostObject;
+            } else if (hostObject instanceof Object[]) {
+                rows = Arrays.asList((Object[]) hostObject);
+            } else {
+                throw Errors.createTypeError("Cannot convert to JavaScript array.");
+            }
+            Object[] result = new Object[rows.size()];
+            String[] keys = null;
+            for (int i = 0; i < result.length; i++) {
+                Object row = rows.get(i);
+                if (!(row instanceof Map<?, ?>)) {
+                    throw Errors.createTypeError("Java.fromRecords expects a list or array of maps.");
+                }
+                Map<?, ?> map = (Map<?, ?>) row;
+                if (keys == null) {
+                    keys = recordKeys(map);
+                }
+                result[i] = toRecordObject(map, keys, env);
+            }
+            return JSArray.createZeroBasedObjectArray(getContext(), result);
+        }
+
+        private static String[] recordKeys(Map<?, ?> map) {
+            String[] keys = new String[map.size()];
+            int i = 0;
+            for (Object key : map.keySet()) {
+                if (!(key instanceof String) || i == keys.length) {
+                    throw Errors.createTypeError("Java.fromRecords expects maps with string keys.");
+                }
+                keys[i++] = (String) key;
+            }
+            return keys;
+        }
+
+        private DynamicObject toRecordObject(Map<?, ?> map, String[] keys, TruffleLanguage.Env env) {
+            DynamicObject obj = JSUserObject.create(getContext());
+            if (map.size() == keys.length && map.keySet().containsAll(Arrays.asList(keys))) {
+                for (String key : keys) {
+                    JSObjectUtil.putDataProperty(getContext(), obj, key, importValue(map.get(key), env), JSAttributes.getDefault());
+                }
+            } else {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (!(entry.getKey() instanceof String)) {
+                        throw Errors.createTypeError("Java.fromRecords expects maps with string keys.");
+                    }
+                    JSObjectUtil.putDataProperty(getContext(), obj, entry.getKey(), importValue(entry.getValue(), env), JSAttributes.getDefault());
+                }
+            }
+            return obj;
+        }
+
+        private Object importValue(Object value, TruffleLanguage.Env env) {
+            if (value == null || value instanceof String || JSRuntime.isJavaPrimitive(value)) {
+                return foreignConvertNode.executeWithTarget(value);
+            }
+            return foreignConvertNode.executeWithTarget(env.asGuestValue(value));
+        }
+    }
+
     abstract static class JavaToNode extends JSBuiltinNode {
 
         @Child private JSToObjectArrayNode toObjectArrayNode;
@@ -515,7 +620,15 @@ public final class JavaBuiltins extends JSBuiltinsContainer.SwitchEnum<JavaBuilt
         private Object toArray(Object jsObj, Object arrayType, TruffleLanguage.Env env) {
             assert isJavaArrayClass(arrayType, env);
 
+            Object primitiveArray = toPrimitiveArrayFromStorage(jsObj, ((Class<?>) env.asHostObject(arrayType)).getComponentType());
+            if (primitiveArray != null) {
+                return env.asGuestValue(primitiveArray);
+            }
             Object[] arr = toObjectArrayNode.executeObjectArray(jsObj);
+            primitiveArray = toPrimitiveArray(arr, env.asHostObject(arrayType));
+            if (primitiveArray != null) {
+                return env.asGuestValue(primitiveArray);
+            }
             try {
                 Object result = newArray.instantiate(arrayType, arr.length);
                 for (int i = 0; i < arr.length; i++) {
@@ -526,6 +639,247 @@ public final class JavaBuiltins extends JSBuiltinsContainer.SwitchEnum<JavaBuilt
                 throw Errors.createTypeError(Boundaries.javaToString(e));
             }
         }
+
+        /**
+         * Copies the elements of an int or double backed array without holes, or of a (non-BigInt)
+         * typed array, straight from its storage into a new Java array of primitive numbers,
+         * without boxing them. Returns {@code null} if there is no such storage or some element
+         * would not convert losslessly; the boxed path then takes over.
+         */
+        @TruffleBoundary
+        private static Object toPrimitiveArrayFromStorage(Object jsObj, Class<?> componentType) {
+            if (JSArray.isJSFastArray(jsObj)) {
+                DynamicObject array = (DynamicObject) jsObj;
+                ScriptArray storage = JSArray.arrayGetArrayType(array);
+                long length = storage.length(array);
+                if (length == 0 || storage.isHolesType() || storage.firstElementIndex(array) != 0 || storage.lastElementIndex(array) != length - 1) {
+                    return null;
+                }
+                if (storage instanceof AbstractIntArray) {
+                    return fromInts(((AbstractIntArray) storage).getElements(array), componentType);
+                } else if (storage instanceof AbstractDoubleArray) {
+                    return fromDoubles(((AbstractDoubleArray) storage).getElements(array), componentType);
+                } else if (storage instanceof ConstantIntArray) {
+                    return fromInts(ConstantIntArray.getArray(array, true).clone(), componentType);
+                } else if (storage instanceof ConstantDoubleArray) {
+                    return fromDoubles(ConstantDoubleArray.getArray(array).clone(), componentType);
+                } else if (storage instanceof ConstantByteArray) {
+                    int[] values = new int[(int) length];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = ConstantByteArray.getElementByte(array, i, true);
+                    }
+                    return fromInts(values, componentType);
+                }
+            } else if (JSArrayBufferView.isJSArrayBufferView(jsObj) && !JSArrayBufferView.hasDetachedBuffer((DynamicObject) jsObj)) {
+                DynamicObject view = (DynamicObject) jsObj;
+                TypedArray typedArray = JSArrayBufferView.typedArrayGetArrayType(view);
+                int length = typedArray.lengthInt(view);
+                if (typedArray instanceof TypedArray.AbstractUint32Array) {
+                    TypedArray.TypedIntArray<?> intArray = (TypedArray.TypedIntArray<?>) typedArray;
+                    double[] values = new double[length];
+                    for (int i = 0; i < length; i++) {
+                        values[i] = intArray.getInt(view, i, true) & 0xFFFFFFFFL;
+                    }
+                    return fromDoubles(values, componentType);
+                } else if (typedArray instanceof TypedArray.TypedIntArray) {
+                    TypedArray.TypedIntArray<?> intArray = (TypedArray.TypedIntArray<?>) typedArray;
+                    int[] values = new int[length];
+                    for (int i = 0; i < length; i++) {
+                        values[i] = intArray.getInt(view, i, true);
+                    }
+                    return fromInts(values, componentType);
+                } else if (typedArray instanceof TypedArray.TypedFloatArray) {
+                    TypedArray.TypedFloatArray<?> floatArray = (TypedArray.TypedFloatArray<?>) typedArray;
+                    double[] values = new double[length];
+                    for (int i = 0; i < length; i++) {
+                        values[i] = floatArray.getDouble(view, i, true);
+                    }
+                    return fromDoubles(values, componentType);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Converts a fresh array of int values to the component type; may return the array itself.
+         */
+        private static Object fromInts(int[] values, Class<?> componentType) {
+            if (componentType == int.class) {
+                return values;
+            } else if (componentType == double.class) {
+                double[] result = new double[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    result[i] = values[i];
+                }
+                return result;
+            } else if (componentType == long.class) {
+                long[] result = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    result[i] = values[i];
+                }
+                return result;
+            } else if (componentType == short.class) {
+                short[] result = new short[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != (short) values[i]) {
+                        return null;
+                    }
+                    result[i] = (short) values[i];
+                }
+                return result;
+            } else if (componentType == byte.class) {
+                byte[] result = new byte[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != (byte) values[i]) {
+                        return null;
+                    }
+                    result[i] = (byte) values[i];
+                }
+                return result;
+            }
+            return null;
+        }
+
+        /**
+         * Converts a fresh array of double values to the component type; may return the array
+         * itself.
+         */
+        private static Object fromDoubles(double[] values, Class<?> componentType) {
+            if (componentType == double.class) {
+                return values;
+            }
+            long min;
+            long max;
+            if (componentType == int.class) {
+                min = Integer.MIN_VALUE;
+                max = Integer.MAX_VALUE;
+            } else if (componentType == long.class) {
+                min = JSRuntime.MIN_SAFE_INTEGER_LONG;
+                max = JSRuntime.MAX_SAFE_INTEGER_LONG;
+            } else if (componentType == short.class) {
+                min = Short.MIN_VALUE;
+                max = Short.MAX_VALUE;
+            } else if (componentType == byte.class) {
+                min = Byte.MIN_VALUE;
+                max = Byte.MAX_VALUE;
+            } else {
+                return null;
+            }
+            long[] exact = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                long value = toExactLong(values[i], min, max);
+                if (value == Long.MIN_VALUE) {
+                    return null;
+                }
+                exact[i] = value;
+            }
+            if (componentType == long.class) {
+                return exact;
+            }
+            int[] ints = new int[exact.length];
+            for (int i = 0; i < exact.length; i++) {
+                ints[i] = (int) exact[i];
+            }
+            return fromInts(ints, componentType);
+        }
+
+        /**
+         * Copies the elements into a new Java array of primitive numbers or booleans in one go.
+         * Returns {@code null} if the array type is not primitive or some element would not convert
+         * losslessly; the element-wise path then produces the usual conversion error.
+         */
+        @TruffleBoundary
+        private static Object toPrimitiveArray(Object[] arr, Object arrayClass) {
+            Class<?> componentType = ((Class<?>) arrayClass).getComponentType();
+            if (componentType == int.class) {
+                int[] result = new int[arr.length];
+                for (int i = 0; i < arr.length; i++) {
+                    long value = toExactLong(arr[i], Integer.MIN_VALUE, Integer.MAX_VALUE);
+                    if (value == Long.MIN_VALUE) {
+                        return null;
+                    }
+                    result[i] = (int) value;
+                }
+                return result;
+            } else if (componentType == double.class) {
+                double[] result = new double[arr.length];
+                for (int i = 0; i < arr.length; i++) {
+                    Object element = arr[i];
+                    if (element instanceof Integer) {
+                        result[i] = (int) element;
+                    } else if (element instanceof Double) {
+                        result[i] = (double) element;
+                    } else {
+                        return null;
+                    }
+                }
+                return result;
+            } else if (componentType == long.class) {
+                long[] result = new long[arr.length];
+                for (int i = 0; i < arr.length; i++) {
+                    long value = toExactLong(arr[i], JSRuntime.MIN_SAFE_INTEGER_LONG, JSRuntime.MAX_SAFE_INTEGER_LONG);
+                    if (value == Long.MIN_VALUE) {
+                        return null;
+                    }
+                    result[i] = value;
+                }
+                return result;
+            } else if (componentType == short.class) {
+                short[] result = new short[arr.length];
+                for (int i = 0; i < arr.length; i++) {
+                    long value = toExactLong(arr[i], Short.MIN_VALUE, Short.MAX_VALUE);
+                    if (value == Long.MIN_VALUE) {
+                        return null;
+                    }
+                    result[i] = (short) value;
+                }
+                return result;
+            } else if (componentType == byte.class) {
+                byte[] result = new byte[arr.length];
+                for (int i = 0; i < arr.length; i++) {
+                    long value = toExactLong(arr[i], Byte.MIN_VALUE, Byte.MAX_VALUE);
+                    if (value == Long.MIN_VALUE) {
+                        return null;
+                    }
+                    result[i] = (byte) value;
+                }
+                return result;
+            } else if (componentType == boolean.class) {
+                boolean[] result = new boolean[arr.length];
+                for (int i = 0; i < arr.length; i++) {
+                    if (!(arr[i] instanceof Boolean)) {
+                        return null;
+                    }
+                    result[i] = (boolean) arr[i];
+                }
+                return result;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the integral value of an {@link Integer} or {@link Double} element within the given
+         * bounds, or {@link Long#MIN_VALUE} if there is none.
+         */
+        private static long toExactLong(Object element, long min, long max) {
+            long value;
+            if (element instanceof Integer) {
+                value = (int) element;
+            } else if (element instanceof Double) {
+                return toExactLong((double) element, min, max);
+            } else {
+                return Long.MIN_VALUE;
+            }
+            return value >= min && value <= max ? value : Long.MIN_VALUE;
+        }
+
+        private static long toExactLong(double d, long min, long max) {
+            if (!JSRuntime.isSafeInteger(d) || d != (long) d || JSRuntime.isNegativeZero(d)) {
+                return Long.MIN_VALUE;
+            }
+            long value = (long) d;
+            return value >= min && value <= max ? value : Long.MIN_VALUE;
+        }
     }
 
     abstract static class JavaSuperNode extends JSBuiltinNode {
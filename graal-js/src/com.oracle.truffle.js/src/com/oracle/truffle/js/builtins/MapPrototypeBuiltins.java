@@ -67,6 +67,7 @@ import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSMap;
+import com.oracle.truffle.js.runtime.builtins.JSSet;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.JSHashMap;
 
@@ -175,6 +176,17 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected boolean deleteInt(DynamicObject thisObj, int key) {
+            return JSMap.getInternalMap(thisObj).remove(key);
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected boolean deleteDouble(DynamicObject thisObj, double key) {
+            JSHashMap map = JSMap.getInternalMap(thisObj);
+            return JSSet.isIntKey(key) ? map.remove((int) key) : map.remove(key);
+        }
+
         @Specialization(guards = "isJSMap(thisObj)")
         protected boolean delete(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
@@ -197,10 +209,24 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected Object getInt(DynamicObject thisObj, int key) {
+            return valueOrUndefined(JSMap.getInternalMap(thisObj).get(key));
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected Object getDouble(DynamicObject thisObj, double key) {
+            JSHashMap map = JSMap.getInternalMap(thisObj);
+            return valueOrUndefined(JSSet.isIntKey(key) ? map.get((int) key) : map.get(key));
+        }
+
         @Specialization(guards = "isJSMap(thisObj)")
         protected Object get(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
-            Object value = JSMap.getInternalMap(thisObj).get(normalizedKey);
+            return valueOrUndefined(JSMap.getInternalMap(thisObj).get(normalizedKey));
+        }
+
+        private static Object valueOrUndefined(Object value) {
             if (value != null) {
                 return value;
             } else {
@@ -224,6 +250,23 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected DynamicObject setInt(DynamicObject thisObj, int key, Object value) {
+            JSMap.getInternalMap(thisObj).put(key, value);
+            return thisObj;
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected DynamicObject setDouble(DynamicObject thisObj, double key, Object value) {
+            JSHashMap map = JSMap.getInternalMap(thisObj);
+            if (JSSet.isIntKey(key)) {
+                map.put((int) key, value);
+            } else {
+                map.put(key, value);
+            }
+            return thisObj;
+        }
+
         @Specialization(guards = "isJSMap(thisObj)")
         protected DynamicObject set(DynamicObject thisObj, Object key, Object value) {
             Object normalizedKey = normalize(key);
@@ -247,6 +290,17 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected boolean hasInt(DynamicObject thisObj, int key) {
+            return JSMap.getInternalMap(thisObj).has(key);
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected boolean hasDouble(DynamicObject thisObj, double key) {
+            JSHashMap map = JSMap.getInternalMap(thisObj);
+            return JSSet.isIntKey(key) ? map.has((int) key) : map.has(key);
+        }
+
         @Specialization(guards = "isJSMap(thisObj)")
         protected boolean has(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
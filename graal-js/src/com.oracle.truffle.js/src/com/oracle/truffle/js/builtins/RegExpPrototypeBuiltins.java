@@ -91,7 +91,6 @@ import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
 import com.oracle.truffle.js.nodes.unary.IsCallableNode;
-import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSContext;
@@ -102,6 +101,7 @@ import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSRegExp;
+import com.oracle.truffle.js.runtime.objects.JSLazyString;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.SimpleArrayList;
@@ -659,7 +659,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                     if (sameMatchEnd.profile(matchEnd == prevMatchEnd)) {
                         fromIndex = movePosition(str, unicodeMatching, fromIndex);
                     } else {
-                        write(array, arrayLength, Boundaries.substring(str, prevMatchEnd, fromIndex));
+                        write(array, arrayLength, JSLazyString.createSubstring(str, prevMatchEnd, fromIndex));
                         arrayLength++;
                         if (arrayLength == lim) {
                             prematureReturnBranch.enter();
@@ -679,7 +679,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                     }
                 }
             }
-            write(array, arrayLength, Boundaries.substring(str, Math.min(prevMatchEnd, str.length()), size));
+            write(array, arrayLength, JSLazyString.createSubstring(str, Math.min(prevMatchEnd, str.length()), size));
             return array;
         }
 
@@ -720,7 +720,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                     if (matchEnd == prevMatchEnd) {
                         fromIndex = movePosition(str, unicodeMatching, fromIndex);
                     } else {
-                        write(array, arrayLength++, Boundaries.substring(str, prevMatchEnd, matchStart));
+                        write(array, arrayLength++, JSLazyString.createSubstring(str, prevMatchEnd, matchStart));
                         if (arrayLength == lim) {
                             prematureReturnBranch.enter();
                             return array;
@@ -747,7 +747,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                 getContext().getRealm().setStaticRegexResult(getContext(), tRegexCompiledRegex, str, matchStart, lastRegexResult);
             }
             if (matchStart != matchEnd || prevMatchEnd < size) {
-                write(array, arrayLength, Boundaries.substring(str, prevMatchEnd, size));
+                write(array, arrayLength, JSLazyString.createSubstring(str, prevMatchEnd, size));
             }
             return array;
         }
@@ -1261,7 +1261,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                 if (lazyResultArrayProfile.profile(isLazyResultArray(result))) {
                     return position + getLazyLength(result);
                 } else {
-                    return position + ((String) read(result, 0)).length();
+                    return position + JSRuntime.length((CharSequence) read(result, 0));
                 }
             }
             return nextSourcePosition;
@@ -1294,7 +1294,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
             @Override
             public void match(JSRegExpReplaceNode node) {
-                node.stringBuilderProfile.append(sb, (String) node.read(result, 0));
+                node.stringBuilderProfile.append(sb, JSRuntime.toStringIsString(node.read(result, 0)));
             }
 
             @Override
@@ -1311,7 +1311,7 @@ public final class RegExpPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             public void captureGroup(JSRegExpReplaceNode node, int groupNumber, int literalStart, int literalEnd) {
                 Object capture = node.read(result, groupNumber);
                 if (capture != Undefined.instance) {
-                    node.stringBuilderProfile.append(sb, (String) capture);
+                    node.stringBuilderProfile.append(sb, JSRuntime.toStringIsString(capture));
                 }
             }
 
@@ -171,6 +171,17 @@ public final class SetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<S
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected boolean deleteInt(DynamicObject thisObj, int key) {
+            return JSSet.getInternalSet(thisObj).remove(key);
+        }
+
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected boolean deleteDouble(DynamicObject thisObj, double key) {
+            JSHashMap set = JSSet.getInternalSet(thisObj);
+            return JSSet.isIntKey(key) ? set.remove((int) key) : set.remove(key);
+        }
+
         @Specialization(guards = "isJSSet(thisObj)")
         protected boolean delete(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
@@ -193,6 +204,23 @@ public final class SetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<S
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected DynamicObject addInt(DynamicObject thisObj, int key) {
+            JSSet.getInternalSet(thisObj).put(key, PRESENT);
+            return thisObj;
+        }
+
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected DynamicObject addDouble(DynamicObject thisObj, double key) {
+            JSHashMap set = JSSet.getInternalSet(thisObj);
+            if (JSSet.isIntKey(key)) {
+                set.put((int) key, PRESENT);
+            } else {
+                set.put(key, PRESENT);
+            }
+            return thisObj;
+        }
+
         @Specialization(guards = "isJSSet(thisObj)")
         protected DynamicObject add(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
@@ -216,6 +244,17 @@ public final class SetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<S
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected boolean hasInt(DynamicObject thisObj, int key) {
+            return JSSet.getInternalSet(thisObj).has(key);
+        }
+
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected boolean hasDouble(DynamicObject thisObj, double key) {
+            JSHashMap set = JSSet.getInternalSet(thisObj);
+            return JSSet.isIntKey(key) ? set.has((int) key) : set.has(key);
+        }
+
         @Specialization(guards = "isJSSet(thisObj)")
         protected boolean has(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
@@ -529,6 +529,15 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             super(context, builtin);
         }
 
+        @Specialization
+        protected String lazyStringCharAt(JSLazyString thisStr, int pos) {
+            if (indexOutOfBounds.profile(pos < 0 || pos >= thisStr.length())) {
+                return "";
+            } else {
+                return String.valueOf(thisStr.charAt(pos));
+            }
+        }
+
         @Specialization
         protected String stringCharAt(String thisStr, int pos) {
             if (indexOutOfBounds.profile(pos < 0 || pos >= thisStr.length())) {
@@ -588,13 +597,11 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization
-        protected Object charCodeAtLazyString(JSLazyString thisStr, int index,
-                        @Cached("createBinaryProfile()") ConditionProfile flatten) {
+        protected Object charCodeAtLazyString(JSLazyString thisStr, int index) {
             if (indexOutOfBounds.profile(0 > index || index >= thisStr.length())) {
                 return Double.NaN;
             } else {
-                String s = thisStr.toString(flatten);
-                return Integer.valueOf(s.charAt(index));
+                return Integer.valueOf(thisStr.charAt(index));
             }
         }
 
@@ -664,7 +671,15 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization
-        protected String substring(String thisStr, int start, int end) {
+        protected Object substringLazyString(JSLazyString thisStr, int start, int end) {
+            int len = thisStr.length();
+            int finalStart = within(start, 0, len);
+            int finalEnd = within(end, 0, len);
+            return substringIntl(thisStr, finalStart, finalEnd);
+        }
+
+        @Specialization
+        protected Object substring(String thisStr, int start, int end) {
             int len = thisStr.length();
             int finalStart = within(start, 0, len);
             int finalEnd = within(end, 0, len);
@@ -672,23 +687,23 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization(guards = "isUndefined(end)")
-        protected String substringStart(String thisStr, int start, @SuppressWarnings("unused") Object end) {
+        protected Object substringStart(String thisStr, int start, @SuppressWarnings("unused") Object end) {
             int len = thisStr.length();
             int finalStart = within(start, 0, len);
             int finalEnd = len;
             return substringIntl(thisStr, finalStart, finalEnd);
         }
 
-        private String substringIntl(String thisStr, int start, int end) {
+        private Object substringIntl(CharSequence thisStr, int start, int end) {
             if (startLowerEnd.profile(start <= end)) {
-                return Boundaries.substring(thisStr, start, end);
+                return JSLazyString.createSubstring(thisStr, start, end);
             } else {
-                return Boundaries.substring(thisStr, end, start);
+                return JSLazyString.createSubstring(thisStr, end, start);
             }
         }
 
-        @Specialization(replaces = {"substring", "substringStart"})
-        protected String substringGeneric(Object thisObj, Object start, Object end,
+        @Specialization(replaces = {"substringLazyString", "substring", "substringStart"})
+        protected Object substringGeneric(Object thisObj, Object start, Object end,
                         @Cached("create()") JSToNumberNode toNumberNode,
                         @Cached("create()") JSToNumberNode toNumber2Node,
                         @Cached("createBinaryProfile()") ConditionProfile startUndefined,
@@ -723,7 +738,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
             @Override
             @Specialization
-            protected String substringGeneric(Object thisObj, Object start, Object end,
+            protected Object substringGeneric(Object thisObj, Object start, Object end,
                             @Cached("create()") JSToNumberNode toNumberNode,
                             @Cached("create()") JSToNumberNode toNumber2Node,
                             @Cached("createBinaryProfile()") ConditionProfile startUndefined,
@@ -757,13 +772,19 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             super(context, builtin);
         }
 
+        @Specialization
+        protected int indexOfLazyString(JSLazyString thisStr, Object[] args) {
+            String searchStr = toString(JSRuntime.getArgOrUndefined(args, 0));
+            return thisStr.indexOf(searchStr, startPos(args, thisStr.length()));
+        }
+
         @Specialization
         protected int indexOf(String thisStr, Object[] args) {
             String searchStr = toString(JSRuntime.getArgOrUndefined(args, 0));
             return indexOfIntl(args, thisStr, searchStr);
         }
 
-        @Specialization(replaces = "indexOf")
+        @Specialization(replaces = {"indexOfLazyString", "indexOf"})
         protected int indexOfGeneric(Object thisObj, Object[] args,
                         @Cached("create()") JSToStringNode toString2Node) {
             requireObjectCoercible(thisObj);
@@ -773,13 +794,15 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         private int indexOfIntl(Object[] args, String thisStr, String searchStr) {
-            int startPos;
+            return thisStr.indexOf(searchStr, startPos(args, thisStr.length()));
+        }
+
+        private int startPos(Object[] args, int length) {
             if (hasPos.profile(args.length >= 2)) {
-                startPos = Math.min(toIntegerAsInt(args[1]), thisStr.length());
+                return Math.min(toIntegerAsInt(args[1]), length);
             } else {
-                startPos = 0;
+                return 0;
             }
-            return thisStr.indexOf(searchStr, startPos);
         }
     }
 
@@ -990,18 +1013,18 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
 
             @TruffleBoundary
             private static Object[] regularSplitIntl(String input, int limit, String separator, int endParam, JSStringSplitNode parent) {
-                SimpleArrayList<String> splits = SimpleArrayList.create(limit);
+                SimpleArrayList<Object> splits = SimpleArrayList.create(limit);
                 int start = 0;
                 int end = endParam;
                 while (end != -1) {
-                    splits.add(input.substring(start, end), parent.growProfile);
+                    splits.add(JSLazyString.createSubstring(input, start, end), parent.growProfile);
                     if (splits.size() == limit) {
                         return splits.toArray();
                     }
                     start = end + separator.length();
                     end = input.indexOf(separator, start);
                 }
-                splits.add(input.substring(start), parent.growProfile);
+                splits.add(JSLazyString.createSubstring(input, start, input.length()), parent.growProfile);
                 return splits.toArray();
             }
 
@@ -1051,15 +1074,14 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                         result = parent.matchIgnoreLastIndex(regExp, input, start + 1);
                         continue;
                     }
-                    String split = Boundaries.substring(input, start, matchStart);
-                    splits.add(split, parent.growProfile);
+                    splits.add(JSLazyString.createSubstring(input, start, matchStart), parent.growProfile);
                     int count = Math.min(parent.getCompiledRegexAccessor().groupCount(JSRegExp.getCompiledRegex(regExp)) - 1, limit - splits.size());
                     for (int i = 1; i <= count; i++) {
                         int groupStart = parent.getResultAccessor().captureGroupStart(result, i);
                         if (groupStart == TRegexUtil.Constants.CAPTURE_GROUP_NO_MATCH) {
                             splits.add(Undefined.instance, parent.growProfile);
                         } else {
-                            splits.add(Boundaries.substring(input, groupStart, parent.getResultAccessor().captureGroupEnd(result, i)), parent.growProfile);
+                            splits.add(JSLazyString.createSubstring(input, groupStart, parent.getResultAccessor().captureGroupEnd(result, i)), parent.growProfile);
                         }
                     }
                     if (splits.size() == limit) {
@@ -1068,7 +1090,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                     start = matchEnd + (matchEnd == start ? 1 : 0);
                     result = parent.matchIgnoreLastIndex(regExp, input, start);
                 }
-                splits.add(Boundaries.substring(input, start), parent.growProfile);
+                splits.add(JSLazyString.createSubstring(input, start, input.length()), parent.growProfile);
                 return splits.toArray();
             }
         }
@@ -1638,7 +1660,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                         Boundaries.builderAppend(sb, '$');
                         break;
                     case '&':
-                        Boundaries.builderAppend(sb, (String) resultMaterializer.materializeGroup(result, 0, input));
+                        Boundaries.builderAppend(sb, input, resultAccessor.captureGroupStart(result, 0), resultAccessor.captureGroupEnd(result, 0));
                         break;
                     case '`':
                         Boundaries.builderAppend(sb, input, 0, resultAccessor.captureGroupStart(result, 0));
@@ -1672,8 +1694,10 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                     Boundaries.builderAppend(sb, digit);
                     return 1;
                 }
-                String group = (String) resultMaterializer.materializeGroup(result, groupNr, input);
-                Boundaries.builderAppend(sb, group);
+                int groupStart = resultAccessor.captureGroupStart(result, groupNr);
+                if (groupStart != TRegexUtil.Constants.CAPTURE_GROUP_NO_MATCH) {
+                    Boundaries.builderAppend(sb, input, groupStart, resultAccessor.captureGroupEnd(result, groupNr));
+                }
                 return (groupNr > 9) ? 2 : 1;
             }
 
@@ -1981,17 +2005,17 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization
-        protected String substrInt(String thisStr, int start, int length) {
+        protected Object substrInt(String thisStr, int start, int length) {
             return substrIntl(thisStr, start, length);
         }
 
         @Specialization(guards = "isUndefined(length)")
-        protected String substrLenUndef(String thisStr, int start, @SuppressWarnings("unused") Object length) {
+        protected Object substrLenUndef(String thisStr, int start, @SuppressWarnings("unused") Object length) {
             return substrIntl(thisStr, start, thisStr.length());
         }
 
         @Specialization(replaces = {"substrInt", "substrLenUndef"})
-        protected String substr(Object thisObj, Object start, Object length) {
+        protected Object substr(Object thisObj, Object start, Object length) {
             requireObjectCoercible(thisObj);
             String thisStr = toString(thisObj);
             int startInt = toIntegerAsInt(start);
@@ -1999,7 +2023,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             return substrIntl(thisStr, startInt, len);
         }
 
-        private String substrIntl(String thisStr, int start, int length) {
+        private Object substrIntl(String thisStr, int start, int length) {
             int startInt = start;
             if (startInt < 0) {
                 startNegativeBranch.enter();
@@ -2010,7 +2034,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
                 finalLenEmptyBranch.enter();
                 return "";
             }
-            return Boundaries.substring(thisStr, startInt, startInt + finalLen);
+            return JSLazyString.createSubstring(thisStr, startInt, startInt + finalLen);
         }
     }
 
@@ -2149,10 +2173,10 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             if (match.profile(!resultAccessor.isMatch(result))) {
                 return Null.instance;
             }
-            List<String> matches = new ArrayList<>();
+            List<Object> matches = new ArrayList<>();
             int lastIndex = 0;
             while (resultAccessor.isMatch(result)) {
-                Boundaries.listAdd(matches, (String) resultMaterializer.materializeGroup(result, 0, input));
+                Boundaries.listAdd(matches, resultMaterializer.materializeGroup(result, 0, input));
 
                 int thisIndex = resultAccessor.captureGroupEnd(result, 0);
                 lastIndex = thisIndex + (thisIndex == lastIndex ? 1 : 0);
@@ -2316,25 +2340,25 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
         }
 
         @Specialization
-        protected String sliceString(String str, int start, int end) {
+        protected Object sliceString(String str, int start, int end) {
             int len = str.length();
             int istart = JSRuntime.getOffset(start, len, offsetProfile1);
             int iend = JSRuntime.getOffset(end, len, offsetProfile2);
             if (canReturnEmpty.profile(iend > istart)) {
-                return Boundaries.substring(str, istart, iend);
+                return JSLazyString.createSubstring(str, istart, iend);
             } else {
                 return "";
             }
         }
 
         @Specialization(replaces = "sliceString")
-        protected String sliceObject(Object thisObj, int start, int end) {
+        protected Object sliceObject(Object thisObj, int start, int end) {
             requireObjectCoercible(thisObj);
             return sliceString(toString(thisObj), start, end);
         }
 
         @Specialization(replaces = {"sliceString", "sliceObject"})
-        protected String slice(Object thisObj, Object start, Object end) {
+        protected Object slice(Object thisObj, Object start, Object end) {
             requireObjectCoercible(thisObj);
             String s = toString(thisObj);
 
@@ -2342,7 +2366,7 @@ public final class StringPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnu
             long istart = JSRuntime.getOffset(toIntegerAsInt(start), len, offsetProfile1);
             long iend = isUndefined.profile(end == Undefined.instance) ? len : JSRuntime.getOffset(toIntegerAsInt(end), len, offsetProfile2);
             if (canReturnEmpty.profile(iend > istart)) {
-                return Boundaries.substring(s, (int) istart, (int) iend);
+                return JSLazyString.createSubstring(s, (int) istart, (int) iend);
             } else {
                 return "";
             }
@@ -45,7 +45,7 @@ import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArra
 import static com.oracle.truffle.js.runtime.util.BufferUtil.asBaseBuffer;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
@@ -92,12 +92,12 @@ import com.oracle.truffle.js.nodes.cast.JSToNumberNode;
 import com.oracle.truffle.js.nodes.control.DeletePropertyNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
-import com.oracle.truffle.js.runtime.BigInt;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.TypedArray;
+import com.oracle.truffle.js.runtime.array.TypedArrayBulkOperations;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
@@ -321,10 +321,7 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
         private final ConditionProfile arrayIsArray = ConditionProfile.createBinaryProfile();
         private final ConditionProfile arrayIsArrayBufferView = ConditionProfile.createBinaryProfile();
         private final ConditionProfile isDirectProf = ConditionProfile.createBinaryProfile();
-        private final BranchProfile intToIntBranch = BranchProfile.create();
-        private final BranchProfile floatToFloatBranch = BranchProfile.create();
-        private final BranchProfile bigIntToBigIntBranch = BranchProfile.create();
-        private final BranchProfile objectToObjectBranch = BranchProfile.create();
+        private final BranchProfile convertingCopyBranch = BranchProfile.create();
 
         @Child private JSGetLengthNode getLengthNode;
 
@@ -440,7 +437,6 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
             copyTypedArrayElementsDistinctBuffers(targetBuffer, sourceBuffer, targetArray, sourceArray, offset, targetByteOffset, sourceLen, srcByteIndex);
         }
 
-        @SuppressWarnings("unchecked")
         private void copyTypedArrayElementsDistinctBuffers(DynamicObject targetBuffer, DynamicObject sourceBuffer, TypedArray targetType, TypedArray sourceType,
                         int targetOffset, int targetByteOffset, int sourceLength, int sourceByteIndex) {
             Object targetBackingBuffer = isDirectProf.profile(targetType.isDirect()) ? JSArrayBuffer.getDirectByteBuffer(targetBuffer) : JSArrayBuffer.getByteArray(targetBuffer);
@@ -452,38 +448,20 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
                 // same element type => bulk copy
                 int sourceByteLength = sourceLength * sourceElementSize;
                 if (isDirectProf.profile(targetType.isDirect())) {
-                    ((ByteBuffer) asBaseBuffer(((ByteBuffer) targetBackingBuffer).duplicate()).position(targetByteIndex)).put(
-                                    ((ByteBuffer) asBaseBuffer(((ByteBuffer) sourceBackingBuffer).duplicate()).position(sourceByteIndex).limit(sourceByteIndex + sourceByteLength)).slice());
+                    try {
+                        ((ByteBuffer) asBaseBuffer(((ByteBuffer) targetBackingBuffer).duplicate()).position(targetByteIndex)).put(
+                                        ((ByteBuffer) asBaseBuffer(((ByteBuffer) sourceBackingBuffer).duplicate()).position(sourceByteIndex).limit(sourceByteIndex + sourceByteLength)).slice());
+                    } catch (ReadOnlyBufferException e) {
+                        throw Errors.createTypeErrorReadOnlyBuffer();
+                    }
                 } else {
                     System.arraycopy(sourceBackingBuffer, sourceByteIndex, targetBackingBuffer, targetByteIndex, sourceByteLength);
                 }
-            } else if (sourceType instanceof TypedArray.TypedIntArray && targetType instanceof TypedArray.TypedIntArray) {
-                intToIntBranch.enter();
-                for (int i = 0; i < sourceLength; i++) {
-                    int value = ((TypedArray.TypedIntArray<Object>) sourceType).getIntImpl(sourceBackingBuffer, sourceByteIndex, i);
-                    ((TypedArray.TypedIntArray<Object>) targetType).setIntImpl(targetBackingBuffer, targetByteOffset, i + targetOffset, value);
-                }
-            } else if (sourceType instanceof TypedArray.TypedFloatArray && targetType instanceof TypedArray.TypedFloatArray) {
-                floatToFloatBranch.enter();
-                for (int i = 0; i < sourceLength; i++) {
-                    double value = ((TypedArray.TypedFloatArray<Object>) sourceType).getDoubleImpl(sourceBackingBuffer, sourceByteIndex, i);
-                    ((TypedArray.TypedFloatArray<Object>) targetType).setDoubleImpl(targetBackingBuffer, targetByteOffset, i + targetOffset, value);
-                }
-            } else if (sourceType instanceof TypedArray.TypedBigIntArray && targetType instanceof TypedArray.TypedBigIntArray) {
-                bigIntToBigIntBranch.enter();
-                for (int i = 0; i < sourceLength; i++) {
-                    BigInt value = ((TypedArray.TypedBigIntArray<Object>) sourceType).getBigIntImpl(sourceBackingBuffer, sourceByteIndex, i);
-                    ((TypedArray.TypedBigIntArray<Object>) targetType).setBigIntImpl(targetBackingBuffer, targetByteOffset, i + targetOffset, value);
-                }
             } else if ((sourceType instanceof TypedArray.TypedBigIntArray) != (targetType instanceof TypedArray.TypedBigIntArray)) {
                 throw Errors.createTypeErrorCannotMixBigIntWithOtherTypes(this);
             } else {
-                objectToObjectBranch.enter();
-                boolean littleEndian = ByteOrder.LITTLE_ENDIAN == ByteOrder.nativeOrder();
-                for (int i = 0; i < sourceLength; i++) {
-                    Object value = sourceType.getBufferElement(sourceBuffer, sourceByteIndex + i * sourceElementSize, littleEndian, false);
-                    targetType.setBufferElement(targetBuffer, targetByteIndex + i * targetElementSize, littleEndian, false, value);
-                }
+                convertingCopyBranch.enter();
+                TypedArrayBulkOperations.copyElements(sourceType, sourceBackingBuffer, sourceByteIndex, targetType, targetBackingBuffer, targetByteIndex, sourceLength);
             }
         }
 
@@ -614,6 +592,7 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
     public abstract static class JSArrayBufferViewFillNode extends JSArrayOperationWithToInt {
         private final ConditionProfile offsetProfile1 = ConditionProfile.createBinaryProfile();
         private final ConditionProfile offsetProfile2 = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile nonEmptyProfile = ConditionProfile.createBinaryProfile();
         @Child private JSToNumberNode toNumberNode;
         @Child private JSToBigIntNode toBigIntNode;
 
@@ -630,8 +609,13 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
             long lStart = JSRuntime.getOffset(toIntegerAsLong(start), len, offsetProfile1);
             long lEnd = end == Undefined.instance ? len : JSRuntime.getOffset(toIntegerAsLong(end), len, offsetProfile2);
             checkHasDetachedBuffer(thisJSObj);
-            for (long idx = lStart; idx < lEnd; idx++) {
-                write(thisJSObj, idx, convValue);
+            if (nonEmptyProfile.profile(lStart < lEnd)) {
+                // store the converted value once, then replicate its bytes over the range
+                write(thisJSObj, lStart, convValue);
+                TypedArray typedArray = JSArrayBufferView.typedArrayGetArrayType(thisJSObj);
+                int elementSize = typedArray.bytesPerElement();
+                int byteIndex = JSArrayBufferView.typedArrayGetOffset(thisJSObj) + (int) lStart * elementSize;
+                TypedArrayBulkOperations.fill(typedArray.getBufferFromTypedArray(thisJSObj, true), byteIndex, elementSize, (int) (lEnd - lStart) * elementSize);
             }
             return thisJSObj;
         }
@@ -52,6 +52,7 @@ import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSWeakSet;
+import com.oracle.truffle.js.runtime.util.WeakMap;
 
 /**
  * Contains builtins for {@linkplain JSWeakSet}.prototype.
@@ -94,9 +95,6 @@ public final class WeakSetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEn
         return null;
     }
 
-    /** Dummy value to associate with a key in the backing map. */
-    protected static final Object PRESENT = new Object();
-
     protected static RuntimeException typeErrorKeyIsNotObject() {
         throw Errors.createTypeError("WeakSet key must be an object");
     }
@@ -143,7 +141,7 @@ public final class WeakSetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEn
 
         @Specialization(guards = {"isJSWeakSet(thisObj)", "isJSObject(key)"})
         protected static DynamicObject add(DynamicObject thisObj, DynamicObject key) {
-            Boundaries.mapPut(JSWeakSet.getInternalWeakMap(thisObj), key, PRESENT);
+            Boundaries.mapPut(JSWeakSet.getInternalWeakMap(thisObj), key, WeakMap.PRESENT);
             return thisObj;
         }
 
@@ -45,11 +45,15 @@ import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.HiddenKey;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.builtins.GlobalBuiltins;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.nodes.access.PropertyGetNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSArguments;
@@ -57,12 +61,12 @@ import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSErrorType;
 import com.oracle.truffle.js.runtime.JSException;
 import com.oracle.truffle.js.runtime.JSRealm;
-import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
 import com.oracle.truffle.js.runtime.builtins.JSUserObject;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Stack;
@@ -131,31 +135,49 @@ public abstract class CommonJSRequireBuiltin extends GlobalBuiltins.JSFileLoadin
     private static final String JSON_EXT = ".json";
     private static final String NODE_EXT = ".node";
 
-    private final TruffleFile modulesResolutionCwd;
+    /**
+     * Directory of the module a {@code require} function was created for, bound when the module is
+     * loaded so that resolution does not have to look up the caller on the stack.
+     */
+    private static final HiddenKey MODULE_DIRECTORY_ID = new HiddenKey("ModuleDirectory");
+
+    @Child private PropertyGetNode getModuleDirectory;
 
     @TruffleBoundary
     static TruffleFile getModuleResolveCurrentWorkingDirectory(JSContext context) {
-        TruffleLanguage.Env env = context.getRealm().getEnv();
         String currentFileNameFromStack = CommonJSResolution.getCurrentFileNameFromStack();
         if (currentFileNameFromStack == null) {
-            String cwdOption = context.getContextOptions().getRequireCwd();
-            return cwdOption == null ? env.getCurrentWorkingDirectory() : env.getPublicTruffleFile(cwdOption);
+            return getDefaultCurrentWorkingDirectory(context);
         } else {
-            TruffleFile truffleFile = env.getPublicTruffleFile(currentFileNameFromStack);
+            TruffleFile truffleFile = context.getRealm().getEnv().getPublicTruffleFile(currentFileNameFromStack);
             assert truffleFile.isRegularFile() && truffleFile.getParent() != null;
             return truffleFile.getParent().normalize();
         }
     }
 
+    @TruffleBoundary
+    private static TruffleFile getDefaultCurrentWorkingDirectory(JSContext context) {
+        TruffleLanguage.Env env = context.getRealm().getEnv();
+        String cwdOption = context.getContextOptions().getRequireCwd();
+        return cwdOption == null ? env.getCurrentWorkingDirectory() : env.getPublicTruffleFile(cwdOption);
+    }
+
     CommonJSRequireBuiltin(JSContext context, JSBuiltin builtin) {
         super(context, builtin);
-        this.modulesResolutionCwd = getModuleResolveCurrentWorkingDirectory(context);
+        this.getModuleDirectory = PropertyGetNode.createGetHidden(MODULE_DIRECTORY_ID, context);
     }
 
     @Specialization
-    protected Object require(DynamicObject currentRequire, String moduleIdentifier) {
-        TruffleLanguage.Env env = getContext().getRealm().getEnv();
-        TruffleFile resolutionEntryPath = getModuleResolutionEntryPath(currentRequire, env);
+    protected Object require(DynamicObject currentRequire, String moduleIdentifier,
+                    @Cached("createBinaryProfile()") ConditionProfile isModuleRequire) {
+        Object moduleDirectory = getModuleDirectory.getValue(currentRequire);
+        TruffleFile resolutionEntryPath;
+        if (isModuleRequire.profile(moduleDirectory instanceof TruffleFile)) {
+            resolutionEntryPath = (TruffleFile) moduleDirectory;
+        } else {
+            // This is not a nested `require()` call: resolve from the calling script.
+            resolutionEntryPath = getModuleResolveCurrentWorkingDirectory(getContext());
+        }
         return requireImpl(moduleIdentifier, resolutionEntryPath);
     }
 
@@ -165,7 +187,7 @@ public abstract class CommonJSRequireBuiltin extends GlobalBuiltins.JSFileLoadin
         if (isCoreModule(moduleIdentifier) || "".equals(moduleIdentifier)) {
             String moduleReplacementName = getContext().getContextOptions().getCommonJSRequireBuiltins().get(moduleIdentifier);
             if (moduleReplacementName != null && !"".equals(moduleReplacementName)) {
-                return requireImpl(moduleReplacementName, modulesResolutionCwd);
+                return requireImpl(moduleReplacementName, getDefaultCurrentWorkingDirectory(getContext()));
             }
             throw fail(moduleIdentifier);
         }
@@ -206,12 +228,18 @@ public abstract class CommonJSRequireBuiltin extends GlobalBuiltins.JSFileLoadin
         String dirnameBuiltin = modulePath.getParent().getAbsoluteFile().normalize().toString();
         DynamicObject exportsBuiltin = createExportsBuiltin(realm);
         DynamicObject moduleBuiltin = createModuleBuiltin(realm, exportsBuiltin, filenameBuiltin);
-        DynamicObject requireBuiltin = createRequireBuiltin(realm, moduleBuiltin, filenameBuiltin);
+        DynamicObject requireBuiltin = createRequireBuiltin(realm, moduleBuiltin, filenameBuiltin, modulePath.getParent().normalize());
         DynamicObject env = JSUserObject.create(getContext());
         JSObject.set(env, ENV_PROPERTY_NAME, JSUserObject.create(getContext()));
-        // Parse the module
+        // Parse the module. The wrapped source keeps the module's path, so that its parsed code can
+        // be stored in the persistent code cache.
         CharSequence characters = MODULE_PREAMBLE + source.getCharacters() + MODULE_END;
-        Source moduleSources = Source.newBuilder(JavaScriptLanguage.ID, characters, filenameBuiltin).mimeType(JavaScriptLanguage.TEXT_MIME_TYPE).build();
+        Source moduleSources;
+        try {
+            moduleSources = Source.newBuilder(JavaScriptLanguage.ID, normalizedPath).content(characters).name(filenameBuiltin).mimeType(JavaScriptLanguage.TEXT_MIME_TYPE).build();
+        } catch (IOException e) {
+            throw Errors.createError(e.getMessage());
+        }
         CallTarget moduleCallTarget = realm.getEnv().parsePublic(moduleSources);
         Object moduleExecutableFunction = moduleCallTarget.call();
         // Execute the module.
@@ -282,7 +310,7 @@ public abstract class CommonJSRequireBuiltin extends GlobalBuiltins.JSFileLoadin
         return module;
     }
 
-    private static DynamicObject createRequireBuiltin(JSRealm realm, DynamicObject moduleBuiltin, String fileNameBuiltin) {
+    private static DynamicObject createRequireBuiltin(JSRealm realm, DynamicObject moduleBuiltin, String fileNameBuiltin, TruffleFile moduleDirectory) {
         DynamicObject mainRequire = (DynamicObject) realm.getCommonJSRequireFunctionObject();
         DynamicObject mainResolve = (DynamicObject) JSObject.get(mainRequire, RESOLVE_PROPERTY_NAME);
         JSFunctionData functionData = JSFunction.getFunctionData(mainRequire);
@@ -293,6 +321,7 @@ public abstract class CommonJSRequireBuiltin extends GlobalBuiltins.JSFileLoadin
         // In this way, we avoid managing a shadow stack to track the current require's parent.
         // In Node.js, this is done using a (closed) level variable.
         JSObject.set(newRequire, FILENAME_VAR_NAME, fileNameBuiltin);
+        newRequire.define(MODULE_DIRECTORY_ID, moduleDirectory);
         return newRequire;
     }
 
@@ -316,29 +345,6 @@ public abstract class CommonJSRequireBuiltin extends GlobalBuiltins.JSFileLoadin
         return modulePath.isRegularFile();
     }
 
-    private TruffleFile getModuleResolutionEntryPath(DynamicObject currentRequire, TruffleLanguage.Env env) {
-        if (JSObject.isJSObject(currentRequire)) {
-            Object maybeFilename = JSObject.get(currentRequire, FILENAME_VAR_NAME);
-            if (JSRuntime.isString(maybeFilename)) {
-                String fileName = JSRuntime.toStringIsString(maybeFilename);
-                if (isFile(env, fileName)) {
-                    return getParent(env, fileName);
-                }
-            }
-            // dirname not a string. Use default cwd.
-        }
-        // This is not a nested `require()` call, so we use the default cwd.
-        return getModuleResolveCurrentWorkingDirectory(getContext());
-    }
-
-    private static TruffleFile getParent(TruffleLanguage.Env env, String fileName) {
-        return env.getPublicTruffleFile(fileName).getParent();
-    }
-
-    private static boolean isFile(TruffleLanguage.Env env, String fileName) {
-        return env.getPublicTruffleFile(fileName).exists();
-    }
-
     private static boolean hasExtension(String fileName, String ext) {
         return fileName.lastIndexOf(ext) > 0 && fileName.lastIndexOf(ext) == fileName.length() - ext.length();
     }
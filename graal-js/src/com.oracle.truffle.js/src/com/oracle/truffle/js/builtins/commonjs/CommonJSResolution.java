@@ -61,7 +61,6 @@ import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSArguments;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRealm;
-import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 
@@ -145,7 +144,23 @@ final class CommonJSResolution {
         if (isCoreModule(moduleIdentifier) || "".equals(moduleIdentifier)) {
             return null;
         }
-        TruffleLanguage.Env env = context.getRealm().getEnv();
+        JSRealm realm = context.getRealm();
+        TruffleLanguage.Env env = realm.getEnv();
+        CommonJSResolutionCache cache = realm.getCommonJSResolutionCache();
+        TruffleFile cached = cache.getResolvedModule(entryPath, moduleIdentifier);
+        if (cached != null) {
+            return cached;
+        }
+        TruffleFile module = resolveUncached(cache, env, moduleIdentifier, entryPath);
+        if (module != null) {
+            cache.putResolvedModule(entryPath, moduleIdentifier, module);
+        } else {
+            cache.moduleNotFound();
+        }
+        return module;
+    }
+
+    private static TruffleFile resolveUncached(CommonJSResolutionCache cache, TruffleLanguage.Env env, String moduleIdentifier, TruffleFile entryPath) {
         // 2. If X begins with '/'
         TruffleFile currentWorkingPath = entryPath;
         if (moduleIdentifier.charAt(0) == '/') {
@@ -153,7 +168,7 @@ final class CommonJSResolution {
         }
         // 3. If X begins with './' or '/' or '../'
         if (isPathFileName(moduleIdentifier)) {
-            TruffleFile module = loadAsFileOrDirectory(context, env, joinPaths(env, currentWorkingPath, moduleIdentifier));
+            TruffleFile module = loadAsFileOrDirectory(cache, env, joinPaths(env, currentWorkingPath, moduleIdentifier));
             // XXX(db) The Node.js informal spec says we should throw if module is null here.
             // Node v12.x, however, does not throw and attempts to load as a folder.
             if (module != null) {
@@ -161,10 +176,10 @@ final class CommonJSResolution {
             }
         }
         // 4. 5. 6. Try loading as a folder, or throw if not existing
-        return loadNodeModulesOrSelfReference(context, env, moduleIdentifier, currentWorkingPath);
+        return loadNodeModulesOrSelfReference(cache, env, moduleIdentifier, currentWorkingPath);
     }
 
-    private static TruffleFile loadNodeModulesOrSelfReference(JSContext cx, TruffleLanguage.Env env, String moduleIdentifier, TruffleFile startFolder) {
+    private static TruffleFile loadNodeModulesOrSelfReference(CommonJSResolutionCache cache, TruffleLanguage.Env env, String moduleIdentifier, TruffleFile startFolder) {
         /* @formatter:off
          *
          * 1. let DIRS = NODE_MODULES_PATHS(START)
@@ -176,7 +191,7 @@ final class CommonJSResolution {
          */
         List<TruffleFile> nodeModulesPaths = getNodeModulesPaths(startFolder);
         for (TruffleFile s : nodeModulesPaths) {
-            TruffleFile module = loadAsFileOrDirectory(cx, env, joinPaths(env, s, moduleIdentifier));
+            TruffleFile module = loadAsFileOrDirectory(cache, env, joinPaths(env, s, moduleIdentifier));
             if (module != null) {
                 return module;
             }
@@ -184,7 +199,7 @@ final class CommonJSResolution {
         return null;
     }
 
-    public static TruffleFile loadIndex(TruffleLanguage.Env env, TruffleFile modulePath) {
+    public static TruffleFile loadIndex(CommonJSResolutionCache cache, TruffleLanguage.Env env, TruffleFile modulePath) {
         /* @formatter:off
          *
          * LOAD_INDEX(X)
@@ -195,20 +210,20 @@ final class CommonJSResolution {
          * @formatter:on
          */
         TruffleFile indexJs = joinPaths(env, modulePath, INDEX_JS);
-        if (fileExists(indexJs)) {
+        if (cache.isRegularFile(indexJs)) {
             return indexJs;
         }
         TruffleFile indexJson = joinPaths(env, modulePath, INDEX_JSON);
-        if (fileExists(indexJson)) {
+        if (cache.isRegularFile(indexJson)) {
             return indexJson;
-        } else if (fileExists(joinPaths(env, modulePath, INDEX_NODE))) {
+        } else if (cache.isRegularFile(joinPaths(env, modulePath, INDEX_NODE))) {
             // Ignore .node files.
             return null;
         }
         return null;
     }
 
-    static TruffleFile loadAsFile(TruffleLanguage.Env env, TruffleFile modulePath) {
+    static TruffleFile loadAsFile(CommonJSResolutionCache cache, TruffleLanguage.Env env, TruffleFile modulePath) {
         /* @formatter:off
          *
          * LOAD_AS_FILE(X)
@@ -219,18 +234,18 @@ final class CommonJSResolution {
          *
          * @formatter:on
          */
-        if (fileExists(modulePath)) {
+        if (cache.isRegularFile(modulePath)) {
             return modulePath;
         }
         TruffleFile moduleJs = env.getPublicTruffleFile(modulePath.toString() + JS_EXT);
-        if (fileExists(moduleJs)) {
+        if (cache.isRegularFile(moduleJs)) {
             return moduleJs;
         }
         TruffleFile moduleJson = env.getPublicTruffleFile(modulePath.toString() + JSON_EXT);
-        if (fileExists(moduleJson)) {
+        if (cache.isRegularFile(moduleJson)) {
             return moduleJson;
         }
-        if (fileExists(env.getPublicTruffleFile(modulePath.toString() + NODE_EXT))) {
+        if (cache.isRegularFile(env.getPublicTruffleFile(modulePath.toString() + NODE_EXT))) {
             // .node files not supported.
             return null;
         }
@@ -251,10 +266,10 @@ final class CommonJSResolution {
         return list;
     }
 
-    private static TruffleFile loadAsFileOrDirectory(JSContext cx, TruffleLanguage.Env env, TruffleFile modulePath) {
-        TruffleFile maybeFile = loadAsFile(env, modulePath);
+    private static TruffleFile loadAsFileOrDirectory(CommonJSResolutionCache cache, TruffleLanguage.Env env, TruffleFile modulePath) {
+        TruffleFile maybeFile = loadAsFile(cache, env, modulePath);
         if (maybeFile == null) {
-            return loadAsDirectory(cx, env, modulePath);
+            return loadAsDirectory(cache, env, modulePath);
         } else {
             return maybeFile;
         }
@@ -270,25 +285,24 @@ final class CommonJSResolution {
         return paths;
     }
 
-    private static TruffleFile loadAsDirectory(JSContext cx, TruffleLanguage.Env env, TruffleFile modulePath) {
+    private static TruffleFile loadAsDirectory(CommonJSResolutionCache cache, TruffleLanguage.Env env, TruffleFile modulePath) {
         TruffleFile packageJson = joinPaths(env, modulePath, PACKAGE_JSON);
-        if (fileExists(packageJson)) {
-            DynamicObject jsonObj = loadJsonObject(packageJson, cx);
-            if (JSObject.isJSObject(jsonObj)) {
-                Object main = JSObject.get(jsonObj, PACKAGE_JSON_MAIN_PROPERTY_NAME);
-                if (!JSRuntime.isString(main)) {
-                    return loadIndex(env, modulePath);
+        if (cache.isRegularFile(packageJson)) {
+            CommonJSResolutionCache.PackageJson json = cache.getPackageJson(packageJson);
+            if (json != null) {
+                if (json.main == null) {
+                    return loadIndex(cache, env, modulePath);
                 }
-                TruffleFile module = joinPaths(env, modulePath, JSRuntime.safeToString(main));
-                TruffleFile asFile = loadAsFile(env, module);
+                TruffleFile module = joinPaths(env, modulePath, json.main);
+                TruffleFile asFile = loadAsFile(cache, env, module);
                 if (asFile != null) {
                     return asFile;
                 } else {
-                    return loadIndex(env, module);
+                    return loadIndex(cache, env, module);
                 }
             }
         } else {
-            return loadIndex(env, modulePath);
+            return loadIndex(cache, env, modulePath);
         }
         return null;
     }
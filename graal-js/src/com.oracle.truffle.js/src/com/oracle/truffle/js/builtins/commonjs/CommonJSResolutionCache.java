@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.commonjs;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+
+/**
+ * Per-realm cache of the file system lookups done by CommonJS {@code require} and by the
+ * Npm-compatible ES module loader: resolved module files, regular-file checks, and the fields of
+ * parsed {@code package.json} files.
+ *
+ * <p>
+ * Missing files and {@code package.json} files are cached as well, since most lookups of the
+ * resolution algorithm probe files that do not exist. They are forgotten whenever a module cannot
+ * be resolved (see {@link #moduleNotFound()}), so files added after a failed {@code require} are
+ * found. Files removed or changed after a lookup are not seen. The cache can be disabled with the
+ * {@code js.commonjs-resolution-cache} option, or emptied with {@link #clear()}.
+ */
+public final class CommonJSResolutionCache {
+
+    private final JSContext context;
+    private final Set<TruffleFile> regularFiles = new HashSet<>();
+    private final Set<TruffleFile> missingFiles = new HashSet<>();
+    private final Map<TruffleFile, PackageJson> packageJsons = new HashMap<>();
+    private final Set<TruffleFile> missingPackageJsons = new HashSet<>();
+    private final Map<TruffleFile, Map<String, TruffleFile>> resolvedModules = new HashMap<>();
+
+    public CommonJSResolutionCache(JSContext context) {
+        this.context = context;
+    }
+
+    /**
+     * The fields of a {@code package.json} file used for module resolution.
+     */
+    static final class PackageJson {
+        final String main;
+        final String type;
+
+        PackageJson(String main, String type) {
+            this.main = main;
+            this.type = type;
+        }
+    }
+
+    private boolean isEnabled() {
+        return context.getContextOptions().isCommonJSResolutionCache();
+    }
+
+    @TruffleBoundary
+    public void clear() {
+        regularFiles.clear();
+        missingFiles.clear();
+        packageJsons.clear();
+        missingPackageJsons.clear();
+        resolvedModules.clear();
+    }
+
+    /**
+     * Called when a module cannot be resolved. Forgets the files that were missing, since the
+     * module may be added before it is required again.
+     */
+    @TruffleBoundary
+    void moduleNotFound() {
+        missingFiles.clear();
+        missingPackageJsons.clear();
+    }
+
+    /**
+     * Whether the file exists and is a regular file.
+     */
+    @TruffleBoundary
+    boolean isRegularFile(TruffleFile file) {
+        if (!isEnabled()) {
+            return CommonJSResolution.fileExists(file);
+        }
+        if (regularFiles.contains(file)) {
+            return true;
+        } else if (missingFiles.contains(file)) {
+            return false;
+        }
+        boolean exists = CommonJSResolution.fileExists(file);
+        if (exists) {
+            regularFiles.add(file);
+        } else {
+            missingFiles.add(file);
+        }
+        return exists;
+    }
+
+    /**
+     * Returns the parsed {@code package.json} file, or {@code null} if the file does not exist or
+     * does not contain a JSON object.
+     */
+    @TruffleBoundary
+    PackageJson getPackageJson(TruffleFile packageJson) {
+        if (!isEnabled()) {
+            return loadPackageJson(packageJson);
+        }
+        PackageJson cached = packageJsons.get(packageJson);
+        if (cached == null && !missingPackageJsons.contains(packageJson)) {
+            cached = loadPackageJson(packageJson);
+            if (cached != null) {
+                packageJsons.put(packageJson, cached);
+            } else {
+                missingPackageJsons.add(packageJson);
+            }
+        }
+        return cached;
+    }
+
+    private PackageJson loadPackageJson(TruffleFile packageJson) {
+        if (!isRegularFile(packageJson)) {
+            return null;
+        }
+        DynamicObject jsonObj = CommonJSResolution.loadJsonObject(packageJson, context);
+        if (!JSObject.isJSObject(jsonObj)) {
+            return null;
+        }
+        return new PackageJson(getStringField(jsonObj, CommonJSResolution.PACKAGE_JSON_MAIN_PROPERTY_NAME), getStringField(jsonObj, CommonJSResolution.PACKAGE_JSON_TYPE_PROPERTY_NAME));
+    }
+
+    private static String getStringField(DynamicObject jsonObj, String name) {
+        Object value = JSObject.get(jsonObj, name);
+        return JSRuntime.isString(value) ? JSRuntime.safeToString(value) : null;
+    }
+
+    /**
+     * Returns the module file previously resolved for {@code specifier} from {@code fromDirectory},
+     * or {@code null}.
+     */
+    @TruffleBoundary
+    TruffleFile getResolvedModule(TruffleFile fromDirectory, String specifier) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Map<String, TruffleFile> resolved = resolvedModules.get(fromDirectory);
+        return resolved == null ? null : resolved.get(specifier);
+    }
+
+    @TruffleBoundary
+    void putResolvedModule(TruffleFile fromDirectory, String specifier, TruffleFile module) {
+        if (isEnabled()) {
+            resolvedModules.computeIfAbsent(fromDirectory, k -> new HashMap<>()).put(specifier, module);
+        }
+    }
+}
@@ -50,7 +50,6 @@ import com.oracle.truffle.js.runtime.JSArguments;
 import com.oracle.truffle.js.runtime.JSErrorType;
 import com.oracle.truffle.js.runtime.JSException;
 import com.oracle.truffle.js.runtime.JSRealm;
-import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.objects.DefaultESModuleLoader;
 import com.oracle.truffle.js.runtime.objects.JSModuleRecord;
@@ -65,15 +64,12 @@ import java.util.List;
 
 import static com.oracle.truffle.js.builtins.commonjs.CommonJSRequireBuiltin.log;
 import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.PACKAGE_JSON;
-import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.PACKAGE_JSON_MAIN_PROPERTY_NAME;
 import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.PACKAGE_JSON_MODULE_VALUE;
-import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.PACKAGE_JSON_TYPE_PROPERTY_NAME;
 import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.getNodeModulesPaths;
 import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.isCoreModule;
 import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.joinPaths;
 import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.loadAsFile;
 import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.loadIndex;
-import static com.oracle.truffle.js.builtins.commonjs.CommonJSResolution.loadJsonObject;
 import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
 import static com.oracle.truffle.js.lang.JavaScriptLanguage.MODULE_SOURCE_NAME_SUFFIX;
 
@@ -113,6 +109,15 @@ public final class NpmCompatibleESModuleLoader extends DefaultESModuleLoader {
         }
     }
 
+    /**
+     * Npm module resolution depends on the realm (core modules, {@code node_modules} lookups), so
+     * modules are only loaded when linking resolves them.
+     */
+    @Override
+    protected TruffleFile resolvePreloadedModuleFile(TruffleFile referrerFile, String specifier) {
+        return null;
+    }
+
     private JSModuleRecord loadCoreModule(String specifier) {
         log("IMPORT resolve built-in ", specifier);
         JSModuleRecord existingModule = moduleMap.get(specifier);
@@ -249,32 +254,39 @@ public final class NpmCompatibleESModuleLoader extends DefaultESModuleLoader {
         }
         // Load module using `package.json`
         TruffleFile mainPackageFolder = getFullPath(referencingModule);
+        CommonJSResolutionCache cache = realm.getCommonJSResolutionCache();
+        TruffleFile cached = cache.getResolvedModule(mainPackageFolder, packageSpecifier);
+        if (cached != null) {
+            return cached;
+        }
         List<TruffleFile> nodeModulesPaths = getNodeModulesPaths(mainPackageFolder);
 
         for (TruffleFile modulePath : nodeModulesPaths) {
             TruffleFile moduleFolder = joinPaths(env, modulePath, packageSpecifier);
-            TruffleFile packageJson = joinPaths(env, moduleFolder, PACKAGE_JSON);
-            if (CommonJSResolution.fileExists(packageJson)) {
-                DynamicObject jsonObj = loadJsonObject(packageJson, realm.getContext());
-                if (JSObject.isJSObject(jsonObj)) {
-                    Object main = JSObject.get(jsonObj, PACKAGE_JSON_MAIN_PROPERTY_NAME);
-                    Object type = JSObject.get(jsonObj, PACKAGE_JSON_TYPE_PROPERTY_NAME);
-                    if (type == Undefined.instance || !JSRuntime.isString(type) || !PACKAGE_JSON_MODULE_VALUE.equals(JSRuntime.safeToString(type))) {
-                        throw failMessage("do not use import() to load non-ES modules.");
-                    }
-                    if (!JSRuntime.isString(main)) {
-                        return loadIndex(env, moduleFolder);
-                    }
-                    TruffleFile mainPackageFile = joinPaths(env, moduleFolder, JSRuntime.safeToString(main));
-                    TruffleFile asFile = loadAsFile(env, mainPackageFile);
-                    if (asFile != null) {
-                        return asFile;
-                    } else {
-                        return loadIndex(env, mainPackageFile);
+            CommonJSResolutionCache.PackageJson json = cache.getPackageJson(joinPaths(env, moduleFolder, PACKAGE_JSON));
+            if (json != null) {
+                if (!PACKAGE_JSON_MODULE_VALUE.equals(json.type)) {
+                    throw failMessage("do not use import() to load non-ES modules.");
+                }
+                TruffleFile module;
+                if (json.main == null) {
+                    module = loadIndex(cache, env, moduleFolder);
+                } else {
+                    TruffleFile mainPackageFile = joinPaths(env, moduleFolder, json.main);
+                    module = loadAsFile(cache, env, mainPackageFile);
+                    if (module == null) {
+                        module = loadIndex(cache, env, mainPackageFile);
                     }
                 }
+                if (module != null) {
+                    cache.putResolvedModule(mainPackageFolder, packageSpecifier, module);
+                } else {
+                    cache.moduleNotFound();
+                }
+                return module;
             }
         }
+        cache.moduleNotFound();
         // A custom Truffle FS might still try to map a package specifier to some file.
         TruffleFile maybeFile = env.getPublicTruffleFile(packageSpecifier);
         if (maybeFile.exists()) {
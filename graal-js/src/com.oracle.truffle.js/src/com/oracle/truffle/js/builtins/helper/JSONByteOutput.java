@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.js.runtime.Errors;
+
+/**
+ * UTF-8 encoding output of {@code JSON.stringify}. The serializer hands over its text in chunks of
+ * about {@link #FLUSH_THRESHOLD} characters, which are encoded into a small reusable byte buffer
+ * and passed on to the target, so the complete output is never held as a {@link String}.
+ */
+public abstract class JSONByteOutput {
+
+    /** Number of buffered characters after which the serializer flushes to the output. */
+    public static final int FLUSH_THRESHOLD = 8192;
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final int MAX_BYTES_PER_CODE_POINT = 4;
+
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private int count;
+    private long bytesWritten;
+
+    protected JSONByteOutput() {
+    }
+
+    /**
+     * Encodes the given characters as UTF-8. Unpaired surrogates are replaced by U+FFFD.
+     */
+    public final void write(CharSequence chars) {
+        byte[] bytes = chunk;
+        int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            if (count > CHUNK_SIZE - MAX_BYTES_PER_CODE_POINT) {
+                flushChunk();
+            }
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                bytes[count++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[count++] = (byte) (0xC0 | (c >> 6));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                char low;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(low = chars.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, low);
+                    bytes[count++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                    i++;
+                } else {
+                    bytes[count++] = (byte) 0xEF;
+                    bytes[count++] = (byte) 0xBF;
+                    bytes[count++] = (byte) 0xBD;
+                }
+            } else {
+                bytes[count++] = (byte) (0xE0 | (c >> 12));
+                bytes[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Passes all encoded bytes on to the target.
+     */
+    public final void flush() {
+        flushChunk();
+        flushTarget();
+    }
+
+    /**
+     * Returns the number of bytes passed on to the target so far.
+     */
+    public final long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void flushChunk() {
+        if (count > 0) {
+            writeChunk(chunk, count);
+            bytesWritten += count;
+            count = 0;
+        }
+    }
+
+    protected abstract void writeChunk(byte[] bytes, int length);
+
+    protected void flushTarget() {
+    }
+
+    /**
+     * Creates an output writing to the given buffer, starting at its position. The position is
+     * advanced by the number of bytes written. A {@code RangeError} is thrown if the output does
+     * not fit into the remaining bytes, a {@code TypeError} if the buffer is read-only.
+     */
+    public static JSONByteOutput fromByteBuffer(ByteBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            throw Errors.createTypeError("Cannot write JSON output to a read-only buffer");
+        }
+        return new ByteBufferOutput(buffer);
+    }
+
+    /**
+     * Creates an output writing to the given stream in chunks.
+     */
+    public static JSONByteOutput fromOutputStream(OutputStream out) {
+        return new OutputStreamOutput(out);
+    }
+
+    private static final class ByteBufferOutput extends JSONByteOutput {
+        private final ByteBuffer buffer;
+
+        ByteBufferOutput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        protected void writeChunk(byte[] bytes, int length) {
+            if (buffer.remaining() < length) {
+                throw Errors.createRangeError("JSON output does not fit into the target buffer");
+            }
+            buffer.put(bytes, 0, length);
+        }
+    }
+
+    private static final class OutputStreamOutput extends JSONByteOutput {
+        private final OutputStream out;
+
+        OutputStreamOutput(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        protected void writeChunk(byte[] bytes, int length) {
+            try {
+                out.write(bytes, 0, length);
+            } catch (IOException ex) {
+                throw Errors.createError(ex.getMessage());
+            }
+        }
+
+        @Override
+        protected void flushTarget() {
+            try {
+                out.flush();
+            } catch (IOException ex) {
+                throw Errors.createError(ex.getMessage());
+            }
+        }
+    }
+}
@@ -52,13 +52,19 @@ public class JSONData {
     private final String gap;
     private final List<String> propertyList;
     private final DynamicObject replacerFnObj;
+    private final JSONByteOutput output;
 
     private static final int MAX_STACK_SIZE = 1000;
 
     public JSONData(String gap, DynamicObject replacerFnObj, List<String> replacerList) {
+        this(gap, replacerFnObj, replacerList, null);
+    }
+
+    public JSONData(String gap, DynamicObject replacerFnObj, List<String> replacerList, JSONByteOutput output) {
         this.gap = gap;
         this.replacerFnObj = replacerFnObj;
         this.propertyList = replacerList;
+        this.output = output;
     }
 
     public String getGap() {
@@ -81,6 +87,13 @@ public class JSONData {
         return replacerFnObj;
     }
 
+    /**
+     * Byte output the serialized text is streamed to, or {@code null} if a string is produced.
+     */
+    public JSONByteOutput getOutput() {
+        return output;
+    }
+
     public void pushStack(Object value) {
         stack.add(value);
     }
@@ -51,12 +51,15 @@ import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.js.nodes.JSGuards;
 import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
 import com.oracle.truffle.js.nodes.access.PropertyGetNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSArguments;
+import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.Symbol;
@@ -67,6 +70,7 @@ import com.oracle.truffle.js.runtime.builtins.JSClass;
 import com.oracle.truffle.js.runtime.builtins.JSNumber;
 import com.oracle.truffle.js.runtime.builtins.JSString;
 import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropUtil;
@@ -74,10 +78,14 @@ import com.oracle.truffle.js.runtime.util.StringBuilderProfile;
 
 public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
 
+    private static final int SHAPE_KEYS_CACHE_SIZE = 16;
+
     private final JSContext context;
     @Child private PropertyGetNode getToJSONProperty;
     @Child private JSFunctionCallNode callToJSONFunction;
     private final StringBuilderProfile stringBuilderProfile;
+    /** Direct-mapped cache of the serialization keys of recently seen shapes. */
+    private final ShapeKeys[] shapeKeysCache = new ShapeKeys[SHAPE_KEYS_CACHE_SIZE];
 
     protected JSONStringifyStringNode(JSContext context) {
         this.context = context;
@@ -101,6 +109,9 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
             }
             StringBuilder builder = new StringBuilder();
             jsonStrExecute(builder, data, value);
+            if (data.getOutput() != null) {
+                return finishOutput(builder, data.getOutput());
+            }
             return stringBuilderProfile.toString(builder);
         } catch (StackOverflowError ex) {
             throwStackError();
@@ -108,6 +119,25 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         }
     }
 
+    @TruffleBoundary
+    private static Object finishOutput(StringBuilder builder, JSONByteOutput output) {
+        output.write(builder);
+        output.flush();
+        return JSRuntime.longToIntOrDouble(output.getBytesWritten());
+    }
+
+    /**
+     * When streaming to a byte output, passes the buffered text on once it exceeds the flush
+     * threshold, so that the builder only ever holds a small part of the result.
+     */
+    private static void flushIfFull(StringBuilder builder, JSONData data) {
+        JSONByteOutput output = data.getOutput();
+        if (output != null && builder.length() >= JSONByteOutput.FLUSH_THRESHOLD) {
+            output.write(builder);
+            builder.setLength(0);
+        }
+    }
+
     private static boolean isStringifyable(Object value) {
         // values that are not stringifyable are replaced by undefined in jsonStrPrepare()
         return value != Undefined.instance;
@@ -266,7 +296,13 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         boolean hasContent;
         if (data.getPropertyList() == null) {
             if (JSObject.isJSObject(value)) {
-                hasContent = serializeJSONObjectProperties(builder, data, value, indent, JSObject.enumerableOwnNames((DynamicObject) value));
+                DynamicObject object = (DynamicObject) value;
+                ShapeKeys shapeKeys = getShapeKeys(object);
+                if (shapeKeys != null) {
+                    hasContent = serializeJSONObjectProperties(builder, data, object, indent, shapeKeys);
+                } else {
+                    hasContent = serializeJSONObjectProperties(builder, data, value, indent, JSObject.enumerableOwnNames(object));
+                }
             } else {
                 hasContent = serializeForeignObjectProperties(builder, data, value, indent);
             }
@@ -296,11 +332,83 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
                 appendColon(builder, data);
                 jsonStrExecute(builder, data, strPPrepared);
                 hasContent = true;
+                flushIfFull(builder, data);
+            }
+        }
+        return hasContent;
+    }
+
+    /**
+     * Serializes the properties of an object with only shape properties, using the cached key list
+     * of its shape. Values of data properties are read directly from their location as long as the
+     * object keeps its shape (it could be modified by {@code toJSON} or the replacer function).
+     */
+    private boolean serializeJSONObjectProperties(StringBuilder builder, JSONData data, DynamicObject object, int indent, ShapeKeys shapeKeys) {
+        boolean isFirst = true;
+        boolean hasContent = false;
+        String[] keys = shapeKeys.keys;
+        for (int i = 0; i < keys.length; i++) {
+            String name = keys[i];
+            Property property = shapeKeys.properties[i];
+            Object value;
+            if (property != null && object.getShape() == shapeKeys.shape) {
+                value = property.get(object, shapeKeys.shape);
+            } else {
+                value = JSObject.get(object, name);
+            }
+            Object strPPrepared = jsonStrPreparePart2(data, name, object, value);
+            if (isStringifyable(strPPrepared)) {
+                if (isFirst) {
+                    concatFirstStep(builder, data);
+                    isFirst = false;
+                } else {
+                    appendSeparator(builder, data, indent);
+                }
+                stringBuilderProfile.append(builder, shapeKeys.quotedKeys[i]);
+                appendColon(builder, data);
+                jsonStrExecute(builder, data, strPPrepared);
+                hasContent = true;
+                flushIfFull(builder, data);
             }
         }
         return hasContent;
     }
 
+    private ShapeKeys getShapeKeys(DynamicObject object) {
+        if (!JSConfig.FastOwnKeys || !JSObject.getJSClass(object).hasOnlyShapeProperties(object)) {
+            return null;
+        }
+        Shape shape = object.getShape();
+        int index = System.identityHashCode(shape) & (SHAPE_KEYS_CACHE_SIZE - 1);
+        ShapeKeys shapeKeys = shapeKeysCache[index];
+        if (shapeKeys == null || shapeKeys.shape != shape) {
+            shapeKeys = createShapeKeys(object, shape);
+            shapeKeysCache[index] = shapeKeys;
+        }
+        return shapeKeys;
+    }
+
+    private ShapeKeys createShapeKeys(DynamicObject object, Shape shape) {
+        List<String> names = JSObject.enumerableOwnNames(object);
+        int size = names.size();
+        String[] keys = new String[size];
+        String[] quotedKeys = new String[size];
+        Property[] properties = new Property[size];
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            String key = names.get(i);
+            keys[i] = key;
+            Property property = shape.getProperty(key);
+            if (property != null && JSProperty.isData(property) && !JSProperty.isProxy(property)) {
+                properties[i] = property;
+            }
+            builder.setLength(0);
+            jsonQuote(builder, key);
+            quotedKeys[i] = builder.toString();
+        }
+        return new ShapeKeys(shape, keys, quotedKeys, properties);
+    }
+
     private void appendColon(StringBuilder builder, JSONData data) {
         stringBuilderProfile.append(builder, ':');
         if (data.getGap().length() > 0) {
@@ -339,6 +447,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
                     appendColon(builder, data);
                     jsonStrExecute(builder, data, strPPrepared);
                     hasContent = true;
+                    flushIfFull(builder, data);
                 }
             }
             return hasContent;
@@ -394,6 +503,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
             } else {
                 stringBuilderProfile.append(builder, Null.NAME);
             }
+            flushIfFull(builder, data);
         }
 
         concatEnd(builder, data, stepback, ']', len > 0);
@@ -533,4 +643,19 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
             throw Errors.createTypeErrorInteropException(obj, e, "readArrayElement", index, this);
         }
     }
+
+    private static final class ShapeKeys {
+        final Shape shape;
+        final String[] keys;
+        final String[] quotedKeys;
+        /** Data properties of the keys, {@code null} where the value must be read generically. */
+        final Property[] properties;
+
+        ShapeKeys(Shape shape, String[] keys, String[] quotedKeys, Property[] properties) {
+            this.shape = shape;
+            this.keys = keys;
+            this.quotedKeys = quotedKeys;
+            this.properties = properties;
+        }
+    }
 }
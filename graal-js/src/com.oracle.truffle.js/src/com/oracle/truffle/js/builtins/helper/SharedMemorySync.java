@@ -42,16 +42,25 @@ package com.oracle.truffle.js.builtins.helper;
 
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetArrayType;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.BigInt;
+import com.oracle.truffle.js.runtime.JSAgent;
 import com.oracle.truffle.js.runtime.JSAgentWaiterList;
+import com.oracle.truffle.js.runtime.JSAgentWaiterList.AsyncWaiter;
 import com.oracle.truffle.js.runtime.JSAgentWaiterList.JSAgentWaiterListEntry;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.array.TypedArray;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSSharedArrayBuffer;
+import com.oracle.truffle.js.runtime.objects.PromiseCapabilityRecord;
+import com.oracle.truffle.js.runtime.util.ByteBufferAtomics;
 import com.oracle.truffle.js.runtime.util.Fences;
 
 /**
@@ -63,11 +72,97 @@ public final class SharedMemorySync {
         // should not be constructed
     }
 
+    private static final int WORD_BYTES = Integer.BYTES;
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    // ##### Lock-free access to the backing store of shared typed arrays
+
+    private static int getByteIndex(DynamicObject target, TypedArray array, int index) {
+        int offset = array.hasOffset() ? JSArrayBufferView.typedArrayGetOffset(target) : 0;
+        return offset + index * array.bytesPerElement();
+    }
+
+    /**
+     * Returns the backing store of the typed array if the element at {@code byteIndex} can be
+     * accessed with hardware atomics, {@code null} if the operation has to fall back to the atomic
+     * section of the agent. Elements smaller than a word are accessed through their enclosing
+     * aligned word, which therefore has to lie within the buffer.
+     */
+    private static ByteBuffer getLockFreeBuffer(DynamicObject target, TypedArray array, int byteIndex) {
+        if (!array.isDirect() || array.isReadOnly()) {
+            return null;
+        }
+        ByteBuffer buffer = JSArrayBufferView.typedArrayGetByteBuffer(target, true);
+        if (!ByteBufferAtomics.isSupported(buffer)) {
+            return null;
+        }
+        int elementSize = array.bytesPerElement();
+        if (elementSize >= WORD_BYTES) {
+            return ByteBufferAtomics.alignmentOffset(buffer, byteIndex, elementSize) == 0 ? buffer : null;
+        }
+        int wordIndex = byteIndex - ByteBufferAtomics.alignmentOffset(buffer, byteIndex, WORD_BYTES);
+        return (wordIndex >= 0 && wordIndex <= buffer.limit() - WORD_BYTES) ? buffer : null;
+    }
+
+    /**
+     * Compare-and-exchange of an 8-bit or 16-bit element, emulated by a CAS of the enclosing word.
+     * Returns the unsigned bits of the witness value.
+     */
+    private static int compareExchangeSubWord(ByteBuffer buffer, int byteIndex, int elementSize, int expected, int replacement) {
+        int misalignment = ByteBufferAtomics.alignmentOffset(buffer, byteIndex, WORD_BYTES);
+        int wordIndex = byteIndex - misalignment;
+        int shift = (LITTLE_ENDIAN ? misalignment : WORD_BYTES - elementSize - misalignment) * Byte.SIZE;
+        int elementMask = elementSize == 1 ? 0xFF : 0xFFFF;
+        int wordMask = elementMask << shift;
+        int expectedBits = expected & elementMask;
+        int replacementBits = (replacement & elementMask) << shift;
+        while (true) {
+            int word = ByteBufferAtomics.getInt32Volatile(buffer, wordIndex);
+            int current = (word & wordMask) >>> shift;
+            if (current != expectedBits) {
+                return current;
+            }
+            if (ByteBufferAtomics.compareAndExchangeInt32(buffer, wordIndex, word, (word & ~wordMask) | replacementBits) == word) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Lock-free compare-and-exchange of an integer element. Returns the unsigned bits of the
+     * witness value for 8-bit and 16-bit elements.
+     */
+    private static int compareExchangeInt(ByteBuffer buffer, int byteIndex, int elementSize, int expected, int replacement) {
+        if (elementSize == WORD_BYTES) {
+            return ByteBufferAtomics.compareAndExchangeInt32(buffer, byteIndex, expected, replacement);
+        } else {
+            return compareExchangeSubWord(buffer, byteIndex, elementSize, expected, replacement);
+        }
+    }
+
+    private static int signExtend(int bits, int elementSize, boolean sign) {
+        if (!sign || elementSize == WORD_BYTES) {
+            return bits;
+        }
+        return elementSize == 1 ? (byte) bits : (short) bits;
+    }
+
+    private static BigInt toBigInt(long bits, TypedArray array) {
+        return array instanceof TypedArray.DirectBigUint64Array ? BigInt.valueOfUnsigned(bits) : BigInt.valueOf(bits);
+    }
+
     // ##### Getters and setters with ordering and memory barriers
     @TruffleBoundary
     public static int doVolatileGet(DynamicObject target, int intArrayOffset) {
-        Fences.acquireFence();
         TypedArray array = typedArrayGetArrayType(target);
+        if (array.bytesPerElement() == WORD_BYTES) {
+            int byteIndex = getByteIndex(target, array, intArrayOffset);
+            ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+            if (buffer != null) {
+                return ByteBufferAtomics.getInt32Volatile(buffer, byteIndex);
+            }
+        }
+        Fences.acquireFence();
         TypedArray.TypedIntArray<?> typedArray = (TypedArray.TypedIntArray<?>) array;
         return typedArray.getInt(target, intArrayOffset, true);
     }
@@ -75,8 +170,13 @@ public final class SharedMemorySync {
     // ##### Getters and setters with ordering and memory barriers
     @TruffleBoundary
     public static BigInt doVolatileGetBigInt(DynamicObject target, int intArrayOffset) {
-        Fences.acquireFence();
         TypedArray array = typedArrayGetArrayType(target);
+        int byteIndex = getByteIndex(target, array, intArrayOffset);
+        ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+        if (buffer != null) {
+            return toBigInt(ByteBufferAtomics.getInt64Volatile(buffer, byteIndex), array);
+        }
+        Fences.acquireFence();
         TypedArray.TypedBigIntArray<?> typedArray = (TypedArray.TypedBigIntArray<?>) array;
         return typedArray.getBigInt(target, intArrayOffset, true);
     }
@@ -84,6 +184,14 @@ public final class SharedMemorySync {
     @TruffleBoundary
     public static void doVolatilePut(DynamicObject target, int index, int value) {
         TypedArray array = typedArrayGetArrayType(target);
+        if (array.bytesPerElement() == WORD_BYTES) {
+            int byteIndex = getByteIndex(target, array, index);
+            ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+            if (buffer != null) {
+                ByteBufferAtomics.putInt32Volatile(buffer, byteIndex, value);
+                return;
+            }
+        }
         TypedArray.TypedIntArray<?> typedArray = (TypedArray.TypedIntArray<?>) array;
         typedArray.setInt(target, index, value, true);
         Fences.releaseFence();
@@ -92,6 +200,12 @@ public final class SharedMemorySync {
     @TruffleBoundary
     public static void doVolatilePutBigInt(DynamicObject target, int index, BigInt value) {
         TypedArray array = typedArrayGetArrayType(target);
+        int byteIndex = getByteIndex(target, array, index);
+        ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+        if (buffer != null) {
+            ByteBufferAtomics.putInt64Volatile(buffer, byteIndex, value.longValue());
+            return;
+        }
         TypedArray.TypedBigIntArray<?> typedArray = (TypedArray.TypedBigIntArray<?>) array;
         typedArray.setBigInt(target, index, value, true);
         Fences.releaseFence();
@@ -100,6 +214,14 @@ public final class SharedMemorySync {
     // ##### Atomic CAS primitives
     @TruffleBoundary
     public static boolean compareAndSwapInt(JSContext cx, DynamicObject target, int intArrayOffset, int initial, int result) {
+        TypedArray array = typedArrayGetArrayType(target);
+        int byteIndex = getByteIndex(target, array, intArrayOffset);
+        ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+        if (buffer != null) {
+            int elementSize = array.bytesPerElement();
+            int witness = compareExchangeInt(buffer, byteIndex, elementSize, initial, result);
+            return elementSize == WORD_BYTES ? witness == initial : witness == (initial & (elementSize == 1 ? 0xFF : 0xFFFF));
+        }
         cx.getJSAgent().atomicSectionEnter(target);
         try {
             int value = doVolatileGet(target, intArrayOffset);
@@ -115,6 +237,13 @@ public final class SharedMemorySync {
 
     @TruffleBoundary
     public static boolean compareAndSwapBigInt(JSContext cx, DynamicObject target, int intArrayOffset, BigInt initial, BigInt result) {
+        TypedArray array = typedArrayGetArrayType(target);
+        int byteIndex = getByteIndex(target, array, intArrayOffset);
+        ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+        if (buffer != null) {
+            long expectedBits = initial.longValue();
+            return ByteBufferAtomics.compareAndExchangeInt64(buffer, byteIndex, expectedBits, result.longValue()) == expectedBits;
+        }
         cx.getJSAgent().atomicSectionEnter(target);
         try {
             BigInt value = doVolatileGetBigInt(target, intArrayOffset);
@@ -131,22 +260,18 @@ public final class SharedMemorySync {
     // ##### Atomic Fetch-or-Get primitives
     @TruffleBoundary
     public static long atomicFetchOrGetUnsigned(JSContext cx, DynamicObject target, int intArrayOffset, Object expected, Object replacement) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        long read = JSRuntime.toUInt32(doVolatileGet(target, intArrayOffset));
-        if (read == JSRuntime.toUInt32(expected)) {
-            doVolatilePut(target, intArrayOffset, (int) JSRuntime.toUInt32(replacement));
+        TypedArray array = typedArrayGetArrayType(target);
+        int byteIndex = getByteIndex(target, array, intArrayOffset);
+        ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+        if (buffer != null) {
+            int witness = ByteBufferAtomics.compareAndExchangeInt32(buffer, byteIndex, (int) JSRuntime.toUInt32(expected), (int) JSRuntime.toUInt32(replacement));
+            return witness & 0xFFFFFFFFL;
         }
-        cx.getJSAgent().atomicSectionLeave(target);
-        return read;
-    }
-
-    @TruffleBoundary
-    public static long atomicFetchOrGetLong(JSContext cx, DynamicObject target, int intArrayOffset, long expected, long replacement) {
         cx.getJSAgent().atomicSectionEnter(target);
         try {
-            int read = doVolatileGet(target, intArrayOffset);
-            if (read == expected) {
-                doVolatilePut(target, intArrayOffset, (int) replacement);
+            long read = JSRuntime.toUInt32(doVolatileGet(target, intArrayOffset));
+            if (read == JSRuntime.toUInt32(expected)) {
+                doVolatilePut(target, intArrayOffset, (int) JSRuntime.toUInt32(replacement));
             }
             return read;
         } finally {
@@ -154,8 +279,19 @@ public final class SharedMemorySync {
         }
     }
 
+    @TruffleBoundary
+    public static long atomicFetchOrGetLong(JSContext cx, DynamicObject target, int intArrayOffset, long expected, long replacement) {
+        return atomicFetchOrGetInt(cx, target, intArrayOffset, (int) expected, (int) replacement);
+    }
+
     @TruffleBoundary
     public static int atomicFetchOrGetInt(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement) {
+        TypedArray array = typedArrayGetArrayType(target);
+        int byteIndex = getByteIndex(target, array, intArrayOffset);
+        ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+        if (buffer != null) {
+            return ByteBufferAtomics.compareAndExchangeInt32(buffer, byteIndex, expected, replacement);
+        }
         cx.getJSAgent().atomicSectionEnter(target);
         try {
             int read = doVolatileGet(target, intArrayOffset);
@@ -170,20 +306,35 @@ public final class SharedMemorySync {
 
     @TruffleBoundary
     public static int atomicFetchOrGetShort(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement, boolean sign) {
+        TypedArray array = typedArrayGetArrayType(target);
+        int byteIndex = getByteIndex(target, array, intArrayOffset);
+        ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+        if (buffer != null) {
+            return signExtend(compareExchangeSubWord(buffer, byteIndex, Short.BYTES, expected, replacement), Short.BYTES, sign);
+        }
         cx.getJSAgent().atomicSectionEnter(target);
-        int read = doVolatileGet(target, intArrayOffset);
-        read = sign ? read : read & 0xFFFF;
-        int expectedChopped = sign ? (short) expected : expected & 0xFFFF;
-        if (read == expectedChopped) {
-            int signed = sign ? replacement : replacement & 0xFFFF;
-            SharedMemorySync.doVolatilePut(target, intArrayOffset, (short) signed);
+        try {
+            int read = doVolatileGet(target, intArrayOffset);
+            read = sign ? read : read & 0xFFFF;
+            int expectedChopped = sign ? (short) expected : expected & 0xFFFF;
+            if (read == expectedChopped) {
+                int signed = sign ? replacement : replacement & 0xFFFF;
+                SharedMemorySync.doVolatilePut(target, intArrayOffset, (short) signed);
+            }
+            return read;
+        } finally {
+            cx.getJSAgent().atomicSectionLeave(target);
         }
-        cx.getJSAgent().atomicSectionLeave(target);
-        return read;
     }
 
     @TruffleBoundary
     public static int atomicFetchOrGetByte(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement, boolean sign) {
+        TypedArray array = typedArrayGetArrayType(target);
+        int byteIndex = getByteIndex(target, array, intArrayOffset);
+        ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+        if (buffer != null) {
+            return signExtend(compareExchangeSubWord(buffer, byteIndex, Byte.BYTES, expected, replacement), Byte.BYTES, sign);
+        }
         cx.getJSAgent().atomicSectionEnter(target);
         try {
             int read = doVolatileGet(target, intArrayOffset);
@@ -201,6 +352,12 @@ public final class SharedMemorySync {
 
     @TruffleBoundary
     public static BigInt atomicFetchOrGetBigInt(JSContext cx, DynamicObject target, int intArrayOffset, BigInt expected, BigInt replacement) {
+        TypedArray array = typedArrayGetArrayType(target);
+        int byteIndex = getByteIndex(target, array, intArrayOffset);
+        ByteBuffer buffer = getLockFreeBuffer(target, array, byteIndex);
+        if (buffer != null) {
+            return toBigInt(ByteBufferAtomics.compareAndExchangeInt64(buffer, byteIndex, expected.longValue(), replacement.longValue()), array);
+        }
         cx.getJSAgent().atomicSectionEnter(target);
         try {
             BigInt read = doVolatileGetBigInt(target, intArrayOffset);
@@ -215,11 +372,10 @@ public final class SharedMemorySync {
 
     // ##### Thread Wake/Park primitives
 
-    @SuppressWarnings("unused")
-    public static JSAgentWaiterListEntry getWaiterList(JSContext cx, DynamicObject target, int indexPos) {
+    public static JSAgentWaiterListEntry getWaiterList(@SuppressWarnings("unused") JSContext cx, DynamicObject target, int indexPos) {
         DynamicObject arrayBuffer = JSArrayBufferView.getArrayBuffer(target, JSArrayBufferView.isJSArrayBufferView(target));
         JSAgentWaiterList waiterList = JSSharedArrayBuffer.getWaiterList(arrayBuffer);
-        return waiterList.getListForIndex(indexPos);
+        return waiterList.getListForIndex(getByteIndex(target, typedArrayGetArrayType(target), indexPos));
     }
 
     @TruffleBoundary
@@ -241,7 +397,7 @@ public final class SharedMemorySync {
     public static void addWaiter(JSContext cx, JSAgentWaiterListEntry wl, int id) {
         assert cx.getJSAgent().inCriticalSection();
         assert !wl.contains(id);
-        wl.add(id);
+        wl.add(id, Thread.currentThread());
     }
 
     @TruffleBoundary
@@ -251,6 +407,24 @@ public final class SharedMemorySync {
         wl.remove(w);
     }
 
+    /**
+     * Adds an Atomics.waitAsync waiter whose promise is resolved by a notification or when the
+     * timeout (in milliseconds, infinite if not finite) expires.
+     */
+    @TruffleBoundary
+    public static void addAsyncWaiter(JSContext cx, JSAgentWaiterListEntry wl, PromiseCapabilityRecord promiseCapability, double timeout) {
+        assert cx.getJSAgent().inCriticalSection();
+        JSAgent agent = cx.getJSAgent();
+        AsyncWaiter waiter = new AsyncWaiter(agent, promiseCapability, wl);
+        wl.addAsync(waiter);
+        agent.asyncWaiterAdded(waiter);
+        // make sure that the promise jobs of this agent are processed
+        cx.getLanguage().getPromiseJobsQueueEmptyAssumption().invalidate();
+        if (!Double.isInfinite(timeout)) {
+            waiter.scheduleTimeout((long) timeout);
+        }
+    }
+
     /* ECMA2017 24.4.1.9 - Suspend returns true if agent was woken by another agent */
     @TruffleBoundary
     public static boolean suspendAgent(JSContext cx, JSAgentWaiterListEntry wl, int w, int timeout) {
@@ -258,32 +432,38 @@ public final class SharedMemorySync {
         assert wl.contains(w);
         assert cx.getJSAgent().getSignifier() == w;
         assert cx.getJSAgent().canBlock();
-        cx.getJSAgent().criticalSectionLeave(wl);
-        boolean interrupt = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        boolean interrupted = false;
         try {
-            Thread.sleep(timeout);
-        } catch (InterruptedException e) {
-            interrupt = true;
+            // the notifying agent removes us from the list before unparking us
+            while (wl.contains(w)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                cx.getJSAgent().criticalSectionLeave(wl);
+                LockSupport.parkNanos(wl, remaining);
+                interrupted |= Thread.interrupted();
+                cx.getJSAgent().criticalSectionEnter(wl);
+            }
+            return true;
+        } finally {
+            if (interrupted) {
+                // interrupts are used for other purposes (e.g., test262 agent broadcasts)
+                Thread.currentThread().interrupt();
+            }
         }
-        cx.getJSAgent().criticalSectionEnter(wl);
-        return interrupt;
-    }
-
-    /* ECMA2017 24.4.1.10 - Wake up another agent */
-    @TruffleBoundary
-    public static void wakeWaiter(JSContext cx, int w) {
-        assert cx.getJSAgent().inCriticalSection();
-        cx.getJSAgent().wakeAgent(w);
     }
 
+    /* ECMA2017 24.4.1.10 - Remove up to count waiters and wake them up */
     @TruffleBoundary
-    public static int[] removeWaiters(JSContext cx, JSAgentWaiterListEntry wl, int count) {
+    public static int notifyWaiters(JSContext cx, JSAgentWaiterListEntry wl, int count) {
         assert cx.getJSAgent().inCriticalSection();
-        int c = Integer.min(wl.size(), count);
-        int[] removed = new int[c];
-        while (c-- > 0) {
-            removed[c] = wl.poll();
+        int n = 0;
+        while (n < count && !wl.isEmpty()) {
+            wl.wakeFirst();
+            n++;
         }
-        return removed;
+        return n;
     }
 }
@@ -0,0 +1,607 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.array.ScriptArray;
+import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.Null;
+
+/**
+ * JSON parser that consumes its input incrementally from a byte or character {@link Source}
+ * instead of a fully materialized {@link String}. UTF-8 input is decoded on the fly and string
+ * values are built directly from the decoded code units, so the document is never copied as a
+ * whole. Nesting is tracked with an explicit stack rather than by recursion.
+ */
+public final class TruffleJSONByteParser {
+
+    private static final int END = -1;
+    private static final int INITIAL_STACK_SIZE = 16;
+
+    private final JSContext context;
+    private final Source source;
+    private final StringBuilder buffer = new StringBuilder();
+
+    /** Current UTF-16 code unit, or {@link #END}. */
+    private int c;
+    /** Position of the current code unit in the input. */
+    private long pos = -1;
+
+    private DynamicObject[] containers = new DynamicObject[INITIAL_STACK_SIZE];
+    /** Pending member name for objects, element storage for arrays. */
+    private Object[] pending = new Object[INITIAL_STACK_SIZE];
+    private int[] indices = new int[INITIAL_STACK_SIZE];
+
+    public TruffleJSONByteParser(JSContext context, Source source) {
+        this.context = context;
+        this.source = source;
+    }
+
+    public Object parse() {
+        try {
+            advance();
+            skipWhitespace();
+            Object result = parseJSONValue();
+            if (c != END) {
+                throw unexpectedToken();
+            }
+            return result;
+        } catch (IOException ex) {
+            throw Errors.createError(ex.getMessage());
+        } finally {
+            containers = null;
+            pending = null;
+            indices = null;
+        }
+    }
+
+    private Object parseJSONValue() throws IOException {
+        int depth = 0;
+        for (;;) {
+            Object value;
+            switch (c) {
+                case '{': {
+                    advanceAndSkipWhitespace();
+                    DynamicObject object = JSUserObject.create(context);
+                    if (c == '}') {
+                        advanceAndSkipWhitespace();
+                        value = object;
+                        break;
+                    }
+                    depth = push(depth, object, parseMemberName());
+                    continue;
+                }
+                case '[': {
+                    advanceAndSkipWhitespace();
+                    DynamicObject array = JSArray.createEmptyZeroLength(context);
+                    if (c == ']') {
+                        advanceAndSkipWhitespace();
+                        value = array;
+                        break;
+                    }
+                    depth = push(depth, array, JSAbstractArray.arrayGetArrayType(array));
+                    continue;
+                }
+                case '"':
+                    value = parseJSONString();
+                    break;
+                case 't':
+                    readLiteral("true");
+                    value = true;
+                    break;
+                case 'f':
+                    readLiteral("false");
+                    value = false;
+                    break;
+                case 'n':
+                    readLiteral("null");
+                    value = Null.instance;
+                    break;
+                default:
+                    if (c == '-' || isAsciiDigit(c)) {
+                        value = parseJSONNumber();
+                        break;
+                    }
+                    throw unexpectedToken();
+            }
+
+            // store the value into the enclosing containers, closing them as long as possible
+            for (;;) {
+                if (depth == 0) {
+                    return value;
+                }
+                int top = depth - 1;
+                DynamicObject container = containers[top];
+                Object state = pending[top];
+                if (state instanceof ScriptArray) {
+                    ScriptArray scriptArray = ((ScriptArray) state).setElement(container, indices[top]++, value, false);
+                    if (c == ',') {
+                        advanceAndSkipWhitespace();
+                        pending[top] = scriptArray;
+                        break;
+                    } else if (c == ']') {
+                        advanceAndSkipWhitespace();
+                        JSAbstractArray.arraySetArrayType(container, scriptArray);
+                    } else {
+                        throw unexpectedToken();
+                    }
+                } else {
+                    JSRuntime.createDataProperty(container, (String) state, value);
+                    if (c == ',') {
+                        advanceAndSkipWhitespace();
+                        pending[top] = parseMemberName();
+                        break;
+                    } else if (c != '}') {
+                        throw unexpectedToken();
+                    }
+                    advanceAndSkipWhitespace();
+                }
+                containers[top] = null;
+                pending[top] = null;
+                depth = top;
+                value = container;
+            }
+        }
+    }
+
+    private int push(int depth, DynamicObject container, Object state) {
+        if (depth == containers.length) {
+            if (depth >= TruffleJSONParser.MAX_PARSE_DEPTH) {
+                TruffleJSONParser.throwStackError();
+            }
+            int newLength = Math.min(depth * 2, TruffleJSONParser.MAX_PARSE_DEPTH);
+            containers = Arrays.copyOf(containers, newLength);
+            pending = Arrays.copyOf(pending, newLength);
+            indices = Arrays.copyOf(indices, newLength);
+        }
+        containers[depth] = container;
+        pending[depth] = state;
+        indices[depth] = 0;
+        return depth + 1;
+    }
+
+    private String parseMemberName() throws IOException {
+        if (c != '"') {
+            throw unexpectedToken();
+        }
+        String name = parseJSONString();
+        if (c != ':') {
+            throw unexpectedToken();
+        }
+        advanceAndSkipWhitespace();
+        return name;
+    }
+
+    private String parseJSONString() throws IOException {
+        assert c == '"';
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        for (;;) {
+            advance();
+            if (c == '"') {
+                break;
+            } else if (c == '\\') {
+                advance();
+                sb.append(parseEscape());
+            } else if (c < ' ') {
+                throw unexpectedToken();
+            } else {
+                sb.append((char) c);
+            }
+        }
+        advanceAndSkipWhitespace();
+        return sb.toString();
+    }
+
+    private char parseEscape() throws IOException {
+        switch (c) {
+            case '"':
+                return '"';
+            case '\\':
+                return '\\';
+            case '/':
+                return '/';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    advance();
+                    int digit = c == END ? -1 : JSRuntime.valueInHex((char) c);
+                    if (digit < 0) {
+                        throw unexpectedToken();
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            }
+            default:
+                throw unexpectedToken();
+        }
+    }
+
+    private Number parseJSONNumber() throws IOException {
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        boolean negative = false;
+        if (c == '-') {
+            negative = true;
+            sb.append('-');
+            advance();
+        }
+        long integer = 0;
+        if (c == '0') {
+            sb.append('0');
+            advance();
+            if (isAsciiDigit(c)) {
+                throw unexpectedToken();
+            }
+        } else if (isAsciiDigit(c)) {
+            do {
+                integer = integer * 10 + (c - '0');
+                sb.append((char) c);
+                advance();
+            } while (isAsciiDigit(c));
+        } else {
+            throw unexpectedToken();
+        }
+        int integerDigits = sb.length() - (negative ? 1 : 0);
+        boolean integral = true;
+        if (c == '.') {
+            integral = false;
+            appendAndAdvance();
+            readDigits();
+        }
+        if (c == 'e' || c == 'E') {
+            integral = false;
+            appendAndAdvance();
+            if (c == '+' || c == '-') {
+                appendAndAdvance();
+            }
+            readDigits();
+        }
+        skipWhitespace();
+
+        if (integral && integerDigits < JSRuntime.MAX_SAFE_INTEGER_DIGITS) {
+            // at most 15 digits, always a safe integer
+            if (negative) {
+                if (integer == 0) {
+                    return -0.0;
+                }
+                integer = -integer;
+            }
+            if (JSRuntime.longIsRepresentableAsInt(integer)) {
+                return (int) integer;
+            } else {
+                return (double) integer;
+            }
+        }
+        return Double.parseDouble(sb.toString());
+    }
+
+    private void readDigits() throws IOException {
+        if (!isAsciiDigit(c)) {
+            throw unexpectedToken();
+        }
+        do {
+            appendAndAdvance();
+        } while (isAsciiDigit(c));
+    }
+
+    private void appendAndAdvance() throws IOException {
+        buffer.append((char) c);
+        advance();
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (c != literal.charAt(i)) {
+                throw unexpectedToken();
+            }
+            advance();
+        }
+        skipWhitespace();
+    }
+
+    private static boolean isAsciiDigit(int ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private void advance() throws IOException {
+        c = source.next();
+        pos++;
+    }
+
+    private void advanceAndSkipWhitespace() throws IOException {
+        advance();
+        skipWhitespace();
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            advance();
+        }
+    }
+
+    private RuntimeException unexpectedToken() {
+        String message;
+        if (c == END) {
+            message = context.isOptionV8CompatibilityMode() ? "Unexpected end of JSON input" : "Unexpected end of input";
+        } else {
+            message = "Unexpected token " + (char) c + " in JSON at position " + pos;
+        }
+        throw Errors.createSyntaxError(context.isOptionNashornCompatibilityMode() ? "Invalid JSON: " + message : message);
+    }
+
+    /**
+     * Input of {@link TruffleJSONByteParser}, delivering the document as a sequence of UTF-16 code
+     * units.
+     */
+    public abstract static class Source {
+
+        protected Source() {
+        }
+
+        /**
+         * Returns the next UTF-16 code unit of the input, or -1 if the end of the input has been
+         * reached.
+         */
+        protected abstract int next() throws IOException;
+
+        /**
+         * Creates a source decoding UTF-8 from the given range of a byte array. The array is not
+         * copied.
+         */
+        public static Source fromBytes(byte[] bytes, int offset, int length) {
+            return new ByteArraySource(bytes, offset, offset + length);
+        }
+
+        /**
+         * Creates a source decoding UTF-8 from the remaining bytes of the given buffer. The buffer
+         * is read in place and its position is not modified.
+         */
+        public static Source fromByteBuffer(ByteBuffer buffer) {
+            if (buffer.hasArray()) {
+                return new ByteArraySource(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.arrayOffset() + buffer.limit());
+            }
+            return new ByteBufferSource(buffer, buffer.position(), buffer.limit());
+        }
+
+        /**
+         * Creates a source decoding UTF-8 from the given stream in chunks.
+         */
+        public static Source fromInputStream(InputStream in) {
+            return new InputStreamSource(in);
+        }
+
+        /**
+         * Creates a source reading characters from the given reader in chunks.
+         */
+        public static Source fromReader(Reader reader) {
+            return new ReaderSource(reader);
+        }
+    }
+
+    private abstract static class UTF8Source extends Source {
+        private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+        private int pendingLowSurrogate = END;
+        private int pushedBack = END;
+
+        /**
+         * Returns the next byte as an unsigned value, or -1 at the end of the input.
+         */
+        protected abstract int nextByte() throws IOException;
+
+        private int readByte() throws IOException {
+            int b = pushedBack;
+            if (b != END) {
+                pushedBack = END;
+                return b;
+            }
+            return nextByte();
+        }
+
+        /**
+         * Reads a continuation byte and returns its payload, or -1 if the next byte is not a
+         * continuation byte (in which case it is kept for the next code point).
+         */
+        private int readContinuation() throws IOException {
+            int b = readByte();
+            if ((b & 0xC0) == 0x80) {
+                return b & 0x3F;
+            }
+            pushedBack = b;
+            return END;
+        }
+
+        @Override
+        protected final int next() throws IOException {
+            int low = pendingLowSurrogate;
+            if (low != END) {
+                pendingLowSurrogate = END;
+                return low;
+            }
+            int b0 = readByte();
+            if (b0 < 0x80) {
+                // ASCII, or end of input
+                return b0;
+            }
+            return decodeMultiByte(b0);
+        }
+
+        private int decodeMultiByte(int b0) throws IOException {
+            if (b0 < 0xC2) {
+                // unexpected continuation byte or overlong encoding
+                return REPLACEMENT_CHARACTER;
+            }
+            int b1 = readContinuation();
+            if (b1 < 0) {
+                return REPLACEMENT_CHARACTER;
+            }
+            if (b0 < 0xE0) {
+                return ((b0 & 0x1F) << 6) | b1;
+            }
+            int b2 = readContinuation();
+            if (b2 < 0) {
+                return REPLACEMENT_CHARACTER;
+            }
+            if (b0 < 0xF0) {
+                int ch = ((b0 & 0x0F) << 12) | (b1 << 6) | b2;
+                if (ch < 0x800 || Character.isSurrogate((char) ch)) {
+                    return REPLACEMENT_CHARACTER;
+                }
+                return ch;
+            }
+            int b3 = readContinuation();
+            if (b3 < 0 || b0 > 0xF4) {
+                return REPLACEMENT_CHARACTER;
+            }
+            int codePoint = ((b0 & 0x07) << 18) | (b1 << 12) | (b2 << 6) | b3;
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT || codePoint > Character.MAX_CODE_POINT) {
+                return REPLACEMENT_CHARACTER;
+            }
+            pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+    }
+
+    private static final class ByteArraySource extends UTF8Source {
+        private final byte[] bytes;
+        private final int end;
+        private int index;
+
+        ByteArraySource(byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        protected int nextByte() {
+            return index < end ? bytes[index++] & 0xFF : END;
+        }
+    }
+
+    private static final class ByteBufferSource extends UTF8Source {
+        private final ByteBuffer buffer;
+        private final int end;
+        private int index;
+
+        ByteBufferSource(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.index = start;
+            this.end = end;
+        }
+
+        @Override
+        protected int nextByte() {
+            return index < end ? buffer.get(index++) & 0xFF : END;
+        }
+    }
+
+    private static final class InputStreamSource extends UTF8Source {
+        private final InputStream in;
+        private final byte[] chunk = new byte[8192];
+        private int index;
+        private int end;
+
+        InputStreamSource(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        protected int nextByte() throws IOException {
+            if (index == end) {
+                int read = in.read(chunk);
+                if (read <= 0) {
+                    return END;
+                }
+                index = 0;
+                end = read;
+            }
+            return chunk[index++] & 0xFF;
+        }
+    }
+
+    private static final class ReaderSource extends Source {
+        private final Reader reader;
+        private final char[] chunk = new char[8192];
+        private int index;
+        private int end;
+
+        ReaderSource(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        protected int next() throws IOException {
+            if (index == end) {
+                int read = reader.read(chunk);
+                if (read <= 0) {
+                    return END;
+                }
+                index = 0;
+                end = read;
+            }
+            return chunk[index++];
+        }
+    }
+}
@@ -40,16 +40,23 @@
  */
 package com.oracle.truffle.js.builtins.helper;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSException;
 import com.oracle.truffle.js.runtime.JSRuntime;
-import com.oracle.truffle.js.runtime.array.ScriptArray;
-import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.Null;
 
 public class TruffleJSONParser {
@@ -66,6 +73,10 @@ public class TruffleJSONParser {
     protected static final int MAX_PARSE_DEPTH = 100000;
 
     private static final String MALFORMED_NUMBER = "malformed number";
+    private static final int INITIAL_ELEMENTS_CAPACITY = 8;
+
+    /** Layout templates of the objects parsed so far, by shape. */
+    private Map<Shape, ObjectTemplate> templates;
 
     public TruffleJSONParser(JSContext context) {
         this.context = context;
@@ -94,6 +105,7 @@ public class TruffleJSONParser {
             throwSyntaxError(null);
         } finally {
             parseStr = null;
+            templates = null;
         }
         return null;
     }
@@ -107,6 +119,14 @@ public class TruffleJSONParser {
     }
 
     protected Object parseJSONValue() {
+        return parseJSONValue(null);
+    }
+
+    /**
+     * Parses a JSON value. {@code previous} is the value at the same position in the previous
+     * sibling object (if any), used to predict the layout of objects.
+     */
+    private Object parseJSONValue(Object previous) {
         char c = get();
         if (c == 'n' && isNullLiteral()) {
             return parseNullLiteral();
@@ -119,7 +139,7 @@ public class TruffleJSONParser {
         } else if (isArray(c)) {
             return parseJSONArray();
         } else if (isObject(c)) {
-            return parseJSONObject();
+            return parseJSONObject(previous);
         }
         return error("cannot parse JSONValue");
     }
@@ -140,49 +160,123 @@ public class TruffleJSONParser {
         return c == '[';
     }
 
-    private Object parseJSONObject() {
+    private Object parseJSONObject(Object previous) {
         assert isObject(get());
         incDepth();
         read(); // parseJSONValue ensures this char is a "{"
-        DynamicObject object = JSUserObject.create(context);
+        DynamicObject object;
         if (get() != '}') {
-            parseJSONMemberList(object);
+            object = parseJSONMemberList(previous);
             if (get() != '}') {
                 error("closing quote } expected");
             }
+        } else {
+            object = JSUserObject.create(context);
         }
         read('}');
         decDepth();
         return object;
     }
 
-    private void parseJSONMemberList(DynamicObject object) {
-        Member member = parseJSONMember();
-        JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
-        while (get() == ',') {
+    /**
+     * Parses the members of an object. As long as the member names match the ones of the previous
+     * sibling object, the values are only collected and the object is finally allocated directly
+     * in the shape of the sibling, avoiding the shape transitions of the individual members.
+     */
+    private DynamicObject parseJSONMemberList(Object previous) {
+        ObjectTemplate template = getTemplate(previous);
+        Object[] values = null;
+        int matched = 0;
+        DynamicObject object = null;
+        for (;;) {
+            if (object == null && template != null && matched < template.keys.length && readMemberName(template, matched)) {
+                if (values == null) {
+                    values = new Object[template.keys.length];
+                }
+                values[matched] = parseJSONValue(template.getValue((DynamicObject) previous, matched));
+                matched++;
+            } else {
+                if (object == null) {
+                    object = createObject(template, values, matched);
+                }
+                Member member = parseJSONMember();
+                JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
+            }
+            if (get() != ',') {
+                break;
+            }
             read();
-            member = parseJSONMember();
-            JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
         }
+        if (object == null) {
+            if (matched == template.keys.length) {
+                object = template.instantiate(context, values);
+            }
+            if (object == null) {
+                object = createObject(template, values, matched);
+            }
+        }
+        return object;
+    }
+
+    private DynamicObject createObject(ObjectTemplate template, Object[] values, int count) {
+        DynamicObject object = JSUserObject.create(context);
+        for (int i = 0; i < count; i++) {
+            JSRuntime.createDataProperty(object, template.keys[i], values[i]);
+        }
+        return object;
     }
 
-    private Member parseJSONMember() {
-        String jsonString = parseJSONString();
-        read(':');
-        Object jsonValue = parseJSONValue();
-        return new Member(jsonString, jsonValue);
+    /**
+     * Reads the member name and the following colon if the name is the expected one of the
+     * template. Only names without escapes are matched, directly against the input.
+     */
+    private boolean readMemberName(ObjectTemplate template, int index) {
+        if (!template.verbatim[index]) {
+            return false;
+        }
+        String key = template.keys[index];
+        int keyLength = key.length();
+        int end = pos + 1 + keyLength;
+        if (end < len && get() == '"' && parseStr.regionMatches(pos + 1, key, 0, keyLength) && get(end) == '"') {
+            pos = end + 1; // don't skip whitespace here
+            skipWhitespace();
+            read(':');
+            return true;
+        }
+        return false;
+    }
+
+    private ObjectTemplate getTemplate(Object previous) {
+        if (previous == null || !JSUserObject.isJSUserObject(previous)) {
+            return null;
+        }
+        Shape shape = ((DynamicObject) previous).getShape();
+        if (!shape.isValid()) {
+            return null;
+        }
+        if (templates == null) {
+            templates = new HashMap<>();
+        }
+        ObjectTemplate template = templates.get(shape);
+        if (template == null) {
+            template = ObjectTemplate.create(shape);
+            templates.put(shape, template);
+        }
+        return template.keys.length == 0 ? null : template;
     }
 
     private Object parseJSONArray() {
         assert isArray(get());
         incDepth();
         read(); // parseJSONValue ensures this is a "["
-        DynamicObject array = JSArray.createEmptyZeroLength(context);
+        DynamicObject array;
         if (get() != ']') {
-            parseJSONElementList(array);
+            array = parseJSONElementList();
             if (get() != ']') {
                 error("closing quote ] expected");
             }
+        } else {
+            array = JSArray.createEmptyZeroLength(context);
         }
         read(']');
         decDepth();
@@ -208,17 +302,62 @@ public class TruffleJSONParser {
         this.parseDepth--;
     }
 
-    protected ScriptArray parseJSONElementList(DynamicObject arrayObject) {
-        int index = 0;
-        ScriptArray scriptArray = JSAbstractArray.arrayGetArrayType(arrayObject);
-        scriptArray = scriptArray.setElement(arrayObject, index, parseJSONValue(), false);
-        while (get() == ',') {
+    /**
+     * Parses the elements of an array into a buffer and allocates the array with the most specific
+     * contiguous storage (int, double, object or generic) at once. Object elements are parsed with
+     * the previous object element as layout template.
+     */
+    protected DynamicObject parseJSONElementList() {
+        Object[] elements = new Object[INITIAL_ELEMENTS_CAPACITY];
+        int count = 0;
+        boolean allInt = true;
+        boolean allNumber = true;
+        boolean allObject = true;
+        Object previous = null;
+        for (;;) {
+            Object value = parseJSONValue(previous);
+            if (value instanceof Integer) {
+                allObject = false;
+            } else if (value instanceof Double) {
+                allInt = false;
+                allObject = false;
+            } else {
+                allInt = false;
+                allNumber = false;
+                if (JSObject.isDynamicObject(value)) {
+                    previous = value;
+                } else {
+                    allObject = false;
+                }
+            }
+            if (count == elements.length) {
+                elements = Arrays.copyOf(elements, count * 2);
+            }
+            elements[count++] = value;
+            if (get() != ',') {
+                break;
+            }
             read();
-            index++;
-            scriptArray = scriptArray.setElement(arrayObject, index, parseJSONValue(), false);
         }
-        JSAbstractArray.arraySetArrayType(arrayObject, scriptArray);
-        return scriptArray;
+        if (allInt) {
+            int[] intArray = new int[count];
+            for (int i = 0; i < count; i++) {
+                intArray[i] = (int) elements[i];
+            }
+            return JSArray.createZeroBasedIntArray(context, intArray);
+        } else if (allNumber) {
+            double[] doubleArray = new double[count];
+            for (int i = 0; i < count; i++) {
+                doubleArray[i] = ((Number) elements[i]).doubleValue();
+            }
+            return JSArray.createZeroBasedDoubleArray(context, doubleArray);
+        } else if (allObject) {
+            DynamicObject[] objectArray = new DynamicObject[count];
+            System.arraycopy(elements, 0, objectArray, 0, count);
+            return JSArray.createZeroBasedJSObjectArray(context, objectArray);
+        } else {
+            return JSArray.createZeroBasedObjectArray(context, count == elements.length ? elements : Arrays.copyOf(elements, count));
+        }
     }
 
     protected String parseJSONString() {
@@ -566,4 +705,89 @@ public class TruffleJSONParser {
             return value;
         }
     }
+
+    /**
+     * Layout of a previously parsed object: its member names in insertion order and the
+     * corresponding properties of its shape.
+     */
+    private static final class ObjectTemplate {
+        private final Shape rootShape;
+        private final Shape shape;
+        private final String[] keys;
+        private final Property[] properties;
+        /** Whether the member name appears verbatim (without escapes) in JSON text. */
+        private final boolean[] verbatim;
+
+        private ObjectTemplate(Shape rootShape, Shape shape, String[] keys, Property[] properties) {
+            this.rootShape = rootShape;
+            this.shape = shape;
+            this.keys = keys;
+            this.properties = properties;
+            this.verbatim = new boolean[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                verbatim[i] = isVerbatim(keys[i]);
+            }
+        }
+
+        static ObjectTemplate create(Shape shape) {
+            List<Property> propertyList = shape.getPropertyList();
+            int size = propertyList.size();
+            String[] keys = new String[size];
+            Property[] properties = new Property[size];
+            Shape rootShape = shape;
+            for (int i = 0; i < size; i++) {
+                Property property = propertyList.get(i);
+                if (!(property.getKey() instanceof String) || !JSProperty.isData(property) || JSProperty.isProxy(property) || !JSProperty.isWritable(property) ||
+                                !JSProperty.isEnumerable(property) || !JSProperty.isConfigurable(property) || rootShape == null) {
+                    return new ObjectTemplate(null, shape, new String[0], new Property[0]);
+                }
+                keys[i] = (String) property.getKey();
+                properties[i] = property;
+                rootShape = rootShape.getParent();
+            }
+            return new ObjectTemplate(rootShape, shape, keys, properties);
+        }
+
+        private static boolean isVerbatim(String key) {
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                if (c < ' ' || c == '"' || c == '\\') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Object getValue(DynamicObject object, int index) {
+            return properties[index].get(object, shape);
+        }
+
+        /**
+         * Allocates an object in the final shape of the template and stores the values into the
+         * property locations, or returns {@code null} if this is not possible.
+         */
+        DynamicObject instantiate(JSContext context, Object[] values) {
+            if (!shape.isValid()) {
+                return null;
+            }
+            for (int i = 0; i < properties.length; i++) {
+                if (!properties[i].getLocation().canStore(values[i])) {
+                    return null;
+                }
+            }
+            DynamicObject object = JSUserObject.create(context);
+            if (object.getShape() != rootShape) {
+                // cannot reuse the layout, define the members one by one
+                for (int i = 0; i < keys.length; i++) {
+                    JSRuntime.createDataProperty(object, keys[i], values[i]);
+                }
+                return object;
+            }
+            object.setShapeAndGrow(rootShape, shape);
+            for (int i = 0; i < properties.length; i++) {
+                properties[i].setSafe(object, values[i], shape);
+            }
+            return object;
+        }
+    }
 }
@@ -446,6 +446,12 @@ public final class JavaScriptLanguage extends AbstractJavaScriptLanguage {
         }
     }
 
+    @Override
+    protected void finalizeContext(JSRealm realm) {
+        // polyglot threads have to complete before the context is disposed
+        realm.disposeModuleLoader();
+    }
+
     @Override
     protected void disposeContext(JSRealm realm) {
         CompilerAsserts.neverPartOfCompilation();
@@ -454,6 +460,10 @@ public final class JavaScriptLanguage extends AbstractJavaScriptLanguage {
         if (options.isProfileTime() && options.isProfileTimePrintCumulative()) {
             context.getTimeProfiler().printCumulative();
         }
+        if (realm.getParent() == null) {
+            // child realms share the agent of their parent
+            realm.getAgent().dispose();
+        }
         realm.setGlobalObject(Undefined.instance);
     }
 
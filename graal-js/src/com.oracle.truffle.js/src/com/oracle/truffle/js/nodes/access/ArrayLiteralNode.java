@@ -47,6 +47,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.GenerateWrapper;
 import com.oracle.truffle.api.instrumentation.ProbeNode;
 import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeCost;
@@ -54,13 +55,16 @@ import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.nodes.JavaScriptNode;
 import com.oracle.truffle.js.nodes.control.EmptyNode;
 import com.oracle.truffle.js.nodes.instrumentation.JSTags;
 import com.oracle.truffle.js.nodes.instrumentation.JSTags.LiteralTag;
+import com.oracle.truffle.js.nodes.interop.ForeignArrayElementsNode;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.dyn.AbstractConstantArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantByteArray;
@@ -591,11 +595,16 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
     }
 
     public static final class SpreadArrayNode extends JavaScriptNode {
+        @Child private JavaScriptNode argNode;
         @Child private GetIteratorNode getIteratorNode;
         @Child private IteratorGetNextValueNode iteratorStepNode;
+        @Child private InteropLibrary foreignInterop;
+        @Child private ForeignArrayElementsNode foreignArrayElementsNode;
+        private final ConditionProfile isForeignArray = ConditionProfile.createBinaryProfile();
 
         private SpreadArrayNode(JSContext context, JavaScriptNode arg) {
-            this.getIteratorNode = GetIteratorNode.create(context, arg);
+            this.argNode = arg;
+            this.getIteratorNode = GetIteratorNode.create(context);
             this.iteratorStepNode = IteratorGetNextValueNode.create(context, null, JSConstantNode.create(null), false);
         }
 
@@ -604,7 +613,14 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
         }
 
         public int executeToList(VirtualFrame frame, SimpleArrayList<Object> toList, BranchProfile growProfile) {
-            IteratorRecord iteratorRecord = getIteratorNode.execute(frame);
+            Object iterable = argNode.execute(frame);
+            if (isForeignArray.profile(isForeignArray(iterable))) {
+                // foreign arrays are iterated by index without calling back into user code
+                Object[] elements = getForeignArrayElementsNode().executeObjectArray(iterable);
+                toList.addAll(elements, growProfile);
+                return elements.length;
+            }
+            IteratorRecord iteratorRecord = getIteratorNode.execute(iterable);
             int count = 0;
             for (;;) {
                 Object nextArg = iteratorStepNode.execute(frame, iteratorRecord);
@@ -617,6 +633,25 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
             return count;
         }
 
+        private boolean isForeignArray(Object value) {
+            if (!JSRuntime.isForeignObject(value)) {
+                return false;
+            }
+            if (foreignInterop == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                foreignInterop = insert(InteropLibrary.getFactory().createDispatched(3));
+            }
+            return foreignInterop.hasArrayElements(value);
+        }
+
+        private ForeignArrayElementsNode getForeignArrayElementsNode() {
+            if (foreignArrayElementsNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                foreignArrayElementsNode = insert(ForeignArrayElementsNode.create());
+            }
+            return foreignArrayElementsNode;
+        }
+
         @Override
         public Object execute(VirtualFrame frame) {
             throw Errors.shouldNotReachHere("Cannot execute SpreadArrayNode");
@@ -625,8 +660,11 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
         @Override
         protected JavaScriptNode copyUninitialized(Set<Class<? extends Tag>> materializedTags) {
             SpreadArrayNode copy = (SpreadArrayNode) copy();
+            copy.argNode = cloneUninitialized(argNode, materializedTags);
             copy.getIteratorNode = cloneUninitialized(getIteratorNode, materializedTags);
             copy.iteratorStepNode = cloneUninitialized(iteratorStepNode, materializedTags);
+            copy.foreignInterop = null;
+            copy.foreignArrayElementsNode = null;
             return copy;
         }
     }
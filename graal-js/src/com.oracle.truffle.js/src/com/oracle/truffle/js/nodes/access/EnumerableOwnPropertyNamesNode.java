@@ -55,6 +55,7 @@ import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSClass;
+import com.oracle.truffle.js.runtime.builtins.JSDictionaryObject;
 import com.oracle.truffle.js.runtime.builtins.JSProxy;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
@@ -72,6 +73,7 @@ public abstract class EnumerableOwnPropertyNamesNode extends JavaScriptBaseNode
     private final JSContext context;
     @Child private JSGetOwnPropertyNode getOwnPropertyNode;
     private final ConditionProfile hasFastShapesProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile dictionaryObjectProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile growProfile = BranchProfile.create();
 
     protected EnumerableOwnPropertyNamesNode(JSContext context, boolean keys, boolean values) {
@@ -102,6 +104,8 @@ public abstract class EnumerableOwnPropertyNamesNode extends JavaScriptBaseNode
         JSClass jsclass = jsclassProfile.getJSClass(thisObj);
         if (hasFastShapesProfile.profile(keys && !values && JSConfig.FastOwnKeys && jsclass.hasOnlyShapeProperties(thisObj))) {
             return JSShape.getEnumerablePropertyNames(thisObj.getShape());
+        } else if (dictionaryObjectProfile.profile(keys && !values && JSConfig.DictionaryObject && JSDictionaryObject.isJSDictionaryObject(thisObj))) {
+            return JSDictionaryObject.enumerableOwnPropertyNames(thisObj);
         } else {
             boolean isProxy = JSProxy.isProxy(thisObj);
             List<Object> ownKeys = jsclass.ownPropertyKeys(thisObj);
@@ -199,6 +199,18 @@ public abstract class ForEachIndexCallNode extends JavaScriptBaseNode {
         return readElementNode.executeArrayGet(target, JSObject.getArray(target, arrayCondition), index, target, Undefined.instance, arrayCondition, context);
     }
 
+    /**
+     * [[HasProperty]] for an index, asking a foreign array directly instead of going through the
+     * generic foreign object checks of {@link JSHasPropertyNode}.
+     */
+    protected final boolean hasElement(Object target, long index, boolean isForeign) {
+        if (isForeign) {
+            return getInterop().isArrayElementReadable(target, index);
+        } else {
+            return hasProperty(target, index);
+        }
+    }
+
     protected final boolean hasProperty(Object target, long index) {
         if (hasPropertyNode == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -248,7 +260,7 @@ public abstract class ForEachIndexCallNode extends JavaScriptBaseNode {
                 }
             }
             for (long index = fromIndex; index < length; index++) {
-                if (hasProperty(target, index)) {
+                if (hasElement(target, index, isForeign)) {
                     Object value = getElement(target, index, isForeign);
                     Object callbackResult = callback(index, value, target, callback, callbackThisArg, currentResult);
                     MaybeResult<Object> maybeResult = maybeResultNode.apply(index, value, callbackResult, currentResult);
@@ -313,7 +325,7 @@ public abstract class ForEachIndexCallNode extends JavaScriptBaseNode {
             }
 
             for (long index = fromIndex; index >= 0; index--) {
-                if (hasProperty(target, index)) {
+                if (hasElement(target, index, isForeign)) {
                     Object value = getElement(target, index, isForeign);
                     Object callbackResult = callback(index, value, target, callback, callbackThisArg, currentResult);
                     MaybeResult<Object> maybeResult = maybeResultNode.apply(index, value, callbackResult, currentResult);
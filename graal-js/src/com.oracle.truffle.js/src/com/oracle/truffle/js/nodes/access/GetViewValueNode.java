@@ -46,6 +46,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.js.nodes.JavaScriptNode;
 import com.oracle.truffle.js.nodes.cast.JSToBooleanNode;
@@ -95,7 +96,8 @@ public abstract class GetViewValueNode extends JavaScriptNode {
     protected final Object doGet(Object view, Object requestIndex, Object littleEndian,
                     @Cached("create()") JSToIndexNode toIndexNode,
                     @Cached("create()") BranchProfile errorBranch,
-                    @Cached("createClassProfile()") ValueProfile typeProfile) {
+                    @Cached("createIdentityProfile()") ValueProfile typeProfile,
+                    @Cached("createBinaryProfile()") ConditionProfile readOnlyProfile) {
         if (!JSDataView.isJSDataView(view)) {
             errorBranch.enter();
             throw Errors.createTypeErrorNotADataView();
@@ -122,7 +124,9 @@ public abstract class GetViewValueNode extends JavaScriptNode {
 
         assert getIndex + viewOffset <= Integer.MAX_VALUE;
         int bufferIndex = (int) (getIndex + viewOffset);
-        TypedArray strategy = typeProfile.profile(factory.createArrayType(JSArrayBuffer.isJSDirectOrSharedArrayBuffer(buffer), true));
+        boolean direct = JSArrayBuffer.isJSDirectOrSharedArrayBuffer(buffer);
+        boolean readOnly = direct && readOnlyProfile.profile(JSArrayBuffer.isReadOnlyDirectArrayBuffer(buffer));
+        TypedArray strategy = typeProfile.profile(factory.createArrayType(direct, true, readOnly));
         return strategy.getBufferElement(buffer, bufferIndex, isLittleEndian, JSDataView.isJSDataView(view));
     }
 
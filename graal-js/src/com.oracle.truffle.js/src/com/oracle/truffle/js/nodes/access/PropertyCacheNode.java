@@ -1121,6 +1121,14 @@ public abstract class PropertyCacheNode<T extends PropertyCacheNode.CacheNode<T>
 
     protected abstract T createTruffleObjectPropertyNode();
 
+    /**
+     * Creates a node for own properties of a dictionary object, or returns {@code null} if this
+     * kind of access should use the generic case.
+     */
+    protected T createDictionaryObjectPropertyNode(@SuppressWarnings("unused") DynamicObject store) {
+        return null;
+    }
+
     @TruffleBoundary
     protected T specialize(Object thisObj) {
         return specialize(thisObj, null);
@@ -1215,8 +1223,13 @@ public abstract class PropertyCacheNode<T extends PropertyCacheNode.CacheNode<T>
             Shape cacheShape = store.getShape();
 
             if (JSConfig.DictionaryObject && JSDictionaryObject.isJSDictionaryObject(store)) {
-                // TODO: could probably specialize on shape as well.
-                return rewriteToGeneric(currentHead, "dictionary object");
+                if (depth == 0 && JSRuntime.isPropertyKey(key)) {
+                    specialized = createDictionaryObjectPropertyNode(store);
+                }
+                if (specialized == null) {
+                    return rewriteToGeneric(currentHead, "dictionary object");
+                }
+                break;
             }
 
             if (JSConfig.MergeShapes && cachedCount > 0) {
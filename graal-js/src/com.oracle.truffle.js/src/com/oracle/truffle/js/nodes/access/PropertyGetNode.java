@@ -96,6 +96,7 @@ import com.oracle.truffle.js.runtime.builtins.JSAdapter;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSClass;
+import com.oracle.truffle.js.runtime.builtins.JSDictionaryObject;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
 import com.oracle.truffle.js.runtime.builtins.JSModuleNamespace;
@@ -110,8 +111,10 @@ import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Null;
+import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
+import com.oracle.truffle.js.runtime.util.JSHashMap;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
 import com.oracle.truffle.js.runtime.util.TRegexUtil.TRegexMaterializeResultNode;
 import com.oracle.truffle.js.runtime.util.TRegexUtil.TRegexResultAccessor;
@@ -1037,6 +1040,51 @@ public class PropertyGetNode extends PropertyCacheNode<PropertyGetNode.GetCacheN
 
     }
 
+    /**
+     * Own property of a dictionary object. Remembers where the key was found in the hash table,
+     * so that repeated lookups of the same key in the same object do not need to hash it again.
+     */
+    public static final class DictionaryObjectPropertyGetNode extends LinkedPropertyGetNode {
+        private final Property hashMapProperty;
+        private int cachedIndex = -1;
+        private Object cachedKey;
+        @Child private GenericPropertyGetNode genericGetNode;
+        private final BranchProfile lookupBranch = BranchProfile.create();
+        private final BranchProfile genericBranch = BranchProfile.create();
+
+        public DictionaryObjectPropertyGetNode(Property hashMapProperty, ReceiverCheckNode receiverCheck) {
+            super(receiverCheck);
+            this.hashMapProperty = hashMapProperty;
+        }
+
+        @Override
+        protected Object getValue(Object thisObj, Object receiver, Object defaultValue, PropertyGetNode root, boolean guard) {
+            JSHashMap hashMap = (JSHashMap) hashMapProperty.get(receiverCheck.getStore(thisObj), guard);
+            int index = cachedIndex;
+            if (!hashMap.isKeyAt(index, cachedKey)) {
+                lookupBranch.enter();
+                index = hashMap.indexOf(root.getKey());
+                if (index >= 0) {
+                    cachedIndex = index;
+                    cachedKey = hashMap.getKeyAt(index);
+                }
+            }
+            if (index >= 0) {
+                Object entry = hashMap.getValueAt(index);
+                if (!(entry instanceof PropertyDescriptor)) {
+                    return entry;
+                }
+            }
+            // accessor, or a property of the shape or the prototype chain
+            genericBranch.enter();
+            if (genericGetNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                genericGetNode = insert(new GenericPropertyGetNode());
+            }
+            return genericGetNode.getValue(thisObj, receiver, defaultValue, root, guard);
+        }
+    }
+
     @NodeInfo(cost = NodeCost.MEGAMORPHIC)
     public static class GenericPropertyGetNode extends GetCacheNode {
         @Child private JSToObjectNode toObjectNode;
@@ -1753,6 +1801,15 @@ public class PropertyGetNode extends PropertyCacheNode<PropertyGetNode.GetCacheN
         }
     }
 
+    @Override
+    protected GetCacheNode createDictionaryObjectPropertyNode(DynamicObject store) {
+        if (isGlobal()) {
+            return null;
+        }
+        Shape cacheShape = store.getShape();
+        return new DictionaryObjectPropertyGetNode(JSDictionaryObject.getHashMapProperty(cacheShape), createShapeCheckNode(cacheShape, store, 0, false, false));
+    }
+
     /**
      * Make a generic-case node, for when polymorphism becomes too high.
      */
@@ -82,6 +82,7 @@ import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.builtins.JSAdapter;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSDictionaryObject;
 import com.oracle.truffle.js.runtime.builtins.JSGlobalObject;
 import com.oracle.truffle.js.runtime.builtins.JSProxy;
 import com.oracle.truffle.js.runtime.objects.Accessor;
@@ -95,6 +96,7 @@ import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
 import com.oracle.truffle.js.runtime.objects.PropertyProxy;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
+import com.oracle.truffle.js.runtime.util.JSHashMap;
 
 /**
  * @see WritePropertyNode
@@ -982,6 +984,54 @@ public class PropertySetNode extends PropertyCacheNode<PropertySetNode.SetCacheN
         }
     }
 
+    /**
+     * Own writable data property of a dictionary object. Like the corresponding get node, it
+     * remembers where the key was found in the hash table.
+     */
+    public static final class DictionaryObjectPropertySetNode extends LinkedPropertySetNode {
+        private final Property hashMapProperty;
+        private final JSContext context;
+        private int cachedIndex = -1;
+        private Object cachedKey;
+        @Child private GenericPropertySetNode genericSetNode;
+        private final BranchProfile lookupBranch = BranchProfile.create();
+        private final BranchProfile genericBranch = BranchProfile.create();
+
+        public DictionaryObjectPropertySetNode(Property hashMapProperty, ReceiverCheckNode receiverCheck, JSContext context) {
+            super(receiverCheck);
+            this.hashMapProperty = hashMapProperty;
+            this.context = context;
+        }
+
+        @Override
+        protected boolean setValue(Object thisObj, Object value, Object receiver, PropertySetNode root, boolean guard) {
+            DynamicObject store = receiverCheck.getStore(thisObj);
+            if (store == receiver) {
+                JSHashMap hashMap = (JSHashMap) hashMapProperty.get(store, guard);
+                int index = cachedIndex;
+                if (!hashMap.isKeyAt(index, cachedKey)) {
+                    lookupBranch.enter();
+                    index = hashMap.indexOf(root.getKey());
+                    if (index >= 0) {
+                        cachedIndex = index;
+                        cachedKey = hashMap.getKeyAt(index);
+                    }
+                }
+                if (index >= 0 && !(hashMap.getValueAt(index) instanceof PropertyDescriptor)) {
+                    hashMap.setValueAt(index, value);
+                    return true;
+                }
+            }
+            // new property, accessor, read-only property, or a different receiver
+            genericBranch.enter();
+            if (genericSetNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                genericSetNode = insert(new GenericPropertySetNode(context));
+            }
+            return genericSetNode.setValue(thisObj, value, receiver, root, guard);
+        }
+    }
+
     @NodeInfo(cost = NodeCost.MEGAMORPHIC)
     public static final class GenericPropertySetNode extends SetCacheNode {
         @Child private JSToObjectNode toObjectNode;
@@ -1368,6 +1418,15 @@ public class PropertySetNode extends PropertyCacheNode<PropertySetNode.SetCacheN
         return null;
     }
 
+    @Override
+    protected SetCacheNode createDictionaryObjectPropertyNode(DynamicObject store) {
+        if (isGlobal() || isOwnProperty() || superProperty) {
+            return null;
+        }
+        Shape cacheShape = store.getShape();
+        return new DictionaryObjectPropertySetNode(JSDictionaryObject.getHashMapProperty(cacheShape), createShapeCheckNode(cacheShape, store, 0, false, false), context);
+    }
+
     @Override
     protected SetCacheNode createGenericPropertyNode() {
         return new GenericPropertySetNode(context);
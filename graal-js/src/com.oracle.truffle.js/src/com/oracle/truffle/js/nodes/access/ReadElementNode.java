@@ -1514,6 +1514,7 @@ public class ReadElementNode extends JSTargetableNode implements ReadNode {
         @Child private ForeignObjectPrototypeNode foreignObjectPrototypeNode;
         @Child private ReadElementNode readFromPrototypeNode;
         @Child private JSToStringNode toStringNode;
+        private final ConditionProfile arrayProfile = ConditionProfile.createBinaryProfile();
 
         TruffleObjectReadElementTypeCacheNode(Class<?> targetClass, ReadElementTypeCacheNode next) {
             super(next);
@@ -1630,6 +1631,15 @@ public class ReadElementNode extends JSTargetableNode implements ReadNode {
 
         @Override
         protected Object executeWithTargetAndIndexUnchecked(Object target, int index, Object receiver, Object defaultValue, ReadElementNode root) {
+            Object truffleObject = targetClass.cast(target);
+            if (arrayProfile.profile(interop.hasArrayElements(truffleObject))) {
+                // integer index into a foreign array: no need to export and convert the key
+                try {
+                    return toJSType(interop.readArrayElement(truffleObject, index));
+                } catch (InvalidArrayIndexException | UnsupportedMessageException e) {
+                    return Undefined.instance;
+                }
+            }
             return executeWithTargetAndIndexUnchecked(target, (Object) index, receiver, defaultValue, root);
         }
 
@@ -40,12 +40,15 @@
  */
 package com.oracle.truffle.js.nodes.access;
 
+import java.nio.ReadOnlyBufferException;
+
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Executed;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.js.nodes.JavaScriptNode;
 import com.oracle.truffle.js.nodes.cast.JSToBigIntNode;
@@ -99,7 +102,8 @@ public abstract class SetViewValueNode extends JavaScriptNode {
     protected final Object doSet(Object view, Object requestIndex, Object littleEndian, Object value,
                     @Cached("create()") JSToIndexNode toIndexNode,
                     @Cached("create()") BranchProfile errorBranch,
-                    @Cached("createClassProfile()") ValueProfile typeProfile) {
+                    @Cached("createIdentityProfile()") ValueProfile typeProfile,
+                    @Cached("createBinaryProfile()") ConditionProfile readOnlyProfile) {
         if (!JSDataView.isJSDataView(view)) {
             errorBranch.enter();
             throw Errors.createTypeErrorNotADataView();
@@ -127,8 +131,15 @@ public abstract class SetViewValueNode extends JavaScriptNode {
 
         assert getIndex + viewOffset <= Integer.MAX_VALUE;
         int bufferIndex = (int) (getIndex + viewOffset);
-        TypedArray strategy = typeProfile.profile(factory.createArrayType(JSArrayBuffer.isJSDirectOrSharedArrayBuffer(buffer), true));
-        strategy.setBufferElement(buffer, bufferIndex, isLittleEndian, JSDataView.isJSDataView(view), numberValue);
+        boolean direct = JSArrayBuffer.isJSDirectOrSharedArrayBuffer(buffer);
+        boolean readOnly = direct && readOnlyProfile.profile(JSArrayBuffer.isReadOnlyDirectArrayBuffer(buffer));
+        TypedArray strategy = typeProfile.profile(factory.createArrayType(direct, true, readOnly));
+        try {
+            strategy.setBufferElement(buffer, bufferIndex, isLittleEndian, JSDataView.isJSDataView(view), numberValue);
+        } catch (ReadOnlyBufferException e) {
+            errorBranch.enter();
+            throw Errors.createTypeErrorReadOnlyBuffer();
+        }
         return Undefined.instance;
     }
 
@@ -40,30 +40,40 @@
  */
 package com.oracle.truffle.js.nodes.function;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.nodes.JavaScriptNode;
 import com.oracle.truffle.js.nodes.access.GetIteratorNode;
 import com.oracle.truffle.js.nodes.access.IteratorGetNextValueNode;
 import com.oracle.truffle.js.nodes.access.JSConstantNode;
+import com.oracle.truffle.js.nodes.interop.ForeignArrayElementsNode;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.objects.IteratorRecord;
 import com.oracle.truffle.js.runtime.util.SimpleArrayList;
 
 import java.util.Set;
 
 public final class SpreadArgumentNode extends JavaScriptNode {
+    @Child private JavaScriptNode argNode;
     @Child private GetIteratorNode getIteratorNode;
     @Child private IteratorGetNextValueNode iteratorStepNode;
+    @Child private InteropLibrary foreignInterop;
+    @Child private ForeignArrayElementsNode foreignArrayElementsNode;
     private final BranchProfile errorBranch = BranchProfile.create();
     private final BranchProfile listGrowProfile = BranchProfile.create();
+    private final ConditionProfile isForeignArray = ConditionProfile.createBinaryProfile();
     private final JSContext context;
 
     private SpreadArgumentNode(JSContext context, JavaScriptNode arg) {
         this.context = context;
-        this.getIteratorNode = GetIteratorNode.create(context, arg);
+        this.argNode = arg;
+        this.getIteratorNode = GetIteratorNode.create(context);
         this.iteratorStepNode = IteratorGetNextValueNode.create(context, null, JSConstantNode.create(null), false);
     }
 
@@ -84,7 +94,18 @@ public final class SpreadArgumentNode extends JavaScriptNode {
     }
 
     public void executeToList(VirtualFrame frame, SimpleArrayList<Object> argList, BranchProfile growProfile) {
-        IteratorRecord iteratorRecord = getIteratorNode.execute(frame);
+        Object iterable = argNode.execute(frame);
+        if (isForeignArray.profile(isForeignArray(iterable))) {
+            // foreign arrays are iterated by index without calling back into user code
+            Object[] elements = getForeignArrayElementsNode().executeObjectArray(iterable);
+            if (argList.size() + (long) elements.length > context.getFunctionArgumentsLimit()) {
+                errorBranch.enter();
+                throw Errors.createRangeError("spreaded function argument count exceeds limit");
+            }
+            argList.addAll(elements, growProfile);
+            return;
+        }
+        IteratorRecord iteratorRecord = getIteratorNode.execute(iterable);
         for (;;) {
             Object nextArg = iteratorStepNode.execute(frame, iteratorRecord);
             if (nextArg == null) {
@@ -98,11 +119,33 @@ public final class SpreadArgumentNode extends JavaScriptNode {
         }
     }
 
+    private boolean isForeignArray(Object value) {
+        if (!JSRuntime.isForeignObject(value)) {
+            return false;
+        }
+        if (foreignInterop == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            foreignInterop = insert(InteropLibrary.getFactory().createDispatched(3));
+        }
+        return foreignInterop.hasArrayElements(value);
+    }
+
+    private ForeignArrayElementsNode getForeignArrayElementsNode() {
+        if (foreignArrayElementsNode == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            foreignArrayElementsNode = insert(ForeignArrayElementsNode.create());
+        }
+        return foreignArrayElementsNode;
+    }
+
     @Override
     protected JavaScriptNode copyUninitialized(Set<Class<? extends Tag>> materializedTags) {
         SpreadArgumentNode copy = (SpreadArgumentNode) copy();
+        copy.argNode = cloneUninitialized(argNode, materializedTags);
         copy.getIteratorNode = cloneUninitialized(getIteratorNode, materializedTags);
         copy.iteratorStepNode = cloneUninitialized(iteratorStepNode, materializedTags);
+        copy.foreignInterop = null;
+        copy.foreignArrayElementsNode = null;
         return copy;
     }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.nodes.interop;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.CachedContext;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.truffleinterop.JSInteropUtil;
+
+/**
+ * Reads all elements of a foreign array at once, importing them as JavaScript values. Host arrays
+ * of primitive numbers are copied in bulk instead of being read element by element.
+ *
+ * The result is an {@code int[]}, {@code double[]} or {@code Object[]} that is not shared with the
+ * foreign array. The caller has to ensure that the foreign object has array elements.
+ */
+public abstract class ForeignArrayElementsNode extends JavaScriptBaseNode {
+
+    public abstract Object execute(Object array);
+
+    public static ForeignArrayElementsNode create() {
+        return ForeignArrayElementsNodeGen.create();
+    }
+
+    /**
+     * Like {@link #execute(Object)}, but always returns boxed elements.
+     */
+    public final Object[] executeObjectArray(Object array) {
+        return toObjectArray(execute(array));
+    }
+
+    @Specialization(limit = "3")
+    protected Object doForeignArray(Object array,
+                    @CachedContext(JavaScriptLanguage.class) JSRealm realm,
+                    @CachedLibrary("array") InteropLibrary interop,
+                    @Cached("create()") JSForeignToJSTypeNode importValue,
+                    @Cached("createBinaryProfile()") ConditionProfile isHostObject) {
+        assert interop.hasArrayElements(array);
+        TruffleLanguage.Env env = realm.getEnv();
+        if (isHostObject.profile(env.isHostObject(array))) {
+            Object copy = copyPrimitiveArray(env.asHostObject(array));
+            if (copy != null) {
+                return copy;
+            }
+        }
+        long size = JSInteropUtil.getArraySize(array, interop, this);
+        if (size < 0 || size >= Integer.MAX_VALUE) {
+            throw Errors.createRangeErrorInvalidArrayLength();
+        }
+        Object[] elements = new Object[(int) size];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = JSInteropUtil.readArrayElementOrDefault(array, i, Undefined.instance, interop, importValue, this);
+        }
+        return elements;
+    }
+
+    /**
+     * Copies a Java array of primitive numbers, widening the elements like
+     * {@link JSForeignToJSTypeNode} would, or returns {@code null} for other objects.
+     */
+    @TruffleBoundary
+    private static Object copyPrimitiveArray(Object hostObject) {
+        if (hostObject instanceof int[]) {
+            return ((int[]) hostObject).clone();
+        } else if (hostObject instanceof double[]) {
+            return ((double[]) hostObject).clone();
+        } else if (hostObject instanceof byte[]) {
+            byte[] bytes = (byte[]) hostObject;
+            int[] copy = new int[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                copy[i] = bytes[i];
+            }
+            return copy;
+        } else if (hostObject instanceof short[]) {
+            short[] shorts = (short[]) hostObject;
+            int[] copy = new int[shorts.length];
+            for (int i = 0; i < shorts.length; i++) {
+                copy[i] = shorts[i];
+            }
+            return copy;
+        } else if (hostObject instanceof float[]) {
+            float[] floats = (float[]) hostObject;
+            double[] copy = new double[floats.length];
+            for (int i = 0; i < floats.length; i++) {
+                copy[i] = floats[i];
+            }
+            return copy;
+        }
+        return null;
+    }
+
+    @TruffleBoundary
+    private static Object[] toObjectArray(Object elements) {
+        if (elements instanceof int[]) {
+            int[] ints = (int[]) elements;
+            Object[] boxed = new Object[ints.length];
+            for (int i = 0; i < ints.length; i++) {
+                boxed[i] = ints[i];
+            }
+            return boxed;
+        } else if (elements instanceof double[]) {
+            double[] doubles = (double[]) elements;
+            Object[] boxed = new Object[doubles.length];
+            for (int i = 0; i < doubles.length; i++) {
+                boxed[i] = doubles[i];
+            }
+            return boxed;
+        }
+        return (Object[]) elements;
+    }
+}
@@ -71,6 +71,7 @@ import com.oracle.truffle.js.runtime.PromiseHook;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
 import com.oracle.truffle.js.runtime.objects.PromiseCapabilityRecord;
+import com.oracle.truffle.js.runtime.objects.PromiseReactionJobRecord;
 import com.oracle.truffle.js.runtime.objects.PromiseReactionRecord;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
@@ -95,13 +96,35 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
     }
 
     public DynamicObject execute(Object reaction, Object argument) {
-        JSFunctionData functionData = context.getOrCreateBuiltinFunctionData(JSContext.BuiltinFunctionKey.PromiseReactionJob, (c) -> createPromiseReactionJobImpl(c));
+        JSFunctionData functionData = getPromiseReactionJobFunctionData(context);
         DynamicObject function = JSFunction.create(context.getRealm(), functionData);
         setReaction.setValue(function, reaction);
         setArgument.setValue(function, argument);
         return function;
     }
 
+    /**
+     * Creates the job as a record for the promise job queue, without allocating a function object.
+     *
+     * @see #callJob(PromiseReactionJobRecord)
+     */
+    public PromiseReactionJobRecord executeRecord(PromiseReactionRecord reaction, Object argument) {
+        return PromiseReactionJobRecord.create(context.getRealm(), reaction, argument);
+    }
+
+    /**
+     * Runs a job created by {@link #executeRecord}. All jobs share the call target of the
+     * PromiseReactionJob function, which receives the reaction and the argument as arguments.
+     */
+    public static Object callJob(PromiseReactionJobRecord job) {
+        CallTarget callTarget = getPromiseReactionJobFunctionData(job.getRealm().getContext()).getCallTarget();
+        return callTarget.call(JSArguments.create(Undefined.instance, Undefined.instance, job.getReaction(), job.getArgument()));
+    }
+
+    private static JSFunctionData getPromiseReactionJobFunctionData(JSContext context) {
+        return context.getOrCreateBuiltinFunctionData(JSContext.BuiltinFunctionKey.PromiseReactionJob, (c) -> createPromiseReactionJobImpl(c));
+    }
+
     private static JSFunctionData createPromiseReactionJobImpl(JSContext context) {
         CallTarget callTarget = Truffle.getRuntime().createCallTarget(new PromiseReactionJobRootNode(context));
         return JSFunctionData.createCallOnly(context, callTarget, 0, "");
@@ -116,6 +139,7 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
         @Child private JSFunctionCallNode callHandlerNode;
         @Child private TryCatchNode.GetErrorObjectNode getErrorObjectNode;
         private final ConditionProfile handlerProf = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile jobRecordProf = ConditionProfile.createBinaryProfile();
         private final ValueProfile typeProfile = ValueProfile.createClassProfile();
 
         PromiseReactionJobRootNode(JSContext context) {
@@ -127,9 +151,17 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
 
         @Override
         public Object execute(VirtualFrame frame) {
-            DynamicObject functionObject = JSFrameUtil.getFunctionObject(frame);
-            PromiseReactionRecord reaction = (PromiseReactionRecord) getReaction.getValue(functionObject);
-            Object argument = getArgument.getValue(functionObject);
+            Object[] arguments = frame.getArguments();
+            PromiseReactionRecord reaction;
+            Object argument;
+            if (jobRecordProf.profile(isJobRecordCall(arguments))) {
+                reaction = (PromiseReactionRecord) JSArguments.getUserArgument(arguments, 0);
+                argument = JSArguments.getUserArgument(arguments, 1);
+            } else {
+                DynamicObject functionObject = JSFrameUtil.getFunctionObject(frame);
+                reaction = (PromiseReactionRecord) getReaction.getValue(functionObject);
+                argument = getArgument.getValue(functionObject);
+            }
 
             PromiseCapabilityRecord promiseCapability = reaction.getCapability();
             Object handler = reaction.getHandler();
@@ -177,6 +209,14 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
             return status;
         }
 
+        /**
+         * Job records pass the reaction and the argument as arguments; job functions carry them as
+         * hidden properties and are called without arguments.
+         */
+        private static boolean isJobRecordCall(Object[] arguments) {
+            return JSArguments.getUserArgumentCount(arguments) == 2;
+        }
+
         private boolean shouldCatch(Throwable exception) {
             if (getErrorObjectNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -220,8 +260,12 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
                 return null;
             }
 
-            DynamicObject functionObject = JSFrameUtil.getFunctionObject(frame);
-            PromiseReactionRecord reaction = (PromiseReactionRecord) getReaction.getValue(functionObject);
+            PromiseReactionRecord reaction;
+            if (isJobRecordCall(frame.getArguments())) {
+                reaction = (PromiseReactionRecord) JSArguments.getUserArgument(frame.getArguments(), 0);
+            } else {
+                reaction = (PromiseReactionRecord) getReaction.getValue(JSFrameUtil.getFunctionObject(frame));
+            }
             PromiseCapabilityRecord promiseCapability = reaction.getCapability();
             if (promiseCapability != null) {
                 return AwaitNode.findAsyncStackFramesFromPromise(promiseCapability.getPromise());
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime;
+
+import com.oracle.truffle.js.runtime.util.BoundedLRUCache;
+import com.oracle.truffle.js.runtime.util.DebugCounter;
+
+/**
+ * Cache of compiled regular expressions, keyed by pattern and flags and shared by all call sites
+ * and all realms of a {@link JSContext}. It backs up the per-node caches of
+ * {@code CompileRegexNode}, so that megamorphic {@code new RegExp(pattern, flags)} call sites do
+ * not compile the same pattern again. It holds at most {@code js.regex-cache-size} entries, see
+ * {@link BoundedLRUCache}.
+ */
+public final class CompiledRegexCache {
+
+    private static final DebugCounter cacheHits = DebugCounter.create("Compiled regex cache hits");
+    private static final DebugCounter cacheMisses = DebugCounter.create("Compiled regex cache misses");
+    private static final DebugCounter cacheEvictions = DebugCounter.create("Compiled regex cache evictions");
+
+    private final BoundedLRUCache<Key, Object> cache;
+
+    public CompiledRegexCache(int capacity) {
+        this.cache = new BoundedLRUCache<>(capacity, cacheHits, cacheMisses, cacheEvictions);
+    }
+
+    /**
+     * Returns the compiled regex for the pattern and flags, or {@code null} if it is not cached.
+     */
+    public Object get(String pattern, String flags) {
+        if (cache.getCapacity() == 0) {
+            return null;
+        }
+        return cache.get(new Key(pattern, flags));
+    }
+
+    public void put(String pattern, String flags, Object compiledRegex) {
+        if (cache.getCapacity() == 0) {
+            return;
+        }
+        cache.putIfAbsent(new Key(pattern, flags), compiledRegex);
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public int getCapacity() {
+        return cache.getCapacity();
+    }
+
+    private static final class Key {
+        private final String pattern;
+        private final String flags;
+
+        Key(String pattern, String flags) {
+            this.pattern = pattern;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return pattern.equals(other.pattern) && flags.equals(other.flags);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * pattern.hashCode() + flags.hashCode();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime;
+
+import java.util.Objects;
+
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.nodes.ScriptNode;
+import com.oracle.truffle.js.runtime.util.BoundedLRUCache;
+import com.oracle.truffle.js.runtime.util.DebugCounter;
+
+/**
+ * Cache of the code parsed for the {@code Function} constructor and {@code eval}, shared by all
+ * call sites and all realms of a {@link JSContext}. It holds at most
+ * {@code js.function-constructor-cache-size} entries, see {@link BoundedLRUCache}.
+ */
+public final class DynamicCodeCache {
+
+    private static final DebugCounter cacheHits = DebugCounter.create("Dynamic code cache hits");
+    private static final DebugCounter cacheMisses = DebugCounter.create("Dynamic code cache misses");
+    private static final DebugCounter cacheEvictions = DebugCounter.create("Dynamic code cache evictions");
+
+    private final BoundedLRUCache<Object, ScriptNode> cache;
+
+    public DynamicCodeCache(int capacity) {
+        this.cache = new BoundedLRUCache<>(capacity, cacheHits, cacheMisses, cacheEvictions);
+    }
+
+    /**
+     * Creates the key of a function created by the {@code Function} constructor (or one of its
+     * generator and async variants).
+     */
+    public static Object functionKey(String parameterList, String body, String sourceName, boolean generatorFunction, boolean asyncFunction) {
+        return new FunctionKey(parameterList, body, sourceName, generatorFunction, asyncFunction);
+    }
+
+    /**
+     * Creates the key of eval code.
+     *
+     * @param scope the scope of a direct eval call site, or {@code null} for code parsed in the
+     *            global scope
+     */
+    public static Object evalKey(Source source, Object scope) {
+        return new EvalKey(source, scope);
+    }
+
+    public ScriptNode get(Object key) {
+        return cache.get(key);
+    }
+
+    public void put(Object key, ScriptNode scriptNode) {
+        cache.putIfAbsent(key, scriptNode);
+    }
+
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public int getCapacity() {
+        return cache.getCapacity();
+    }
+
+    private static final class FunctionKey {
+        private final String parameterList;
+        private final String body;
+        private final String sourceName;
+        private final boolean generatorFunction;
+        private final boolean asyncFunction;
+        private final int hash;
+
+        FunctionKey(String parameterList, String body, String sourceName, boolean generatorFunction, boolean asyncFunction) {
+            this.parameterList = parameterList;
+            this.body = body;
+            this.sourceName = sourceName;
+            this.generatorFunction = generatorFunction;
+            this.asyncFunction = asyncFunction;
+            this.hash = Objects.hash(body, parameterList, sourceName, generatorFunction, asyncFunction);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FunctionKey)) {
+                return false;
+            }
+            FunctionKey other = (FunctionKey) obj;
+            return hash == other.hash && generatorFunction == other.generatorFunction && asyncFunction == other.asyncFunction &&
+                            body.equals(other.body) && parameterList.equals(other.parameterList) && sourceName.equals(other.sourceName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class EvalKey {
+        private final Source source;
+        private final Object scope;
+
+        EvalKey(Source source, Object scope) {
+            this.source = source;
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof EvalKey)) {
+                return false;
+            }
+            EvalKey other = (EvalKey) obj;
+            return scope == other.scope && source.equals(other.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(scope) + source.hashCode();
+        }
+    }
+}
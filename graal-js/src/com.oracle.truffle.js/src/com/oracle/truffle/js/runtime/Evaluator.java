@@ -40,7 +40,11 @@
  */
 package com.oracle.truffle.js.runtime;
 
+import java.util.List;
+
+import com.oracle.js.parser.Lexer.RegexToken;
 import com.oracle.js.parser.ir.Expression;
+import com.oracle.js.parser.ir.FunctionNode;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
@@ -87,6 +91,22 @@ public interface Evaluator {
 
     JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader);
 
+    /**
+     * Parses the source of a module without translating it. Does not need the realm and may be
+     * called from any thread, e.g. to read ahead the static import graph of a module. Regular
+     * expression literals are not validated but added to {@code regExpLiterals}, to be validated on
+     * the thread of the context.
+     *
+     * @return the parsed module, or {@code null} if it has syntax errors; these are reported when
+     *         the module is parsed with {@link #parseModule(JSContext, Source, JSModuleLoader)}
+     */
+    FunctionNode parseModuleAST(JSContext context, Source source, List<RegexToken> regExpLiterals);
+
+    /**
+     * Translates a module previously parsed with {@link #parseModuleAST}.
+     */
+    JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader, FunctionNode parsedModule);
+
     JSModuleRecord hostResolveImportedModule(JSContext context, ScriptOrModule referencingScriptOrModule, String specifier);
 
     void moduleInstantiation(JSRealm realm, JSModuleRecord moduleRecord);
@@ -43,7 +43,11 @@ package com.oracle.truffle.js.runtime;
 import java.lang.ref.WeakReference;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.graalvm.collections.EconomicSet;
@@ -51,11 +55,15 @@ import org.graalvm.collections.Equivalence;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.nodes.promise.PromiseReactionJobNode;
+import com.oracle.truffle.js.runtime.JSAgentWaiterList.AsyncWaiter;
 import com.oracle.truffle.js.runtime.JSAgentWaiterList.JSAgentWaiterListEntry;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSFinalizationRegistry;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSSharedArrayBuffer;
+import com.oracle.truffle.js.runtime.objects.PromiseReactionJobRecord;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
@@ -73,9 +81,10 @@ public abstract class JSAgent implements EcmaAgent {
     private boolean inCriticalSection;
 
     /**
-     * ECMA 8.4 "PromiseJobs" job queue.
+     * ECMA 8.4 "PromiseJobs" job queue. Contains job functions and, for PromiseReactionJobs,
+     * {@link PromiseReactionJobRecord job records}.
      */
-    private final Deque<DynamicObject> promiseJobsQueue;
+    private final Deque<Object> promiseJobsQueue;
 
     /**
      * According to ECMA2017 8.4 the queue of pending jobs (promises reactions) must be processed
@@ -94,15 +103,28 @@ public abstract class JSAgent implements EcmaAgent {
 
     private final Deque<WeakReference<DynamicObject>> finalizationRegistryQueue;
 
+    /**
+     * Atomics.waitAsync waiters of this agent that have been notified or have timed out. They are
+     * enqueued by other agents (or the timer thread) and their promises are resolved when the
+     * promise jobs of this agent are processed.
+     */
+    private final Queue<AsyncWaiter> asyncWaiterQueue;
+
+    /**
+     * Atomics.waitAsync waiters of this agent whose promises are not resolved yet. Only accessed by
+     * the thread of this agent.
+     */
+    private final Set<AsyncWaiter> pendingAsyncWaiters;
+
     public JSAgent(boolean canBlock) {
         this.signifier = signifierGenerator.incrementAndGet();
         this.canBlock = canBlock;
         this.promiseJobsQueue = new ArrayDeque<>(4);
         this.finalizationRegistryQueue = new ArrayDeque<>(4);
+        this.asyncWaiterQueue = new ConcurrentLinkedQueue<>();
+        this.pendingAsyncWaiters = new HashSet<>();
     }
 
-    public abstract void wakeAgent(int w);
-
     public int getSignifier() {
         return signifier;
     }
@@ -150,18 +172,99 @@ public abstract class JSAgent implements EcmaAgent {
         promiseJobsQueue.push(job);
     }
 
+    @TruffleBoundary
+    public final void enqueuePromiseReactionJob(PromiseReactionJobRecord job) {
+        promiseJobsQueue.push(job);
+    }
+
+    @TruffleBoundary
+    public final void asyncWaiterAdded(AsyncWaiter waiter) {
+        pendingAsyncWaiters.add(waiter);
+    }
+
+    /**
+     * Hands over a notified or timed out async waiter to this agent. May be called from any
+     * thread.
+     */
+    @TruffleBoundary
+    public final void enqueueAsyncWaiter(AsyncWaiter waiter) {
+        asyncWaiterQueue.add(waiter);
+        asyncWaiterReady();
+    }
+
+    /**
+     * Called (possibly from another thread) when an async waiter of this agent is ready to be
+     * resolved. Agents have to make sure that {@link #processAllPromises} is called soon, e.g., by
+     * waking up their event loop.
+     */
+    protected void asyncWaiterReady() {
+    }
+
+    /**
+     * Returns {@code true} if there are Atomics.waitAsync promises of this agent that have not
+     * been resolved yet, i.e., an event loop of this agent should not terminate.
+     */
+    @TruffleBoundary
+    public final boolean hasPendingAsyncWaiters() {
+        return !pendingAsyncWaiters.isEmpty();
+    }
+
+    private void resolveAsyncWaiters() {
+        AsyncWaiter waiter;
+        while ((waiter = asyncWaiterQueue.poll()) != null) {
+            if (!pendingAsyncWaiters.remove(waiter)) {
+                // cancelled by dispose()
+                continue;
+            }
+            DynamicObject resolve = (DynamicObject) waiter.getPromiseCapability().getResolve();
+            JSRealm functionRealm = JSFunction.getRealm(resolve);
+            Object prev = functionRealm.getTruffleContext().enter();
+            try {
+                JSFunction.call(resolve, Undefined.instance, new Object[]{waiter.getResult()});
+            } finally {
+                functionRealm.getTruffleContext().leave(prev);
+            }
+        }
+    }
+
     @TruffleBoundary
     public final void processAllPromises(boolean processWeakRefs) {
         try {
-            while (!promiseJobsQueue.isEmpty()) {
-                DynamicObject nextJob = promiseJobsQueue.pollLast();
-                if (JSFunction.isJSFunction(nextJob)) {
-                    JSRealm functionRealm = JSFunction.getRealm(nextJob);
-                    Object prev = functionRealm.getTruffleContext().enter();
-                    try {
-                        JSFunction.call(nextJob, Undefined.instance, JSArguments.EMPTY_ARGUMENTS_ARRAY);
-                    } finally {
-                        functionRealm.getTruffleContext().leave(prev);
+            JSRealm currentRealm = null;
+            while (true) {
+                resolveAsyncWaiters();
+                if (promiseJobsQueue.isEmpty()) {
+                    break;
+                }
+                if (currentRealm == null) {
+                    currentRealm = JavaScriptLanguage.getCurrentJSRealm();
+                }
+                Object nextJob = promiseJobsQueue.pollLast();
+                if (nextJob instanceof PromiseReactionJobRecord) {
+                    PromiseReactionJobRecord job = (PromiseReactionJobRecord) nextJob;
+                    JSRealm jobRealm = job.getRealm();
+                    if (jobRealm == currentRealm) {
+                        PromiseReactionJobNode.callJob(job);
+                    } else {
+                        Object prev = jobRealm.getTruffleContext().enter();
+                        try {
+                            PromiseReactionJobNode.callJob(job);
+                        } finally {
+                            jobRealm.getTruffleContext().leave(prev);
+                        }
+                    }
+                } else if (JSFunction.isJSFunction(nextJob)) {
+                    DynamicObject jobFunction = (DynamicObject) nextJob;
+                    JSRealm functionRealm = JSFunction.getRealm(jobFunction);
+                    if (functionRealm == currentRealm) {
+                        JSFunction.call(jobFunction, Undefined.instance, JSArguments.EMPTY_ARGUMENTS_ARRAY);
+                    } else {
+                        Object prev = functionRealm.getTruffleContext().enter();
+                        try {
+                            JSFunction.call(jobFunction, Undefined.instance, JSArguments.EMPTY_ARGUMENTS_ARRAY);
+                        } finally {
+                            functionRealm.getTruffleContext().leave(prev);
+                        }
                     }
                 }
             }
@@ -194,6 +297,20 @@ public abstract class JSAgent implements EcmaAgent {
         }
     }
 
+    /**
+     * Called when the context of this agent is disposed. Removes the pending Atomics.waitAsync
+     * waiters of this agent from their waiter lists and cancels their timeouts, so that neither
+     * other agents nor the timer thread keep this agent and its promises alive.
+     */
+    @TruffleBoundary
+    public void dispose() {
+        for (AsyncWaiter waiter : pendingAsyncWaiters) {
+            waiter.cancel();
+        }
+        pendingAsyncWaiters.clear();
+        asyncWaiterQueue.clear();
+    }
+
     public final void interopBoundaryEnter() {
         interopCallStackDepth++;
     }
@@ -40,15 +40,22 @@
  */
 package com.oracle.truffle.js.runtime;
 
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.js.runtime.objects.PromiseCapabilityRecord;
+import com.oracle.truffle.js.runtime.util.TimerWheel;
+
 /**
  * Java-based implementation of ECMA2017 WaiterList (24.4.1.2).
+ *
+ * There is one {@link JSAgentWaiterListEntry} (with its own lock) per byte index of the shared
+ * buffer, i.e., waiting on or notifying different addresses never contends.
  */
 public class JSAgentWaiterList {
 
@@ -62,10 +69,14 @@ public class JSAgentWaiterList {
         this.globalMonitor = new ReentrantLock();
     }
 
-    public JSAgentWaiterListEntry getListForIndex(int indexPos) {
-        JSAgentWaiterListEntry list = Boundaries.mapPutIfAbsent(waiters, indexPos, new JSAgentWaiterListEntry());
+    public JSAgentWaiterListEntry getListForIndex(int byteIndex) {
+        JSAgentWaiterListEntry list = Boundaries.mapGet(waiters, byteIndex);
+        if (list != null) {
+            return list;
+        }
+        list = Boundaries.mapPutIfAbsent(waiters, byteIndex, new JSAgentWaiterListEntry());
         if (list == null) {
-            return Boundaries.mapGet(waiters, indexPos);
+            return Boundaries.mapGet(waiters, byteIndex);
         } else {
             return list;
         }
@@ -79,16 +90,31 @@ public class JSAgentWaiterList {
         globalMonitor.unlock();
     }
 
-    public static final class JSAgentWaiterListEntry extends ConcurrentLinkedQueue<Integer> {
+    /**
+     * FIFO list of the agents waiting on a single address. All accesses have to be guarded by
+     * {@link #lock()}. Waiters are stored in parallel ring buffers of agent signifiers and waiters
+     * (the {@link Thread} of a synchronous waiter or an {@link AsyncWaiter}), so that neither
+     * waiting nor notifying allocates once the buffers have grown to the number of concurrent
+     * waiters.
+     */
+    public static final class JSAgentWaiterListEntry {
 
-        private static final long serialVersionUID = 2655886588267252886L;
+        private static final int INITIAL_CAPACITY = 4;
+        private static final int ASYNC_SIGNIFIER = 0;
 
         private final Lock indexMonitor;
 
+        /** Signifiers of synchronous waiters, {@link #ASYNC_SIGNIFIER} for async waiters. */
+        private int[] signifiers;
+        private Object[] waiters;
+        private int head;
+        private int size;
+
         @TruffleBoundary
         public JSAgentWaiterListEntry() {
-            super();
             this.indexMonitor = new ReentrantLock();
+            this.signifiers = new int[INITIAL_CAPACITY];
+            this.waiters = new Object[INITIAL_CAPACITY];
         }
 
         public void lock() {
@@ -99,6 +125,192 @@ public class JSAgentWaiterList {
             indexMonitor.unlock();
         }
 
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        private int slot(int i) {
+            return (head + i) & (signifiers.length - 1);
+        }
+
+        public boolean contains(int signifier) {
+            return indexOf(signifier) >= 0;
+        }
+
+        private int indexOf(int signifier) {
+            for (int i = 0; i < size; i++) {
+                if (signifiers[slot(i)] == signifier) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public void add(int signifier, Thread thread) {
+            assert signifier != ASYNC_SIGNIFIER;
+            addWaiter(signifier, thread);
+        }
+
+        public void addAsync(AsyncWaiter waiter) {
+            addWaiter(ASYNC_SIGNIFIER, waiter);
+        }
+
+        private void addWaiter(int signifier, Object waiter) {
+            if (size == signifiers.length) {
+                grow();
+            }
+            int tail = slot(size);
+            signifiers[tail] = signifier;
+            waiters[tail] = waiter;
+            size++;
+        }
+
+        private void grow() {
+            int[] newSignifiers = new int[signifiers.length << 1];
+            Object[] newWaiters = new Object[waiters.length << 1];
+            for (int i = 0; i < size; i++) {
+                newSignifiers[i] = signifiers[slot(i)];
+                newWaiters[i] = waiters[slot(i)];
+            }
+            signifiers = newSignifiers;
+            waiters = newWaiters;
+            head = 0;
+        }
+
+        public void remove(int signifier) {
+            int index = indexOf(signifier);
+            assert index >= 0;
+            removeAt(index);
+        }
+
+        /**
+         * Removes the given async waiter, returns {@code false} if it is no longer in the list.
+         */
+        public boolean removeAsync(AsyncWaiter waiter) {
+            for (int i = 0; i < size; i++) {
+                if (waiters[slot(i)] == waiter) {
+                    removeAt(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void removeAt(int index) {
+            // close the gap by moving the subsequent waiters one slot towards the head
+            for (int i = index; i < size - 1; i++) {
+                signifiers[slot(i)] = signifiers[slot(i + 1)];
+                waiters[slot(i)] = waiters[slot(i + 1)];
+            }
+            waiters[slot(size - 1)] = null;
+            size--;
+        }
+
+        /**
+         * Removes the first waiter from the list and wakes it up: a synchronous waiter is
+         * unparked, an async waiter is handed over to the job queue of its agent.
+         */
+        public void wakeFirst() {
+            assert size > 0;
+            Object waiter = waiters[head];
+            waiters[head] = null;
+            head = slot(1);
+            size--;
+            if (waiter instanceof AsyncWaiter) {
+                ((AsyncWaiter) waiter).notified();
+            } else {
+                LockSupport.unpark((Thread) waiter);
+            }
+        }
     }
 
+    /**
+     * Waiter record of {@code Atomics.waitAsync}. It does not block any thread: when it is
+     * notified (or its timeout expires on the shared {@link TimerWheel}), it is handed over to
+     * its agent, which resolves the promise in its job queue.
+     */
+    public static final class AsyncWaiter implements Runnable {
+        public static final String OK = "ok";
+        public static final String TIMED_OUT = "timed-out";
+
+        private final JSAgent agent;
+        private final PromiseCapabilityRecord promiseCapability;
+        private final JSAgentWaiterListEntry list;
+        private TimerWheel.Timeout timeout;
+        private volatile String result;
+
+        public AsyncWaiter(JSAgent agent, PromiseCapabilityRecord promiseCapability, JSAgentWaiterListEntry list) {
+            this.agent = agent;
+            this.promiseCapability = promiseCapability;
+            this.list = list;
+        }
+
+        public PromiseCapabilityRecord getPromiseCapability() {
+            return promiseCapability;
+        }
+
+        public String getResult() {
+            return result;
+        }
+
+        /**
+         * Schedules the timeout; has to be called while holding the lock of the waiter list.
+         * Timeouts beyond {@link TimerWheel#MAX_DELAY_NANOS} never expire and are not scheduled.
+         */
+        @TruffleBoundary
+        public void scheduleTimeout(long millis) {
+            if (TimeUnit.MILLISECONDS.toNanos(millis) >= TimerWheel.MAX_DELAY_NANOS) {
+                return;
+            }
+            timeout = TimerWheel.getShared().schedule(this, millis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Removes this waiter from its list and cancels its timeout, without resolving its
+         * promise.
+         */
+        @TruffleBoundary
+        void cancel() {
+            list.lock();
+            try {
+                list.removeAsync(this);
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+            } finally {
+                list.unlock();
+            }
+        }
+
+        /**
+         * Called with the lock of the waiter list held, after this waiter has been removed.
+         */
+        void notified() {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            result = OK;
+            agent.enqueueAsyncWaiter(this);
+        }
+
+        /**
+         * Timeout task, executed on the timer thread.
+         */
+        @Override
+        public void run() {
+            list.lock();
+            try {
+                if (list.removeAsync(this)) {
+                    result = TIMED_OUT;
+                    agent.enqueueAsyncWaiter(this);
+                }
+            } finally {
+                list.unlock();
+            }
+        }
+    }
 }
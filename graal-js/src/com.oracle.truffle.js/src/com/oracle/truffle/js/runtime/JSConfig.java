@@ -88,6 +88,8 @@ public final class JSConfig {
     /** Migrate objects to dictionary mode when the number of properties exceeds this threshold. */
     public static final int DictionaryObjectThreshold = 256;
     public static final int DictionaryObjectTransitionThreshold = 1024;
+    /** Migrate dictionary objects back to shapes when they shrink below this threshold. */
+    public static final int DictionaryObjectShrinkThreshold = DictionaryObjectThreshold / 8;
     public static final boolean MergeShapes = true;
 
     // JSON options
@@ -97,6 +99,10 @@ public final class JSConfig {
     public static final boolean LazyStrings = true;
     public static final int MinLazyStringLength = 20;
     public static final int ConcatToLeafLimit = MinLazyStringLength / 2;
+    public static final int MaxLazyStringDepth = 48;
+    public static final int LazyStringIndexedAccessLimit = 16;
+    public static final int MinSlicedStringLength = MinLazyStringLength;
+    public static final int MaxSlicedStringRetention = 16;
 
     // Parser options
     public static final boolean ReturnOptimizer = true;
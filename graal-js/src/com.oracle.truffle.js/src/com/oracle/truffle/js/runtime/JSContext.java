@@ -127,6 +127,7 @@ import com.oracle.truffle.js.runtime.objects.JSPrototypeData;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.JSShapeData;
 import com.oracle.truffle.js.runtime.objects.Null;
+import com.oracle.truffle.js.runtime.objects.PromiseReactionJobRecord;
 import com.oracle.truffle.js.runtime.objects.ScriptOrModule;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.CompilableBiFunction;
@@ -320,6 +321,9 @@ public class JSContext {
 
     private final Map<Builtin, JSFunctionData> builtinFunctionDataMap = new ConcurrentHashMap<>();
 
+    private final DynamicCodeCache dynamicCodeCache;
+    private final CompiledRegexCache compiledRegexCache;
+
     private final JSPrototypeData nullPrototypeData = new JSPrototypeData();
     private final JSPrototypeData inObjectPrototypeData = new JSPrototypeData();
 
@@ -441,6 +445,8 @@ public class JSContext {
         this.builtinFunctionData = new JSFunctionData[BuiltinFunctionKey.values().length];
 
         this.timeProfiler = contextOptions.isProfileTime() ? new TimeProfiler() : null;
+        this.dynamicCodeCache = new DynamicCodeCache(contextOptions.getFunctionConstructorCacheSize());
+        this.compiledRegexCache = new CompiledRegexCache(contextOptions.getRegexCacheSize());
 
         this.singleRealmAssumption = Truffle.getRuntime().createAssumption("single realm");
         this.noChildRealmsAssumption = Truffle.getRuntime().createAssumption("no child realms");
@@ -557,6 +563,20 @@ public class JSContext {
         return nodeFactory;
     }
 
+    /**
+     * Returns the cache of code parsed by the {@code Function} constructor and {@code eval}.
+     */
+    public final DynamicCodeCache getDynamicCodeCache() {
+        return dynamicCodeCache;
+    }
+
+    /**
+     * Returns the cache of compiled regular expressions.
+     */
+    public final CompiledRegexCache getCompiledRegexCache() {
+        return compiledRegexCache;
+    }
+
     public final JSParserOptions getParserOptions() {
         return contextOptions.getParserOptions();
     }
@@ -684,6 +704,14 @@ public class JSContext {
         realm.getAgent().enqueuePromiseJob(job);
     }
 
+    /**
+     * ECMA 8.4.1 EnqueueJob for a PromiseReactionJob, in the realm the job was created in.
+     */
+    public final void promiseEnqueueReactionJob(PromiseReactionJobRecord job) {
+        invalidatePromiseQueueNotUsedAssumption();
+        job.getRealm().getAgent().enqueuePromiseReactionJob(job);
+    }
+
     private void invalidatePromiseQueueNotUsedAssumption() {
         Assumption promiseJobsQueueEmptyAssumption = language.getPromiseJobsQueueEmptyAssumption();
         if (promiseJobsQueueEmptyAssumption.isValid()) {
@@ -270,6 +270,14 @@ public final class JSContextOptions {
     @Option(name = COMMONJS_REQUIRE_CWD_NAME, category = OptionCategory.USER, help = "CommonJS default current working directory.") //
     public static final OptionKey<String> COMMONJS_REQUIRE_CWD = new OptionKey<>("");
 
+    public static final String COMMONJS_RESOLUTION_CACHE_NAME = JS_OPTION_PREFIX + "commonjs-resolution-cache";
+    @Option(name = COMMONJS_RESOLUTION_CACHE_NAME, category = OptionCategory.EXPERT, help = "Cache the file system lookups of CommonJS and ES module resolution.") //
+    public static final OptionKey<Boolean> COMMONJS_RESOLUTION_CACHE = new OptionKey<>(true);
+
+    public static final String MODULE_LOADING_THREADS_NAME = JS_OPTION_PREFIX + "module-loading-threads";
+    @Option(name = MODULE_LOADING_THREADS_NAME, category = OptionCategory.EXPERT, help = "Number of threads that read and parse statically imported ES modules ahead of linking (0 loads modules one by one during linking). Requires thread creation to be allowed.") //
+    public static final OptionKey<Integer> MODULE_LOADING_THREADS = new OptionKey<>(0);
+
     public static final String COMMONJS_CORE_MODULES_REPLACEMENTS_NAME = JS_OPTION_PREFIX + "commonjs-core-modules-replacements";
     @Option(name = COMMONJS_CORE_MODULES_REPLACEMENTS_NAME, category = OptionCategory.USER, help = "Npm packages used to replace global Node.js builtins. Syntax: name1:module1,name2:module2,...") //
     public static final OptionKey<Map<String, String>> COMMONJS_CORE_MODULES_REPLACEMENTS = new OptionKey<>(Collections.emptyMap(), new OptionType<>(
@@ -389,10 +397,19 @@ public final class JSContextOptions {
     public static final OptionKey<String> LOCALE = new OptionKey<>("");
 
     public static final String FUNCTION_CONSTRUCTOR_CACHE_SIZE_NAME = JS_OPTION_PREFIX + "function-constructor-cache-size";
-    @Option(name = FUNCTION_CONSTRUCTOR_CACHE_SIZE_NAME, category = OptionCategory.EXPERT, help = "Maximum size of the parsing cache used by the Function constructor to avoid re-parsing known sources.") //
-    public static final OptionKey<Integer> FUNCTION_CONSTRUCTOR_CACHE_SIZE = new OptionKey<>(32);
+    @Option(name = FUNCTION_CONSTRUCTOR_CACHE_SIZE_NAME, category = OptionCategory.EXPERT, help = "Maximum size of the parsing cache used by the Function constructor and eval to avoid re-parsing known sources.") //
+    public static final OptionKey<Integer> FUNCTION_CONSTRUCTOR_CACHE_SIZE = new OptionKey<>(256);
     @CompilationFinal private int functionConstructorCacheSize;
 
+    public static final String REGEX_CACHE_SIZE_NAME = JS_OPTION_PREFIX + "regex-cache-size";
+    @Option(name = REGEX_CACHE_SIZE_NAME, category = OptionCategory.EXPERT, help = "Maximum number of compiled regular expressions shared by all RegExp call sites to avoid recompiling known patterns.") //
+    public static final OptionKey<Integer> REGEX_CACHE_SIZE = new OptionKey<>(4096);
+    @CompilationFinal private int regexCacheSize;
+
+    public static final String CODE_CACHE_DIR_NAME = JS_OPTION_PREFIX + "code-cache-dir";
+    @Option(name = CODE_CACHE_DIR_NAME, category = OptionCategory.EXPERT, help = "Directory of a persistent cache of the parsed code of scripts loaded from files (disabled if empty).") //
+    public static final OptionKey<String> CODE_CACHE_DIR = new OptionKey<>("");
+
     public static final String STRING_LENGTH_LIMIT_NAME = JS_OPTION_PREFIX + "string-length-limit";
     @Option(name = STRING_LENGTH_LIMIT_NAME, category = OptionCategory.EXPERT, help = "Maximum string length.") //
     public static final OptionKey<Integer> STRING_LENGTH_LIMIT = new OptionKey<>(JSConfig.StringLengthLimit);
@@ -435,6 +452,11 @@ public final class JSContextOptions {
     public static final OptionKey<Boolean> LAZY_TRANSLATION = new OptionKey<>(false);
     @CompilationFinal private boolean lazyTranslation;
 
+    public static final String LAZY_TRANSLATION_THRESHOLD_NAME = JS_OPTION_PREFIX + "lazy-translation-threshold";
+    @Option(name = LAZY_TRANSLATION_THRESHOLD_NAME, category = OptionCategory.EXPERT, help = "Minimum source length (in characters) of scripts whose nested function bodies are only pre-parsed and translated on first call (-1 to disable).") //
+    public static final OptionKey<Integer> LAZY_TRANSLATION_THRESHOLD = new OptionKey<>(-1);
+    @CompilationFinal private int lazyTranslationThreshold;
+
     public static final String MAX_TYPED_ARRAY_LENGTH_NAME = JS_OPTION_PREFIX + "max-typed-array-length";
     @Option(name = MAX_TYPED_ARRAY_LENGTH_NAME, category = OptionCategory.EXPERT, help = "Maximum allowed length for TypedArrays.") //
     public static final OptionKey<Integer> MAX_TYPED_ARRAY_LENGTH = new OptionKey<>(JSConfig.MaxTypedArrayLength);
@@ -536,6 +558,7 @@ public final class JSContextOptions {
         this.testV8Mode = readBooleanOption(TESTV8_MODE);
         this.validateRegExpLiterals = readBooleanOption(VALIDATE_REGEXP_LITERALS);
         this.functionConstructorCacheSize = readIntegerOption(FUNCTION_CONSTRUCTOR_CACHE_SIZE);
+        this.regexCacheSize = readIntegerOption(REGEX_CACHE_SIZE);
         this.stringLengthLimit = readIntegerOption(STRING_LENGTH_LIMIT);
         this.bindMemberFunctions = readBooleanOption(BIND_MEMBER_FUNCTIONS);
         this.commonJSRequire = readBooleanOption(COMMONJS_REQUIRE);
@@ -543,6 +566,7 @@ public final class JSContextOptions {
         this.interopCompletePromises = readBooleanOption(INTEROP_COMPLETE_PROMISES);
         this.testCloneUninitialized = readBooleanOption(TEST_CLONE_UNINITIALIZED);
         this.lazyTranslation = readBooleanOption(LAZY_TRANSLATION);
+        this.lazyTranslationThreshold = readIntegerOption(LAZY_TRANSLATION_THRESHOLD);
         this.stackTraceLimit = readIntegerOption(STACK_TRACE_LIMIT);
         this.maxTypedArrayLength = readIntegerOption(MAX_TYPED_ARRAY_LENGTH);
         this.maxApplyArgumentLength = readIntegerOption(MAX_APPLY_ARGUMENT_LENGTH);
@@ -770,6 +794,16 @@ public final class JSContextOptions {
         return COMMONJS_REQUIRE_CWD.getValue(optionValues);
     }
 
+    public boolean isCommonJSResolutionCache() {
+        CompilerAsserts.neverPartOfCompilation("Context patchable option commonjs-resolution-cache was assumed not to be accessed in compiled code.");
+        return COMMONJS_RESOLUTION_CACHE.getValue(optionValues);
+    }
+
+    public int getModuleLoadingThreads() {
+        CompilerAsserts.neverPartOfCompilation("Context patchable option module-loading-threads was assumed not to be accessed in compiled code.");
+        return MODULE_LOADING_THREADS.getValue(optionValues);
+    }
+
     public boolean isPerformance() {
         CompilerAsserts.neverPartOfCompilation("Context patchable option performance was assumed not to be accessed in compiled code.");
         return PERFORMANCE.getValue(optionValues) || (!PERFORMANCE.hasBeenSet(optionValues) && isShell());
@@ -827,10 +861,18 @@ public final class JSContextOptions {
         return LOCALE.getValue(optionValues);
     }
 
+    public String getCodeCacheDir() {
+        return CODE_CACHE_DIR.getValue(optionValues);
+    }
+
     public int getFunctionConstructorCacheSize() {
         return functionConstructorCacheSize;
     }
 
+    public int getRegexCacheSize() {
+        return regexCacheSize;
+    }
+
     public int getStringLengthLimit() {
         return stringLengthLimit;
     }
@@ -865,6 +907,10 @@ public final class JSContextOptions {
         return lazyTranslation;
     }
 
+    public int getLazyTranslationThreshold() {
+        return lazyTranslationThreshold;
+    }
+
     public boolean isProfileTimePrintCumulative() {
         CompilerAsserts.neverPartOfCompilation("Context patchable option profile-time-print-cumulative was assumed not to be accessed in compiled code.");
         return PROFILE_TIME_PRINT_CUMULATIVE.getValue(optionValues);
@@ -931,6 +977,7 @@ public final class JSContextOptions {
         hash = 53 * hash + (this.testV8Mode ? 1 : 0);
         hash = 53 * hash + (this.validateRegExpLiterals ? 1 : 0);
         hash = 53 * hash + this.functionConstructorCacheSize;
+        hash = 53 * hash + this.regexCacheSize;
         hash = 53 * hash + this.stringLengthLimit;
         hash = 53 * hash + (this.bindMemberFunctions ? 1 : 0);
         hash = 53 * hash + (this.commonJSRequire ? 1 : 0);
@@ -938,6 +985,7 @@ public final class JSContextOptions {
         hash = 53 * hash + (this.interopCompletePromises ? 1 : 0);
         hash = 53 * hash + (this.testCloneUninitialized ? 1 : 0);
         hash = 53 * hash + (this.lazyTranslation ? 1 : 0);
+        hash = 53 * hash + this.lazyTranslationThreshold;
         hash = 53 * hash + this.stackTraceLimit;
         hash = 53 * hash + (this.asyncStackTraces ? 1 : 0);
         hash = 53 * hash + this.maxTypedArrayLength;
@@ -1047,6 +1095,9 @@ public final class JSContextOptions {
         if (this.functionConstructorCacheSize != other.functionConstructorCacheSize) {
             return false;
         }
+        if (this.regexCacheSize != other.regexCacheSize) {
+            return false;
+        }
         if (this.stringLengthLimit != other.stringLengthLimit) {
             return false;
         }
@@ -1068,6 +1119,9 @@ public final class JSContextOptions {
         if (this.lazyTranslation != other.lazyTranslation) {
             return false;
         }
+        if (this.lazyTranslationThreshold != other.lazyTranslationThreshold) {
+            return false;
+        }
         if (this.stackTraceLimit != other.stackTraceLimit) {
             return false;
         }
@@ -70,6 +70,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.builtins.ArrayBufferFunctionBuiltins;
 import com.oracle.truffle.js.builtins.ArrayIteratorPrototypeBuiltins;
 import com.oracle.truffle.js.builtins.AtomicsBuiltins;
 import com.oracle.truffle.js.builtins.ConsoleBuiltins;
@@ -77,6 +78,7 @@ import com.oracle.truffle.js.builtins.ConstructorBuiltins;
 import com.oracle.truffle.js.builtins.DebugBuiltins;
 import com.oracle.truffle.js.builtins.GlobalBuiltins;
 import com.oracle.truffle.js.builtins.JSBuiltinsContainer;
+import com.oracle.truffle.js.builtins.JSONBuiltins;
 import com.oracle.truffle.js.builtins.JavaBuiltins;
 import com.oracle.truffle.js.builtins.MapIteratorPrototypeBuiltins;
 import com.oracle.truffle.js.builtins.ObjectFunctionBuiltins;
@@ -89,6 +91,7 @@ import com.oracle.truffle.js.builtins.RegExpStringIteratorPrototypeBuiltins;
 import com.oracle.truffle.js.builtins.SetIteratorPrototypeBuiltins;
 import com.oracle.truffle.js.builtins.StringIteratorPrototypeBuiltins;
 import com.oracle.truffle.js.builtins.commonjs.CommonJSRequireBuiltin;
+import com.oracle.truffle.js.builtins.commonjs.CommonJSResolutionCache;
 import com.oracle.truffle.js.builtins.commonjs.GlobalCommonJSRequireBuiltins;
 import com.oracle.truffle.js.builtins.commonjs.NpmCompatibleESModuleLoader;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
@@ -386,6 +389,11 @@ public class JSRealm {
      */
     private final Map<TruffleFile, DynamicObject> commonJSRequireCache;
 
+    /**
+     * Per-realm cache of CommonJS and ES module resolution lookups.
+     */
+    private final CommonJSResolutionCache commonJSResolutionCache;
+
     public JSRealm(JSContext context, TruffleLanguage.Env env) {
         this.context = context;
         this.truffleLanguageEnv = env; // can be null
@@ -628,8 +636,10 @@ public class JSRealm {
 
         if (context.getContextOptions().isCommonJSRequire()) {
             this.commonJSRequireCache = new HashMap<>();
+            this.commonJSResolutionCache = new CommonJSResolutionCache(context);
         } else {
             this.commonJSRequireCache = null;
+            this.commonJSResolutionCache = null;
         }
     }
 
@@ -1401,6 +1411,8 @@ public class JSRealm {
         JSObjectUtil.putDataProperty(context, graalObject, "versionGraalVM", GRAALVM_VERSION, flags);
         JSObjectUtil.putDataProperty(context, graalObject, "versionJS", GRAALVM_VERSION, flags);
         JSObjectUtil.putDataProperty(context, graalObject, "isGraalRuntime", JSFunction.create(this, isGraalRuntimeFunction(context)), flags);
+        JSObjectUtil.putFunctionsFromContainer(this, graalObject, JSONBuiltins.BUILTINS_GRAAL);
+        JSObjectUtil.putFunctionsFromContainer(this, graalObject, ArrayBufferFunctionBuiltins.BUILTINS_GRAAL);
         putGlobalProperty("Graal", graalObject);
     }
 
@@ -1792,6 +1804,11 @@ public class JSRealm {
 
         addArgumentsFromEnv(newEnv);
 
+        if (commonJSResolutionCache != null) {
+            // Lookups done with the previous file system must not be reused.
+            commonJSResolutionCache.clear();
+        }
+
         // Reflect any changes to the timezone option.
         if (localTimeZoneId != null) {
             localTimeZoneId = getTimeZoneFromEnv();
@@ -2049,6 +2066,16 @@ public class JSRealm {
         }
     }
 
+    /**
+     * Stops the module loading threads of the module loader, if any.
+     */
+    @TruffleBoundary
+    public void disposeModuleLoader() {
+        if (moduleLoader instanceof DefaultESModuleLoader) {
+            ((DefaultESModuleLoader) moduleLoader).dispose();
+        }
+    }
+
     public final JSAgent getAgent() {
         assert agent != null;
         return agent;
@@ -2171,4 +2198,9 @@ public class JSRealm {
         return commonJSRequireCache;
     }
 
+    public final CommonJSResolutionCache getCommonJSResolutionCache() {
+        assert context.getContextOptions().isCommonJSRequire();
+        return commonJSResolutionCache;
+    }
+
 }
@@ -60,8 +60,9 @@ public final class MainJSAgent extends JSAgent {
     }
 
     @Override
-    public void wakeAgent(int w) {
-        // No-op
+    protected void asyncWaiterReady() {
+        // No event loop to wake up: the embedder drives this agent, and the promise jobs
+        // (including ready async waiters) are processed whenever a call into the context returns.
     }
 
 }
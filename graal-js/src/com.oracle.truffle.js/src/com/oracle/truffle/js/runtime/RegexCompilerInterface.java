@@ -54,11 +54,18 @@ public final class RegexCompilerInterface {
     }
 
     public static Object compile(String pattern, String flags, JSContext context, TRegexUtil.CompileRegexNode compileRegexNode) {
+        CompiledRegexCache cache = context.getCompiledRegexCache();
+        Object cachedRegex = cache.get(pattern, flags);
+        if (cachedRegex != null) {
+            return cachedRegex;
+        }
         // RegexLanguage does its own validation of the flags. This call to validateFlags only
         // serves the purpose of mimicking the error messages of Nashorn and V8.
         validateFlags(flags, context.getEcmaScriptVersion(), context.isOptionNashornCompatibilityMode());
         try {
-            return compileRegexNode.execute(context.getRegexEngine(), pattern, flags);
+            Object compiledRegex = compileRegexNode.execute(context.getRegexEngine(), pattern, flags);
+            cache.put(pattern, flags, compiledRegex);
+            return compiledRegex;
         } catch (RuntimeException e) {
             CompilerDirectives.transferToInterpreter();
             if (e instanceof TruffleException && ((TruffleException) e).isSyntaxError()) {
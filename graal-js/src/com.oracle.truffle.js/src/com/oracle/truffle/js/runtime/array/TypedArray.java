@@ -45,9 +45,11 @@ import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArra
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetByteBuffer;
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetLength;
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetOffset;
+import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetReadOnlyByteBuffer;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.BigInt;
@@ -56,16 +58,23 @@ import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.PrimitiveArraySort;
 
 public abstract class TypedArray extends ScriptArray {
 
     private final boolean offset;
+    private final boolean readOnly;
     private final int bytesPerElement;
     private final String name;
     private final TypedArrayFactory factory;
 
     protected TypedArray(TypedArrayFactory factory, boolean offset) {
+        this(factory, offset, false);
+    }
+
+    protected TypedArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
         this.offset = offset;
+        this.readOnly = readOnly;
         this.bytesPerElement = factory.getBytesPerElement();
         this.name = factory.getName();
         this.factory = factory;
@@ -133,8 +142,12 @@ public abstract class TypedArray extends ScriptArray {
     /**
      * Get ByteBuffer from TypedArray with unspecified byte order.
      */
-    protected static ByteBuffer getByteBuffer(DynamicObject object, boolean condition) {
-        return typedArrayGetByteBuffer(object, condition);
+    protected final ByteBuffer getByteBuffer(DynamicObject object, boolean condition) {
+        if (readOnly) {
+            return typedArrayGetReadOnlyByteBuffer(object, condition);
+        } else {
+            return typedArrayGetByteBuffer(object, condition);
+        }
     }
 
     /**
@@ -236,12 +249,20 @@ public abstract class TypedArray extends ScriptArray {
         return offset;
     }
 
+    /**
+     * Whether this is the type of a view on a read-only direct buffer. Writes to such a buffer
+     * throw {@link ReadOnlyBufferException}.
+     */
+    public final boolean isReadOnly() {
+        return readOnly;
+    }
+
     protected static ByteArrayAccess getBufferAccess(boolean littleEndian) {
         return littleEndian ? ByteArraySupport.LITTLE_ENDIAN_ORDER : ByteArraySupport.BIG_ENDIAN_ORDER;
     }
 
-    protected static ByteBuffer getByteBufferFromBuffer(DynamicObject buffer, boolean littleEndian, boolean condition) {
-        ByteBuffer byteBuffer = JSArrayBuffer.getDirectByteBuffer(buffer, condition);
+    protected final ByteBuffer getByteBufferFromBuffer(DynamicObject buffer, boolean littleEndian, boolean condition) {
+        ByteBuffer byteBuffer = readOnly ? JSArrayBuffer.getReadOnlyDirectByteBuffer(buffer, condition) : JSArrayBuffer.getDirectByteBuffer(buffer, condition);
         ByteOrder byteOrder = littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
         return byteBuffer.duplicate().order(byteOrder);
     }
@@ -263,6 +284,10 @@ public abstract class TypedArray extends ScriptArray {
             super(factory, offset);
         }
 
+        protected TypedIntArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
+        }
+
         @Override
         public Object getElement(DynamicObject object, long index, boolean condition) {
             if (hasElement(object, index, condition)) {
@@ -291,7 +316,11 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         public final void setInt(DynamicObject object, int index, int value, boolean condition) {
-            setIntImpl(getBufferFromTypedArrayT(object, condition), getOffset(object, condition), index, value);
+            try {
+                setIntImpl(getBufferFromTypedArrayT(object, condition), getOffset(object, condition), index, value);
+            } catch (ReadOnlyBufferException e) {
+                throw Errors.createTypeErrorReadOnlyBuffer();
+            }
         }
 
         @SuppressWarnings("unchecked")
@@ -302,6 +331,28 @@ public abstract class TypedArray extends ScriptArray {
         public abstract int getIntImpl(T buffer, int offset, int index);
 
         public abstract void setIntImpl(T buffer, int offset, int index, int value);
+
+        /**
+         * Sorts the elements in place, without boxing them. The elements are sorted in a copy, so
+         * the comparator may call user code, but it has to throw if the buffer gets detached.
+         */
+        public final void sort(DynamicObject object, PrimitiveArraySort.IntComparator comparator) {
+            T buffer = getBufferFromTypedArrayT(object, true);
+            int offset = getOffset(object, true);
+            int length = lengthInt(object);
+            int[] values = new int[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = getIntImpl(buffer, offset, i);
+            }
+            PrimitiveArraySort.sort(values, 0, length, comparator);
+            try {
+                for (int i = 0; i < length; i++) {
+                    setIntImpl(buffer, offset, i, values[i]);
+                }
+            } catch (ReadOnlyBufferException e) {
+                throw Errors.createTypeErrorReadOnlyBuffer();
+            }
+        }
     }
 
     static final int INT8_BYTES_PER_ELEMENT = 1;
@@ -333,8 +384,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectInt8Array extends TypedIntArray<ByteBuffer> {
-        DirectInt8Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectInt8Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -392,8 +443,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectUint8Array extends TypedIntArray<ByteBuffer> {
-        DirectUint8Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectUint8Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -427,6 +478,10 @@ public abstract class TypedArray extends ScriptArray {
             super(factory, offset);
         }
 
+        private AbstractUint8ClampedArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
+        }
+
         @Override
         public TypedIntArray<T> setElementImpl(DynamicObject object, long index, Object value, boolean strict, boolean condition) {
             if (hasElement(object, index, condition)) {
@@ -471,8 +526,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectUint8ClampedArray extends AbstractUint8ClampedArray<ByteBuffer> {
-        DirectUint8ClampedArray(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectUint8ClampedArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -530,8 +585,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectInt16Array extends TypedIntArray<ByteBuffer> {
-        DirectInt16Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectInt16Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -589,8 +644,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectUint16Array extends TypedIntArray<ByteBuffer> {
-        DirectUint16Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectUint16Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -648,8 +703,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectInt32Array extends TypedIntArray<ByteBuffer> {
-        DirectInt32Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectInt32Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -685,6 +740,10 @@ public abstract class TypedArray extends ScriptArray {
             super(factory, offset);
         }
 
+        private AbstractUint32Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
+        }
+
         @Override
         public Object getElement(DynamicObject object, long index, boolean condition) {
             if (hasElement(object, index, condition)) {
@@ -737,8 +796,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectUint32Array extends AbstractUint32Array<ByteBuffer> {
-        DirectUint32Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectUint32Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -772,6 +831,10 @@ public abstract class TypedArray extends ScriptArray {
             super(factory, offset);
         }
 
+        protected TypedBigIntArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
+        }
+
         @Override
         public Object getElement(DynamicObject object, long index, boolean condition) {
             if (hasElement(object, index, condition)) {
@@ -800,7 +863,11 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         public final void setBigInt(DynamicObject object, int index, BigInt value, boolean condition) {
-            setBigIntImpl(getBufferFromTypedArrayT(object, condition), getOffset(object, condition), index, value);
+            try {
+                setBigIntImpl(getBufferFromTypedArrayT(object, condition), getOffset(object, condition), index, value);
+            } catch (ReadOnlyBufferException e) {
+                throw Errors.createTypeErrorReadOnlyBuffer();
+            }
         }
 
         @SuppressWarnings("unchecked")
@@ -842,8 +909,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectBigInt64Array extends TypedBigIntArray<ByteBuffer> {
-        DirectBigInt64Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectBigInt64Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -902,8 +969,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectBigUint64Array extends TypedBigIntArray<ByteBuffer> {
-        DirectBigUint64Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectBigUint64Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -937,6 +1004,10 @@ public abstract class TypedArray extends ScriptArray {
             super(factory, offset);
         }
 
+        protected TypedFloatArray(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
+        }
+
         @Override
         public final Object getElement(DynamicObject object, long index, boolean condition) {
             if (hasElement(object, index, condition)) {
@@ -970,12 +1041,38 @@ public abstract class TypedArray extends ScriptArray {
         }
 
         public final void setDouble(DynamicObject object, int index, double value, boolean condition) {
-            setDoubleImpl(getBufferFromTypedArrayT(object, condition), getOffset(object, condition), index, value);
+            try {
+                setDoubleImpl(getBufferFromTypedArrayT(object, condition), getOffset(object, condition), index, value);
+            } catch (ReadOnlyBufferException e) {
+                throw Errors.createTypeErrorReadOnlyBuffer();
+            }
         }
 
         public abstract double getDoubleImpl(T buffer, int offset, int index);
 
         public abstract void setDoubleImpl(T buffer, int offset, int index, double value);
+
+        /**
+         * Sorts the elements in place, without boxing them. The elements are sorted in a copy, so
+         * the comparator may call user code, but it has to throw if the buffer gets detached.
+         */
+        public final void sort(DynamicObject object, PrimitiveArraySort.DoubleComparator comparator) {
+            T buffer = getBufferFromTypedArrayT(object, true);
+            int offset = getOffset(object, true);
+            int length = lengthInt(object);
+            double[] values = new double[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = getDoubleImpl(buffer, offset, i);
+            }
+            PrimitiveArraySort.sort(values, 0, length, comparator);
+            try {
+                for (int i = 0; i < length; i++) {
+                    setDoubleImpl(buffer, offset, i, values[i]);
+                }
+            } catch (ReadOnlyBufferException e) {
+                throw Errors.createTypeErrorReadOnlyBuffer();
+            }
+        }
     }
 
     static final int FLOAT32_BYTES_PER_ELEMENT = 4;
@@ -1007,8 +1104,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectFloat32Array extends TypedFloatArray<ByteBuffer> {
-        DirectFloat32Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectFloat32Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -1066,8 +1163,8 @@ public abstract class TypedArray extends ScriptArray {
     }
 
     public static final class DirectFloat64Array extends TypedFloatArray<ByteBuffer> {
-        DirectFloat64Array(TypedArrayFactory factory, boolean offset) {
-            super(factory, offset);
+        DirectFloat64Array(TypedArrayFactory factory, boolean offset, boolean readOnly) {
+            super(factory, offset, readOnly);
         }
 
         @Override
@@ -0,0 +1,482 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.array;
+
+import static com.oracle.truffle.js.runtime.util.BufferUtil.asBaseBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.array.TypedArray.AbstractUint8ClampedArray;
+
+/**
+ * Bulk element operations on the backing store of typed arrays.
+ *
+ * The backing store is either a {@code byte[]} or a direct {@link ByteBuffer}, addressed by byte
+ * index. Each operation dispatches on the element type once and then runs a plain primitive loop
+ * (or a {@link System#arraycopy}, {@link Arrays#fill} or {@link ByteBuffer} bulk transfer), which
+ * the host compiler can unroll and vectorize. Callers are responsible for bounds and detached
+ * buffer checks. Writes to a read-only backing store throw a TypeError.
+ */
+public final class TypedArrayBulkOperations {
+
+    /** Number of elements converted per round trip through the intermediate primitive array. */
+    private static final int CHUNK_SIZE = 1024;
+
+    private TypedArrayBulkOperations() {
+    }
+
+    /**
+     * Copies {@code byteLength} bytes between backing stores. Overlapping ranges of the same
+     * backing store are handled like {@link System#arraycopy}.
+     */
+    @TruffleBoundary
+    public static void copyBytes(Object source, int sourceByteIndex, Object target, int targetByteIndex, int byteLength) {
+        try {
+            copyBytesImpl(source, sourceByteIndex, target, targetByteIndex, byteLength);
+        } catch (ReadOnlyBufferException e) {
+            throw Errors.createTypeErrorReadOnlyBuffer();
+        }
+    }
+
+    private static void copyBytesImpl(Object source, int sourceByteIndex, Object target, int targetByteIndex, int byteLength) {
+        if (byteLength <= 0) {
+            return;
+        }
+        if (source instanceof byte[] && target instanceof byte[]) {
+            System.arraycopy(source, sourceByteIndex, target, targetByteIndex, byteLength);
+        } else if (source == target) {
+            ByteBuffer buffer = (ByteBuffer) source;
+            byte[] temp = new byte[byteLength];
+            range(buffer, sourceByteIndex, byteLength).get(temp);
+            range(buffer, targetByteIndex, byteLength).put(temp);
+        } else {
+            range(target, targetByteIndex, byteLength).put(range(source, sourceByteIndex, byteLength));
+        }
+    }
+
+    /**
+     * Fills {@code byteLength} bytes starting at {@code byteIndex} with copies of the element of
+     * size {@code elementSize} already stored at {@code byteIndex}. The filled region is doubled in
+     * every step, so the number of bulk copies is logarithmic in the length.
+     */
+    @TruffleBoundary
+    public static void fill(Object backing, int byteIndex, int elementSize, int byteLength) {
+        try {
+            fillImpl(backing, byteIndex, elementSize, byteLength);
+        } catch (ReadOnlyBufferException e) {
+            throw Errors.createTypeErrorReadOnlyBuffer();
+        }
+    }
+
+    private static void fillImpl(Object backing, int byteIndex, int elementSize, int byteLength) {
+        assert byteLength % elementSize == 0;
+        if (backing instanceof byte[] && elementSize == 1) {
+            byte[] array = (byte[]) backing;
+            Arrays.fill(array, byteIndex + 1, byteIndex + byteLength, array[byteIndex]);
+            return;
+        }
+        int filled = elementSize;
+        while (filled < byteLength) {
+            int chunk = Math.min(filled, byteLength - filled);
+            if (backing instanceof byte[]) {
+                System.arraycopy(backing, byteIndex, backing, byteIndex + filled, chunk);
+            } else {
+                range(backing, byteIndex + filled, chunk).put(range(backing, byteIndex, chunk));
+            }
+            filled += chunk;
+        }
+    }
+
+    /**
+     * Copies {@code length} elements from a source to a target backing store, converting them from
+     * the source to the target element type as if by {@code Get} and {@code Set} of each element.
+     * Source and target must not overlap unless both have the same element type, and BigInt
+     * element types must not be mixed with Number element types.
+     */
+    @TruffleBoundary
+    public static void copyElements(TypedArray sourceType, Object source, int sourceByteIndex, TypedArray targetType, Object target, int targetByteIndex, int length) {
+        try {
+            copyElementsImpl(sourceType, source, sourceByteIndex, targetType, target, targetByteIndex, length);
+        } catch (ReadOnlyBufferException e) {
+            throw Errors.createTypeErrorReadOnlyBuffer();
+        }
+    }
+
+    private static void copyElementsImpl(TypedArray sourceType, Object source, int sourceByteIndex, TypedArray targetType, Object target, int targetByteIndex, int length) {
+        TypedArrayFactory sourceFactory = sourceType.getFactory();
+        TypedArrayFactory targetFactory = targetType.getFactory();
+        if (sourceFactory == targetFactory || (sourceType instanceof TypedArray.TypedBigIntArray && targetType instanceof TypedArray.TypedBigIntArray)) {
+            // identical element type or BigInt64 <-> BigUint64: same bit pattern
+            copyBytesImpl(source, sourceByteIndex, target, targetByteIndex, length * sourceType.bytesPerElement());
+            return;
+        }
+        assert !(sourceType instanceof TypedArray.TypedBigIntArray) && !(targetType instanceof TypedArray.TypedBigIntArray);
+        ByteBuffer sourceView = nativeView(source);
+        ByteBuffer targetView = nativeView(target);
+        int sourceSize = sourceType.bytesPerElement();
+        int targetSize = targetType.bytesPerElement();
+        // Uint32 does not fit into an int, so it cannot be clamped from the int representation
+        boolean viaInt = sourceType instanceof TypedArray.TypedIntArray && targetType instanceof TypedArray.TypedIntArray &&
+                        !(sourceFactory == TypedArrayFactory.Uint32Array && targetFactory == TypedArrayFactory.Uint8ClampedArray);
+        if (viaInt) {
+            int[] values = new int[Math.min(length, CHUNK_SIZE)];
+            for (int start = 0; start < length; start += CHUNK_SIZE) {
+                int count = Math.min(CHUNK_SIZE, length - start);
+                readInts(sourceFactory, sourceView, sourceByteIndex + start * sourceSize, values, count);
+                writeInts(targetFactory, targetView, targetByteIndex + start * targetSize, values, count);
+            }
+        } else {
+            double[] values = new double[Math.min(length, CHUNK_SIZE)];
+            for (int start = 0; start < length; start += CHUNK_SIZE) {
+                int count = Math.min(CHUNK_SIZE, length - start);
+                readDoubles(sourceFactory, sourceView, sourceByteIndex + start * sourceSize, values, count);
+                writeDoubles(targetFactory, targetView, targetByteIndex + start * targetSize, values, count);
+            }
+        }
+    }
+
+    /**
+     * Searches the elements with index in [{@code startIndex}, {@code endIndex}) for a Number,
+     * scanning upwards if {@code forward} and downwards otherwise. Uses strict equality, or
+     * SameValueZero if {@code sameValueZero} is set. Not applicable to BigInt element types.
+     *
+     * @return the index of the element found, or -1
+     */
+    @TruffleBoundary
+    public static int indexOfNumber(TypedArray type, Object backing, int byteOffset, int startIndex, int endIndex, double value, boolean sameValueZero, boolean forward) {
+        assert !(type instanceof TypedArray.TypedBigIntArray);
+        ByteBuffer view = nativeView(backing);
+        TypedArrayFactory factory = type.getFactory();
+        if (type instanceof TypedArray.TypedFloatArray) {
+            boolean findNaN = Double.isNaN(value);
+            if (findNaN && !sameValueZero) {
+                return -1;
+            }
+            boolean isFloat32 = factory == TypedArrayFactory.Float32Array;
+            int size = type.bytesPerElement();
+            for (int n = endIndex - startIndex, k = 0; k < n; k++) {
+                int i = forward ? startIndex + k : endIndex - 1 - k;
+                int byteIndex = byteOffset + i * size;
+                double element = isFloat32 ? view.getFloat(byteIndex) : view.getDouble(byteIndex);
+                if (element == value || (findNaN && Double.isNaN(element))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        long longValue = (long) value;
+        if (longValue != value || longValue < minIntValue(factory) || longValue > maxIntValue(factory)) {
+            // not representable (incl. NaN), so no element can be equal
+            return -1;
+        }
+        int raw = (int) longValue;
+        switch (type.bytesPerElement()) {
+            case 1:
+                return indexOfByte(view, byteOffset, startIndex, endIndex, (byte) raw, forward);
+            case 2:
+                return indexOfShort(view, byteOffset, startIndex, endIndex, (short) raw, forward);
+            case 4:
+                return indexOfInt(view, byteOffset, startIndex, endIndex, raw, forward);
+            default:
+                throw Errors.shouldNotReachHere();
+        }
+    }
+
+    private static int indexOfByte(ByteBuffer view, int byteOffset, int startIndex, int endIndex, byte raw, boolean forward) {
+        if (forward) {
+            for (int i = startIndex; i < endIndex; i++) {
+                if (view.get(byteOffset + i) == raw) {
+                    return i;
+                }
+            }
+        } else {
+            for (int i = endIndex - 1; i >= startIndex; i--) {
+                if (view.get(byteOffset + i) == raw) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfShort(ByteBuffer view, int byteOffset, int startIndex, int endIndex, short raw, boolean forward) {
+        if (forward) {
+            for (int i = startIndex; i < endIndex; i++) {
+                if (view.getShort(byteOffset + i * 2) == raw) {
+                    return i;
+                }
+            }
+        } else {
+            for (int i = endIndex - 1; i >= startIndex; i--) {
+                if (view.getShort(byteOffset + i * 2) == raw) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfInt(ByteBuffer view, int byteOffset, int startIndex, int endIndex, int raw, boolean forward) {
+        if (forward) {
+            for (int i = startIndex; i < endIndex; i++) {
+                if (view.getInt(byteOffset + i * 4) == raw) {
+                    return i;
+                }
+            }
+        } else {
+            for (int i = endIndex - 1; i >= startIndex; i--) {
+                if (view.getInt(byteOffset + i * 4) == raw) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long minIntValue(TypedArrayFactory factory) {
+        switch (factory) {
+            case Int8Array:
+                return Byte.MIN_VALUE;
+            case Int16Array:
+                return Short.MIN_VALUE;
+            case Int32Array:
+                return Integer.MIN_VALUE;
+            default:
+                return 0;
+        }
+    }
+
+    private static long maxIntValue(TypedArrayFactory factory) {
+        switch (factory) {
+            case Int8Array:
+                return Byte.MAX_VALUE;
+            case Uint8Array:
+            case Uint8ClampedArray:
+                return 0xff;
+            case Int16Array:
+                return Short.MAX_VALUE;
+            case Uint16Array:
+                return 0xffff;
+            case Int32Array:
+                return Integer.MAX_VALUE;
+            case Uint32Array:
+                return 0xffff_ffffL;
+            default:
+                throw Errors.shouldNotReachHere();
+        }
+    }
+
+    private static void readInts(TypedArrayFactory factory, ByteBuffer view, int byteIndex, int[] values, int count) {
+        switch (factory) {
+            case Int8Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.get(byteIndex + i);
+                }
+                break;
+            case Uint8Array:
+            case Uint8ClampedArray:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.get(byteIndex + i) & 0xff;
+                }
+                break;
+            case Int16Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.getShort(byteIndex + i * 2);
+                }
+                break;
+            case Uint16Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.getChar(byteIndex + i * 2);
+                }
+                break;
+            case Int32Array:
+            case Uint32Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.getInt(byteIndex + i * 4);
+                }
+                break;
+            default:
+                throw Errors.shouldNotReachHere();
+        }
+    }
+
+    private static void writeInts(TypedArrayFactory factory, ByteBuffer view, int byteIndex, int[] values, int count) {
+        switch (factory) {
+            case Int8Array:
+            case Uint8Array:
+                for (int i = 0; i < count; i++) {
+                    view.put(byteIndex + i, (byte) values[i]);
+                }
+                break;
+            case Uint8ClampedArray:
+                for (int i = 0; i < count; i++) {
+                    view.put(byteIndex + i, (byte) AbstractUint8ClampedArray.uint8Clamp(values[i]));
+                }
+                break;
+            case Int16Array:
+            case Uint16Array:
+                for (int i = 0; i < count; i++) {
+                    view.putShort(byteIndex + i * 2, (short) values[i]);
+                }
+                break;
+            case Int32Array:
+            case Uint32Array:
+                for (int i = 0; i < count; i++) {
+                    view.putInt(byteIndex + i * 4, values[i]);
+                }
+                break;
+            default:
+                throw Errors.shouldNotReachHere();
+        }
+    }
+
+    private static void readDoubles(TypedArrayFactory factory, ByteBuffer view, int byteIndex, double[] values, int count) {
+        switch (factory) {
+            case Int8Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.get(byteIndex + i);
+                }
+                break;
+            case Uint8Array:
+            case Uint8ClampedArray:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.get(byteIndex + i) & 0xff;
+                }
+                break;
+            case Int16Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.getShort(byteIndex + i * 2);
+                }
+                break;
+            case Uint16Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.getChar(byteIndex + i * 2);
+                }
+                break;
+            case Int32Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.getInt(byteIndex + i * 4);
+                }
+                break;
+            case Uint32Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.getInt(byteIndex + i * 4) & 0xffff_ffffL;
+                }
+                break;
+            case Float32Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.getFloat(byteIndex + i * 4);
+                }
+                break;
+            case Float64Array:
+                for (int i = 0; i < count; i++) {
+                    values[i] = view.getDouble(byteIndex + i * 8);
+                }
+                break;
+            default:
+                throw Errors.shouldNotReachHere();
+        }
+    }
+
+    private static void writeDoubles(TypedArrayFactory factory, ByteBuffer view, int byteIndex, double[] values, int count) {
+        switch (factory) {
+            case Int8Array:
+            case Uint8Array:
+                for (int i = 0; i < count; i++) {
+                    view.put(byteIndex + i, (byte) JSRuntime.toInt32(values[i]));
+                }
+                break;
+            case Uint8ClampedArray:
+                for (int i = 0; i < count; i++) {
+                    view.put(byteIndex + i, (byte) AbstractUint8ClampedArray.uint8Clamp(AbstractUint8ClampedArray.toInt(values[i])));
+                }
+                break;
+            case Int16Array:
+            case Uint16Array:
+                for (int i = 0; i < count; i++) {
+                    view.putShort(byteIndex + i * 2, (short) JSRuntime.toInt32(values[i]));
+                }
+                break;
+            case Int32Array:
+            case Uint32Array:
+                for (int i = 0; i < count; i++) {
+                    view.putInt(byteIndex + i * 4, JSRuntime.toInt32(values[i]));
+                }
+                break;
+            case Float32Array:
+                for (int i = 0; i < count; i++) {
+                    view.putFloat(byteIndex + i * 4, (float) values[i]);
+                }
+                break;
+            case Float64Array:
+                for (int i = 0; i < count; i++) {
+                    view.putDouble(byteIndex + i * 8, values[i]);
+                }
+                break;
+            default:
+                throw Errors.shouldNotReachHere();
+        }
+    }
+
+    private static ByteBuffer nativeView(Object backing) {
+        if (backing instanceof byte[]) {
+            return ByteBuffer.wrap((byte[]) backing).order(ByteOrder.nativeOrder());
+        } else {
+            return ((ByteBuffer) backing).duplicate().order(ByteOrder.nativeOrder());
+        }
+    }
+
+    private static ByteBuffer range(Object backing, int byteIndex, int byteLength) {
+        if (backing instanceof byte[]) {
+            return ByteBuffer.wrap((byte[]) backing, byteIndex, byteLength);
+        } else {
+            ByteBuffer buffer = ((ByteBuffer) backing).duplicate();
+            asBaseBuffer(buffer).limit(byteIndex + byteLength).position(byteIndex);
+            return buffer;
+        }
+    }
+}
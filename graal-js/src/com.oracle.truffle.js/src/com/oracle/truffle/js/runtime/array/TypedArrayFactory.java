@@ -73,9 +73,9 @@ import com.oracle.truffle.js.runtime.builtins.PrototypeSupplier;
 public enum TypedArrayFactory implements PrototypeSupplier {
     Int8Array(TypedArray.INT8_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectInt8Array(this, offset);
+                return new DirectInt8Array(this, offset, readOnly);
             } else {
                 return new Int8Array(this, offset);
             }
@@ -83,9 +83,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     Uint8Array(TypedArray.UINT8_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectUint8Array(this, offset);
+                return new DirectUint8Array(this, offset, readOnly);
             } else {
                 return new Uint8Array(this, offset);
             }
@@ -93,9 +93,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     Uint8ClampedArray(TypedArray.UINT8_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectUint8ClampedArray(this, offset);
+                return new DirectUint8ClampedArray(this, offset, readOnly);
             } else {
                 return new Uint8ClampedArray(this, offset);
             }
@@ -103,9 +103,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     Int16Array(TypedArray.INT16_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectInt16Array(this, offset);
+                return new DirectInt16Array(this, offset, readOnly);
             } else {
                 return new Int16Array(this, offset);
             }
@@ -113,9 +113,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     Uint16Array(TypedArray.UINT16_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectUint16Array(this, offset);
+                return new DirectUint16Array(this, offset, readOnly);
             } else {
                 return new Uint16Array(this, offset);
             }
@@ -123,9 +123,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     Int32Array(TypedArray.INT32_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectInt32Array(this, offset);
+                return new DirectInt32Array(this, offset, readOnly);
             } else {
                 return new Int32Array(this, offset);
             }
@@ -133,9 +133,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     Uint32Array(TypedArray.UINT32_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectUint32Array(this, offset);
+                return new DirectUint32Array(this, offset, readOnly);
             } else {
                 return new Uint32Array(this, offset);
             }
@@ -143,9 +143,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     Float32Array(TypedArray.FLOAT32_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectFloat32Array(this, offset);
+                return new DirectFloat32Array(this, offset, readOnly);
             } else {
                 return new Float32Array(this, offset);
             }
@@ -153,9 +153,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     Float64Array(TypedArray.FLOAT64_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectFloat64Array(this, offset);
+                return new DirectFloat64Array(this, offset, readOnly);
             } else {
                 return new Float64Array(this, offset);
             }
@@ -163,9 +163,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     BigInt64Array(TypedArray.BIGINT64_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectBigInt64Array(this, offset);
+                return new DirectBigInt64Array(this, offset, readOnly);
             } else {
                 return new BigInt64Array(this, offset);
             }
@@ -173,9 +173,9 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     },
     BigUint64Array(TypedArray.BIGUINT64_BYTES_PER_ELEMENT) {
         @Override
-        TypedArray instantiateArrayType(boolean direct, boolean offset) {
+        TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly) {
             if (direct) {
-                return new DirectBigUint64Array(this, offset);
+                return new DirectBigUint64Array(this, offset, readOnly);
             } else {
                 return new BigUint64Array(this, offset);
             }
@@ -187,18 +187,38 @@ public enum TypedArrayFactory implements PrototypeSupplier {
     private final TypedArray arrayTypeWithOffset;
     private final TypedArray directArrayType;
     private final TypedArray directArrayTypeWithOffset;
+    private final TypedArray readOnlyDirectArrayType;
+    private final TypedArray readOnlyDirectArrayTypeWithOffset;
 
     TypedArrayFactory(int bytesPerElement) {
         this.bytesPerElement = bytesPerElement;
-        this.arrayType = instantiateArrayType(false, false);
-        this.arrayTypeWithOffset = instantiateArrayType(false, true);
-        this.directArrayType = instantiateArrayType(true, false);
-        this.directArrayTypeWithOffset = instantiateArrayType(true, true);
+        this.arrayType = instantiateArrayType(false, false, false);
+        this.arrayTypeWithOffset = instantiateArrayType(false, true, false);
+        this.directArrayType = instantiateArrayType(true, false, false);
+        this.directArrayTypeWithOffset = instantiateArrayType(true, true, false);
+        this.readOnlyDirectArrayType = instantiateArrayType(true, false, true);
+        this.readOnlyDirectArrayTypeWithOffset = instantiateArrayType(true, true, true);
         assert !arrayType.hasOffset() && arrayTypeWithOffset.hasOffset() && !directArrayType.hasOffset() && directArrayTypeWithOffset.hasOffset();
+        assert readOnlyDirectArrayType.isReadOnly() && readOnlyDirectArrayTypeWithOffset.isReadOnly() && !directArrayType.isReadOnly();
     }
 
     public final TypedArray createArrayType(boolean direct, boolean offset) {
-        if (direct) {
+        return createArrayType(direct, offset, false);
+    }
+
+    /**
+     * Returns the array type for views on a buffer. Views on read-only direct buffers have types
+     * of their own, so that the writable direct types can keep assuming the exact class of a
+     * writable direct buffer.
+     */
+    public final TypedArray createArrayType(boolean direct, boolean offset, boolean readOnly) {
+        if (direct && readOnly) {
+            if (offset) {
+                return readOnlyDirectArrayTypeWithOffset;
+            } else {
+                return readOnlyDirectArrayType;
+            }
+        } else if (direct) {
             if (offset) {
                 return directArrayTypeWithOffset;
             } else {
@@ -225,7 +245,7 @@ public enum TypedArrayFactory implements PrototypeSupplier {
         return name();
     }
 
-    abstract TypedArray instantiateArrayType(boolean direct, boolean offset);
+    abstract TypedArray instantiateArrayType(boolean direct, boolean offset, boolean readOnly);
 
     @Override
     public final DynamicObject getIntrinsicDefaultProto(JSRealm realm) {
@@ -45,6 +45,8 @@ import static com.oracle.truffle.api.CompilerDirectives.injectBranchProbability;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arrayGetArray;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArray;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSRuntime;
@@ -175,6 +177,25 @@ public abstract class AbstractDoubleArray extends AbstractWritableArray {
         System.arraycopy(array, src, array, dst, len);
     }
 
+    /**
+     * Returns a copy of the elements. The array must not have holes.
+     */
+    public final double[] getElements(DynamicObject object) {
+        assert !isHolesType();
+        int fromIndex = prepareInBoundsFast(object, firstElementIndex(object), arrayCondition());
+        return Arrays.copyOfRange(getArray(object), fromIndex, fromIndex + getUsedLength(object));
+    }
+
+    /**
+     * Replaces the elements with the given values, e.g., a sorted copy of the elements. The array
+     * must not have holes and must still have as many elements.
+     */
+    public final void setElements(DynamicObject object, double[] values) {
+        assert !isHolesType() && getUsedLength(object) == values.length;
+        int fromIndex = prepareInBoundsFast(object, firstElementIndex(object), arrayCondition());
+        System.arraycopy(values, 0, getArray(object), fromIndex, values.length);
+    }
+
     @Override
     public final Object allocateArray(int length) {
         return new double[length];
@@ -46,9 +46,12 @@ import static com.oracle.truffle.api.CompilerDirectives.injectBranchProbability;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arrayGetArray;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArray;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
+import com.oracle.truffle.js.runtime.util.PrimitiveArraySort;
 
 public abstract class AbstractIntArray extends AbstractWritableArray {
 
@@ -197,6 +200,36 @@ public abstract class AbstractIntArray extends AbstractWritableArray {
         System.arraycopy(array, src, array, dst, len);
     }
 
+    /**
+     * Sorts the elements in place, without boxing them. The array must not have holes, and the
+     * comparator must not call back into user code.
+     */
+    public final void sortInPlace(DynamicObject object, PrimitiveArraySort.IntComparator comparator) {
+        assert !isHolesType();
+        int fromIndex = prepareInBoundsFast(object, firstElementIndex(object), arrayCondition());
+        int toIndex = fromIndex + getUsedLength(object);
+        PrimitiveArraySort.sort(getArray(object), fromIndex, toIndex, comparator);
+    }
+
+    /**
+     * Returns a copy of the elements. The array must not have holes.
+     */
+    public final int[] getElements(DynamicObject object) {
+        assert !isHolesType();
+        int fromIndex = prepareInBoundsFast(object, firstElementIndex(object), arrayCondition());
+        return Arrays.copyOfRange(getArray(object), fromIndex, fromIndex + getUsedLength(object));
+    }
+
+    /**
+     * Replaces the elements with the given values, e.g., a sorted copy of the elements. The array
+     * must not have holes and must still have as many elements.
+     */
+    public final void setElements(DynamicObject object, int[] values) {
+        assert !isHolesType() && getUsedLength(object) == values.length;
+        int fromIndex = prepareInBoundsFast(object, firstElementIndex(object), arrayCondition());
+        System.arraycopy(values, 0, getArray(object), fromIndex, values.length);
+    }
+
     @Override
     public final Object allocateArray(int length) {
         return new int[length];
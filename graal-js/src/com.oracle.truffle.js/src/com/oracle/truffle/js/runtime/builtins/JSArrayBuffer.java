@@ -94,15 +94,40 @@ public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstruct
         return getDirectByteBuffer(thisObj).capacity();
     }
 
+    /**
+     * Returns the backing buffer of a direct ArrayBuffer, which may be read-only.
+     */
     public static ByteBuffer getDirectByteBuffer(DynamicObject thisObj) {
-        return getDirectByteBuffer(thisObj, JSArrayBuffer.isJSDirectArrayBuffer(thisObj));
+        boolean condition = JSArrayBuffer.isJSDirectArrayBuffer(thisObj);
+        if (isReadOnlyDirectArrayBuffer(thisObj)) {
+            return getReadOnlyDirectByteBuffer(thisObj, condition);
+        }
+        return getDirectByteBuffer(thisObj, condition);
     }
 
+    /**
+     * Returns the backing buffer of a direct ArrayBuffer that is known not to be read-only.
+     */
     public static ByteBuffer getDirectByteBuffer(DynamicObject thisObj, boolean condition) {
         assert isJSDirectArrayBuffer(thisObj) || JSSharedArrayBuffer.isJSSharedArrayBuffer(thisObj);
+        assert !isReadOnlyDirectArrayBuffer(thisObj);
         return DirectByteBufferHelper.cast((ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, condition));
     }
 
+    public static ByteBuffer getReadOnlyDirectByteBuffer(DynamicObject thisObj, boolean condition) {
+        assert isReadOnlyDirectArrayBuffer(thisObj);
+        return DirectByteBufferHelper.castReadOnly((ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, condition));
+    }
+
+    /**
+     * Whether this is a direct ArrayBuffer backed by a read-only buffer. Views on it need the
+     * read-only array types, see
+     * {@link com.oracle.truffle.js.runtime.array.TypedArrayFactory#createArrayType(boolean, boolean, boolean)}.
+     */
+    public static boolean isReadOnlyDirectArrayBuffer(DynamicObject thisObj) {
+        return isJSDirectArrayBuffer(thisObj) && DirectByteBufferHelper.isReadOnly((ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, true));
+    }
+
     public static DynamicObject createDirectArrayBuffer(JSContext context, int length) {
         return createDirectArrayBuffer(context, DirectByteBufferHelper.allocateDirect(length));
     }
@@ -113,6 +138,28 @@ public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstruct
         return obj;
     }
 
+    /**
+     * Creates an ArrayBuffer that shares the contents of a host buffer without copying, e.g. a
+     * memory-mapped file. The ArrayBuffer covers the whole buffer regardless of its position and
+     * limit, and writes on either side are visible on the other. Writes to an ArrayBuffer over a
+     * read-only direct buffer throw a TypeError. Detaching the ArrayBuffer only drops its
+     * reference; the memory stays valid as long as the host buffer is reachable.
+     */
+    @TruffleBoundary
+    public static DynamicObject createArrayBufferFromByteBuffer(JSContext context, ByteBuffer buffer) {
+        if (buffer.isDirect()) {
+            return createDirectArrayBuffer(context, buffer);
+        }
+        if (buffer.isReadOnly()) {
+            throw Errors.createTypeError("Cannot create an ArrayBuffer from a read-only heap buffer");
+        }
+        byte[] array = buffer.array();
+        if (buffer.arrayOffset() != 0 || array.length != buffer.capacity()) {
+            throw Errors.createTypeError("Cannot create an ArrayBuffer from a buffer over part of an array");
+        }
+        return createArrayBuffer(context, array);
+    }
+
     @Override
     public DynamicObject createPrototype(JSRealm realm, DynamicObject ctor) {
         JSContext context = realm.getContext();
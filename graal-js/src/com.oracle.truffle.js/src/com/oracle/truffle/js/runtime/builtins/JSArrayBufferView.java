@@ -169,6 +169,10 @@ public final class JSArrayBufferView extends JSBuiltinObject {
         return DirectByteBufferHelper.cast((ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, condition));
     }
 
+    public static ByteBuffer typedArrayGetReadOnlyByteBuffer(DynamicObject thisObj, boolean condition) {
+        return DirectByteBufferHelper.castReadOnly((ByteBuffer) BYTE_BUFFER_PROPERTY.get(thisObj, condition));
+    }
+
     private static String typedArrayGetName(DynamicObject thisObj) {
         return typedArrayGetArrayType(thisObj).getName();
     }
@@ -382,6 +386,7 @@ public final class JSArrayBufferView extends JSBuiltinObject {
     }
 
     public static DynamicObject createArrayBufferView(JSContext context, JSObjectFactory objectFactory, DynamicObject arrayBuffer, TypedArray arrayType, int offset, int length) {
+        assert arrayType.isReadOnly() == JSArrayBuffer.isReadOnlyDirectArrayBuffer(arrayBuffer);
         Object backingStorage = arrayType.isDirect() ? JSArrayBuffer.getDirectByteBuffer(arrayBuffer) : JSArrayBuffer.getByteArray(arrayBuffer);
         return createArrayBufferView(context, objectFactory, arrayBuffer, arrayType, offset, length, backingStorage, false);
     }
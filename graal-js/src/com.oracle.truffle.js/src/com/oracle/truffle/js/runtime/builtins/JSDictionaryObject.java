@@ -40,12 +40,10 @@
  */
 package com.oracle.truffle.js.runtime.builtins;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import org.graalvm.collections.EconomicMap;
-import org.graalvm.collections.MapCursor;
-
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
@@ -60,6 +58,7 @@ import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.objects.Accessor;
+import com.oracle.truffle.js.runtime.objects.JSAttributes;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.JSProperty;
@@ -68,10 +67,17 @@ import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.DefinePropertyUtil;
+import com.oracle.truffle.js.runtime.util.JSHashMap;
+import com.oracle.truffle.js.runtime.util.UnmodifiableArrayList;
 
 /**
  * This is a variant of {@link JSUserObject} that stores its contents as a HashMap of properties
  * (excepts hidden properties, incl. prototype).
+ *
+ * <p>
+ * The properties are kept in an insertion-ordered {@link JSHashMap}. Writable, enumerable and
+ * configurable data properties are stored as just their value; all other properties are stored as
+ * a {@link PropertyDescriptor}.
  */
 public final class JSDictionaryObject extends JSBuiltinObject {
 
@@ -84,7 +90,7 @@ public final class JSDictionaryObject extends JSBuiltinObject {
 
     static {
         Shape.Allocator allocator = JSShape.makeAllocator(JSObject.LAYOUT);
-        HASHMAP_PROPERTY = JSObjectUtil.makeHiddenProperty(HASHMAP_PROPERTY_NAME, allocator.locationForType(EconomicMap.class));
+        HASHMAP_PROPERTY = JSObjectUtil.makeHiddenProperty(HASHMAP_PROPERTY_NAME, allocator.locationForType(JSHashMap.class));
     }
 
     private JSDictionaryObject() {
@@ -114,14 +120,21 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @TruffleBoundary
     @Override
     public Object getOwnHelper(DynamicObject store, Object thisObj, Object key) {
-        PropertyDescriptor desc = getHashMap(store).get(key);
-        if (desc != null) {
-            return getValue(desc, thisObj);
+        Object entry = getHashMap(store).get(key);
+        if (entry != null) {
+            return getEntryValue(entry, thisObj);
         }
 
         return super.getOwnHelper(store, thisObj, key);
     }
 
+    private static Object getEntryValue(Object entry, Object receiver) {
+        if (entry instanceof PropertyDescriptor) {
+            return getValue((PropertyDescriptor) entry, receiver);
+        }
+        return entry;
+    }
+
     public static Object getValue(PropertyDescriptor property, Object receiver) {
         if (property.isAccessorDescriptor()) {
             DynamicObject getter = (DynamicObject) property.getGet();
@@ -140,35 +153,106 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @Override
     public List<Object> getOwnPropertyKeys(DynamicObject thisObj, boolean strings, boolean symbols) {
         assert isJSDictionaryObject(thisObj);
-        List<Object> keys = ordinaryOwnPropertyKeysSlow(thisObj, strings, symbols);
-        for (Object key : getHashMap(thisObj).getKeys()) {
-            if ((!symbols && key instanceof Symbol) || (!strings && key instanceof String)) {
-                continue;
+        return ownPropertyKeys(thisObj, strings, symbols, false);
+    }
+
+    /**
+     * EnumerableOwnPropertyNames(O, key), without looking up every key again.
+     */
+    @TruffleBoundary
+    public static UnmodifiableArrayList<Object> enumerableOwnPropertyNames(DynamicObject thisObj) {
+        assert isJSDictionaryObject(thisObj);
+        return new UnmodifiableArrayList<>(ownPropertyKeys(thisObj, true, false, true).toArray());
+    }
+
+    /**
+     * Returns the keys in property key order: array indices in ascending order, followed by the
+     * other strings and then the symbols, both in insertion order. Only array indices need to be
+     * sorted, so this is linear in the number of properties unless they are used as keys.
+     */
+    private static List<Object> ownPropertyKeys(DynamicObject thisObj, boolean strings, boolean symbols, boolean enumerableOnly) {
+        JSHashMap hashMap = getHashMap(thisObj);
+        Shape shape = thisObj.getShape();
+        List<Object> indices = new ArrayList<>();
+        List<Object> names = new ArrayList<>(strings ? hashMap.size() : 0);
+        List<Object> symbolKeys = new ArrayList<>();
+        for (Object key : shape.getKeyList()) {
+            if (!enumerableOnly || JSProperty.isEnumerable(shape.getProperty(key))) {
+                addPropertyKey(key, strings, symbols, indices, names, symbolKeys);
+            }
+        }
+        JSHashMap.Cursor cursor = hashMap.getEntries();
+        while (cursor.advance()) {
+            Object entry = cursor.getValue();
+            if (!enumerableOnly || !(entry instanceof PropertyDescriptor) || ((PropertyDescriptor) entry).getEnumerable()) {
+                addPropertyKey(cursor.getKey(), strings, symbols, indices, names, symbolKeys);
+            }
+        }
+        if (indices.isEmpty() && symbolKeys.isEmpty()) {
+            return names;
+        }
+        Collections.sort(indices, JSRuntime::comparePropertyKeys);
+        indices.addAll(names);
+        indices.addAll(symbolKeys);
+        return indices;
+    }
+
+    private static void addPropertyKey(Object key, boolean strings, boolean symbols, List<Object> indices, List<Object> names, List<Object> symbolKeys) {
+        if (key instanceof String) {
+            if (strings) {
+                if (JSRuntime.isArrayIndex(JSRuntime.propertyNameToArrayIndex((String) key))) {
+                    indices.add(key);
+                } else {
+                    names.add(key);
+                }
+            }
+        } else if (key instanceof Symbol) {
+            if (symbols) {
+                symbolKeys.add(key);
             }
-            keys.add(key);
         }
-        Collections.sort(keys, JSRuntime::comparePropertyKeys);
-        return keys;
     }
 
     @TruffleBoundary
     @Override
     public boolean delete(DynamicObject thisObj, Object key, boolean isStrict) {
-        EconomicMap<Object, PropertyDescriptor> hashMap = getHashMap(thisObj);
-        PropertyDescriptor desc = hashMap.get(key);
-        if (desc != null) {
-            if (!desc.getConfigurable()) {
+        JSHashMap hashMap = getHashMap(thisObj);
+        Object entry = hashMap.get(key);
+        if (entry != null) {
+            if (entry instanceof PropertyDescriptor && !((PropertyDescriptor) entry).getConfigurable()) {
                 if (isStrict) {
                     throw Errors.createTypeErrorNotConfigurableProperty(key);
                 }
                 return false;
             }
-            hashMap.removeKey(key);
+            hashMap.remove(key);
+            if (hashMap.size() < JSConfig.DictionaryObjectShrinkThreshold && isOrdinaryObjectCandidate(thisObj, hashMap)) {
+                makeOrdinaryObject(thisObj, "delete");
+            }
             return true;
         }
         return super.delete(thisObj, key, isStrict);
     }
 
+    /**
+     * A dictionary object that has shrunk goes back to shapes, unless it is not extensible (which
+     * the new shape would not reflect) or it is used with array index keys, for which it was most
+     * likely turned into a dictionary object in the first place.
+     */
+    private static boolean isOrdinaryObjectCandidate(DynamicObject thisObj, JSHashMap hashMap) {
+        if (!JSObject.isExtensible(thisObj)) {
+            return false;
+        }
+        JSHashMap.Cursor cursor = hashMap.getEntries();
+        while (cursor.advance()) {
+            Object key = cursor.getKey();
+            if (key instanceof String && JSRuntime.isArrayIndex(JSRuntime.propertyNameToArrayIndex((String) key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean delete(DynamicObject thisObj, long index, boolean isStrict) {
         return delete(thisObj, String.valueOf(index), isStrict);
@@ -177,7 +261,7 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @TruffleBoundary
     @Override
     public boolean hasOwnProperty(DynamicObject thisObj, Object key) {
-        if (getHashMap(thisObj).containsKey(key)) {
+        if (getHashMap(thisObj).has(key)) {
             return true;
         }
         return super.hasOwnProperty(thisObj, key);
@@ -200,9 +284,15 @@ public final class JSDictionaryObject extends JSBuiltinObject {
         if (receiver != thisObj) {
             return ordinarySetWithReceiver(thisObj, key, value, receiver, isStrict);
         }
-        PropertyDescriptor property = getHashMap(thisObj).get(key);
-        if (property != null) {
-            return setValue(key, property, thisObj, receiver, value, isStrict);
+        JSHashMap hashMap = getHashMap(thisObj);
+        int index = hashMap.indexOf(key);
+        if (index >= 0) {
+            Object entry = hashMap.getValueAt(index);
+            if (entry instanceof PropertyDescriptor) {
+                return setValue(key, (PropertyDescriptor) entry, thisObj, receiver, value, isStrict);
+            }
+            hashMap.setValueAt(index, value);
+            return true;
         }
         Property entry = DefinePropertyUtil.getPropertyByKey(thisObj, key);
         if (entry != null) {
@@ -240,9 +330,12 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @Override
     public PropertyDescriptor getOwnProperty(DynamicObject thisObj, Object key) {
         assert JSRuntime.isPropertyKey(key);
-        PropertyDescriptor prop = getHashMap(thisObj).get(key);
-        if (prop != null) {
-            return prop;
+        Object entry = getHashMap(thisObj).get(key);
+        if (entry != null) {
+            if (entry instanceof PropertyDescriptor) {
+                return (PropertyDescriptor) entry;
+            }
+            return PropertyDescriptor.createDataDefault(entry);
         }
         return super.getOwnProperty(thisObj, key);
     }
@@ -251,7 +344,7 @@ public final class JSDictionaryObject extends JSBuiltinObject {
     @Override
     public boolean defineOwnProperty(DynamicObject thisObj, Object key, PropertyDescriptor desc, boolean doThrow) {
         if (!hasOwnProperty(thisObj, key) && JSObject.isExtensible(thisObj)) {
-            getHashMap(thisObj).put(key, desc);
+            getHashMap(thisObj).put(key, toEntry(desc));
             return true;
         }
 
@@ -261,11 +354,29 @@ public final class JSDictionaryObject extends JSBuiltinObject {
         return super.defineOwnProperty(thisObj, key, desc, doThrow);
     }
 
-    @SuppressWarnings("unchecked")
-    static EconomicMap<Object, PropertyDescriptor> getHashMap(DynamicObject obj) {
+    /**
+     * Data properties with default attributes are stored as just their value.
+     */
+    private static Object toEntry(PropertyDescriptor desc) {
+        if (desc.isDataDescriptor() && desc.hasValue() && desc.getWritable() && desc.getEnumerable() && desc.getConfigurable()) {
+            return desc.getValue();
+        }
+        return desc;
+    }
+
+    static JSHashMap getHashMap(DynamicObject obj) {
         assert JSDictionaryObject.isJSDictionaryObject(obj);
         Property hashMapProperty = obj.getShape().getProperty(HASHMAP_PROPERTY_NAME);
-        return (EconomicMap<Object, PropertyDescriptor>) hashMapProperty.get(obj, false);
+        return (JSHashMap) hashMapProperty.get(obj, false);
+    }
+
+    /**
+     * The hidden property holding the {@link JSHashMap} of objects with this dictionary shape.
+     */
+    public static Property getHashMapProperty(Shape shape) {
+        Property hashMapProperty = shape.getProperty(HASHMAP_PROPERTY_NAME);
+        assert isHashMapProperty(hashMapProperty);
+        return hashMapProperty;
     }
 
     public static void makeDictionaryObject(DynamicObject obj, String reason) {
@@ -284,7 +395,7 @@ public final class JSDictionaryObject extends JSBuiltinObject {
         JSContext context = JSObject.getJSContext(obj);
         Shape hashedShape = makeEmptyShapeForNewType(context, currentShape, JSDictionaryObject.INSTANCE);
 
-        EconomicMap<Object, PropertyDescriptor> hashMap = newHashMap();
+        JSHashMap hashMap = newHashMap();
         List<Property> properties = currentShape.getPropertyListInternal(true);
         for (Property p : properties) {
             Object key = p.getKey();
@@ -296,7 +407,7 @@ public final class JSDictionaryObject extends JSBuiltinObject {
             } else {
                 // normal properties
                 Object value = p.get(obj, false);
-                hashMap.put(key, toPropertyDescriptor(p, value));
+                hashMap.put(key, toEntry(p, value));
 
                 // invalidate property assumptions (for final properties)
                 JSShape.invalidatePropertyAssumption(currentShape, key);
@@ -328,6 +439,13 @@ public final class JSDictionaryObject extends JSBuiltinObject {
         }
     }
 
+    private static Object toEntry(Property p, Object value) {
+        if (JSProperty.isData(p) && JSProperty.isWritable(p) && JSProperty.isEnumerable(p) && JSProperty.isConfigurable(p)) {
+            return value;
+        }
+        return toPropertyDescriptor(p, value);
+    }
+
     private static PropertyDescriptor toPropertyDescriptor(Property p, Object value) {
         PropertyDescriptor desc;
         if (JSProperty.isAccessor(p)) {
@@ -347,7 +465,7 @@ public final class JSDictionaryObject extends JSBuiltinObject {
             System.out.printf("transitioning from dictionary object to ordinary object: %s\n", reason);
         }
 
-        EconomicMap<Object, PropertyDescriptor> hashMap = getHashMap(obj);
+        JSHashMap hashMap = getHashMap(obj);
         Shape oldShape = obj.getShape();
         JSContext context = JSObject.getJSContext(obj);
         Shape newShape = makeEmptyShapeForNewType(context, oldShape, JSUserObject.INSTANCE);
@@ -363,10 +481,15 @@ public final class JSDictionaryObject extends JSBuiltinObject {
         }
         obj.setShapeAndGrow(oldShape, newShape);
 
-        MapCursor<Object, PropertyDescriptor> cursor = hashMap.getEntries();
+        JSHashMap.Cursor cursor = hashMap.getEntries();
         while (cursor.advance()) {
             Object key = cursor.getKey();
-            PropertyDescriptor desc = cursor.getValue();
+            Object entry = cursor.getValue();
+            if (!(entry instanceof PropertyDescriptor)) {
+                JSObjectUtil.defineDataProperty(obj, key, entry, JSAttributes.getDefault());
+                continue;
+            }
+            PropertyDescriptor desc = (PropertyDescriptor) entry;
             if (desc.isDataDescriptor()) {
                 JSObjectUtil.defineDataProperty(obj, key, desc.getValue(), desc.getFlags());
             } else {
@@ -390,8 +513,8 @@ public final class JSDictionaryObject extends JSBuiltinObject {
         return JSObject.create(context, context.getDictionaryObjectFactory(), newHashMap());
     }
 
-    private static EconomicMap<Object, PropertyDescriptor> newHashMap() {
-        return EconomicMap.create();
+    private static JSHashMap newHashMap() {
+        return new JSHashMap();
     }
 
     @Override
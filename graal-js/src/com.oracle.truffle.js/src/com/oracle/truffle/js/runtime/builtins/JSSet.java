@@ -109,14 +109,19 @@ public final class JSSet extends JSBuiltinObject implements JSConstructorFactory
     }
 
     public static Object normalizeDouble(double value) {
-        if (JSRuntime.isNegativeZero(value)) {
-            return 0;
-        } else if (JSRuntime.doubleIsRepresentableAsInt(value)) {
+        if (isIntKey(value)) {
             return (int) value;
         }
         return value;
     }
 
+    /**
+     * Whether the double key is normalized to an int key, i.e. it is -0 or an integral int value.
+     */
+    public static boolean isIntKey(double value) {
+        return JSRuntime.isNegativeZero(value) || JSRuntime.doubleIsRepresentableAsInt(value);
+    }
+
     public static JSHashMap getInternalSet(DynamicObject obj) {
         assert isJSSet(obj);
         return (JSHashMap) SET_PROPERTY.get(obj, isJSSet(obj));
@@ -40,25 +40,77 @@
  */
 package com.oracle.truffle.js.runtime.objects;
 
+import com.oracle.js.parser.Lexer.RegexToken;
+import com.oracle.js.parser.ir.FunctionNode;
+import com.oracle.js.parser.ir.Module;
+import com.oracle.truffle.api.TruffleContext;
 import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
 import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.Evaluator;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSException;
 import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.RegexCompilerInterface;
 import com.oracle.truffle.js.runtime.UserScriptException;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.FileSystemException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Loads ES modules from files relative to the importing module.
+ *
+ * With {@code js.module-loading-threads} set, the static imports of every loaded module are read
+ * and parsed ahead of linking on a pool of worker threads, so that the sources of a large module
+ * graph are not read and parsed one after the other. The workers only produce the intermediate
+ * AST; the validation of regular expression literals, the translation to Truffle nodes, linking and
+ * evaluation stay on the thread of the context. The workers are polyglot threads, so modules are
+ * only read ahead if the context allows creating threads.
+ */
 public class DefaultESModuleLoader implements JSModuleLoader {
 
+    private static final String PRELOAD_THREAD_NAME = "graaljs-module-loader";
+    private static final long PRELOAD_THREAD_JOIN_SECONDS = 1;
+
     protected final JSRealm realm;
-    protected final Map<String, JSModuleRecord> moduleMap = new HashMap<>();
+    protected final Map<String, JSModuleRecord> moduleMap = new ConcurrentHashMap<>();
+
+    /** Modules being read and parsed ahead of linking, by canonical path. */
+    private final Map<String, Future<PreloadedModule>> preloadedModules = new ConcurrentHashMap<>();
+    private volatile ThreadPoolExecutor preloadExecutor;
+    /** Inner context entered by the workers. No language is initialized in it. */
+    private TruffleContext preloadContext;
+    private boolean preloadDisposed;
+    private int preloadedModuleCount;
+
+    private static final class PreloadedModule {
+        final Source source;
+        final FunctionNode parsed;
+        /** Not validated yet; validation needs the realm. */
+        final List<RegexToken> regExpLiterals;
+
+        PreloadedModule(Source source, FunctionNode parsed, List<RegexToken> regExpLiterals) {
+            this.source = source;
+            this.parsed = parsed;
+            this.regExpLiterals = regExpLiterals;
+        }
+    }
 
     public static DefaultESModuleLoader create(JSRealm realm) {
         return new DefaultESModuleLoader(realm);
@@ -95,7 +147,7 @@ public class DefaultESModuleLoader implements JSModuleLoader {
                 }
             } else {
                 TruffleFile refFile = realm.getEnv().getPublicTruffleFile(refPath);
-                moduleFile = refFile.resolveSibling(specifier).getCanonicalFile();
+                moduleFile = resolveSibling(refFile, specifier);
             }
             String canonicalPath = moduleFile.getPath();
             return loadModuleFromUrl(specifier, moduleFile, canonicalPath);
@@ -119,17 +171,233 @@ public class DefaultESModuleLoader implements JSModuleLoader {
         }
     }
 
+    private static TruffleFile resolveSibling(TruffleFile refFile, String specifier) throws IOException {
+        return refFile.resolveSibling(specifier).getCanonicalFile();
+    }
+
     protected JSModuleRecord loadModuleFromUrl(String specifier, TruffleFile moduleFile, String canonicalPath) throws IOException {
         JSModuleRecord existingModule = moduleMap.get(canonicalPath);
         if (existingModule != null) {
             return existingModule;
         }
-        Source source = Source.newBuilder(JavaScriptLanguage.ID, moduleFile).name(specifier).build();
-        JSModuleRecord newModule = realm.getContext().getEvaluator().parseModule(realm.getContext(), source, this);
+        JSModuleRecord newModule = takePreloadedModule(specifier, canonicalPath);
+        if (newModule == null) {
+            Source source = Source.newBuilder(JavaScriptLanguage.ID, moduleFile).name(specifier).build();
+            newModule = realm.getContext().getEvaluator().parseModule(realm.getContext(), source, this);
+            preloadImports(moduleFile, ((Module) newModule.getModule()).getRequestedModules());
+        }
         moduleMap.put(canonicalPath, newModule);
+        dropPreloadedModule(canonicalPath);
         return newModule;
     }
 
+    /**
+     * Returns the file a static import of {@code specifier} in {@code referrerFile} resolves to, or
+     * {@code null} if the module should not be read ahead of linking. The path of the returned file
+     * has to be the key under which {@link #loadModuleFromUrl} stores the module.
+     */
+    protected TruffleFile resolvePreloadedModuleFile(TruffleFile referrerFile, String specifier) throws IOException {
+        return resolveSibling(referrerFile, specifier);
+    }
+
+    /**
+     * Starts reading and parsing the modules requested by a module on the worker threads, unless
+     * they are already loaded or being loaded. May be called from any thread.
+     */
+    private void preloadImports(TruffleFile referrerFile, List<String> requestedModules) {
+        ThreadPoolExecutor executor = getPreloadExecutor();
+        if (executor == null || referrerFile == null) {
+            return;
+        }
+        try {
+            for (String specifier : requestedModules) {
+                TruffleFile moduleFile;
+                try {
+                    moduleFile = resolvePreloadedModuleFile(referrerFile, specifier);
+                } catch (IOException | SecurityException e) {
+                    // reported when the module is resolved during linking
+                    continue;
+                }
+                if (moduleFile == null) {
+                    continue;
+                }
+                String canonicalPath = moduleFile.getPath();
+                if (!moduleMap.containsKey(canonicalPath)) {
+                    preloadedModules.computeIfAbsent(canonicalPath, (key) -> executor.submit(() -> preloadModule(specifier, moduleFile)));
+                    if (moduleMap.containsKey(canonicalPath)) {
+                        // loaded on the thread of the context in the meantime
+                        dropPreloadedModule(canonicalPath);
+                    }
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            // the realm is being disposed
+        }
+    }
+
+    /**
+     * Reads and parses a module on a worker thread. Errors are left for the context thread, which
+     * loads the module again to report them, so this method must not create JS errors.
+     */
+    private PreloadedModule preloadModule(String specifier, TruffleFile moduleFile) throws IOException {
+        JSContext context = realm.getContext();
+        Source source = Source.newBuilder(JavaScriptLanguage.ID, moduleFile).name(specifier).build();
+        List<RegexToken> regExpLiterals = new ArrayList<>();
+        FunctionNode parsed = context.getEvaluator().parseModuleAST(context, source, regExpLiterals);
+        if (parsed == null) {
+            return null;
+        }
+        preloadImports(moduleFile, parsed.getModule().getRequestedModules());
+        return new PreloadedModule(source, parsed, regExpLiterals);
+    }
+
+    /**
+     * Cancels reading ahead a module that has been loaded without it, so that the parsed module is
+     * not retained until the realm is disposed.
+     */
+    private void dropPreloadedModule(String canonicalPath) {
+        Future<PreloadedModule> future = preloadedModules.remove(canonicalPath);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Translates a module that has been read and parsed ahead of linking, waiting for the worker
+     * if necessary. Returns {@code null} if the module has not been preloaded or preloading failed.
+     * Modules are preloaded by canonical path, so the source is renamed to the specifier the module
+     * is linked with, which shows up in stack traces.
+     */
+    private JSModuleRecord takePreloadedModule(String specifier, String canonicalPath) {
+        Future<PreloadedModule> future = preloadedModules.remove(canonicalPath);
+        if (future == null) {
+            return null;
+        }
+        PreloadedModule preloaded;
+        try {
+            preloaded = future.get();
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (preloaded == null || !validateRegExpLiterals(preloaded.regExpLiterals)) {
+            // reported when the module is loaded again
+            return null;
+        }
+        Source source = preloaded.source;
+        if (!specifier.equals(source.getName())) {
+            source = Source.newBuilder(source).name(specifier).build();
+        }
+        Evaluator evaluator = realm.getContext().getEvaluator();
+        JSModuleRecord module = evaluator.parseModule(realm.getContext(), source, this, preloaded.parsed);
+        preloadedModuleCount++;
+        return module;
+    }
+
+    /**
+     * Validates the regular expression literals of a preloaded module on the thread of the
+     * context. Returns {@code false} if one of them is invalid; the error is reported when the
+     * module is loaded again.
+     */
+    private boolean validateRegExpLiterals(List<RegexToken> regExpLiterals) {
+        JSContext context = realm.getContext();
+        if (!context.getContextOptions().isValidateRegExpLiterals()) {
+            return true;
+        }
+        int ecmaScriptVersion = context.getParserOptions().getEcmaScriptVersion();
+        for (RegexToken regex : regExpLiterals) {
+            try {
+                RegexCompilerInterface.validate(context, regex.getExpression(), regex.getOptions(), ecmaScriptVersion);
+            } catch (JSException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of modules that were read and parsed ahead of linking.
+     */
+    public int getPreloadedModuleCount() {
+        return preloadedModuleCount;
+    }
+
+    /**
+     * Returns the number of modules that are being read ahead, or have been read ahead but not
+     * loaded yet.
+     */
+    public int getPendingPreloadedModuleCount() {
+        return preloadedModules.size();
+    }
+
+    private ThreadPoolExecutor getPreloadExecutor() {
+        ThreadPoolExecutor executor = preloadExecutor;
+        if (executor == null) {
+            executor = createPreloadExecutor();
+        }
+        return executor;
+    }
+
+    private synchronized ThreadPoolExecutor createPreloadExecutor() {
+        ThreadPoolExecutor executor = preloadExecutor;
+        if (executor == null && !preloadDisposed) {
+            int threads = realm.getContext().getContextOptions().getModuleLoadingThreads();
+            TruffleLanguage.Env env = realm.getEnv();
+            if (threads <= 0 || !env.isCreateThreadAllowed()) {
+                return null;
+            }
+            // The workers only parse, so they can share an inner context in which JS is never
+            // initialized, instead of entering the single-threaded context of the realm.
+            TruffleContext innerContext = env.newContextBuilder().build();
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), (runnable) -> {
+                Thread thread = env.createThread(runnable, innerContext);
+                thread.setName(PRELOAD_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+            // start the workers now, on the thread of the context; they run until dispose()
+            executor.prestartAllCoreThreads();
+            preloadContext = innerContext;
+            preloadExecutor = executor;
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the module loading threads and waits for them to complete. Called on the thread of the
+     * context when the realm is finalized; modules are not read ahead afterwards.
+     */
+    public void dispose() {
+        ThreadPoolExecutor executor;
+        TruffleContext innerContext;
+        synchronized (this) {
+            preloadDisposed = true;
+            executor = preloadExecutor;
+            innerContext = preloadContext;
+            preloadExecutor = null;
+            preloadContext = null;
+        }
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        boolean interrupted = false;
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(PRELOAD_THREAD_JOIN_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        preloadedModules.clear();
+        innerContext.close();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     @Override
     public JSModuleRecord loadModule(Source source) {
         String path = source.getPath();
@@ -150,6 +418,16 @@ public class DefaultESModuleLoader implements JSModuleLoader {
                 throw Errors.createErrorFromException(e);
             }
         }
-        return moduleMap.computeIfAbsent(canonicalPath, (key) -> realm.getContext().getEvaluator().parseModule(realm.getContext(), source, this));
+        JSModuleRecord existingModule = moduleMap.get(canonicalPath);
+        if (existingModule != null) {
+            return existingModule;
+        }
+        JSModuleRecord newModule = realm.getContext().getEvaluator().parseModule(realm.getContext(), source, this);
+        moduleMap.put(canonicalPath, newModule);
+        dropPreloadedModule(canonicalPath);
+        if (path != null) {
+            preloadImports(realm.getEnv().getPublicTruffleFile(path), ((Module) newModule.getModule()).getRequestedModules());
+        }
+        return newModule;
     }
 }
@@ -40,6 +40,13 @@
  */
 package com.oracle.truffle.js.runtime.objects;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage;
@@ -72,7 +79,7 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
             if (resultLength < JSConfig.MinLazyStringLength) {
                 return left.toString().concat(right.toString());
             }
-            return new JSLazyString(left, right, resultLength);
+            return concat(left, right, resultLength);
         } else {
             return left.toString().concat(right.toString());
         }
@@ -84,7 +91,7 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
     @TruffleBoundary(allowInlining = true)
     public static JSLazyString createChecked(CharSequence left, CharSequence right, int length) {
         assert assertChecked(left, right, length);
-        return new JSLazyString(left, right, length);
+        return concat(left, right, length);
     }
 
     @TruffleBoundary
@@ -128,7 +135,7 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
         assert assertChecked(left, right, length);
         CharSequence ll = right.left;
         CharSequence lr = right.right;
-        if (lr != null && ll instanceof String && left.length() + ll.length() <= JSConfig.ConcatToLeafLimit) {
+        if (right.isConcat() && ll instanceof String && left.length() + ll.length() <= JSConfig.ConcatToLeafLimit) {
             return createChecked(left.concat(ll.toString()), lr, length);
         }
         return null;
@@ -145,7 +152,8 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
         if (left.length() == 0) {
             return String.valueOf(right); // bailout
         }
-        return new JSLazyString(left, new JSLazyIntWrapper(right));
+        CharSequence rightWrapper = new JSLazyIntWrapper(right);
+        return concat(left, rightWrapper, left.length() + rightWrapper.length());
     }
 
     /**
@@ -159,22 +167,298 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
         if (right.length() == 0) {
             return String.valueOf(left); // bailout
         }
-        return new JSLazyString(new JSLazyIntWrapper(left), right);
+        CharSequence leftWrapper = new JSLazyIntWrapper(left);
+        return concat(leftWrapper, right, leftWrapper.length() + right.length());
     }
 
+    /**
+     * Returns {@code str.substring(begin, end)}, as a view onto the underlying string if the result
+     * is long enough to be worth it. Substrings of unflattened ropes are always copied. A view that
+     * is much shorter than its parent string is tracked by a {@link SliceGroup}, so that it does not
+     * keep the parent alive on its own for long.
+     */
+    @TruffleBoundary
+    public static CharSequence createSubstring(CharSequence str, int begin, int end) {
+        assert JSRuntime.isString(str);
+        assert 0 <= begin && begin <= end && end <= str.length();
+        if (begin == 0 && end == str.length()) {
+            return str;
+        }
+        String parent;
+        int offset;
+        if (str instanceof String) {
+            parent = (String) str;
+            offset = 0;
+        } else if (str instanceof JSLazyString && !((JSLazyString) str).isConcat()) {
+            // slices always refer to the flat parent string, never to another slice
+            JSLazyString lazyString = (JSLazyString) str;
+            parent = (String) lazyString.left;
+            offset = lazyString.isSlice() ? lazyString.offset : 0;
+        } else if (str instanceof JSLazyString) {
+            return ((JSLazyString) str).substring(begin, end);
+        } else {
+            return str.toString().substring(begin, end);
+        }
+        int sliceLength = end - begin;
+        if (!JSConfig.LazyStrings || sliceLength < JSConfig.MinSlicedStringLength) {
+            return parent.substring(offset + begin, offset + end);
+        }
+        JSLazyString slice = new JSLazyString(parent, offset + begin, sliceLength);
+        if (parent.length() / JSConfig.MaxSlicedStringRetention > sliceLength) {
+            SliceGroup.track(slice);
+        }
+        return slice;
+    }
+
+    /**
+     * The short views onto one parent string, e.g. the parts of a split or the captures of a global
+     * match. Together they may cover enough of the parent to justify keeping it, even if each of
+     * them alone does not. After every garbage collection, the groups are checked the next time a
+     * short view is created: if the views that are still alive cover less than
+     * {@code 1 / MaxSlicedStringRetention} of the parent, they are flattened, so that the parent can
+     * be collected. Groups that pass the check are checked less and less often.
+     *
+     * A group refers to its parent and its views only weakly, so it never keeps either alive.
+     */
+    private static final class SliceGroup extends WeakReference<String> {
+        private static final ReferenceQueue<Object> GC_QUEUE = new ReferenceQueue<>();
+        private static final Set<SliceGroup> PENDING = ConcurrentHashMap.newKeySet();
+        private static final int MAX_CHECK_INTERVAL = 64;
+        /** The group of the most recently tracked view; consecutive views usually share a parent. */
+        private static volatile SliceGroup last;
+
+        private final int parentLength;
+        private final ArrayList<WeakReference<JSLazyString>> slices = new ArrayList<>();
+        /** Keeps the group reachable until the next garbage collection clears its referent. */
+        @SuppressWarnings("unused") private GcSentinel sentinel;
+        private int checkInterval = 1;
+        private int gcsUntilCheck = 1;
+        private boolean closed;
+
+        private SliceGroup(String parent) {
+            super(parent);
+            this.parentLength = parent.length();
+        }
+
+        static void track(JSLazyString slice) {
+            expungeStaleGroups();
+            String parent = (String) slice.left;
+            SliceGroup group = last;
+            if (group == null || group.get() != parent || !group.add(slice)) {
+                group = new SliceGroup(parent);
+                group.add(slice);
+                group.arm();
+                PENDING.add(group);
+                last = group;
+            }
+        }
+
+        private static void expungeStaleGroups() {
+            for (Reference<?> ref; (ref = GC_QUEUE.poll()) != null;) {
+                ((GcSentinel) ref).group.afterGC();
+            }
+        }
+
+        private synchronized boolean add(JSLazyString slice) {
+            if (closed) {
+                return false;
+            }
+            slices.add(new WeakReference<>(slice));
+            return true;
+        }
+
+        private void arm() {
+            sentinel = new GcSentinel(this);
+        }
+
+        private synchronized void afterGC() {
+            if (closed) {
+                return;
+            }
+            if (--gcsUntilCheck > 0) {
+                arm();
+                return;
+            }
+            // views that have been flattened in the meantime no longer refer to the parent
+            slices.removeIf(ref -> {
+                JSLazyString slice = ref.get();
+                return slice == null || !slice.isSlice();
+            });
+            long liveChars = 0;
+            for (WeakReference<JSLazyString> ref : slices) {
+                JSLazyString slice = ref.get();
+                if (slice != null) {
+                    liveChars += slice.length;
+                }
+            }
+            if (liveChars > 0 && parentLength / JSConfig.MaxSlicedStringRetention <= liveChars) {
+                checkInterval = Math.min(checkInterval * 2, MAX_CHECK_INTERVAL);
+                gcsUntilCheck = checkInterval;
+                arm();
+                return;
+            }
+            for (WeakReference<JSLazyString> ref : slices) {
+                JSLazyString slice = ref.get();
+                if (slice != null && slice.isSlice()) {
+                    slice.flatten();
+                }
+            }
+            slices.clear();
+            sentinel = null;
+            closed = true;
+            PENDING.remove(this);
+        }
+    }
+
+    /** Enqueued by the first garbage collection after it has been created. */
+    private static final class GcSentinel extends WeakReference<Object> {
+        final SliceGroup group;
+
+        GcSentinel(SliceGroup group) {
+            super(new Object(), SliceGroup.GC_QUEUE);
+            this.group = group;
+        }
+    }
+
+    private static JSLazyString concat(CharSequence left, CharSequence right, int length) {
+        JSLazyString result = new JSLazyString(left, right, length);
+        if (result.depth > JSConfig.MaxLazyStringDepth) {
+            return rebalance(result);
+        }
+        return result;
+    }
+
+    /**
+     * Minimum length of a balanced rope by depth, i.e. {@code FIBONACCI[d] = F(d + 2)}. The last
+     * entry exceeds any possible string length.
+     */
+    private static final long[] FIBONACCI = new long[46];
+
+    static {
+        FIBONACCI[0] = 1;
+        FIBONACCI[1] = 2;
+        for (int i = 2; i < FIBONACCI.length; i++) {
+            FIBONACCI[i] = FIBONACCI[i - 1] + FIBONACCI[i - 2];
+        }
+        assert FIBONACCI[FIBONACCI.length - 1] > Integer.MAX_VALUE;
+    }
+
+    /**
+     * Marks a slice, i.e. a string that is {@link #length} chars of the parent string {@link #left}
+     * starting at {@link #offset}.
+     */
+    private static final CharSequence SLICE = new StringBuilder(0);
+
     private CharSequence left;
     private CharSequence right;
     private final int length;
+    private final int offset;
+    /** Height of the tree at construction time; leaves, slices and flat strings have depth 0. */
+    private final short depth;
+    private short indexedAccesses;
 
     private JSLazyString(CharSequence left, CharSequence right, int length) {
         assert left.length() > 0 && right.length() > 0 && length == left.length() + right.length();
         this.left = left;
         this.right = right;
         this.length = length;
+        this.offset = 0;
+        this.depth = (short) (Math.max(depth(left), depth(right)) + 1);
+    }
+
+    private JSLazyString(String parent, int offset, int length) {
+        assert length > 0 && 0 <= offset && offset + length <= parent.length();
+        this.left = parent;
+        this.right = SLICE;
+        this.length = length;
+        this.offset = offset;
+        this.depth = 0;
+    }
+
+    private static int depth(CharSequence str) {
+        return isLeaf(str) ? 0 : ((JSLazyString) str).depth;
+    }
+
+    private static boolean isLeaf(CharSequence str) {
+        return !(str instanceof JSLazyString) || !((JSLazyString) str).isConcat();
+    }
+
+    private static boolean isBalanced(CharSequence str) {
+        if (isLeaf(str)) {
+            return true;
+        }
+        JSLazyString lazyString = (JSLazyString) str;
+        return lazyString.depth < FIBONACCI.length && lazyString.length >= FIBONACCI[lazyString.depth];
+    }
+
+    /**
+     * Rebuilds a rope that has become too deep, typically by appending to a string in a loop, using
+     * the scheme of Boehm et al., "Ropes: an Alternative to Strings". Subtrees that are still
+     * balanced are kept as they are, so repeated appends only rebalance the recently added part.
+     */
+    @TruffleBoundary
+    private static JSLazyString rebalance(JSLazyString root) {
+        CharSequence[] forest = new CharSequence[FIBONACCI.length];
+        CharSequence[] stack = new CharSequence[root.depth + 1];
+        int sp = 0;
+        CharSequence str = root;
+        for (;;) {
+            if (isBalanced(str)) {
+                addToForest(forest, str);
+                if (sp == 0) {
+                    break;
+                }
+                str = stack[--sp];
+            } else {
+                JSLazyString lazyString = (JSLazyString) str;
+                stack[sp++] = lazyString.right;
+                str = lazyString.left;
+            }
+        }
+        // the forest holds the pieces in reverse order, the smallest one being the rightmost
+        CharSequence result = null;
+        for (CharSequence piece : forest) {
+            if (piece != null) {
+                result = result == null ? piece : concatBalanced(piece, result);
+            }
+        }
+        return (JSLazyString) result;
+    }
+
+    /**
+     * Adds a balanced piece to the right end of the forest. Slot {@code i} holds a rope of length
+     * {@code [FIBONACCI[i], FIBONACCI[i + 1])}; slots with a higher index hold earlier pieces.
+     */
+    private static void addToForest(CharSequence[] forest, CharSequence piece) {
+        int pieceLength = piece.length();
+        CharSequence prefix = null;
+        int i = 0;
+        for (; FIBONACCI[i + 1] <= pieceLength; i++) {
+            if (forest[i] != null) {
+                prefix = prefix == null ? forest[i] : concatBalanced(forest[i], prefix);
+                forest[i] = null;
+            }
+        }
+        CharSequence sum = prefix == null ? piece : concatBalanced(prefix, piece);
+        for (;;) {
+            while (FIBONACCI[i + 1] <= sum.length()) {
+                if (forest[i] != null) {
+                    sum = concatBalanced(forest[i], sum);
+                    forest[i] = null;
+                }
+                i++;
+            }
+            if (forest[i] == null) {
+                forest[i] = sum;
+                return;
+            }
+            sum = concatBalanced(forest[i], sum);
+            forest[i] = null;
+        }
     }
 
-    private JSLazyString(CharSequence left, CharSequence right) {
-        this(left, right, left.length() + right.length());
+    private static JSLazyString concatBalanced(CharSequence left, CharSequence right) {
+        return new JSLazyString(left, right, left.length() + right.length());
     }
 
     @Override
@@ -201,74 +485,260 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
         return right == null;
     }
 
+    private boolean isSlice() {
+        return right == SLICE;
+    }
+
+    private boolean isConcat() {
+        return right != null && right != SLICE;
+    }
+
     @TruffleBoundary
     private void flatten() {
+        if (isSlice()) {
+            left = ((String) left).substring(offset, offset + length);
+            right = null;
+            return;
+        }
         char[] dst = new char[length];
         flatten(this, 0, length, dst, 0);
         left = new String(dst);
         right = null;
     }
 
+    /**
+     * Copies {@code src[srcBegin, srcEnd)} into {@code dst}. Works without recursion: of the two
+     * halves of a node, the longer one is deferred and the shorter one is copied first, so every
+     * deferred slice is at least twice as long as the next one and the work stack stays within
+     * {@link Integer#SIZE} entries.
+     */
     private static void flatten(CharSequence src, int srcBegin, int srcEnd, char[] dst, int dstBegin) {
         CompilerAsserts.neverPartOfCompilation();
+        CharSequence[] pendingStr = null;
+        int[] pendingRange = null;
+        int pending = 0;
         CharSequence str = src;
         int from = srcBegin;
         int to = srcEnd;
         int dstFrom = dstBegin;
         for (;;) {
             assert 0 <= from && from <= to && to <= str.length();
-            if (str instanceof JSLazyString) {
-                JSLazyString lazyString = (JSLazyString) str;
-                CharSequence left = lazyString.left;
-                CharSequence right = lazyString.right;
-                int mid = left.length();
-
-                if (to - mid >= mid - from) {
-                    // right is longer, recurse left
-                    if (from < mid) {
-                        if (left instanceof String) {
-                            ((String) left).getChars(from, mid, dst, dstFrom);
-                        } else {
-                            flatten(left, from, mid, dst, dstFrom);
-                        }
-                        dstFrom += mid - from;
+            if (isLeaf(str)) {
+                assert JSRuntime.isString(str) || str instanceof JSLazyIntWrapper;
+                getLeafChars(str, from, to, dst, dstFrom);
+                if (pending == 0) {
+                    return;
+                }
+                pending--;
+                str = pendingStr[pending];
+                pendingStr[pending] = null;
+                from = pendingRange[pending * 3];
+                to = pendingRange[pending * 3 + 1];
+                dstFrom = pendingRange[pending * 3 + 2];
+                continue;
+            }
+            JSLazyString lazyString = (JSLazyString) str;
+            CharSequence left = lazyString.left;
+            CharSequence right = lazyString.right;
+            int mid = left.length();
+            if (to <= mid) {
+                str = left;
+            } else if (from >= mid) {
+                from -= mid;
+                to -= mid;
+                str = right;
+            } else {
+                boolean leftIsShorter = mid - from <= to - mid;
+                int rightTo = to - mid;
+                int rightDstFrom = dstFrom + mid - from;
+                if (isLeaf(leftIsShorter ? left : right)) {
+                    // copy the shorter leaf right away and continue with the longer half
+                    if (leftIsShorter) {
+                        getLeafChars(left, from, mid, dst, dstFrom);
+                        str = right;
                         from = 0;
+                        to = rightTo;
+                        dstFrom = rightDstFrom;
                     } else {
-                        from -= mid;
-                    }
-                    to -= mid;
-                    str = right;
-                } else {
-                    // left is longer, recurse right
-                    if (to > mid) {
-                        if (right instanceof String) {
-                            ((String) right).getChars(0, to - mid, dst, dstFrom + mid - from);
-                        } else {
-                            flatten(right, 0, to - mid, dst, dstFrom + mid - from);
-                        }
+                        getLeafChars(right, 0, rightTo, dst, rightDstFrom);
+                        str = left;
                         to = mid;
                     }
+                    continue;
+                }
+                if (pendingStr == null) {
+                    pendingStr = new CharSequence[Integer.SIZE];
+                    pendingRange = new int[Integer.SIZE * 3];
+                }
+                assert pending < Integer.SIZE;
+                if (leftIsShorter) {
+                    pendingStr[pending] = right;
+                    pendingRange[pending * 3] = 0;
+                    pendingRange[pending * 3 + 1] = rightTo;
+                    pendingRange[pending * 3 + 2] = rightDstFrom;
                     str = left;
+                    to = mid;
+                } else {
+                    pendingStr[pending] = left;
+                    pendingRange[pending * 3] = from;
+                    pendingRange[pending * 3 + 1] = mid;
+                    pendingRange[pending * 3 + 2] = dstFrom;
+                    str = right;
+                    from = 0;
+                    to = rightTo;
+                    dstFrom = rightDstFrom;
                 }
-            } else if (str instanceof String) {
-                ((String) str).getChars(from, to, dst, dstFrom);
-                return;
-            } else {
-                assert JSRuntime.isString(str) || str instanceof JSLazyIntWrapper;
-                str.toString().getChars(from, to, dst, dstFrom);
-                return;
+                pending++;
             }
         }
     }
 
+    private static void getLeafChars(CharSequence leaf, int from, int to, char[] dst, int dstFrom) {
+        if (leaf instanceof JSLazyString && ((JSLazyString) leaf).isSlice()) {
+            JSLazyString slice = (JSLazyString) leaf;
+            ((String) slice.left).getChars(slice.offset + from, slice.offset + to, dst, dstFrom);
+        } else {
+            leaf.toString().getChars(from, to, dst, dstFrom);
+        }
+    }
+
+    /**
+     * Reads a single character. A slice reads from its parent string. An unflattened rope is walked
+     * down to the leaf holding the index; only after repeated indexed accesses (e.g. a loop over the
+     * string) the rope is flattened.
+     */
     @Override
     public char charAt(int index) {
-        return toString().charAt(index);
+        if (isFlat()) {
+            return ((String) left).charAt(index);
+        }
+        return ropeCharAt(index);
+    }
+
+    @TruffleBoundary
+    private char ropeCharAt(int index) {
+        if (isSlice()) {
+            if (index < 0 || index >= length) {
+                throw new StringIndexOutOfBoundsException(index);
+            }
+            return ((String) left).charAt(offset + index);
+        }
+        if (++indexedAccesses > JSConfig.LazyStringIndexedAccessLimit) {
+            return toString().charAt(index);
+        }
+        CharSequence str = this;
+        int i = index;
+        while (!isLeaf(str)) {
+            JSLazyString lazyString = (JSLazyString) str;
+            int mid = lazyString.left.length();
+            if (i < mid) {
+                str = lazyString.left;
+            } else {
+                str = lazyString.right;
+                i -= mid;
+            }
+        }
+        return str.charAt(i);
     }
 
     @Override
     public CharSequence subSequence(int start, int end) {
-        return toString().subSequence(start, end);
+        return substring(start, end);
+    }
+
+    /**
+     * Equivalent to {@code toString().substring(start, end)}, but copies only the requested range
+     * out of an unflattened rope.
+     */
+    @TruffleBoundary
+    public String substring(int start, int end) {
+        if (isFlat()) {
+            return ((String) left).substring(start, end);
+        }
+        if (start < 0 || end > length || start > end) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+        }
+        if (start == 0 && end == length) {
+            return toString();
+        }
+        char[] dst = new char[end - start];
+        flatten(this, start, end, dst, 0);
+        return new String(dst);
+    }
+
+    /**
+     * Equivalent to {@code toString().indexOf(searchString, fromIndex)}, but searches the leaves of
+     * an unflattened rope one after the other.
+     */
+    public int indexOf(String searchString, int fromIndex) {
+        if (isFlat()) {
+            return ((String) left).indexOf(searchString, fromIndex);
+        }
+        return ropeIndexOf(searchString, fromIndex);
+    }
+
+    @TruffleBoundary
+    private int ropeIndexOf(String searchString, int fromIndex) {
+        int from = Math.max(fromIndex, 0);
+        int searchLength = searchString.length();
+        if (from >= length) {
+            return searchLength == 0 ? length : -1;
+        } else if (searchLength == 0) {
+            return from;
+        }
+        // matches spanning leaves are found in the last (searchLength - 1) chars of the previous
+        // leaves followed by the start of the current leaf
+        int overlap = searchLength - 1;
+        String carry = "";
+        CharSequence[] stack = new CharSequence[depth + 1];
+        int[] offsets = new int[depth + 1];
+        int sp = 0;
+        CharSequence str = this;
+        int offset = 0;
+        for (;;) {
+            while (!isLeaf(str)) {
+                JSLazyString lazyString = (JSLazyString) str;
+                int mid = offset + lazyString.left.length();
+                if (from >= mid) {
+                    str = lazyString.right;
+                    offset = mid;
+                } else {
+                    stack[sp] = lazyString.right;
+                    offsets[sp] = mid;
+                    sp++;
+                    str = lazyString.left;
+                }
+            }
+            String leaf = str.toString();
+            int start = Math.max(from - offset, 0);
+            if (!carry.isEmpty()) {
+                String window = carry.concat(leaf.substring(0, Math.min(overlap, leaf.length())));
+                int index = window.indexOf(searchString);
+                if (index >= 0 && index < carry.length()) {
+                    return offset - carry.length() + index;
+                }
+            }
+            int index = leaf.indexOf(searchString, start);
+            if (index >= 0) {
+                return offset + index;
+            }
+            if (overlap > 0) {
+                if (leaf.length() - start >= overlap) {
+                    carry = leaf.substring(leaf.length() - overlap);
+                } else {
+                    carry = carry.concat(leaf.substring(start));
+                    if (carry.length() > overlap) {
+                        carry = carry.substring(carry.length() - overlap);
+                    }
+                }
+            }
+            if (sp == 0) {
+                return -1;
+            }
+            sp--;
+            str = stack[sp];
+            offset = offsets[sp];
+        }
     }
 
     public boolean isEmpty() {
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Bounded cache that evicts approximately the least recently used entry when it is full, using the
+ * CLOCK (second chance) algorithm: a lookup only sets the referenced bit of the entry, and an
+ * insertion into a full cache advances a hand over a ring of the entries, clearing referenced bits,
+ * until it finds an entry that has not been used since the hand last passed it. Every bit that is
+ * cleared was set by an earlier lookup, so eviction takes amortized constant time.
+ *
+ * Lookups are lock-free. Insertions are synchronized; they are expected to follow an expensive
+ * computation (e.g. parsing), so contention is low.
+ */
+public final class BoundedLRUCache<K, V> {
+
+    private final int capacity;
+    private final ConcurrentHashMap<K, Entry<K, V>> entries;
+    /** Ring of the entries in insertion order, overwritten at the hand when the cache is full. */
+    private final Entry<K, V>[] ring;
+    private int hand;
+    private int ringSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final DebugCounter hitCounter;
+    private final DebugCounter missCounter;
+    private final DebugCounter evictionCounter;
+
+    @SuppressWarnings("unchecked")
+    public BoundedLRUCache(int capacity, DebugCounter hitCounter, DebugCounter missCounter, DebugCounter evictionCounter) {
+        this.capacity = Math.max(0, capacity);
+        this.entries = new ConcurrentHashMap<>();
+        this.ring = new Entry[this.capacity];
+        this.hitCounter = hitCounter;
+        this.missCounter = missCounter;
+        this.evictionCounter = evictionCounter;
+    }
+
+    /**
+     * Returns the value of the key, or {@code null} if it is not cached.
+     */
+    @TruffleBoundary
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            missCounter.inc();
+            return null;
+        }
+        if (!entry.referenced) {
+            // avoid writing to a shared entry on every hit
+            entry.referenced = true;
+        }
+        hits.increment();
+        hitCounter.inc();
+        return entry.value;
+    }
+
+    /**
+     * Adds the value unless the key is already cached, e.g. because another thread computed the
+     * same value concurrently.
+     */
+    @TruffleBoundary
+    public synchronized void putIfAbsent(K key, V value) {
+        if (capacity == 0 || entries.containsKey(key)) {
+            return;
+        }
+        Entry<K, V> entry = new Entry<>(key, value);
+        if (ringSize < capacity) {
+            ring[ringSize++] = entry;
+        } else {
+            while (ring[hand].referenced) {
+                ring[hand].referenced = false;
+                hand = (hand + 1) % capacity;
+            }
+            entries.remove(ring[hand].key);
+            evictions.increment();
+            evictionCounter.inc();
+            ring[hand] = entry;
+            hand = (hand + 1) % capacity;
+        }
+        entries.put(key, entry);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        volatile boolean referenced;
+
+        Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -70,6 +70,8 @@ public class DebugJSAgent extends JSAgent {
 
     private boolean quit;
     private Object debugReceiveBroadcast;
+    /** Thread running the event loop of a spawned agent, {@code null} for the main agent. */
+    private volatile Thread agentThread;
 
     @TruffleBoundary
     public DebugJSAgent(boolean canBlock, OptionValues optionValues) {
@@ -110,7 +112,9 @@ public class DebugJSAgent extends JSAgent {
                         try {
                             Thread.sleep(1000);
                         } catch (InterruptedException e) {
+                            // woken up by a broadcast or a ready Atomics.waitAsync waiter
                             executor.executeBroadcastCallback();
+                            debugJSAgent.processAllPromises(true);
                         }
                         if (executor.jsAgent.quit) {
                             return;
@@ -141,6 +145,7 @@ public class DebugJSAgent extends JSAgent {
     @TruffleBoundary
     public AgentExecutor registerChildAgent(Thread thread, DebugJSAgent jsAgent) {
         AgentExecutor spawned = new AgentExecutor(thread, jsAgent);
+        jsAgent.agentThread = thread;
         spawnedAgent.add(spawned);
         return spawned;
     }
@@ -182,13 +187,12 @@ public class DebugJSAgent extends JSAgent {
     }
 
     @Override
-    @TruffleBoundary
-    public void wakeAgent(int w) {
-        for (AgentExecutor e : spawnedAgent) {
-            if (e.jsAgent.getSignifier() == w) {
-                e.thread.interrupt();
-            }
+    protected void asyncWaiterReady() {
+        Thread thread = agentThread;
+        if (thread != null) {
+            thread.interrupt();
         }
+        // the main agent processes its promise jobs whenever a call into the context returns
     }
 
     private static final class AgentExecutor {
@@ -213,8 +217,8 @@ public class DebugJSAgent extends JSAgent {
 
         @TruffleBoundary
         public void executeBroadcastCallback() {
-            assert jsAgent.debugReceiveBroadcast != null;
             while (incoming.size() > 0) {
+                assert jsAgent.debugReceiveBroadcast != null;
                 DynamicObject cb = (DynamicObject) jsAgent.debugReceiveBroadcast;
                 JSFunction.call(cb, cb, new Object[]{incoming.pop()});
             }
@@ -42,12 +42,14 @@ package com.oracle.truffle.js.runtime.util;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 public final class DirectByteBufferHelper {
     private static final Class<? extends ByteBuffer> DIRECT_BYTE_BUFFER_CLASS = ByteBuffer.allocateDirect(0).getClass();
+    private static final Class<? extends ByteBuffer> READ_ONLY_DIRECT_BYTE_BUFFER_CLASS = ByteBuffer.allocateDirect(0).asReadOnlyBuffer().getClass();
 
     private DirectByteBufferHelper() {
     }
@@ -64,4 +66,17 @@ public final class DirectByteBufferHelper {
     public static ByteBuffer cast(ByteBuffer buffer) {
         return CompilerDirectives.castExact(buffer, DIRECT_BYTE_BUFFER_CLASS);
     }
+
+    /**
+     * Casts to the exact class of a read-only direct buffer (e.g. of a file mapped read-only),
+     * whose writes throw {@link ReadOnlyBufferException}. Such a buffer must never be passed to
+     * {@link #cast}.
+     */
+    public static ByteBuffer castReadOnly(ByteBuffer buffer) {
+        return CompilerDirectives.castExact(buffer, READ_ONLY_DIRECT_BYTE_BUFFER_CLASS);
+    }
+
+    public static boolean isReadOnly(ByteBuffer buffer) {
+        return buffer != null && buffer.getClass() == READ_ONLY_DIRECT_BYTE_BUFFER_CLASS;
+    }
 }
@@ -40,12 +40,20 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 /**
  * ES6-compliant hash map implementation.
+ *
+ * <p>
+ * An insertion-ordered hash table in the style of V8's {@code OrderedHashTable}: entries are
+ * appended to parallel arrays in insertion order and chained per bucket through an index array, so
+ * there is no object per entry. Integer and (normalized) double keys are stored unboxed. Removing
+ * an entry leaves a hole that is dropped when the table is rehashed. Cursors that still refer to a
+ * replaced table follow it to its successor and skip the holes that were dropped before their
+ * position, so iteration order and live iteration semantics are preserved.
  */
 public final class JSHashMap {
     public interface Cursor {
@@ -72,21 +80,23 @@ public final class JSHashMap {
         Cursor copy();
     }
 
-    private final HashMap<Object, Node> map;
-    private final Node head;
-    private Node tail;
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** Key marker of an unboxed int key, the key itself is in {@link Table#primitiveKeys}. */
+    private static final Object INT_KEY = new Object();
+    /** Key marker of an unboxed double key, the key bits are in {@link Table#primitiveKeys}. */
+    private static final Object DOUBLE_KEY = new Object();
+
+    private Table table;
 
     @TruffleBoundary(allowInlining = true)
     public JSHashMap() {
-        this.map = new HashMap<>();
-        Node dummy = new Node(null, null, null, null);
-        this.head = dummy;
-        this.tail = dummy;
+        this.table = new Table(INITIAL_CAPACITY);
     }
 
     @TruffleBoundary(allowInlining = true)
     public int size() {
-        return map.size();
+        return table.used - table.removed;
     }
 
     /**
@@ -94,172 +104,413 @@ public final class JSHashMap {
      */
     @TruffleBoundary
     public void put(Object key, Object value) {
-        Node newNode = new Node(key, value, null, null);
-        Node oldNode = map.putIfAbsent(key, newNode);
-        if (oldNode == null) {
-            newNode.setPrev(tail);
-            tail.setNext(newNode);
-            tail = newNode;
+        if (key instanceof Integer) {
+            put((int) key, value);
+        } else if (key instanceof Double) {
+            put((double) key, value);
+        } else {
+            int hash = hashObject(key);
+            int index = findObject(key, hash);
+            if (index < 0) {
+                add(key, 0L, hash, value);
+            } else {
+                table.values[index] = value;
+            }
+        }
+    }
+
+    @TruffleBoundary
+    public void put(int key, Object value) {
+        int hash = hashInt(key);
+        int index = findInt(key, hash);
+        if (index < 0) {
+            add(INT_KEY, key, hash, value);
+        } else {
+            table.values[index] = value;
+        }
+    }
+
+    /**
+     * Like {@link #put(Object, Object)}; the key must be normalized, i.e. not representable as int.
+     */
+    @TruffleBoundary
+    public void put(double key, Object value) {
+        long bits = Double.doubleToLongBits(key);
+        int hash = hashLong(bits);
+        int index = findDouble(bits, hash);
+        if (index < 0) {
+            add(DOUBLE_KEY, bits, hash, value);
         } else {
-            oldNode.setValue(value);
+            table.values[index] = value;
         }
     }
 
     @TruffleBoundary
     public Object get(Object key) {
-        Node node = map.get(key);
-        return node == null ? null : node.getValue();
+        int index = find(key);
+        return index < 0 ? null : table.values[index];
+    }
+
+    @TruffleBoundary
+    public Object get(int key) {
+        int index = findInt(key, hashInt(key));
+        return index < 0 ? null : table.values[index];
+    }
+
+    @TruffleBoundary
+    public Object get(double key) {
+        long bits = Double.doubleToLongBits(key);
+        int index = findDouble(bits, hashLong(bits));
+        return index < 0 ? null : table.values[index];
     }
 
     @TruffleBoundary
     public boolean has(Object key) {
-        return map.containsKey(key);
+        return find(key) >= 0;
+    }
+
+    @TruffleBoundary
+    public boolean has(int key) {
+        return findInt(key, hashInt(key)) >= 0;
+    }
+
+    @TruffleBoundary
+    public boolean has(double key) {
+        long bits = Double.doubleToLongBits(key);
+        return findDouble(bits, hashLong(bits)) >= 0;
     }
 
     @TruffleBoundary
     public boolean remove(Object key) {
-        Node node = map.remove(key);
-        if (node == null) {
-            return false;
-        } else {
-            unlink(node);
-            return true;
-        }
+        return removeAt(find(key));
     }
 
-    private void unlink(Node node) {
-        Node next = node.getNext();
-        Node prev = node.getPrev();
-        prev.setNext(next);
-        if (next != null) {
-            next.setPrev(prev);
-        } else {
-            tail = prev;
-        }
-        node.setEmpty();
+    @TruffleBoundary
+    public boolean remove(int key) {
+        return removeAt(findInt(key, hashInt(key)));
     }
 
     @TruffleBoundary
-    public void clear() {
-        map.clear();
-        for (Node current = head.getNext(); current != null; current = current.getNext()) {
-            current.setEmpty();
-        }
-        head.setNext(null);
-        tail = head;
+    public boolean remove(double key) {
+        long bits = Double.doubleToLongBits(key);
+        return removeAt(findDouble(bits, hashLong(bits)));
     }
 
+    /**
+     * Returns the position of the entry with the given key, or -1 if there is none. The position
+     * can be used with {@link #getValueAt} and {@link #setValueAt} for as long as
+     * {@link #isKeyAt} confirms it, i.e. until the entry is removed or the table is rehashed.
+     */
     @TruffleBoundary
-    @Override
-    public String toString() {
-        return map.toString();
+    public int indexOf(Object key) {
+        return find(key);
     }
 
-    public Cursor getEntries() {
-        return new CursorImpl(head);
+    /**
+     * Whether the entry at the given position has exactly this (non-number) key object.
+     */
+    public boolean isKeyAt(int index, Object key) {
+        Table t = table;
+        return index >= 0 && index < t.used && t.keys[index] == key;
     }
 
-    private static final class CursorImpl implements Cursor {
-        private Node current;
+    public Object getKeyAt(int index) {
+        return table.getKey(index);
+    }
+
+    public Object getValueAt(int index) {
+        return table.values[index];
+    }
+
+    public void setValueAt(int index, Object value) {
+        assert table.keys[index] != null;
+        table.values[index] = value;
+    }
 
-        CursorImpl(Node head) {
-            this.current = head;
+    @TruffleBoundary
+    public void clear() {
+        Table old = table;
+        table = new Table(INITIAL_CAPACITY);
+        old.replace(table, null, true);
+    }
+
+    private int find(Object key) {
+        if (key instanceof Integer) {
+            int intKey = (int) key;
+            return findInt(intKey, hashInt(intKey));
+        } else if (key instanceof Double) {
+            long bits = Double.doubleToLongBits((double) key);
+            return findDouble(bits, hashLong(bits));
+        } else {
+            return findObject(key, hashObject(key));
         }
+    }
 
-        @Override
-        public boolean advance() {
-            if (current == null) {
-                return false;
-            } else {
-                // if current is no longer in the map, back up to a previous node still in the map
-                while (current.isEmpty() && current.getPrev() != null) {
-                    current = current.getPrev();
-                }
-                Node next = current.getNext();
-                assert next == null || next.getKey() != null;
-                current = next;
-                return next != null;
+    private int findInt(int key, int hash) {
+        Table t = table;
+        for (int i = t.buckets[hash & (t.buckets.length - 1)]; i >= 0; i = t.chain[i]) {
+            if (t.keys[i] == INT_KEY && t.primitiveKeys[i] == key) {
+                return i;
             }
         }
+        return -1;
+    }
 
-        @Override
-        public Object getKey() {
-            Object key = current.getKey();
-            assert key != null;
-            return key;
+    private int findDouble(long bits, int hash) {
+        Table t = table;
+        for (int i = t.buckets[hash & (t.buckets.length - 1)]; i >= 0; i = t.chain[i]) {
+            if (t.keys[i] == DOUBLE_KEY && t.primitiveKeys[i] == bits) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        @Override
-        public Object getValue() {
-            Object value = current.getValue();
-            assert value != null;
-            return value;
+    private int findObject(Object key, int hash) {
+        assert key != null && !(key instanceof Integer) && !(key instanceof Double);
+        Table t = table;
+        for (int i = t.buckets[hash & (t.buckets.length - 1)]; i >= 0; i = t.chain[i]) {
+            Object k = t.keys[i];
+            if (k == key || (k != null && k != INT_KEY && k != DOUBLE_KEY && key.equals(k))) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        @Override
-        public String toString() {
-            return "Cursor [current=" + current + "]";
-        }
+    private static int hashInt(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
 
-        @Override
-        public Cursor copy() {
-            return new CursorImpl(current);
+    private static int hashLong(long bits) {
+        return hashInt((int) (bits ^ (bits >>> 32)));
+    }
+
+    private static int hashObject(Object key) {
+        return hashInt(key.hashCode());
+    }
+
+    private void add(Object key, long primitiveKey, int hash, Object value) {
+        Table t = table;
+        if (t.used == t.keys.length) {
+            int capacity = t.keys.length;
+            // compact in place if at least half of the entries are holes, otherwise grow
+            t = rehash(t.removed >= capacity >> 1 ? capacity : capacity << 1);
         }
+        int index = t.used++;
+        t.keys[index] = key;
+        t.values[index] = value;
+        if (key == INT_KEY || key == DOUBLE_KEY) {
+            if (t.primitiveKeys == null) {
+                t.primitiveKeys = new long[t.keys.length];
+            }
+            t.primitiveKeys[index] = primitiveKey;
+        }
+        int bucket = hash & (t.buckets.length - 1);
+        t.chain[index] = t.buckets[bucket];
+        t.buckets[bucket] = index;
     }
 
-    private static final class Node {
-        private Object key;
-        private Object value;
-        private Node prev;
-        private Node next;
+    private boolean removeAt(int index) {
+        if (index < 0) {
+            return false;
+        }
+        Table t = table;
+        t.keys[index] = null;
+        t.values[index] = null;
+        t.removed++;
+        int capacity = t.keys.length;
+        if (capacity > INITIAL_CAPACITY && t.used - t.removed < capacity >> 2) {
+            rehash(capacity >> 1);
+        }
+        return true;
+    }
 
-        Node(Object key, Object value, Node prev, Node next) {
-            this.key = key;
-            this.value = value;
-            this.prev = prev;
-            this.next = next;
+    private Table rehash(int capacity) {
+        Table old = table;
+        Table t = new Table(capacity);
+        if (old.primitiveKeys != null) {
+            t.primitiveKeys = new long[capacity];
         }
+        int[] removedIndices = old.removed == 0 ? null : new int[old.removed];
+        int removedCount = 0;
+        for (int i = 0; i < old.used; i++) {
+            Object key = old.keys[i];
+            if (key == null) {
+                removedIndices[removedCount++] = i;
+                continue;
+            }
+            int hash;
+            if (key == INT_KEY) {
+                hash = hashInt((int) old.primitiveKeys[i]);
+                t.primitiveKeys[t.used] = old.primitiveKeys[i];
+            } else if (key == DOUBLE_KEY) {
+                hash = hashLong(old.primitiveKeys[i]);
+                t.primitiveKeys[t.used] = old.primitiveKeys[i];
+            } else {
+                hash = hashObject(key);
+            }
+            int index = t.used++;
+            t.keys[index] = key;
+            t.values[index] = old.values[i];
+            int bucket = hash & (t.buckets.length - 1);
+            t.chain[index] = t.buckets[bucket];
+            t.buckets[bucket] = index;
+        }
+        assert removedCount == old.removed;
+        table = t;
+        old.replace(t, removedIndices, false);
+        return t;
+    }
 
-        Object getKey() {
-            return key;
+    @TruffleBoundary
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        Cursor cursor = getEntries();
+        while (cursor.advance()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(cursor.getKey()).append('=').append(cursor.getValue());
         }
+        return sb.append('}').toString();
+    }
 
-        Object getValue() {
-            return value;
+    public Cursor getEntries() {
+        return new CursorImpl(table, -1);
+    }
+
+    private static final class Table {
+        /** Index of the last added entry of each bucket, or -1. */
+        final int[] buckets;
+        /** Index of the previously added entry of the same bucket, or -1. */
+        final int[] chain;
+        /** Keys in insertion order; {@code null} marks a removed entry. */
+        Object[] keys;
+        Object[] values;
+        /** Unboxed int and double keys, allocated when the first one is added. */
+        long[] primitiveKeys;
+        int used;
+        int removed;
+
+        /** The table that replaced this one, if any. */
+        Table next;
+        /** Indices of the removed entries that were dropped when this table was replaced. */
+        int[] removedIndices;
+        /** Whether this table was replaced by clearing the map. */
+        boolean cleared;
+
+        Table(int capacity) {
+            this.buckets = new int[capacity >> 1];
+            Arrays.fill(buckets, -1);
+            this.chain = new int[capacity];
+            this.keys = new Object[capacity];
+            this.values = new Object[capacity];
         }
 
-        void setValue(Object value) {
-            this.value = value;
+        void replace(Table successor, int[] removedEntries, boolean clear) {
+            this.next = successor;
+            this.removedIndices = removedEntries;
+            this.cleared = clear;
+            // only cursors can still refer to this table, and they just need to find the successor
+            this.keys = null;
+            this.values = null;
+            this.primitiveKeys = null;
         }
 
-        Node getPrev() {
-            return prev;
+        Object getKey(int index) {
+            Object key = keys[index];
+            if (key == INT_KEY) {
+                return (int) primitiveKeys[index];
+            } else if (key == DOUBLE_KEY) {
+                return Double.longBitsToDouble(primitiveKeys[index]);
+            }
+            return key;
         }
+    }
 
-        void setPrev(Node prev) {
-            this.prev = prev;
+    private static final class CursorImpl implements Cursor {
+        /** The table of the current entry, or {@code null} once the cursor is exhausted. */
+        private Table table;
+        /** Index of the current entry, -1 before the first entry. */
+        private int index;
+
+        CursorImpl(Table table, int index) {
+            this.table = table;
+            this.index = index;
         }
 
-        Node getNext() {
-            return next;
+        @Override
+        public boolean advance() {
+            Table t = table;
+            if (t == null) {
+                return false;
+            }
+            if (t.next != null) {
+                t = followReplacements();
+            }
+            int i = index + 1;
+            while (i < t.used && t.keys[i] == null) {
+                i++;
+            }
+            if (i < t.used) {
+                index = i;
+                return true;
+            } else {
+                table = null;
+                return false;
+            }
         }
 
-        void setNext(Node next) {
-            this.next = next;
+        /**
+         * Moves to the current table of the map, keeping the position relative to the entries
+         * that have already been visited.
+         */
+        @TruffleBoundary
+        private Table followReplacements() {
+            Table t = table;
+            int i = index;
+            while (t.next != null) {
+                if (t.cleared) {
+                    i = -1;
+                } else if (t.removedIndices != null) {
+                    int removedBefore = 0;
+                    while (removedBefore < t.removedIndices.length && t.removedIndices[removedBefore] <= i) {
+                        removedBefore++;
+                    }
+                    i -= removedBefore;
+                }
+                t = t.next;
+            }
+            table = t;
+            index = i;
+            return t;
         }
 
-        void setEmpty() {
-            this.key = null;
-            this.value = null;
+        @Override
+        public Object getKey() {
+            Object key = table.getKey(index);
+            assert key != null;
+            return key;
         }
 
-        boolean isEmpty() {
-            return this.key == null;
+        @Override
+        public Object getValue() {
+            Object value = table.values[index];
+            assert value != null;
+            return value;
         }
 
         @Override
         public String toString() {
-            return "Node [key=" + key + ", value=" + value + "]";
+            return "Cursor [index=" + index + "]";
+        }
+
+        @Override
+        public Cursor copy() {
+            return new CursorImpl(table, index);
         }
     }
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.Arrays;
+
+/**
+ * Sorting of primitive arrays with JavaScript comparison semantics, used to sort arrays and typed
+ * arrays in place without boxing their elements.
+ */
+public final class PrimitiveArraySort {
+
+    /** Ranges up to this length are sorted by insertion sort. */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    public interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    public interface DoubleComparator {
+        int compare(double a, double b);
+    }
+
+    /** Ascending numeric order. */
+    public static final IntComparator INT_ASCENDING = Integer::compare;
+
+    /** Ascending order of unsigned 32-bit integers. */
+    public static final IntComparator UINT_ASCENDING = Integer::compareUnsigned;
+
+    /** The default order of Array.prototype.sort, i.e., by the string values of the numbers. */
+    public static final IntComparator INT_STRING_ORDER = PrimitiveArraySort::compareAsStrings;
+
+    /**
+     * Ascending numeric order with -0 before +0 and NaN last, i.e., the default order of
+     * %TypedArray%.prototype.sort.
+     */
+    public static final DoubleComparator DOUBLE_ASCENDING = Double::compare;
+
+    private PrimitiveArraySort() {
+    }
+
+    /**
+     * Compares two integers by their decimal string representation, without creating the strings.
+     */
+    public static int compareAsStrings(int a, int b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a < 0 != b < 0) {
+            // '-' sorts before all digits
+            return a < 0 ? -1 : 1;
+        }
+        // both have the same sign: compare the digits of the absolute values
+        long x = Math.abs((long) a);
+        long y = Math.abs((long) b);
+        int xDigits = digits(x);
+        int yDigits = digits(y);
+        // scale the shorter number to the same number of digits; if the prefixes are equal, the
+        // shorter string is a prefix of the longer one and sorts first
+        long xScaled = x;
+        long yScaled = y;
+        for (int i = xDigits; i < yDigits; i++) {
+            xScaled *= 10;
+        }
+        for (int i = yDigits; i < xDigits; i++) {
+            yScaled *= 10;
+        }
+        if (xScaled != yScaled) {
+            return xScaled < yScaled ? -1 : 1;
+        }
+        return xDigits < yDigits ? -1 : 1;
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static void sortUnsigned(int[] array, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            array[i] ^= Integer.MIN_VALUE;
+        }
+        Arrays.sort(array, fromIndex, toIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            array[i] ^= Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Stable sort of the range with the given comparator, which may call user code. Numeric orders
+     * are sorted with {@link Arrays#sort(int[], int, int)}; stability does not matter for them.
+     */
+    public static void sort(int[] array, int fromIndex, int toIndex, IntComparator comparator) {
+        if (comparator == INT_ASCENDING) {
+            Arrays.sort(array, fromIndex, toIndex);
+            return;
+        } else if (comparator == UINT_ASCENDING) {
+            sortUnsigned(array, fromIndex, toIndex);
+            return;
+        }
+        int length = toIndex - fromIndex;
+        for (int start = fromIndex; start < toIndex; start += INSERTION_SORT_THRESHOLD) {
+            insertionSort(array, start, Math.min(start + INSERTION_SORT_THRESHOLD, toIndex), comparator);
+        }
+        if (length <= INSERTION_SORT_THRESHOLD) {
+            return;
+        }
+        int[] src = array;
+        int[] dst = new int[length];
+        int srcOffset = fromIndex;
+        int dstOffset = 0;
+        for (int width = INSERTION_SORT_THRESHOLD; width < length; width *= 2) {
+            for (int lo = 0; lo < length; lo += 2 * width) {
+                int mid = Math.min(lo + width, length);
+                int hi = Math.min(lo + 2 * width, length);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    // take from the left run unless the right element is strictly smaller
+                    if (comparator.compare(src[srcOffset + j], src[srcOffset + i]) < 0) {
+                        dst[dstOffset + k++] = src[srcOffset + j++];
+                    } else {
+                        dst[dstOffset + k++] = src[srcOffset + i++];
+                    }
+                }
+                System.arraycopy(src, srcOffset + i, dst, dstOffset + k, mid - i);
+                k += mid - i;
+                System.arraycopy(src, srcOffset + j, dst, dstOffset + k, hi - j);
+            }
+            int[] tmpArray = src;
+            src = dst;
+            dst = tmpArray;
+            int tmpOffset = srcOffset;
+            srcOffset = dstOffset;
+            dstOffset = tmpOffset;
+        }
+        if (src != array) {
+            System.arraycopy(src, srcOffset, array, fromIndex, length);
+        }
+    }
+
+    private static void insertionSort(int[] array, int fromIndex, int toIndex, IntComparator comparator) {
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            int value = array[i];
+            int j = i - 1;
+            while (j >= fromIndex && comparator.compare(value, array[j]) < 0) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = value;
+        }
+    }
+
+    /**
+     * Stable sort of the range with the given comparator, which may call user code.
+     */
+    public static void sort(double[] array, int fromIndex, int toIndex, DoubleComparator comparator) {
+        if (comparator == DOUBLE_ASCENDING) {
+            Arrays.sort(array, fromIndex, toIndex);
+            return;
+        }
+        int length = toIndex - fromIndex;
+        for (int start = fromIndex; start < toIndex; start += INSERTION_SORT_THRESHOLD) {
+            insertionSort(array, start, Math.min(start + INSERTION_SORT_THRESHOLD, toIndex), comparator);
+        }
+        if (length <= INSERTION_SORT_THRESHOLD) {
+            return;
+        }
+        double[] src = array;
+        double[] dst = new double[length];
+        int srcOffset = fromIndex;
+        int dstOffset = 0;
+        for (int width = INSERTION_SORT_THRESHOLD; width < length; width *= 2) {
+            for (int lo = 0; lo < length; lo += 2 * width) {
+                int mid = Math.min(lo + width, length);
+                int hi = Math.min(lo + 2 * width, length);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    if (comparator.compare(src[srcOffset + j], src[srcOffset + i]) < 0) {
+                        dst[dstOffset + k++] = src[srcOffset + j++];
+                    } else {
+                        dst[dstOffset + k++] = src[srcOffset + i++];
+                    }
+                }
+                System.arraycopy(src, srcOffset + i, dst, dstOffset + k, mid - i);
+                k += mid - i;
+                System.arraycopy(src, srcOffset + j, dst, dstOffset + k, hi - j);
+            }
+            double[] tmpArray = src;
+            src = dst;
+            dst = tmpArray;
+            int tmpOffset = srcOffset;
+            srcOffset = dstOffset;
+            dstOffset = tmpOffset;
+        }
+        if (src != array) {
+            System.arraycopy(src, srcOffset, array, fromIndex, length);
+        }
+    }
+
+    private static void insertionSort(double[] array, int fromIndex, int toIndex, DoubleComparator comparator) {
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            double value = array[i];
+            int j = i - 1;
+            while (j >= fromIndex && comparator.compare(value, array[j]) < 0) {
+                array[j + 1] = array[j];
+                j--;
+            }
+            array[j + 1] = value;
+        }
+    }
+}
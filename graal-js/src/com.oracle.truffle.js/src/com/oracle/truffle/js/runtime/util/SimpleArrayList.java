@@ -80,6 +80,16 @@ public class SimpleArrayList<E> {
         elements[size++] = e;
     }
 
+    public void addAll(E[] array, BranchProfile growProfile) {
+        if (size + (long) array.length > MAX_ARRAY_SIZE) {
+            CompilerDirectives.transferToInterpreter();
+            throw new OutOfMemoryError();
+        }
+        ensureCapacity(size + array.length, growProfile);
+        System.arraycopy(array, 0, elements, size, array.length);
+        size += array.length;
+    }
+
     public void addUnchecked(E e) {
         elements[size++] = e;
     }
@@ -52,6 +52,7 @@ import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.js.runtime.objects.JSLazyString;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.TRegexUtil.Props.CompiledRegex;
 import com.oracle.truffle.js.runtime.util.TRegexUtil.Props.RegexEngine;
@@ -769,7 +770,7 @@ public final class TRegexUtil {
                 assert i > 0;
                 return Undefined.instance;
             } else {
-                return input.substring(beginIndex, accessor.captureGroupEnd(regexResult, i));
+                return JSLazyString.createSubstring(input, beginIndex, accessor.captureGroupEnd(regexResult, i));
             }
         }
 
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Hashed timer wheel that serves any number of timeouts from a single daemon thread. Timeouts are
+ * rounded up to the tick duration. Scheduling and cancellation are thread-safe; the buckets are
+ * only touched by the timer thread. The thread parks indefinitely while there are no timeouts.
+ */
+public final class TimerWheel {
+
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * Longest delay (about 73 years) that can be scheduled. Deadlines are only ever compared as
+     * differences to {@link System#nanoTime()}, which stays exact up to this bound.
+     */
+    public static final long MAX_DELAY_NANOS = Long.MAX_VALUE >> 2;
+
+    private static final LazyValue<TimerWheel> SHARED = new LazyValue<>(() -> new TimerWheel("JS-Timer-Wheel", TimeUnit.MILLISECONDS.toNanos(1)));
+
+    private final String threadName;
+    private final long tickNanos;
+    private final Timeout[] buckets;
+    private final ConcurrentLinkedQueue<Timeout> pending;
+    private volatile Thread worker;
+
+    /** Number of timeouts in the buckets; only accessed by the timer thread. */
+    private int scheduled;
+
+    public TimerWheel(String threadName, long tickNanos) {
+        assert tickNanos > 0;
+        this.threadName = threadName;
+        this.tickNanos = tickNanos;
+        this.buckets = new Timeout[WHEEL_SIZE];
+        this.pending = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Returns the timer wheel shared by all engines and contexts.
+     */
+    public static TimerWheel getShared() {
+        return SHARED.get();
+    }
+
+    /**
+     * Schedules {@code task} to be executed on the timer thread after (at least) {@code delay}.
+     * Delays are capped at {@link #MAX_DELAY_NANOS}. The task must not block.
+     */
+    @TruffleBoundary
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long delayNanos = Math.min(unit.toNanos(Math.max(delay, 0)), MAX_DELAY_NANOS);
+        Timeout timeout = new Timeout(task, System.nanoTime() + delayNanos);
+        pending.add(timeout);
+        Thread thread = worker;
+        if (thread == null) {
+            thread = startWorker();
+        }
+        LockSupport.unpark(thread);
+        return timeout;
+    }
+
+    private synchronized Thread startWorker() {
+        Thread thread = worker;
+        if (thread == null) {
+            thread = new Thread(this::run, threadName);
+            thread.setDaemon(true);
+            worker = thread;
+            thread.start();
+        }
+        return thread;
+    }
+
+    private void run() {
+        final long startTime = System.nanoTime();
+        long tick = 0;
+        while (true) {
+            long currentTick = (System.nanoTime() - startTime) / tickNanos;
+            if (scheduled == 0 && pending.isEmpty()) {
+                // nothing to do: skip the idle ticks and wait for the next schedule()
+                tick = currentTick;
+                LockSupport.park(this);
+                continue;
+            }
+            while (tick <= currentTick) {
+                transferPending(startTime, tick);
+                expire(tick);
+                tick++;
+            }
+            transferPending(startTime, tick);
+            long sleep = startTime + tick * tickNanos - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+        }
+    }
+
+    private void transferPending(long startTime, long currentTick) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long deadlineTick = Math.max((timeout.deadline - startTime + tickNanos - 1) / tickNanos, currentTick);
+            timeout.rounds = (deadlineTick - currentTick) / WHEEL_SIZE;
+            int bucket = (int) (deadlineTick & WHEEL_MASK);
+            timeout.next = buckets[bucket];
+            buckets[bucket] = timeout;
+            scheduled++;
+        }
+    }
+
+    private void expire(long tick) {
+        int bucket = (int) (tick & WHEEL_MASK);
+        Timeout prev = null;
+        Timeout timeout = buckets[bucket];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            boolean cancelled = timeout.isCancelled();
+            if (cancelled || timeout.rounds <= 0) {
+                if (prev == null) {
+                    buckets[bucket] = next;
+                } else {
+                    prev.next = next;
+                }
+                timeout.next = null;
+                scheduled--;
+                if (!cancelled) {
+                    timeout.expire();
+                }
+            } else {
+                timeout.rounds--;
+                prev = timeout;
+            }
+            timeout = next;
+        }
+    }
+
+    public static final class Timeout {
+        /** {@code null} once cancelled, so that cancelled timeouts do not keep the task alive. */
+        private volatile Runnable task;
+        private final long deadline;
+
+        /* Accessed by the timer thread only. */
+        private long rounds;
+        private Timeout next;
+
+        Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timeout. The task is not executed unless it has been started already.
+         */
+        public void cancel() {
+            task = null;
+        }
+
+        public boolean isCancelled() {
+            return task == null;
+        }
+
+        private void expire() {
+            Runnable t = task;
+            if (t == null) {
+                return;
+            }
+            try {
+                t.run();
+            } catch (Throwable t) {
+                // keep the timer thread alive
+                Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+                handler.uncaughtException(Thread.currentThread(), t);
+            }
+        }
+    }
+}
@@ -40,26 +40,53 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
+import java.lang.ref.WeakReference;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.HiddenKey;
 import com.oracle.truffle.js.nodes.access.HasHiddenKeyCacheNode;
 import com.oracle.truffle.js.nodes.access.PropertyGetNode;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 
 /**
  * JavaScript WeakMap.
+ *
+ * <p>
+ * Java has no ephemerons: a table owned by the WeakMap that holds its values strongly would keep
+ * alive every key that is referenced from its own value, for as long as the WeakMap is alive. So
+ * where an entry is stored depends on its value:
+ * <ul>
+ * <li>Primitive values and {@link #PRESENT}, the value of WeakSet entries, cannot refer to the key.
+ * These entries are kept in a weak identity table owned by the WeakMap, and the key object is not
+ * touched at all. A WeakSet therefore never changes the shape of its elements.
+ * <li>Object values are attached to the key with a hidden property holding the values of all
+ * WeakMaps the object is a key of, so they stay alive exactly as long as the key. A table cannot
+ * hold them: a value referring to its own key (e.g. a proxy of it) would keep the key alive as long
+ * as the WeakMap, and without ephemerons the only strong reference that lives exactly as long as
+ * the key is one from the key itself.
+ * </ul>
  */
 public class WeakMap implements Map<DynamicObject, Object> {
     private static final HiddenKey INVERTED_WEAK_MAP_KEY = new HiddenKey("InvertedWeakMap");
 
+    /** Entries with primitive values, weakly keyed by identity. */
+    private final WeakHashMap<DynamicObject, Object> table = new WeakHashMap<>();
+    /** Whether {@link #table} was ever used, so that object-valued maps can skip it. */
+    private boolean hasTableEntries;
+    /** Whether an object value was ever attached to a key, so that other maps can skip the keys. */
+    private boolean hasInvertedEntries;
+
+    /** The value of the entries of a WeakSet. */
+    public static final Object PRESENT = new Object();
+
     public WeakMap() {
     }
 
@@ -71,6 +98,13 @@ public class WeakMap implements Map<DynamicObject, Object> {
         return HasHiddenKeyCacheNode.create(WeakMap.INVERTED_WEAK_MAP_KEY);
     }
 
+    /**
+     * Whether the entry is stored in the table owned by the WeakMap rather than with the key.
+     */
+    public static boolean isTableValue(Object value) {
+        return value == PRESENT || JSRuntime.isJSPrimitive(value);
+    }
+
     private static DynamicObject checkKey(Object key) {
         if (!(key instanceof DynamicObject)) {
             throw new IllegalArgumentException("key must be instanceof DynamicObject");
@@ -78,21 +112,12 @@ public class WeakMap implements Map<DynamicObject, Object> {
         return (DynamicObject) key;
     }
 
-    @SuppressWarnings("unchecked")
-    private static Map<WeakMap, Object> getInvertedMap(DynamicObject k, boolean put) {
-        if (k.containsKey(INVERTED_WEAK_MAP_KEY)) {
-            return (WeakHashMap<WeakMap, Object>) k.get(INVERTED_WEAK_MAP_KEY);
-        } else {
-            if (put) {
-                return putInvertedMap(k);
-            } else {
-                return Collections.emptyMap();
-            }
-        }
+    private InvertedMap getInvertedMap(DynamicObject k) {
+        return hasInvertedEntries ? (InvertedMap) k.get(INVERTED_WEAK_MAP_KEY) : null;
     }
 
-    private static WeakHashMap<WeakMap, Object> putInvertedMap(DynamicObject k) {
-        WeakHashMap<WeakMap, Object> invertedMap = new WeakHashMap<>();
+    private static InvertedMap putInvertedMap(DynamicObject k) {
+        InvertedMap invertedMap = new InvertedMap();
         boolean wasNotExtensible = !JSShape.isExtensible(k.getShape());
         k.define(INVERTED_WEAK_MAP_KEY, invertedMap);
         if (wasNotExtensible && JSObject.isExtensible(k)) {
@@ -104,28 +129,97 @@ public class WeakMap implements Map<DynamicObject, Object> {
         return invertedMap;
     }
 
+    public boolean hasTableEntries() {
+        return hasTableEntries;
+    }
+
+    @TruffleBoundary
+    public Object tableGet(DynamicObject key) {
+        return table.get(key);
+    }
+
+    @TruffleBoundary
+    public Object tablePut(DynamicObject key, Object value) {
+        assert isTableValue(value);
+        hasTableEntries = true;
+        return table.put(key, value);
+    }
+
+    @TruffleBoundary
+    public Object tableRemove(DynamicObject key) {
+        return table.remove(key);
+    }
+
+    /**
+     * Looks up this WeakMap in the value of the key's inverted map property.
+     */
+    @TruffleBoundary(allowInlining = true)
+    public Object invertedGet(Object invertedMap) {
+        return ((InvertedMap) invertedMap).get(this);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public Object invertedPut(Object invertedMap, Object value) {
+        hasInvertedEntries = true;
+        return ((InvertedMap) invertedMap).put(this, value);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    public Object invertedRemove(Object invertedMap) {
+        return ((InvertedMap) invertedMap).remove(this);
+    }
+
+    @TruffleBoundary
     @Override
     public boolean containsKey(Object key) {
-        DynamicObject k = checkKey(key);
-        return getInvertedMap(k, false).containsKey(this);
+        return get(key) != null;
     }
 
+    @TruffleBoundary
     @Override
     public Object get(Object key) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, false).get(this);
+        InvertedMap invertedMap = getInvertedMap(k);
+        Object value = invertedMap == null ? null : invertedMap.get(this);
+        if (value == null && hasTableEntries) {
+            value = table.get(k);
+        }
+        return value;
     }
 
+    @TruffleBoundary
     @Override
     public Object put(DynamicObject key, Object value) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, true).put(this, value);
+        InvertedMap invertedMap = getInvertedMap(k);
+        if (isTableValue(value)) {
+            Object previous = invertedMap == null ? null : invertedMap.remove(this);
+            Object previousInTable = tablePut(k, value);
+            return previous == null ? previousInTable : previous;
+        } else {
+            Object previous = hasTableEntries ? table.remove(k) : null;
+            if (invertedMap == null) {
+                invertedMap = (InvertedMap) k.get(INVERTED_WEAK_MAP_KEY);
+                if (invertedMap == null) {
+                    invertedMap = putInvertedMap(k);
+                }
+            }
+            hasInvertedEntries = true;
+            Object previousInverted = invertedMap.put(this, value);
+            return previous == null ? previousInverted : previous;
+        }
     }
 
+    @TruffleBoundary
     @Override
     public Object remove(Object key) {
         DynamicObject k = checkKey(key);
-        return getInvertedMap(k, false).remove(this);
+        InvertedMap invertedMap = getInvertedMap(k);
+        Object value = invertedMap == null ? null : invertedMap.remove(this);
+        if (value == null && hasTableEntries) {
+            value = table.remove(k);
+        }
+        return value;
     }
 
     @Override
@@ -171,4 +265,75 @@ public class WeakMap implements Map<DynamicObject, Object> {
     private static UnsupportedOperationException unsupported() {
         return new UnsupportedOperationException("Not supported by WeakMap");
     }
+
+    /**
+     * The object values of one key, for each WeakMap it is a key of. Usually an object is the key
+     * of a single WeakMap, so this is a short list rather than a hash map. The WeakMaps are
+     * referenced weakly; the values of a collected WeakMap are dropped on the next update.
+     */
+    private static final class InvertedMap {
+        private InvertedEntry head;
+
+        Object get(WeakMap map) {
+            for (InvertedEntry e = head; e != null; e = e.next) {
+                if (e.get() == map) {
+                    return e.value;
+                }
+            }
+            return null;
+        }
+
+        Object put(WeakMap map, Object value) {
+            InvertedEntry prev = null;
+            for (InvertedEntry e = head; e != null; e = e.next) {
+                WeakMap m = e.get();
+                if (m == map) {
+                    Object previous = e.value;
+                    e.value = value;
+                    return previous;
+                } else if (m == null) {
+                    unlink(prev, e);
+                } else {
+                    prev = e;
+                }
+            }
+            head = new InvertedEntry(map, value, head);
+            return null;
+        }
+
+        Object remove(WeakMap map) {
+            InvertedEntry prev = null;
+            for (InvertedEntry e = head; e != null; e = e.next) {
+                WeakMap m = e.get();
+                if (m == map) {
+                    unlink(prev, e);
+                    return e.value;
+                } else if (m == null) {
+                    unlink(prev, e);
+                } else {
+                    prev = e;
+                }
+            }
+            return null;
+        }
+
+        private void unlink(InvertedEntry prev, InvertedEntry e) {
+            if (prev == null) {
+                head = e.next;
+            } else {
+                prev.next = e.next;
+            }
+        }
+    }
+
+    private static final class InvertedEntry extends WeakReference<WeakMap> {
+        Object value;
+        InvertedEntry next;
+
+        InvertedEntry(WeakMap map, Object value, InvertedEntry next) {
+            super(map);
+            this.value = value;
+            this.next = next;
+        }
+    }
 }
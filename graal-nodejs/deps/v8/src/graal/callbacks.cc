@@ -107,7 +107,8 @@ static const JNINativeMethod callbacks[] = {
     CALLBACK("throwDataCloneError", "(JLjava/lang/String;)V", &GraalThrowDataCloneError),
     CALLBACK("getSharedArrayBufferId", "(JLjava/lang/Object;)I", &GraalGetSharedArrayBufferId),
     CALLBACK("getSharedArrayBufferFromId", "(JI)Ljava/lang/Object;", &GraalGetSharedArrayBufferFromId),
-    CALLBACK("syntheticModuleEvaluationSteps", "(JLjava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", &GraalSyntheticModuleEvaluationSteps)
+    CALLBACK("syntheticModuleEvaluationSteps", "(JLjava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", &GraalSyntheticModuleEvaluationSteps),
+    CALLBACK("postRunMicrotasks", "(J)V", &GraalPostRunMicrotasks)
  };
 
 static const int CALLBACK_COUNT = sizeof(callbacks) / sizeof(*callbacks);
@@ -810,3 +811,7 @@ jobject GraalSyntheticModuleEvaluationSteps(JNIEnv* env, jclass nativeAccess, jl
         return env->NewLocalRef(graal_value->GetJavaObject());
     }
 }
+
+void GraalPostRunMicrotasks(JNIEnv* env, jclass nativeAccess, jlong isolate) {
+    reinterpret_cast<GraalIsolate*> (isolate)->PostRunMicrotasks();
+}
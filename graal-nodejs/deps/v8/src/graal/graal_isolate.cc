@@ -1393,6 +1393,23 @@ void GraalIsolate::RunMicrotasks() {
     TryCatchExit();
 }
 
+class GraalRunMicrotasksTask : public v8::Task {
+public:
+    GraalRunMicrotasksTask(GraalIsolate* isolate) : isolate_(isolate) {
+    }
+
+    void Run() override {
+        isolate_->RunMicrotasks();
+    }
+private:
+    GraalIsolate* isolate_;
+};
+
+// Can be called from any thread, wakes up the event loop of the isolate.
+void GraalIsolate::PostRunMicrotasks() {
+    task_runner_->PostTask(std::make_unique<GraalRunMicrotasksTask>(this));
+}
+
 void GraalIsolate::Enter() {
     if (jvm_->GetEnv(reinterpret_cast<void**> (&jni_env_), JNI_VERSION_1_8) == JNI_EDETACHED) {
         jvm_->AttachCurrentThread(reinterpret_cast<void**> (&jni_env_), nullptr);
@@ -389,6 +389,7 @@ public:
     v8::MaybeLocal<v8::Value> NotifyPrepareStackTraceCallback(v8::Local<v8::Context> context, v8::Local<v8::Value> error, v8::Local<v8::Array> sites);
     void EnqueueMicrotask(v8::MicrotaskCallback microtask, void* data);
     void RunMicrotasks();
+    void PostRunMicrotasks();
     void Enter();
     void Exit();
     void HandleEmptyCallResult();
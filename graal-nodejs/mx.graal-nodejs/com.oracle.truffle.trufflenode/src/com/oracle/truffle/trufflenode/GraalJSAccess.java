@@ -1290,8 +1290,8 @@ public final class GraalJSAccess {
     }
 
     private Object typedArrayNew(Object arrayBuffer, int offset, int length, TypedArrayFactory factory) {
-        TypedArray arrayType = factory.createArrayType(true, offset != 0);
         DynamicObject dynamicObject = (DynamicObject) arrayBuffer;
+        TypedArray arrayType = factory.createArrayType(true, offset != 0, JSArrayBuffer.isReadOnlyDirectArrayBuffer(dynamicObject));
         JSContext context = JSObject.getJSContext(dynamicObject);
         return JSArrayBufferView.createArrayBufferView(context, dynamicObject, arrayType, offset, length);
     }
@@ -2878,7 +2878,7 @@ public final class GraalJSAccess {
         }
         Object previous = mainJSRealm.getTruffleContext().enter();
         if (list.isEmpty()) {
-            agent.setThread(Thread.currentThread());
+            agent.setThread(Thread.currentThread(), isolate);
         }
         list.push(new Pair<>(isolate, previous));
     }
@@ -2889,7 +2889,7 @@ public final class GraalJSAccess {
         assert pair.getFirst() == isolate;
         mainJSRealm.getTruffleContext().leave(pair.getSecond());
         if (list.isEmpty()) {
-            agent.setThread(null);
+            agent.setThread(null, 0);
             return 0;
         } else {
             return list.peekLast().getFirst();
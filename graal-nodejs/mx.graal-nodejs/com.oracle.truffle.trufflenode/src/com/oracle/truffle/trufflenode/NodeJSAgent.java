@@ -40,28 +40,20 @@
  */
 package com.oracle.truffle.trufflenode;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-
 import com.oracle.truffle.js.runtime.JSAgent;
 
 public class NodeJSAgent extends JSAgent {
-    // The set of active agents, i.e., agents that entered an isolate
-    private static final Set<NodeJSAgent> agents = Collections.synchronizedSet(new HashSet<>());
     private Thread thread;
+    /** The isolate this agent has entered, 0 if none. */
+    private long isolate;
 
     NodeJSAgent() {
         super(true);
     }
 
-    void setThread(Thread thread) {
+    synchronized void setThread(Thread thread, long isolate) {
         this.thread = thread;
-        if (thread == null) {
-            agents.remove(this);
-        } else {
-            agents.add(this);
-        }
+        this.isolate = isolate;
     }
 
     Thread getThread() {
@@ -69,14 +61,10 @@ public class NodeJSAgent extends JSAgent {
     }
 
     @Override
-    public void wakeAgent(int w) {
-        synchronized (agents) {
-            for (NodeJSAgent agent : agents) {
-                if (agent.getSignifier() == w) {
-                    agent.thread.interrupt();
-                    break;
-                }
-            }
+    protected synchronized void asyncWaiterReady() {
+        if (isolate != 0) {
+            // wakes up the event loop, which runs the microtasks (and resolves the waiter)
+            NativeAccess.postRunMicrotasks(isolate);
         }
     }
 
@@ -443,7 +443,7 @@ public class Deserializer {
             view = JSDataView.createDataView(context, arrayBuffer, offset, byteLength);
         } else {
             TypedArrayFactory factory = tag.getFactory();
-            TypedArray array = factory.createArrayType(true, offset != 0);
+            TypedArray array = factory.createArrayType(true, offset != 0, JSArrayBuffer.isReadOnlyDirectArrayBuffer(arrayBuffer));
             int length = byteLength / factory.getBytesPerElement();
             view = JSArrayBufferView.createArrayBufferView(context, arrayBuffer, array, offset, length);
         }